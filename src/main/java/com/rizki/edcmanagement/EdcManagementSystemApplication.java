@@ -3,9 +3,11 @@ package com.rizki.edcmanagement;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class EdcManagementSystemApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(EdcManagementSystemApplication.class, args);
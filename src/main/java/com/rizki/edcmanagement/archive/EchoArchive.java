@@ -0,0 +1,417 @@
+package com.rizki.edcmanagement.archive;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+
+/**
+ * Immutable snapshot of the published archive segments, one per UTC day.
+ *
+ * Every archived row is older than {@link #getArchivedUntil()} and every live echo_log row
+ * that is still visible is at or after it, so callers can place archived rows before (or after,
+ * for descending order) live rows without merging them row by row.
+ *
+ * The archived rows of purged terminals are skipped by every read (see {@link EchoArchivePurges}).
+ */
+public class EchoArchive {
+    private static final EchoArchive EMPTY = new EchoArchive(new TreeMap<LocalDate, EchoArchiveSegment>(),
+            EchoArchivePurges.none());
+
+    private final NavigableMap<LocalDate, EchoArchiveSegment> segments;
+    private final EchoArchivePurges purges;
+
+    private EchoArchive(NavigableMap<LocalDate, EchoArchiveSegment> segments, EchoArchivePurges purges) {
+        this.segments = Collections.unmodifiableNavigableMap(segments);
+        this.purges = purges;
+    }
+
+    public static EchoArchive empty() {
+        return EMPTY;
+    }
+
+    public EchoArchive withSegment(LocalDate day, EchoArchiveSegment segment) {
+        NavigableMap<LocalDate, EchoArchiveSegment> copy = new TreeMap<>(segments);
+        copy.put(day, segment);
+        return new EchoArchive(copy, purges);
+    }
+
+    public EchoArchive withPurges(EchoArchivePurges purges) {
+        return new EchoArchive(new TreeMap<>(segments), purges);
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public boolean contains(LocalDate day) {
+        return segments.containsKey(day);
+    }
+
+    public NavigableMap<LocalDate, EchoArchiveSegment> getSegments() {
+        return segments;
+    }
+
+    public EchoArchivePurges getPurges() {
+        return purges;
+    }
+
+    /**
+     * Exclusive upper bound of the archived range, or null when nothing is archived.
+     */
+    public Instant getArchivedUntil() {
+        if (segments.isEmpty()) {
+            return null;
+        }
+        return segments.lastKey().plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    /**
+     * Rows stored in the segments, including those of purged terminals.
+     */
+    public long getRowCount() {
+        long rowCount = 0;
+        for (EchoArchiveSegment segment : segments.values()) {
+            rowCount += segment.getRowCount();
+        }
+        return rowCount;
+    }
+
+    public long count(EchoArchiveFilter filter) {
+        long count = 0;
+        for (EchoArchiveSegment segment : segments.values()) {
+            count += count(segment, filter);
+        }
+        return count;
+    }
+
+    /**
+     * Archived rows matching the filter ordered by (timestamp, id), skipping {@code offset} rows.
+     * Whole segments before the offset are skipped using the block index alone.
+     */
+    public List<EchoResponseDTO> findPage(EchoArchiveFilter filter, boolean ascending, long offset, int limit) {
+        List<EchoResponseDTO> page = new ArrayList<>(limit);
+        long remainingOffset = offset;
+
+        for (EchoArchiveSegment segment : orderedSegments(ascending)) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (!filter.overlaps(segment.getStartMicros(), segment.getEndMicros() - 1)) {
+                continue;
+            }
+
+            if (remainingOffset > 0) {
+                long segmentCount = count(segment, filter);
+                if (remainingOffset >= segmentCount) {
+                    remainingOffset -= segmentCount;
+                    continue;
+                }
+            }
+
+            SegmentCursor cursor = new SegmentCursor(segment, filter, purges, ascending);
+            remainingOffset -= cursor.skip(remainingOffset);
+            while (cursor.hasNext() && page.size() < limit) {
+                page.add(cursor.next());
+            }
+        }
+
+        return page;
+    }
+
+    /**
+     * Lazily iterate archived rows matching the filter ordered by (timestamp, id), decoding one
+     * segment at a time.
+     */
+    public Iterator<EchoResponseDTO> iterator(EchoArchiveFilter filter, boolean ascending) {
+        final Iterator<EchoArchiveSegment> segmentIterator = orderedSegments(ascending).iterator();
+
+        return new Iterator<EchoResponseDTO>() {
+            private SegmentCursor cursor;
+
+            @Override
+            public boolean hasNext() {
+                while (cursor == null || !cursor.hasNext()) {
+                    if (!segmentIterator.hasNext()) {
+                        return false;
+                    }
+                    EchoArchiveSegment segment = segmentIterator.next();
+                    cursor = filter.overlaps(segment.getStartMicros(), segment.getEndMicros() - 1)
+                            ? new SegmentCursor(segment, filter, purges, ascending)
+                            : null;
+                }
+                return true;
+            }
+
+            @Override
+            public EchoResponseDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return cursor.next();
+            }
+        };
+    }
+
+    /**
+     * The first {@code limit} archived rows matching the filter in comparator order. Used for
+     * sort orders other than timestamp, where every matching row has to be visited.
+     */
+    public List<EchoResponseDTO> findTop(EchoArchiveFilter filter, Comparator<EchoResponseDTO> comparator,
+            int limit) {
+        PriorityQueue<EchoResponseDTO> top = new PriorityQueue<>(Math.max(1, limit), comparator.reversed());
+
+        Iterator<EchoResponseDTO> rows = iterator(filter, true);
+        while (rows.hasNext()) {
+            top.offer(rows.next());
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<EchoResponseDTO> result = new ArrayList<>(top);
+        result.sort(comparator);
+        return result;
+    }
+
+    /**
+     * Visit the archived rows of every terminal accepted by {@code terminalFilter}. Each
+     * terminal's rows are visited in (timestamp, id) order; rows of different terminals are
+     * interleaved by day. Only the blocks of accepted terminals are decoded.
+     */
+    public void forEachRow(Predicate<String> terminalFilter, RowVisitor visitor) {
+        forEachBlock(segments.values(), terminalFilter, (terminalId, timestamps, ids, rowCount) -> {
+            for (int i = 0; i < rowCount; i++) {
+                visitor.visit(terminalId, ids[i], timestamps[i]);
+            }
+        });
+    }
+
+    /**
+     * Decode the blocks of every terminal accepted by {@code terminalFilter} in the segments of
+     * [fromDay, toDay], one block at a time in day order.
+     */
+    public void forEachBlock(LocalDate fromDay, LocalDate toDay, Predicate<String> terminalFilter,
+            BlockVisitor visitor) {
+        if (!fromDay.isAfter(toDay)) {
+            forEachBlock(segments.subMap(fromDay, true, toDay, true).values(), terminalFilter, visitor);
+        }
+    }
+
+    private void forEachBlock(Iterable<EchoArchiveSegment> daySegments, Predicate<String> terminalFilter,
+            BlockVisitor visitor) {
+        for (EchoArchiveSegment segment : daySegments) {
+            for (EchoArchiveSegment.Block block : segment.getBlocks()) {
+                if (!terminalFilter.test(block.getTerminalId())) {
+                    continue;
+                }
+
+                long[] timestamps = new long[block.getRowCount()];
+                long[] ids = new long[block.getRowCount()];
+                int rowCount = decode(segment, block, purges, timestamps, ids);
+                if (rowCount > 0) {
+                    visitor.visit(block.getTerminalId(), timestamps, ids, rowCount);
+                }
+            }
+        }
+    }
+
+    private Iterable<EchoArchiveSegment> orderedSegments(boolean ascending) {
+        return ascending ? segments.values() : segments.descendingMap().values();
+    }
+
+    private long count(EchoArchiveSegment segment, EchoArchiveFilter filter) {
+        if (!filter.overlaps(segment.getStartMicros(), segment.getEndMicros() - 1)) {
+            return 0;
+        }
+
+        long count = 0;
+        for (EchoArchiveSegment.Block block : segment.getBlocks()) {
+            if (!filter.matchesTerminal(block.getTerminalId())
+                    || !filter.overlaps(block.getMinMicros(), block.getMaxMicros())) {
+                continue;
+            }
+
+            if (filter.covers(block.getMinMicros(), block.getMaxMicros())
+                    && purges.purgedThroughId(block.getTerminalId()) < 0) {
+                count += block.getRowCount();
+            } else {
+                BlockCursor cursor = BlockCursor.decode(segment, block, filter, purges, true);
+                if (cursor != null) {
+                    count += cursor.remaining();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * k-way merge over the matching blocks of one segment. Blocks are decoded when the cursor
+     * is created; response objects are only built for rows that are returned.
+     */
+    private static class SegmentCursor implements Iterator<EchoResponseDTO> {
+        private final PriorityQueue<BlockCursor> queue;
+
+        SegmentCursor(EchoArchiveSegment segment, EchoArchiveFilter filter, EchoArchivePurges purges,
+                boolean ascending) {
+            Comparator<BlockCursor> order = Comparator.<BlockCursor>comparingLong(BlockCursor::currentMicros)
+                    .thenComparingLong(BlockCursor::currentId);
+            queue = new PriorityQueue<>(Math.max(1, segment.getBlocks().size()),
+                    ascending ? order : order.reversed());
+
+            for (EchoArchiveSegment.Block block : segment.getBlocks()) {
+                if (filter.matchesTerminal(block.getTerminalId())
+                        && filter.overlaps(block.getMinMicros(), block.getMaxMicros())) {
+                    BlockCursor cursor = BlockCursor.decode(segment, block, filter, purges, ascending);
+                    if (cursor != null) {
+                        queue.add(cursor);
+                    }
+                }
+            }
+        }
+
+        long skip(long count) {
+            long skipped = 0;
+            while (skipped < count && !queue.isEmpty()) {
+                advance(queue.poll());
+                skipped++;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public EchoResponseDTO next() {
+            BlockCursor cursor = queue.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+
+            long micros = cursor.currentMicros();
+            EchoResponseDTO row = EchoResponseDTO.builder()
+                    .id(cursor.currentId())
+                    .terminalId(cursor.terminalId)
+                    .timestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                            (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC))
+                    .build();
+            advance(cursor);
+            return row;
+        }
+
+        private void advance(BlockCursor cursor) {
+            cursor.position += cursor.step;
+            if (cursor.position != cursor.end) {
+                queue.add(cursor);
+            }
+        }
+    }
+
+    private static class BlockCursor {
+        private final String terminalId;
+        private final long[] timestamps;
+        private final long[] ids;
+        private final int step;
+        private final int end;
+        private int position;
+
+        private BlockCursor(String terminalId, long[] timestamps, long[] ids, int from, int to, boolean ascending) {
+            this.terminalId = terminalId;
+            this.timestamps = timestamps;
+            this.ids = ids;
+            this.step = ascending ? 1 : -1;
+            this.position = ascending ? from : to - 1;
+            this.end = ascending ? to : from - 1;
+        }
+
+        /**
+         * Decode a block and restrict it to the filter's time range, or return null if no row is in range.
+         */
+        static BlockCursor decode(EchoArchiveSegment segment, EchoArchiveSegment.Block block,
+                EchoArchiveFilter filter, EchoArchivePurges purges, boolean ascending) {
+            long[] timestamps = new long[block.getRowCount()];
+            long[] ids = new long[block.getRowCount()];
+            int rowCount = EchoArchive.decode(segment, block, purges, timestamps, ids);
+
+            int from = lowerBound(timestamps, rowCount, filter.getFromMicros());
+            int to = lowerBound(timestamps, rowCount, filter.getToMicros());
+            return from < to ? new BlockCursor(block.getTerminalId(), timestamps, ids, from, to, ascending) : null;
+        }
+
+        long currentMicros() {
+            return timestamps[position];
+        }
+
+        long currentId() {
+            return ids[position];
+        }
+
+        int remaining() {
+            return Math.abs(end - position);
+        }
+
+        private static int lowerBound(long[] values, int length, long key) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Decode a block and drop the rows hidden by a purge of its terminal, keeping the (timestamp,
+     * id) order. Returns the number of rows left at the start of the arrays.
+     */
+    private static int decode(EchoArchiveSegment segment, EchoArchiveSegment.Block block, EchoArchivePurges purges,
+            long[] timestamps, long[] ids) {
+        segment.decodeBlock(block, timestamps, ids);
+
+        long purgedThroughId = purges.purgedThroughId(block.getTerminalId());
+        if (purgedThroughId < 0) {
+            return timestamps.length;
+        }
+        int rowCount = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            if (ids[i] > purgedThroughId) {
+                timestamps[rowCount] = timestamps[i];
+                ids[rowCount] = ids[i];
+                rowCount++;
+            }
+        }
+        return rowCount;
+    }
+
+    public interface RowVisitor {
+        void visit(String terminalId, long id, long timestampMicros);
+    }
+
+    /**
+     * Receives the decoded rows of one block in (timestamp, id) order; only the first
+     * {@code rowCount} entries of the arrays are rows.
+     */
+    public interface BlockVisitor {
+        void visit(String terminalId, long[] timestamps, long[] ids, int rowCount);
+    }
+}
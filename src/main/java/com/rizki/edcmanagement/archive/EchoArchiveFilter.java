@@ -0,0 +1,127 @@
+package com.rizki.edcmanagement.archive;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+
+/**
+ * The echo log filters of {@link GetEchoLogRequestDTO} applied to archived rows, with the same
+ * semantics as EchoLogSpecification: the terminal ID value is upper cased, the date range is
+ * [timestampFrom, timestampTo + 1 day) in UTC, and unparseable dates are ignored. Segments
+ * hold no terminal attributes, so location and status filters are applied by
+ * {@link #restrictToTerminals(Set)} with the terminals that currently match them.
+ */
+public class EchoArchiveFilter {
+    private final TerminalIdMatchMode terminalIdMatchMode;
+    private final String terminalId;
+    private final String terminalTypePrefix;
+    private final Set<String> allowedTerminalIds;
+    private final long fromMicros;
+    private final long toMicros;
+
+    private EchoArchiveFilter(TerminalIdMatchMode terminalIdMatchMode, String terminalId, String terminalTypePrefix,
+            Set<String> allowedTerminalIds, long fromMicros, long toMicros) {
+        this.terminalIdMatchMode = terminalIdMatchMode;
+        this.terminalId = terminalId;
+        this.terminalTypePrefix = terminalTypePrefix;
+        this.allowedTerminalIds = allowedTerminalIds;
+        this.fromMicros = fromMicros;
+        this.toMicros = toMicros;
+    }
+
+    public static EchoArchiveFilter from(GetEchoLogRequestDTO filters) {
+        String terminalId = null;
+        TerminalIdMatchMode matchMode = null;
+        if (filters.getTerminalId() != null && !filters.getTerminalId().trim().isEmpty()) {
+            terminalId = filters.getTerminalId().toUpperCase().trim();
+            matchMode = TerminalIdMatchMode.fromString(filters.getTerminalIdMatch());
+        }
+
+        long fromMicros = Long.MIN_VALUE;
+        LocalDate fromDate = parseDate(filters.getTimestampFrom());
+        if (fromDate != null) {
+            fromMicros = EchoArchiveSegment.toMicros(fromDate.atStartOfDay().toInstant(ZoneOffset.UTC));
+        }
+
+        long toMicros = Long.MAX_VALUE;
+        LocalDate toDate = parseDate(filters.getTimestampTo());
+        if (toDate != null) {
+            toMicros = EchoArchiveSegment.toMicros(toDate.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        }
+
+        String terminalTypePrefix = null;
+        if (filters.getTerminalType() != null && !filters.getTerminalType().trim().isEmpty()) {
+            terminalTypePrefix = filters.getTerminalType().toUpperCase().trim() + "-";
+        }
+
+        return new EchoArchiveFilter(matchMode, terminalId, terminalTypePrefix, null, fromMicros, toMicros);
+    }
+
+    /**
+     * A copy that additionally only matches the given terminals.
+     */
+    public EchoArchiveFilter restrictToTerminals(Set<String> terminalIds) {
+        return new EchoArchiveFilter(terminalIdMatchMode, terminalId, terminalTypePrefix, terminalIds, fromMicros,
+                toMicros);
+    }
+
+    public boolean matchesTerminal(String candidate) {
+        if (terminalTypePrefix != null && !candidate.startsWith(terminalTypePrefix)) {
+            return false;
+        }
+        if (allowedTerminalIds != null && !allowedTerminalIds.contains(candidate)) {
+            return false;
+        }
+        if (terminalId == null) {
+            return true;
+        }
+
+        switch (terminalIdMatchMode) {
+            case EXACT:
+                return candidate.equals(terminalId);
+            case PREFIX:
+                return candidate.startsWith(terminalId);
+            case CONTAINS:
+            default:
+                return candidate.contains(terminalId);
+        }
+    }
+
+    /**
+     * Whether any part of [minMicros, maxMicros] falls inside the filter's time range.
+     */
+    public boolean overlaps(long minMicros, long maxMicros) {
+        return maxMicros >= fromMicros && minMicros < toMicros;
+    }
+
+    /**
+     * Whether all of [minMicros, maxMicros] falls inside the filter's time range.
+     */
+    public boolean covers(long minMicros, long maxMicros) {
+        return minMicros >= fromMicros && maxMicros < toMicros;
+    }
+
+    public long getFromMicros() {
+        return fromMicros;
+    }
+
+    public long getToMicros() {
+        return toMicros;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.rizki.edcmanagement.archive;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Terminals purged after some of their echoes were archived. Segments are never rewritten, so
+ * a purged terminal's archived rows with an ID up to its purged-through ID are skipped instead.
+ * A terminal created again under the same ID only records echoes with higher IDs.
+ *
+ * The generation grows with every purge, so results computed from archive reads can tell
+ * that they are out of date.
+ */
+public final class EchoArchivePurges {
+    private static final EchoArchivePurges NONE = new EchoArchivePurges(Collections.<String, Long>emptyMap(), 0);
+
+    private final Map<String, Long> purgedThroughIds;
+    private final long generation;
+
+    public EchoArchivePurges(Map<String, Long> purgedThroughIds, long generation) {
+        this.purgedThroughIds = Collections.unmodifiableMap(new HashMap<>(purgedThroughIds));
+        this.generation = generation;
+    }
+
+    public static EchoArchivePurges none() {
+        return NONE;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public boolean isEmpty() {
+        return purgedThroughIds.isEmpty();
+    }
+
+    /**
+     * Highest echo ID of the terminal that was purged, or -1 when none was.
+     */
+    public long purgedThroughId(String terminalId) {
+        Long purgedThroughId = purgedThroughIds.get(terminalId);
+        return purgedThroughId != null ? purgedThroughId : -1;
+    }
+
+    /**
+     * Terminals purged, or purged again, since {@code previous}.
+     */
+    public Set<String> purgedSince(EchoArchivePurges previous) {
+        Set<String> terminalIds = new LinkedHashSet<>();
+        for (Map.Entry<String, Long> entry : purgedThroughIds.entrySet()) {
+            if (entry.getValue() > previous.purgedThroughId(entry.getKey())) {
+                terminalIds.add(entry.getKey());
+            }
+        }
+        return terminalIds;
+    }
+}
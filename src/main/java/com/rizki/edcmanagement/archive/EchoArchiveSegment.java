@@ -0,0 +1,255 @@
+package com.rizki.edcmanagement.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only view of one archive segment file, memory mapped.
+ *
+ * Layout (all integers big endian):
+ * <pre>
+ * header  : magic "EDCA" (int), version (int)
+ * blocks  : one block per terminal, rows sorted by (timestamp, id)
+ *           timestamp column - unsigned varint deltas in microseconds, the first relative to the segment start
+ *           id column        - zigzag varint deltas, the first relative to 0
+ * footer  : segment start and end (exclusive) in epoch microseconds (long), row count (long),
+ *           block count (int), then per block: terminal ID (short length + UTF-8), row count (int),
+ *           offset (long), length (int), min and max timestamp in epoch microseconds (long)
+ * trailer : footer offset (long), magic (int)
+ * </pre>
+ * The footer is the terminal dictionary and block index at once: each terminal ID is stored
+ * once per segment, and a query skips the blocks of non-matching terminals without decoding them.
+ * {@link #open} checks that the footer and block index are consistent with the file, so a
+ * truncated or partly overwritten segment is rejected rather than served.
+ */
+public class EchoArchiveSegment {
+    static final int MAGIC = 0x45444341; // "EDCA"
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+    static final int TRAILER_LENGTH = 12;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long startMicros;
+    private final long endMicros;
+    private final long rowCount;
+    private final List<Block> blocks;
+
+    private EchoArchiveSegment(Path file, MappedByteBuffer buffer, long startMicros, long endMicros, long rowCount,
+            List<Block> blocks) {
+        this.file = file;
+        this.buffer = buffer;
+        this.startMicros = startMicros;
+        this.endMicros = endMicros;
+        this.rowCount = rowCount;
+        this.blocks = blocks;
+    }
+
+    public static EchoArchiveSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH + TRAILER_LENGTH || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid archive segment size " + size + ": " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(buffer.limit() - 4) != MAGIC) {
+            throw new IOException("Not an echo archive segment: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported archive segment version " + buffer.getInt(4) + ": " + file);
+        }
+
+        long footerOffset = buffer.getLong(buffer.limit() - TRAILER_LENGTH);
+        int footerEnd = buffer.limit() - TRAILER_LENGTH;
+        if (footerOffset < HEADER_LENGTH || footerOffset > footerEnd) {
+            throw new IOException("Invalid archive segment footer offset " + footerOffset + ": " + file);
+        }
+
+        ByteBuffer footer = buffer.duplicate();
+        footer.position((int) footerOffset).limit(footerEnd);
+
+        long startMicros;
+        long endMicros;
+        long rowCount;
+        List<Block> blocks;
+        try {
+            startMicros = footer.getLong();
+            endMicros = footer.getLong();
+            rowCount = footer.getLong();
+            int blockCount = footer.getInt();
+            if (blockCount < 0) {
+                throw new IOException("Invalid archive segment block count " + blockCount + ": " + file);
+            }
+
+            blocks = new ArrayList<>(Math.min(blockCount, footer.remaining()));
+            for (int i = 0; i < blockCount; i++) {
+                byte[] terminalId = new byte[footer.getShort() & 0xFFFF];
+                footer.get(terminalId);
+                blocks.add(new Block(new String(terminalId, StandardCharsets.UTF_8),
+                        footer.getInt(), footer.getLong(), footer.getInt(), footer.getLong(), footer.getLong()));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated archive segment footer: " + file, e);
+        }
+        if (footer.hasRemaining()) {
+            throw new IOException("Invalid archive segment footer length: " + file);
+        }
+
+        // Blocks are written back to back between the header and the footer
+        long expectedOffset = HEADER_LENGTH;
+        long blockRows = 0;
+        for (Block block : blocks) {
+            if (block.getOffset() != expectedOffset || block.getLength() < 0 || block.getRowCount() <= 0
+                    || block.getMinMicros() < startMicros || block.getMinMicros() > block.getMaxMicros()
+                    || block.getMaxMicros() >= endMicros) {
+                throw new IOException("Invalid archive segment block of " + block.getTerminalId() + ": " + file);
+            }
+            expectedOffset += block.getLength();
+            blockRows += block.getRowCount();
+        }
+        if (expectedOffset != footerOffset || blockRows != rowCount) {
+            throw new IOException("Archive segment blocks do not match its footer: " + file);
+        }
+
+        return new EchoArchiveSegment(file, buffer, startMicros, endMicros, rowCount,
+                Collections.unmodifiableList(blocks));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getStartMicros() {
+        return startMicros;
+    }
+
+    public long getEndMicros() {
+        return endMicros;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Decode a block into the given arrays, which must hold at least {@link Block#getRowCount()} entries.
+     */
+    public void decodeBlock(Block block, long[] timestamps, long[] ids) {
+        // Bounded to the block, so corrupt data cannot be decoded from a neighbouring block
+        ByteBuffer data = buffer.duplicate();
+        data.position((int) block.getOffset()).limit((int) block.getOffset() + block.getLength());
+
+        long timestamp = startMicros;
+        for (int i = 0; i < block.getRowCount(); i++) {
+            timestamp += readVarint(data);
+            timestamps[i] = timestamp;
+        }
+
+        long id = 0;
+        for (int i = 0; i < block.getRowCount(); i++) {
+            long zigzag = readVarint(data);
+            id += (zigzag >>> 1) ^ -(zigzag & 1);
+            ids[i] = id;
+        }
+
+        if (data.hasRemaining()) {
+            throw new IllegalStateException("Archive segment block of " + block.getTerminalId()
+                    + " is longer than its rows: " + file);
+        }
+    }
+
+    public static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    public static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    static int writeVarint(OutputStream out, long value) throws IOException {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            length++;
+        }
+        out.write((int) value);
+        return length;
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Block index entry: the rows of one terminal within the segment.
+     */
+    public static class Block {
+        private final String terminalId;
+        private final int rowCount;
+        private final long offset;
+        private final int length;
+        private final long minMicros;
+        private final long maxMicros;
+
+        Block(String terminalId, int rowCount, long offset, int length, long minMicros, long maxMicros) {
+            this.terminalId = terminalId;
+            this.rowCount = rowCount;
+            this.offset = offset;
+            this.length = length;
+            this.minMicros = minMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public String getTerminalId() {
+            return terminalId;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public long getMinMicros() {
+            return minMicros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.rizki.edcmanagement.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes one archive segment in a single pass (see {@link EchoArchiveSegment} for the layout).
+ * Rows must be appended grouped by terminal and, within a terminal, ordered by (timestamp, id).
+ * Only the current terminal's block is held in memory.
+ */
+public class EchoArchiveSegmentWriter implements Closeable {
+    private final Path file;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final long startMicros;
+    private final long endMicros;
+
+    private final List<EchoArchiveSegment.Block> blocks = new ArrayList<>();
+    private final Set<String> writtenTerminals = new HashSet<>();
+    private final ByteArrayOutputStream timestampColumn = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream idColumn = new ByteArrayOutputStream();
+
+    private long position;
+    private long rowCount;
+    private boolean finished;
+
+    private String blockTerminalId;
+    private int blockRowCount;
+    private long blockMinMicros;
+    private long previousMicros;
+    private long previousId;
+
+    public EchoArchiveSegmentWriter(Path file, Instant start, Instant end) throws IOException {
+        this.file = file;
+        this.startMicros = EchoArchiveSegment.toMicros(start);
+        this.endMicros = EchoArchiveSegment.toMicros(end);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+
+        out.writeInt(EchoArchiveSegment.MAGIC);
+        out.writeInt(EchoArchiveSegment.VERSION);
+        position = EchoArchiveSegment.HEADER_LENGTH;
+    }
+
+    public void append(long id, String terminalId, Instant timestamp) throws IOException {
+        long micros = EchoArchiveSegment.toMicros(timestamp);
+        if (micros < startMicros || micros >= endMicros) {
+            throw new IllegalArgumentException("Echo log " + id + " at " + timestamp + " is outside the segment range");
+        }
+
+        if (!terminalId.equals(blockTerminalId)) {
+            flushBlock();
+            if (!writtenTerminals.add(terminalId)) {
+                throw new IllegalStateException("Rows for terminal " + terminalId + " are not contiguous");
+            }
+            blockTerminalId = terminalId;
+            blockMinMicros = micros;
+            previousMicros = startMicros;
+            previousId = 0;
+        } else if (micros < previousMicros) {
+            throw new IllegalStateException("Rows for terminal " + terminalId + " are not ordered by timestamp");
+        }
+
+        EchoArchiveSegment.writeVarint(timestampColumn, micros - previousMicros);
+        long idDelta = id - previousId;
+        EchoArchiveSegment.writeVarint(idColumn, (idDelta << 1) ^ (idDelta >> 63));
+
+        previousMicros = micros;
+        previousId = id;
+        blockRowCount++;
+        rowCount++;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Write the footer and trailer and force the file to disk.
+     */
+    public void finish() throws IOException {
+        flushBlock();
+
+        long footerOffset = position;
+        out.writeLong(startMicros);
+        out.writeLong(endMicros);
+        out.writeLong(rowCount);
+        out.writeInt(blocks.size());
+        for (EchoArchiveSegment.Block block : blocks) {
+            byte[] terminalId = block.getTerminalId().getBytes(StandardCharsets.UTF_8);
+            out.writeShort(terminalId.length);
+            out.write(terminalId);
+            out.writeInt(block.getRowCount());
+            out.writeLong(block.getOffset());
+            out.writeInt(block.getLength());
+            out.writeLong(block.getMinMicros());
+            out.writeLong(block.getMaxMicros());
+        }
+
+        out.writeLong(footerOffset);
+        out.writeInt(EchoArchiveSegment.MAGIC);
+        out.flush();
+        channel.force(true);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        if (!finished) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRowCount == 0) {
+            return;
+        }
+
+        int length = timestampColumn.size() + idColumn.size();
+        blocks.add(new EchoArchiveSegment.Block(blockTerminalId, blockRowCount, position, length, blockMinMicros,
+                previousMicros));
+
+        timestampColumn.writeTo(out);
+        idColumn.writeTo(out);
+        position += length;
+
+        timestampColumn.reset();
+        idColumn.reset();
+        blockRowCount = 0;
+    }
+}
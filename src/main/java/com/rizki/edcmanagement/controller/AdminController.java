@@ -0,0 +1,105 @@
+package com.rizki.edcmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rizki.edcmanagement.dto.common.SuccessResponse;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalCacheStatsResponseDTO;
+import com.rizki.edcmanagement.dto.traffic.response.EchoTrafficResponseDTO;
+import com.rizki.edcmanagement.service.EchoTrafficService;
+import com.rizki.edcmanagement.service.TerminalEDCService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    @Autowired
+    private EchoTrafficService echoTrafficService;
+
+    @Autowired
+    private TerminalEDCService terminalEDCService;
+
+    @GetMapping("/echo-traffic")
+    public ResponseEntity<SuccessResponse<EchoTrafficResponseDTO>> getEchoTraffic(
+            @RequestParam(value = "windowMinutes", required = false) Integer windowMinutes,
+            @RequestParam(value = "top", required = false) Integer top,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("ECHO_TRAFFIC_GET_START",
+                "windowMinutes", windowMinutes,
+                "top", top,
+                "clientIp", clientIp);
+
+        try {
+            EchoTrafficResponseDTO responseDTO = echoTrafficService.getTraffic(windowMinutes, top);
+            SuccessResponse<EchoTrafficResponseDTO> response = SuccessResponse.<EchoTrafficResponseDTO>builder()
+                    .message("Echo traffic retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("ECHO_TRAFFIC_GET", duration);
+            LoggingUtil.logBusinessEvent("ECHO_TRAFFIC_GET_SUCCESS",
+                    "windowMinutes", responseDTO.getWindowMinutes(),
+                    "totalEchoes", responseDTO.getTotalEchoes(),
+                    "distinctTerminals", responseDTO.getDistinctTerminals(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("ECHO_TRAFFIC_GET_ERROR", e,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/terminal-cache")
+    public ResponseEntity<SuccessResponse<TerminalCacheStatsResponseDTO>> getTerminalCacheStats(
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_CACHE_STATS_GET_START",
+                "clientIp", clientIp);
+
+        try {
+            TerminalCacheStatsResponseDTO responseDTO = terminalEDCService.getCacheStats();
+            SuccessResponse<TerminalCacheStatsResponseDTO> response = SuccessResponse
+                    .<TerminalCacheStatsResponseDTO>builder()
+                    .message("Terminal cache statistics retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_CACHE_STATS_GET", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_CACHE_STATS_GET_SUCCESS",
+                    "size", responseDTO.getSize(),
+                    "hitRate", responseDTO.getHitRate(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_CACHE_STATS_GET_ERROR", e,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+}
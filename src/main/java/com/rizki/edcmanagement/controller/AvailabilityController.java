@@ -0,0 +1,107 @@
+package com.rizki.edcmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rizki.edcmanagement.dto.availability.response.AvailabilityReportResponseDTO;
+import com.rizki.edcmanagement.dto.availability.response.AvailabilityResponseDTO;
+import com.rizki.edcmanagement.dto.common.SuccessResponse;
+import com.rizki.edcmanagement.service.AvailabilityService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/edc")
+public class AvailabilityController {
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @GetMapping("/{terminalId}/availability")
+    public ResponseEntity<SuccessResponse<AvailabilityResponseDTO>> getAvailability(
+            @PathVariable String terminalId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, terminalId, clientIp);
+        LoggingUtil.logBusinessEvent("AVAILABILITY_GET_START",
+                "terminalId", terminalId,
+                "from", from,
+                "to", to,
+                "clientIp", clientIp);
+
+        try {
+            AvailabilityResponseDTO responseDTO = availabilityService.getAvailability(terminalId, from, to);
+            SuccessResponse<AvailabilityResponseDTO> response = SuccessResponse.<AvailabilityResponseDTO>builder()
+                    .message("Terminal availability retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("AVAILABILITY_GET", duration);
+            LoggingUtil.logBusinessEvent("AVAILABILITY_GET_SUCCESS",
+                    "terminalId", terminalId,
+                    "availabilityPercentage", responseDTO.getAvailabilityPercentage(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("AVAILABILITY_GET_ERROR", e,
+                    "terminalId", terminalId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/availability/monthly")
+    public ResponseEntity<SuccessResponse<AvailabilityReportResponseDTO>> getMonthlyReport(
+            @RequestParam(value = "month", required = false) String month,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("AVAILABILITY_REPORT_START",
+                "month", month,
+                "clientIp", clientIp);
+
+        try {
+            AvailabilityReportResponseDTO responseDTO = availabilityService.getMonthlyReport(month);
+            SuccessResponse<AvailabilityReportResponseDTO> response = SuccessResponse
+                    .<AvailabilityReportResponseDTO>builder()
+                    .message("Monthly availability report generated successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("AVAILABILITY_REPORT", duration);
+            LoggingUtil.logBusinessEvent("AVAILABILITY_REPORT_SUCCESS",
+                    "month", month,
+                    "terminalCount", responseDTO.getTerminalCount(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("AVAILABILITY_REPORT_ERROR", e,
+                    "month", month,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+}
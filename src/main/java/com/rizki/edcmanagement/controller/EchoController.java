@@ -1,25 +1,46 @@
 package com.rizki.edcmanagement.controller;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.rizki.edcmanagement.dto.common.SuccessResponse;
 import com.rizki.edcmanagement.dto.echo.request.EchoRequestDTO;
+import com.rizki.edcmanagement.dto.echo.request.EchoStreamRequestDTO;
 import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
 import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoStatsResponseDTO;
 import com.rizki.edcmanagement.dto.echo.response.PagedEchoLogResponseDTO;
+import com.rizki.edcmanagement.dto.echo.response.TerminalLatestEchoesDTO;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.model.enums.EchoLogExportFormat;
+import com.rizki.edcmanagement.service.EchoLogCacheService;
 import com.rizki.edcmanagement.service.EchoLogService;
+import com.rizki.edcmanagement.service.EchoStreamService;
+import com.rizki.edcmanagement.service.RecentEchoService;
 import com.rizki.edcmanagement.util.LoggingUtil;
 
 @RestController
@@ -28,6 +49,15 @@ public class EchoController {
     @Autowired
     private EchoLogService echoLogService;
 
+    @Autowired
+    private EchoLogCacheService echoLogCacheService;
+
+    @Autowired
+    private RecentEchoService recentEchoService;
+
+    @Autowired
+    private EchoStreamService echoStreamService;
+
     @PostMapping("/echo")
     public ResponseEntity<SuccessResponse<EchoResponseDTO>> echo(@RequestHeader("Signature") String signature,
             @Valid @RequestBody EchoRequestDTO requestDTO, HttpServletRequest request) {
@@ -64,7 +94,8 @@ public class EchoController {
 
     @GetMapping("/echo-logs")
     public ResponseEntity<SuccessResponse<PagedEchoLogResponseDTO>> getAllEchoLogs(
-            @Valid @ModelAttribute GetEchoLogRequestDTO requestDTO, HttpServletRequest request) {
+            @Valid @ModelAttribute GetEchoLogRequestDTO requestDTO, HttpServletRequest request,
+            HttpServletResponse servletResponse, WebRequest webRequest) {
         String correlationId = LoggingUtil.generateCorrelationId();
         String clientIp = LoggingUtil.getClientIpAddress(request);
         LoggingUtil.setMDC(correlationId, clientIp, "EchoController");
@@ -76,8 +107,19 @@ public class EchoController {
                             ", size: " + requestDTO.getSize() +
                             ", clientIp: " + clientIp);
 
+            // Ranges ending before today only change on a purge: answer revalidation without a query
+            String eTag = echoLogCacheService.closedRangeETag(requestDTO);
+            if (eTag != null && webRequest.checkNotModified(eTag)) {
+                servletResponse.setHeader(HttpHeaders.CACHE_CONTROL, closedRangeCacheControl());
+                LoggingUtil.logBusinessEvent("ECHO_LOGS_NOT_MODIFIED",
+                        "Echo logs not modified - eTag: " + eTag);
+                return null;
+            }
+
             long startTime = System.currentTimeMillis();
-            PagedEchoLogResponseDTO responseDTO = echoLogService.getAllEchoLogs(requestDTO);
+            PagedEchoLogResponseDTO responseDTO = eTag != null
+                    ? echoLogCacheService.getOrLoad(eTag, () -> echoLogService.getAllEchoLogs(requestDTO))
+                    : echoLogService.getAllEchoLogs(requestDTO);
             long processingTime = System.currentTimeMillis() - startTime;
 
             LoggingUtil.logBusinessEvent("ECHO_LOGS_QUERY_COMPLETED",
@@ -91,9 +133,188 @@ public class EchoController {
                     .message("Echo logs retrieved successfully")
                     .data(responseDTO)
                     .build();
+            if (eTag == null) {
+                return ResponseEntity.ok(response);
+            }
+            // checkNotModified has already set the ETag header
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, closedRangeCacheControl())
+                    .body(response);
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/echo-logs/export")
+    public ResponseEntity<StreamingResponseBody> exportEchoLogs(
+            @Valid @ModelAttribute GetEchoLogRequestDTO requestDTO,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        LoggingUtil.setMDC(correlationId, clientIp, "EchoController");
+
+        try {
+            EchoLogExportFormat exportFormat;
+            try {
+                exportFormat = EchoLogExportFormat.fromString(format);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException(e.getMessage());
+            }
+
+            LoggingUtil.logBusinessEvent("ECHO_LOGS_EXPORT_REQUESTED",
+                    "Echo logs export requested - terminalId: " + requestDTO.getTerminalId() +
+                            ", format: " + exportFormat +
+                            ", gzip: " + gzip +
+                            ", clientIp: " + clientIp);
+
+            // Rows are written after the handler returns, on the async request thread
+            StreamingResponseBody body = outputStream -> {
+                LoggingUtil.setMDC(correlationId, clientIp, "EchoController");
+                try {
+                    long startTime = System.currentTimeMillis();
+                    if (gzip) {
+                        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                        echoLogService.exportEchoLogs(requestDTO, exportFormat, gzipOutputStream);
+                        gzipOutputStream.finish();
+                    } else {
+                        echoLogService.exportEchoLogs(requestDTO, exportFormat, outputStream);
+                    }
+                    LoggingUtil.logPerformance("ECHO_LOGS_EXPORT", System.currentTimeMillis() - startTime);
+                } finally {
+                    LoggingUtil.clearMDC();
+                }
+            };
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"));
+            headers.set(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"echo-logs." + exportFormat.getFileExtension() + (gzip ? ".gz" : "") + "\"");
+            if (gzip) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+
+            return ResponseEntity.ok().headers(headers).body(body);
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/{terminalId}/recent-echoes")
+    public ResponseEntity<SuccessResponse<List<EchoResponseDTO>>> getRecentEchoes(@PathVariable String terminalId,
+            @RequestParam(value = "limit", required = false) Integer limit, HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        LoggingUtil.setMDC(correlationId, clientIp, "EchoController");
+
+        try {
+            long startTime = System.currentTimeMillis();
+            List<EchoResponseDTO> echoes = recentEchoService.getRecentEchoes(terminalId, limit);
+            long processingTime = System.currentTimeMillis() - startTime;
+
+            LoggingUtil.logBusinessEvent("RECENT_ECHOES_QUERY_COMPLETED",
+                    "Recent echoes query completed - terminalId: " + terminalId +
+                            ", recordsReturned: " + echoes.size() +
+                            ", processingTime: " + processingTime + "ms");
+
+            LoggingUtil.logPerformance("RECENT_ECHOES_QUERY", processingTime);
+
+            SuccessResponse<List<EchoResponseDTO>> response = SuccessResponse.<List<EchoResponseDTO>>builder()
+                    .message("Recent echoes retrieved successfully")
+                    .data(echoes)
+                    .build();
+            return ResponseEntity.ok(response);
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/latest-echoes")
+    public ResponseEntity<SuccessResponse<List<TerminalLatestEchoesDTO>>> getLatestEchoes(
+            @RequestParam(value = "terminalIds") List<String> terminalIds,
+            @RequestParam(value = "limit", required = false) Integer limit, HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        LoggingUtil.setMDC(correlationId, clientIp, "EchoController");
+
+        try {
+            long startTime = System.currentTimeMillis();
+            List<TerminalLatestEchoesDTO> latest = echoLogService.getLatestEchoes(terminalIds, limit);
+            long processingTime = System.currentTimeMillis() - startTime;
+
+            LoggingUtil.logBusinessEvent("LATEST_ECHOES_QUERY_COMPLETED",
+                    "Latest echoes query completed - terminals: " + latest.size() +
+                            ", limit: " + limit +
+                            ", processingTime: " + processingTime + "ms");
+
+            LoggingUtil.logPerformance("LATEST_ECHOES_QUERY", processingTime);
+
+            SuccessResponse<List<TerminalLatestEchoesDTO>> response = SuccessResponse
+                    .<List<TerminalLatestEchoesDTO>>builder()
+                    .message("Latest echoes retrieved successfully")
+                    .data(latest)
+                    .build();
             return ResponseEntity.ok(response);
         } finally {
             LoggingUtil.clearMDC();
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{terminalId}/echo-stats")
+    public ResponseEntity<SuccessResponse<EchoStatsResponseDTO>> getEchoStats(@PathVariable String terminalId,
+            @RequestParam(value = "timestampFrom", required = false) String timestampFrom,
+            @RequestParam(value = "timestampTo", required = false) String timestampTo,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        LoggingUtil.setMDC(correlationId, clientIp, "EchoController");
+
+        try {
+            long startTime = System.currentTimeMillis();
+            EchoStatsResponseDTO stats = echoLogService.getEchoStats(terminalId, timestampFrom, timestampTo);
+            long processingTime = System.currentTimeMillis() - startTime;
+
+            LoggingUtil.logBusinessEvent("ECHO_STATS_QUERY_COMPLETED",
+                    "Echo stats query completed - terminalId: " + terminalId +
+                            ", echoCount: " + stats.getEchoCount() +
+                            ", processingTime: " + processingTime + "ms");
+
+            LoggingUtil.logPerformance("ECHO_STATS_QUERY", processingTime);
+
+            SuccessResponse<EchoStatsResponseDTO> response = SuccessResponse.<EchoStatsResponseDTO>builder()
+                    .message("Echo statistics retrieved successfully")
+                    .data(stats)
+                    .build();
+            return ResponseEntity.ok(response);
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/echo-stream")
+    public SseEmitter streamEchoes(@Valid @ModelAttribute EchoStreamRequestDTO requestDTO,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        LoggingUtil.setMDC(correlationId, clientIp, "EchoController");
+
+        try {
+            LoggingUtil.logBusinessEvent("ECHO_STREAM_REQUESTED",
+                    "Echo stream requested - terminalId: " + requestDTO.getTerminalId() +
+                            ", terminalType: " + requestDTO.getTerminalType() +
+                            ", location: " + requestDTO.getLocation() +
+                            ", clientIp: " + clientIp);
+
+            return echoStreamService.subscribe(requestDTO);
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    private String closedRangeCacheControl() {
+        return CacheControl.maxAge(echoLogCacheService.getMaxAgeSeconds(), TimeUnit.SECONDS)
+                .cachePrivate()
+                .getHeaderValue();
+    }
+}
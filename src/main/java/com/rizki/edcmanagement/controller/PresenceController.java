@@ -0,0 +1,163 @@
+package com.rizki.edcmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rizki.edcmanagement.dto.common.SuccessResponse;
+import com.rizki.edcmanagement.dto.presence.response.FleetPresenceResponseDTO;
+import com.rizki.edcmanagement.dto.presence.response.PresenceHeatmapResponseDTO;
+import com.rizki.edcmanagement.dto.presence.response.TerminalPresenceResponseDTO;
+import com.rizki.edcmanagement.service.EchoPresenceService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/edc")
+public class PresenceController {
+    @Autowired
+    private EchoPresenceService echoPresenceService;
+
+    @GetMapping("/{terminalId}/presence")
+    public ResponseEntity<SuccessResponse<TerminalPresenceResponseDTO>> getTerminalPresence(
+            @PathVariable String terminalId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "time", required = false) String time,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, terminalId, clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_PRESENCE_GET_START",
+                "terminalId", terminalId,
+                "from", from,
+                "to", to,
+                "time", time,
+                "clientIp", clientIp);
+
+        try {
+            TerminalPresenceResponseDTO responseDTO = echoPresenceService.getTerminalPresence(terminalId, from, to,
+                    time);
+            SuccessResponse<TerminalPresenceResponseDTO> response = SuccessResponse
+                    .<TerminalPresenceResponseDTO>builder()
+                    .message("Terminal presence retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_PRESENCE_GET", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_PRESENCE_GET_SUCCESS",
+                    "terminalId", terminalId,
+                    "days", responseDTO.getDays().size(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_PRESENCE_GET_ERROR", e,
+                    "terminalId", terminalId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/presence/fleet")
+    public ResponseEntity<SuccessResponse<FleetPresenceResponseDTO>> getFleetPresence(
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "time", required = false) String time,
+            @RequestParam(value = "match", required = false) String match,
+            @RequestParam(value = "terminalId", required = false) String terminalIdPrefix,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("FLEET_PRESENCE_GET_START",
+                "from", from,
+                "to", to,
+                "time", time,
+                "match", match,
+                "terminalId", terminalIdPrefix,
+                "clientIp", clientIp);
+
+        try {
+            FleetPresenceResponseDTO responseDTO = echoPresenceService.getFleetPresence(from, to, time, match,
+                    terminalIdPrefix);
+            SuccessResponse<FleetPresenceResponseDTO> response = SuccessResponse.<FleetPresenceResponseDTO>builder()
+                    .message("Fleet presence retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("FLEET_PRESENCE_GET", duration);
+            LoggingUtil.logBusinessEvent("FLEET_PRESENCE_GET_SUCCESS",
+                    "terminalCount", responseDTO.getTerminalCount(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("FLEET_PRESENCE_GET_ERROR", e,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/presence/heatmap")
+    public ResponseEntity<SuccessResponse<PresenceHeatmapResponseDTO>> getHeatmap(
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "bucketMinutes", required = false) Integer bucketMinutes,
+            @RequestParam(value = "terminalId", required = false) String terminalIdPrefix,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("PRESENCE_HEATMAP_GET_START",
+                "from", from,
+                "to", to,
+                "bucketMinutes", bucketMinutes,
+                "terminalId", terminalIdPrefix,
+                "clientIp", clientIp);
+
+        try {
+            PresenceHeatmapResponseDTO responseDTO = echoPresenceService.getHeatmap(from, to, bucketMinutes,
+                    terminalIdPrefix);
+            SuccessResponse<PresenceHeatmapResponseDTO> response = SuccessResponse
+                    .<PresenceHeatmapResponseDTO>builder()
+                    .message("Presence heatmap retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("PRESENCE_HEATMAP_GET", duration);
+            LoggingUtil.logBusinessEvent("PRESENCE_HEATMAP_GET_SUCCESS",
+                    "days", responseDTO.getDays().size(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("PRESENCE_HEATMAP_GET_ERROR", e,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+}
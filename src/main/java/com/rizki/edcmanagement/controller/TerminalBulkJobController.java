@@ -0,0 +1,200 @@
+package com.rizki.edcmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rizki.edcmanagement.dto.common.SuccessResponse;
+import com.rizki.edcmanagement.dto.terminal.request.CreateTerminalBulkJobRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalBulkJobResponseDTO;
+import com.rizki.edcmanagement.service.TerminalBulkJobService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/api/edc")
+public class TerminalBulkJobController {
+    @Autowired
+    private TerminalBulkJobService terminalBulkJobService;
+
+    @PostMapping("/bulk-jobs")
+    public ResponseEntity<SuccessResponse<TerminalBulkJobResponseDTO>> createBulkJob(
+            @Valid @RequestBody CreateTerminalBulkJobRequestDTO requestDTO,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_CREATE_START",
+                "operation", requestDTO.getOperation(),
+                "clientIp", clientIp);
+
+        try {
+            TerminalBulkJobResponseDTO responseDTO = terminalBulkJobService.createJob(requestDTO);
+            SuccessResponse<TerminalBulkJobResponseDTO> response = SuccessResponse
+                    .<TerminalBulkJobResponseDTO>builder()
+                    .message("Bulk job accepted")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_BULK_JOB_CREATE", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_CREATE_SUCCESS",
+                    "jobId", responseDTO.getJobId(),
+                    "operation", responseDTO.getOperation(),
+                    "appliedFilters", responseDTO.getAppliedFilters(),
+                    "duration", duration + "ms");
+
+            LoggingUtil.logAuditEvent("TERMINAL_BULK_JOB_CREATED",
+                    "Bulk " + responseDTO.getOperation() + " job " + responseDTO.getJobId() + " for "
+                            + responseDTO.getAppliedFilters() + " was created by client " + clientIp);
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_BULK_JOB_CREATE_ERROR", e,
+                    "operation", requestDTO.getOperation(),
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @GetMapping("/bulk-jobs/{jobId}")
+    public ResponseEntity<SuccessResponse<TerminalBulkJobResponseDTO>> getBulkJob(
+            @PathVariable Long jobId,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_GET_START",
+                "jobId", jobId,
+                "clientIp", clientIp);
+
+        try {
+            TerminalBulkJobResponseDTO responseDTO = terminalBulkJobService.getJob(jobId);
+            SuccessResponse<TerminalBulkJobResponseDTO> response = SuccessResponse
+                    .<TerminalBulkJobResponseDTO>builder()
+                    .message("Bulk job retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_BULK_JOB_GET", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_GET_SUCCESS",
+                    "jobId", jobId,
+                    "status", responseDTO.getStatus(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_BULK_JOB_GET_ERROR", e,
+                    "jobId", jobId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @PostMapping("/bulk-jobs/{jobId}/cancel")
+    public ResponseEntity<SuccessResponse<TerminalBulkJobResponseDTO>> cancelBulkJob(
+            @PathVariable Long jobId,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_CANCEL_START",
+                "jobId", jobId,
+                "clientIp", clientIp);
+
+        try {
+            TerminalBulkJobResponseDTO responseDTO = terminalBulkJobService.cancelJob(jobId);
+            SuccessResponse<TerminalBulkJobResponseDTO> response = SuccessResponse
+                    .<TerminalBulkJobResponseDTO>builder()
+                    .message(responseDTO.isCancelRequested()
+                            ? "Bulk job will stop before its next chunk"
+                            : "Bulk job cancelled")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_BULK_JOB_CANCEL", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_CANCEL_SUCCESS",
+                    "jobId", jobId,
+                    "status", responseDTO.getStatus(),
+                    "duration", duration + "ms");
+
+            LoggingUtil.logAuditEvent("TERMINAL_BULK_JOB_CANCELLED",
+                    "Bulk job " + jobId + " was cancelled by client " + clientIp);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_BULK_JOB_CANCEL_ERROR", e,
+                    "jobId", jobId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @PostMapping("/bulk-jobs/{jobId}/resume")
+    public ResponseEntity<SuccessResponse<TerminalBulkJobResponseDTO>> resumeBulkJob(
+            @PathVariable Long jobId,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_RESUME_START",
+                "jobId", jobId,
+                "clientIp", clientIp);
+
+        try {
+            TerminalBulkJobResponseDTO responseDTO = terminalBulkJobService.resumeJob(jobId);
+            SuccessResponse<TerminalBulkJobResponseDTO> response = SuccessResponse
+                    .<TerminalBulkJobResponseDTO>builder()
+                    .message("Bulk job resumed")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_BULK_JOB_RESUME", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_RESUME_SUCCESS",
+                    "jobId", jobId,
+                    "lastTerminalId", responseDTO.getLastTerminalId(),
+                    "duration", duration + "ms");
+
+            LoggingUtil.logAuditEvent("TERMINAL_BULK_JOB_RESUMED",
+                    "Bulk job " + jobId + " was resumed by client " + clientIp);
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_BULK_JOB_RESUME_ERROR", e,
+                    "jobId", jobId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.rizki.edcmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rizki.edcmanagement.dto.common.SuccessResponse;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalChangeFeedResponseDTO;
+import com.rizki.edcmanagement.service.TerminalChangeService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/edc")
+public class TerminalChangeController {
+    @Autowired
+    private TerminalChangeService terminalChangeService;
+
+    @GetMapping("/changes")
+    public ResponseEntity<SuccessResponse<TerminalChangeFeedResponseDTO>> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "500") int size,
+            @RequestParam(defaultValue = "true") boolean includeTerminals,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_CHANGES_GET_START",
+                "since", since,
+                "size", size,
+                "clientIp", clientIp);
+
+        try {
+            TerminalChangeFeedResponseDTO responseDTO = terminalChangeService.getChanges(since, size,
+                    includeTerminals);
+            SuccessResponse<TerminalChangeFeedResponseDTO> response = SuccessResponse
+                    .<TerminalChangeFeedResponseDTO>builder()
+                    .message("Terminal changes retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_CHANGES_GET", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_CHANGES_GET_SUCCESS",
+                    "since", since,
+                    "nextSince", responseDTO.getNextSince(),
+                    "changes", responseDTO.getChanges().size(),
+                    "hasMore", responseDTO.isHasMore(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_CHANGES_GET_ERROR", e,
+                    "since", since,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+}
@@ -1,25 +1,49 @@
 package com.rizki.edcmanagement.controller;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.rizki.edcmanagement.dto.common.SuccessResponse;
 import com.rizki.edcmanagement.dto.terminal.request.CreateTerminalEDCRequestDTO;
 import com.rizki.edcmanagement.dto.terminal.request.GetTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.request.MultiGetTerminalEDCRequestDTO;
 import com.rizki.edcmanagement.dto.terminal.request.UpdateTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.request.UpsertTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.response.MultiGetTerminalEDCResponseDTO;
 import com.rizki.edcmanagement.dto.terminal.response.PagedTerminalEDCResponseDTO;
 import com.rizki.edcmanagement.dto.terminal.response.TerminalEDCResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalImportSummaryDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalPurgeJobResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalUpsertResultDTO;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.model.enums.TerminalImportFormat;
 import com.rizki.edcmanagement.service.TerminalEDCService;
+import com.rizki.edcmanagement.service.TerminalImportService;
+import com.rizki.edcmanagement.util.EntityTags;
 import com.rizki.edcmanagement.util.LoggingUtil;
 
 import javax.servlet.http.HttpServletRequest;
@@ -31,6 +55,9 @@ public class TerminalController {
     @Autowired
     private TerminalEDCService terminalEDCService;
 
+    @Autowired
+    private TerminalImportService terminalImportService;
+
     @PostMapping
     public ResponseEntity<SuccessResponse<TerminalEDCResponseDTO>> createTerminal(
             @Valid @RequestBody CreateTerminalEDCRequestDTO requestDTO,
@@ -73,6 +100,71 @@ public class TerminalController {
         }
     }
 
+    @PostMapping("/import")
+    public ResponseEntity<StreamingResponseBody> importTerminals(
+            @RequestParam(value = "format", required = false) String format,
+            HttpServletRequest request) throws IOException {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_IMPORT_START",
+                "format", format,
+                "contentType", request.getContentType(),
+                "clientIp", clientIp);
+
+        Path reportFile = null;
+        try {
+            TerminalImportFormat importFormat;
+            try {
+                importFormat = TerminalImportFormat.resolve(format, request.getContentType());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException(e.getMessage());
+            }
+
+            // The report is sent once the whole upload has been read. Writing it while the
+            // client is still sending could fill both socket buffers and stall clients that
+            // only read the response after the upload.
+            reportFile = Files.createTempFile("terminal-import-", ".ndjson");
+            TerminalImportSummaryDTO summary;
+            try (OutputStream report = new BufferedOutputStream(Files.newOutputStream(reportFile))) {
+                summary = terminalImportService.importTerminals(request.getInputStream(), importFormat, report);
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_IMPORT", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_IMPORT_SUCCESS",
+                    "totalRows", summary.getTotalRows(),
+                    "created", summary.getCreated(),
+                    "duration", duration + "ms");
+
+            Path body = reportFile;
+            reportFile = null;
+            StreamingResponseBody responseBody = outputStream -> {
+                try {
+                    Files.copy(body, outputStream);
+                } finally {
+                    Files.deleteIfExists(body);
+                }
+            };
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"));
+            return ResponseEntity.ok().headers(headers).body(responseBody);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_IMPORT_ERROR", e,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            if (reportFile != null) {
+                Files.deleteIfExists(reportFile);
+            }
+            LoggingUtil.clearMDC();
+        }
+    }
+
     @GetMapping
     public ResponseEntity<SuccessResponse<PagedTerminalEDCResponseDTO>> getAllTerminals(
             @Valid @ModelAttribute GetTerminalEDCRequestDTO requestDTO,
@@ -121,9 +213,13 @@ public class TerminalController {
         }
     }
 
+    /**
+     * Answers 304 without a body when If-None-Match already names the current tag.
+     */
     @GetMapping("/{terminalId}")
     public ResponseEntity<SuccessResponse<TerminalEDCResponseDTO>> getTerminalById(
             @PathVariable String terminalId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             HttpServletRequest request) {
         String correlationId = LoggingUtil.generateCorrelationId();
         String clientIp = LoggingUtil.getClientIpAddress(request);
@@ -132,10 +228,24 @@ public class TerminalController {
         LoggingUtil.setMDC(correlationId, terminalId, clientIp);
         LoggingUtil.logBusinessEvent("TERMINAL_GET_BY_ID_START",
                 "terminalId", terminalId,
+                "ifNoneMatch", ifNoneMatch,
                 "clientIp", clientIp);
 
         try {
             TerminalEDCResponseDTO responseDTO = terminalEDCService.getTerminalById(terminalId);
+            if (EntityTags.matches(ifNoneMatch, responseDTO.getCreatedAt(), responseDTO.getVersion())) {
+                long duration = System.currentTimeMillis() - startTime;
+                LoggingUtil.logPerformance("TERMINAL_GET_BY_ID", duration);
+                LoggingUtil.logBusinessEvent("TERMINAL_GET_BY_ID_NOT_MODIFIED",
+                        "terminalId", terminalId,
+                        "version", responseDTO.getVersion(),
+                        "duration", duration + "ms");
+
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(EntityTags.of(responseDTO.getCreatedAt(), responseDTO.getVersion()))
+                        .build();
+            }
+
             SuccessResponse<TerminalEDCResponseDTO> response = SuccessResponse.<TerminalEDCResponseDTO>builder()
                     .message("Terminal retrieved successfully")
                     .data(responseDTO)
@@ -149,7 +259,9 @@ public class TerminalController {
                     "status", responseDTO.getStatus().toString(),
                     "duration", duration + "ms");
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.of(responseDTO.getCreatedAt(), responseDTO.getVersion()))
+                    .body(response);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             LoggingUtil.logError("TERMINAL_GET_BY_ID_ERROR", e,
@@ -161,10 +273,59 @@ public class TerminalController {
         }
     }
 
+    /**
+     * Several terminals by ID in one request, answered in request order. IDs that do not
+     * exist are marked as not found rather than failing the request.
+     */
+    @PostMapping("/multi-get")
+    public ResponseEntity<SuccessResponse<MultiGetTerminalEDCResponseDTO>> getTerminalsByIds(
+            @Valid @RequestBody MultiGetTerminalEDCRequestDTO requestDTO,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_MULTI_GET_START",
+                "requested", requestDTO.getTerminalIds().size(),
+                "clientIp", clientIp);
+
+        try {
+            MultiGetTerminalEDCResponseDTO responseDTO = terminalEDCService
+                    .getTerminalsByIds(requestDTO.getTerminalIds());
+            SuccessResponse<MultiGetTerminalEDCResponseDTO> response = SuccessResponse
+                    .<MultiGetTerminalEDCResponseDTO>builder()
+                    .message("Terminals retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_MULTI_GET", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_MULTI_GET_SUCCESS",
+                    "requested", responseDTO.getRequested(),
+                    "found", responseDTO.getFound(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_MULTI_GET_ERROR", e,
+                    "requested", requestDTO.getTerminalIds().size(),
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    /**
+     * With If-Match, the update only applies to the tags given and fails with 412 otherwise.
+     */
     @PutMapping("/{terminalId}")
     public ResponseEntity<SuccessResponse<TerminalEDCResponseDTO>> updateTerminal(
             @PathVariable String terminalId,
             @Valid @RequestBody UpdateTerminalEDCRequestDTO requestDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest request) {
         String correlationId = LoggingUtil.generateCorrelationId();
         String clientIp = LoggingUtil.getClientIpAddress(request);
@@ -175,10 +336,12 @@ public class TerminalController {
                 "terminalId", terminalId,
                 "newLocation", requestDTO.getLocation(),
                 "newStatus", requestDTO.getStatus(),
+                "ifMatch", ifMatch,
                 "clientIp", clientIp);
 
         try {
-            TerminalEDCResponseDTO responseDTO = terminalEDCService.updateTerminal(terminalId, requestDTO);
+            TerminalEDCResponseDTO responseDTO = terminalEDCService.updateTerminal(terminalId, requestDTO,
+                    EntityTags.parseIfMatch(ifMatch));
             SuccessResponse<TerminalEDCResponseDTO> response = SuccessResponse.<TerminalEDCResponseDTO>builder()
                     .message("Terminal updated successfully")
                     .data(responseDTO)
@@ -192,7 +355,9 @@ public class TerminalController {
                     "status", responseDTO.getStatus().toString(),
                     "duration", duration + "ms");
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.of(responseDTO.getCreatedAt(), responseDTO.getVersion()))
+                    .body(response);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             LoggingUtil.logError("TERMINAL_UPDATE_ERROR", e,
@@ -204,8 +369,107 @@ public class TerminalController {
         }
     }
 
+    /**
+     * JSON merge patch (RFC 7396). With If-Match, the patch only applies to the tags given
+     * and fails with 412 otherwise.
+     */
+    @PatchMapping(value = "/{terminalId}", consumes = { "application/merge-patch+json",
+            MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<SuccessResponse<TerminalEDCResponseDTO>> patchTerminal(
+            @PathVariable String terminalId,
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, terminalId, clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_PATCH_START",
+                "terminalId", terminalId,
+                "ifMatch", ifMatch,
+                "clientIp", clientIp);
+
+        try {
+            TerminalEDCResponseDTO responseDTO = terminalEDCService.patchTerminal(terminalId, patch,
+                    EntityTags.parseIfMatch(ifMatch));
+            SuccessResponse<TerminalEDCResponseDTO> response = SuccessResponse.<TerminalEDCResponseDTO>builder()
+                    .message("Terminal updated successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_PATCH", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_PATCH_SUCCESS",
+                    "terminalId", responseDTO.getTerminalId(),
+                    "status", responseDTO.getStatus().toString(),
+                    "version", responseDTO.getVersion(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.of(responseDTO.getCreatedAt(), responseDTO.getVersion()))
+                    .body(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_PATCH_ERROR", e,
+                    "terminalId", terminalId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @PutMapping("/upsert/{terminalId}")
+    public ResponseEntity<SuccessResponse<TerminalEDCResponseDTO>> upsertTerminal(
+            @PathVariable String terminalId,
+            @Valid @RequestBody UpsertTerminalEDCRequestDTO requestDTO,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, terminalId, clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_UPSERT_START",
+                "terminalId", terminalId,
+                "location", requestDTO.getLocation(),
+                "status", requestDTO.getStatus(),
+                "clientIp", clientIp);
+
+        try {
+            TerminalUpsertResultDTO result = terminalEDCService.upsertTerminal(terminalId, requestDTO);
+            TerminalEDCResponseDTO responseDTO = result.getTerminal();
+            SuccessResponse<TerminalEDCResponseDTO> response = SuccessResponse.<TerminalEDCResponseDTO>builder()
+                    .message(result.isCreated() ? "Terminal created successfully" : "Terminal updated successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_UPSERT", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_UPSERT_SUCCESS",
+                    "terminalId", responseDTO.getTerminalId(),
+                    "created", String.valueOf(result.isCreated()),
+                    "status", responseDTO.getStatus().toString(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.status(result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK).body(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_UPSERT_ERROR", e,
+                    "terminalId", terminalId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    /**
+     * The terminal disappears at once. Its echo history is removed in the background, see
+     * TerminalPurgeJobController for the progress.
+     */
     @DeleteMapping("/{terminalId}")
-    public ResponseEntity<Void> deleteTerminal(
+    public ResponseEntity<SuccessResponse<TerminalPurgeJobResponseDTO>> deleteTerminal(
             @PathVariable String terminalId,
             HttpServletRequest request) {
         String correlationId = LoggingUtil.generateCorrelationId();
@@ -218,18 +482,26 @@ public class TerminalController {
                 "clientIp", clientIp);
 
         try {
-            terminalEDCService.deleteTerminal(terminalId);
+            TerminalPurgeJobResponseDTO responseDTO = terminalEDCService.deleteTerminal(terminalId);
+            SuccessResponse<TerminalPurgeJobResponseDTO> response = SuccessResponse
+                    .<TerminalPurgeJobResponseDTO>builder()
+                    .message("Terminal deleted, its echo history is being removed")
+                    .data(responseDTO)
+                    .build();
 
             long duration = System.currentTimeMillis() - startTime;
             LoggingUtil.logPerformance("TERMINAL_DELETE", duration);
             LoggingUtil.logBusinessEvent("TERMINAL_DELETE_SUCCESS",
                     "terminalId", terminalId,
+                    "purgeJobId", responseDTO.getJobId(),
                     "duration", duration + "ms");
 
             LoggingUtil.logAuditEvent("TERMINAL_DELETED",
                     "Terminal " + terminalId + " was deleted by client " + clientIp);
 
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create("/api/edc/purge-jobs/" + responseDTO.getJobId()))
+                    .body(response);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             LoggingUtil.logError("TERMINAL_DELETE_ERROR", e,
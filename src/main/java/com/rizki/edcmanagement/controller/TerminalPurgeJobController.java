@@ -0,0 +1,107 @@
+package com.rizki.edcmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rizki.edcmanagement.dto.common.SuccessResponse;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalPurgeJobResponseDTO;
+import com.rizki.edcmanagement.service.TerminalPurgeService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/edc")
+public class TerminalPurgeJobController {
+    @Autowired
+    private TerminalPurgeService terminalPurgeService;
+
+    @GetMapping("/purge-jobs/{jobId}")
+    public ResponseEntity<SuccessResponse<TerminalPurgeJobResponseDTO>> getPurgeJob(
+            @PathVariable Long jobId,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_GET_START",
+                "jobId", jobId,
+                "clientIp", clientIp);
+
+        try {
+            TerminalPurgeJobResponseDTO responseDTO = terminalPurgeService.getJob(jobId);
+            SuccessResponse<TerminalPurgeJobResponseDTO> response = SuccessResponse
+                    .<TerminalPurgeJobResponseDTO>builder()
+                    .message("Purge job retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_PURGE_JOB_GET", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_GET_SUCCESS",
+                    "jobId", jobId,
+                    "status", responseDTO.getStatus(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_PURGE_JOB_GET_ERROR", e,
+                    "jobId", jobId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+
+    @PostMapping("/purge-jobs/{jobId}/resume")
+    public ResponseEntity<SuccessResponse<TerminalPurgeJobResponseDTO>> resumePurgeJob(
+            @PathVariable Long jobId,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_RESUME_START",
+                "jobId", jobId,
+                "clientIp", clientIp);
+
+        try {
+            TerminalPurgeJobResponseDTO responseDTO = terminalPurgeService.resumeJob(jobId);
+            SuccessResponse<TerminalPurgeJobResponseDTO> response = SuccessResponse
+                    .<TerminalPurgeJobResponseDTO>builder()
+                    .message("Purge job resumed")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("TERMINAL_PURGE_JOB_RESUME", duration);
+            LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_RESUME_SUCCESS",
+                    "jobId", jobId,
+                    "terminalId", responseDTO.getTerminalId(),
+                    "duration", duration + "ms");
+
+            LoggingUtil.logAuditEvent("TERMINAL_PURGE_JOB_RESUMED",
+                    "Purge job " + jobId + " was resumed by client " + clientIp);
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_PURGE_JOB_RESUME_ERROR", e,
+                    "jobId", jobId,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+}
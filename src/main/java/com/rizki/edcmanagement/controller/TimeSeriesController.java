@@ -0,0 +1,77 @@
+package com.rizki.edcmanagement.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.rizki.edcmanagement.dto.common.SuccessResponse;
+import com.rizki.edcmanagement.dto.timeseries.response.EchoTimeSeriesResponseDTO;
+import com.rizki.edcmanagement.service.EchoTimeSeriesService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+import javax.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/edc")
+public class TimeSeriesController {
+    @Autowired
+    private EchoTimeSeriesService echoTimeSeriesService;
+
+    @GetMapping("/echo-timeseries")
+    public ResponseEntity<SuccessResponse<EchoTimeSeriesResponseDTO>> getEchoTimeSeries(
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "resolution", required = false) String resolution,
+            @RequestParam(value = "points", required = false) Integer points,
+            @RequestParam(value = "terminalId", required = false) String terminalId,
+            @RequestParam(value = "terminalIdMatch", required = false) String terminalIdMatch,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "groupBy", required = false) String groupBy,
+            HttpServletRequest request) {
+        String correlationId = LoggingUtil.generateCorrelationId();
+        String clientIp = LoggingUtil.getClientIpAddress(request);
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.setMDC(correlationId, "ALL", clientIp);
+        LoggingUtil.logBusinessEvent("ECHO_TIME_SERIES_GET_START",
+                "from", from,
+                "to", to,
+                "resolution", resolution,
+                "points", points,
+                "terminalId", terminalId,
+                "terminalIdMatch", terminalIdMatch,
+                "location", location,
+                "groupBy", groupBy,
+                "clientIp", clientIp);
+
+        try {
+            EchoTimeSeriesResponseDTO responseDTO = echoTimeSeriesService.getTimeSeries(from, to, resolution,
+                    points, terminalId, terminalIdMatch, location, groupBy);
+            SuccessResponse<EchoTimeSeriesResponseDTO> response = SuccessResponse
+                    .<EchoTimeSeriesResponseDTO>builder()
+                    .message("Echo time series retrieved successfully")
+                    .data(responseDTO)
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logPerformance("ECHO_TIME_SERIES_GET", duration);
+            LoggingUtil.logBusinessEvent("ECHO_TIME_SERIES_GET_SUCCESS",
+                    "resolution", responseDTO.getResolution(),
+                    "points", responseDTO.getTimestamps().size(),
+                    "series", responseDTO.getSeries().size(),
+                    "duration", duration + "ms");
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("ECHO_TIME_SERIES_GET_ERROR", e,
+                    "duration", duration + "ms");
+            throw e;
+        } finally {
+            LoggingUtil.clearMDC();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.rizki.edcmanagement.dto.availability.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityReportResponseDTO {
+    private String month;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to;
+
+    private int terminalCount;
+    private double averageAvailabilityPercentage;
+
+    // Ordered by terminal ID
+    private List<AvailabilityResponseDTO> terminals;
+}
@@ -0,0 +1,30 @@
+package com.rizki.edcmanagement.dto.availability.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponseDTO {
+    private String terminalId;
+
+    // Window in UTC, to is exclusive and capped at the current time
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to;
+
+    private long windowSeconds;
+    private long uptimeSeconds;
+    private long downtimeSeconds;
+    private double availabilityPercentage;
+}
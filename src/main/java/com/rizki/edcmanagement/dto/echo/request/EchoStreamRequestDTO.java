@@ -0,0 +1,25 @@
+package com.rizki.edcmanagement.dto.echo.request;
+
+import javax.validation.constraints.Pattern;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EchoStreamRequestDTO {
+    private String terminalId; // Filter by terminal ID (see terminalIdMatch)
+
+    @Pattern(regexp = "(?i)^(exact|prefix|contains)$", message = "Terminal ID match mode must be one of: exact, prefix, contains")
+    @Builder.Default
+    private String terminalIdMatch = "contains"; // exact, prefix or contains
+
+    @Pattern(regexp = "(?i)^(EDC|ATM|POS|KIOSK)$", message = "Terminal type must be one of: EDC, ATM, POS, KIOSK")
+    private String terminalType; // Filter by terminal type (EDC, ATM, POS, KIOSK)
+
+    private String location; // Filter by location (contains search)
+}
@@ -2,6 +2,7 @@ package com.rizki.edcmanagement.dto.echo.request;
 
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,7 +31,20 @@ public class GetEchoLogRequestDTO {
     private String sortDirection = "desc"; // asc or desc
 
     // Filter parameters
-    private String terminalId; // Filter by terminal ID (contains search)
+    private String terminalId; // Filter by terminal ID (see terminalIdMatch)
+
+    @Pattern(regexp = "(?i)^(exact|prefix|contains)$", message = "Terminal ID match mode must be one of: exact, prefix, contains")
+    @Builder.Default
+    private String terminalIdMatch = "contains"; // exact, prefix or contains
+
+    // Terminal attributes captured at echo time, matched without joining terminal_edc
+    private String location; // Filter by location (exact, case insensitive)
+
+    @Pattern(regexp = "(?i)^(EDC|ATM|POS|KIOSK)$", message = "Terminal type must be one of: EDC, ATM, POS, KIOSK")
+    private String terminalType; // Filter by terminal type (EDC, ATM, POS, KIOSK)
+
+    @Pattern(regexp = "(?i)^(ACTIVE|INACTIVE|MAINTENANCE|OUT_OF_SERVICE)$", message = "Status must be one of: ACTIVE, INACTIVE, MAINTENANCE, OUT_OF_SERVICE")
+    private String status; // Filter by status (ACTIVE, INACTIVE, etc.)
 
     // Date range filters
     private String timestampFrom; // Filter by timestamp from (YYYY-MM-DD)
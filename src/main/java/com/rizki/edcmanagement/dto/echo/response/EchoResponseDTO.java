@@ -1,8 +1,11 @@
 package com.rizki.edcmanagement.dto.echo.response;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,4 +23,24 @@ public class EchoResponseDTO {
 
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime timestamp;
+
+    /**
+     * Only set for echo sessions, where timestamp is the first echo of the session
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lastEchoAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer echoCount;
+
+    /**
+     * Used by the JPQL constructor projection in EchoLogRepositoryImpl, which
+     * selects the stored UTC instant directly
+     */
+    public EchoResponseDTO(Long id, String terminalId, Instant timestamp) {
+        this.id = id;
+        this.terminalId = terminalId;
+        this.timestamp = LocalDateTime.ofInstant(timestamp, ZoneOffset.UTC);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.rizki.edcmanagement.dto.echo.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rizki.edcmanagement.model.enums.EchoStorageMode;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EchoStatsResponseDTO {
+    private String terminalId;
+
+    private EchoStorageMode storageMode;
+
+    private String timestampFrom;
+
+    private String timestampTo;
+
+    private Long echoCount;
+
+    /**
+     * Number of sessions, SESSION storage mode only
+     */
+    private Long sessionCount;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime firstEchoAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lastEchoAt;
+}
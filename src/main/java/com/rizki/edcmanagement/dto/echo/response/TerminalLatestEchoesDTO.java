@@ -0,0 +1,19 @@
+package com.rizki.edcmanagement.dto.echo.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TerminalLatestEchoesDTO {
+    private String terminalId;
+
+    // Newest first, empty when the terminal has no echoes or does not exist
+    private List<EchoResponseDTO> echoes;
+}
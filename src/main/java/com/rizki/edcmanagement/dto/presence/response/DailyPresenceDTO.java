@@ -0,0 +1,30 @@
+package com.rizki.edcmanagement.dto.presence.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DailyPresenceDTO {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    private int presentMinutes;
+
+    // Runs of present minutes as "HH:mm-HH:mm", end exclusive
+    private List<String> periods;
+
+    // Only set when a time was requested
+    private Boolean presentAtTime;
+}
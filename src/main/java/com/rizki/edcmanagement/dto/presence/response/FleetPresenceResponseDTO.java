@@ -0,0 +1,30 @@
+package com.rizki.edcmanagement.dto.presence.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetPresenceResponseDTO {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate to;
+
+    // HH:mm, or null for the whole day
+    private String time;
+
+    private String match;
+    private int terminalCount;
+    private List<String> terminalIds;
+}
@@ -0,0 +1,39 @@
+package com.rizki.edcmanagement.dto.presence.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceHeatmapResponseDTO {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate to;
+
+    private int bucketMinutes;
+
+    private List<Row> days;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate date;
+
+        // Terminals present at least once in each bucket, starting at 00:00
+        private int[] terminalCounts;
+    }
+}
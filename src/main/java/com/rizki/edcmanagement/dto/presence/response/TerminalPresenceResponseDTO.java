@@ -0,0 +1,19 @@
+package com.rizki.edcmanagement.dto.presence.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TerminalPresenceResponseDTO {
+    private String terminalId;
+
+    // One entry per day of the range, days without echoes included
+    private List<DailyPresenceDTO> days;
+}
@@ -0,0 +1,34 @@
+package com.rizki.edcmanagement.dto.terminal.request;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateTerminalBulkJobRequestDTO {
+    @NotBlank(message = "Operation is required")
+    @Pattern(regexp = "^(?i)(UPDATE|DELETE)$", message = "Operation must be one of: UPDATE, DELETE")
+    private String operation;
+
+    /**
+     * Selects the terminals like the filters of GET /api/edc. Paging and sorting are ignored.
+     */
+    @NotNull(message = "Filter is required")
+    private GetTerminalEDCRequestDTO filter;
+
+    /**
+     * Required for UPDATE, where at least one field must be set. IP addresses are unique per
+     * terminal, so ipAddress cannot be changed in bulk.
+     */
+    @Valid
+    private UpdateTerminalEDCRequestDTO changes;
+}
@@ -43,4 +43,7 @@ public class GetTerminalEDCRequestDTO {
     private String createdTo; // Filter by created date to (YYYY-MM-DD)
     private String lastMaintenanceFrom; // Filter by last maintenance from (YYYY-MM-DD)
     private String lastMaintenanceTo; // Filter by last maintenance to (YYYY-MM-DD)
+
+    // Embed each terminal's last echo time in the list
+    private Boolean includeLastEcho;
 }
\ No newline at end of file
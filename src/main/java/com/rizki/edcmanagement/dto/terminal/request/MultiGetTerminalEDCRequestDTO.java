@@ -0,0 +1,27 @@
+package com.rizki.edcmanagement.dto.terminal.request;
+
+import java.util.List;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetTerminalEDCRequestDTO {
+    public static final int MAX_TERMINAL_IDS = 500;
+
+    /**
+     * Looked up as given, like GET /api/edc/{terminalId}. Repeated IDs are resolved once.
+     */
+    @NotEmpty(message = "At least one terminal ID is required")
+    @Size(max = MAX_TERMINAL_IDS, message = "At most " + MAX_TERMINAL_IDS + " terminal IDs are allowed per request")
+    private List<@NotBlank(message = "Terminal ID must not be blank") String> terminalIds;
+}
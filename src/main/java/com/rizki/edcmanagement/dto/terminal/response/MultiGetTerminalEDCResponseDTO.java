@@ -0,0 +1,20 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetTerminalEDCResponseDTO {
+    private int requested;
+    private int found;
+    private int notFound;
+    // One per requested ID, in request order
+    private List<TerminalLookupResultDTO> results;
+}
@@ -0,0 +1,43 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rizki.edcmanagement.dto.terminal.request.UpdateTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus;
+import com.rizki.edcmanagement.model.enums.TerminalBulkOperation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TerminalBulkJobResponseDTO {
+    private Long jobId;
+    private TerminalBulkOperation operation;
+    private TerminalBulkJobStatus status;
+    private boolean cancelRequested;
+    private String appliedFilters;
+    private UpdateTerminalEDCRequestDTO changes;
+
+    // Progress: matched terminals have been processed, affected ones were changed or deleted,
+    // skipped ones were deleted by another request while the job ran
+    private Long totalEstimate;
+    private long matched;
+    private long affected;
+    private long skipped;
+    private long chunks;
+    private Double progressPercent;
+    private String lastTerminalId;
+
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime heartbeatAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,24 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TerminalCacheStatsResponseDTO {
+    private int size;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private double hitRate;
+
+    // Entries dropped because their terminal was updated or deleted
+    private long invalidations;
+
+    // Loads that raced an invalidation and were returned without being cached
+    private long discardedFills;
+}
@@ -0,0 +1,25 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rizki.edcmanagement.model.enums.TerminalChangeOperation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TerminalChangeDTO {
+    private long version;
+    private String terminalId;
+    private TerminalChangeOperation operation;
+    private LocalDateTime changedAt;
+    // Current state, omitted for deletes and when terminals were not requested
+    private TerminalEDCResponseDTO terminal;
+}
@@ -0,0 +1,22 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TerminalChangeFeedResponseDTO {
+    private Long since;
+    // Pass as since to get the next page
+    private long nextSince;
+    private long latestVersion;
+    private boolean hasMore;
+    // Latest change per terminal within the page, in version order
+    private List<TerminalChangeDTO> changes;
+}
@@ -2,6 +2,8 @@ package com.rizki.edcmanagement.dto.terminal.response;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import com.rizki.edcmanagement.model.enums.TerminalStatus;
 
 import lombok.AllArgsConstructor;
@@ -33,4 +35,11 @@ public class TerminalEDCResponseDTO {
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    // Changes with every write; also sent as the ETag of single terminal responses
+    private Long version;
+
+    // Only set when the list is requested with includeLastEcho=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime lastEchoAt;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rizki.edcmanagement.model.enums.TerminalImportRowStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TerminalImportRowResultDTO {
+    // 1-based position among the data rows, not counting the CSV header or blank lines
+    private long row;
+    private String terminalId;
+    private TerminalImportRowStatus status;
+    private String message;
+
+    // Validation errors grouped by field, as in error responses
+    private Map<String, List<String>> errors;
+}
@@ -0,0 +1,20 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TerminalImportSummaryDTO {
+    private long totalRows;
+    private long created;
+    private long invalid;
+    private long duplicateIds;
+    private long duplicateIps;
+    private long chunks;
+    private long durationMs;
+}
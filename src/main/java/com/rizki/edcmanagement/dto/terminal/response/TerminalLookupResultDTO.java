@@ -0,0 +1,20 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TerminalLookupResultDTO {
+    private String terminalId;
+    private boolean found;
+    // Null when not found
+    private TerminalEDCResponseDTO terminal;
+}
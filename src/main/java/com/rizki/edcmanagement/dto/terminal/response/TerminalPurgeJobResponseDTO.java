@@ -0,0 +1,35 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TerminalPurgeJobResponseDTO {
+    private Long jobId;
+    private String terminalId;
+    private TerminalBulkJobStatus status;
+
+    // Progress: echo log rows and echo sessions removed so far, and chunks committed
+    private Long echoesEstimate;
+    private long echoLogsDeleted;
+    private long echoSessionsDeleted;
+    private long chunks;
+    private Double progressPercent;
+
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime heartbeatAt;
+    private LocalDateTime finishedAt;
+}
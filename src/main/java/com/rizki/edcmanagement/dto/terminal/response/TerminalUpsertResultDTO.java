@@ -0,0 +1,16 @@
+package com.rizki.edcmanagement.dto.terminal.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TerminalUpsertResultDTO {
+    // False when an existing terminal was replaced
+    private boolean created;
+    private TerminalEDCResponseDTO terminal;
+}
@@ -0,0 +1,64 @@
+package com.rizki.edcmanagement.dto.timeseries.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EchoTimeSeriesResponseDTO {
+    // Window aligned to the resolution: [from, to)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime to;
+
+    private String resolution;
+
+    private long resolutionSeconds;
+
+    private String groupBy;
+
+    private String terminalId;
+
+    private String terminalIdMatch;
+
+    private String location;
+
+    // Hours before this instant were served from the hourly rollup when the resolution allows it
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime rolledUpUntil;
+
+    // ROLLUP, ECHO_LOG and/or ARCHIVE
+    private List<String> sources;
+
+    // Start of each bucket; counts of every series are aligned with it
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private List<LocalDateTime> timestamps;
+
+    private List<Series> series;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Series {
+        // Terminal ID or location, ALL when not grouped
+        private String key;
+
+        private long total;
+
+        private long[] counts;
+    }
+}
@@ -0,0 +1,57 @@
+package com.rizki.edcmanagement.dto.traffic.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EchoTrafficResponseDTO {
+    private int windowMinutes;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime windowStart;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime windowEnd;
+
+    // Exact number of echoes in the window
+    private long totalEchoes;
+
+    private long distinctTerminals;
+
+    private double distinctTerminalsRelativeError;
+
+    private List<TerminalCount> topTerminals;
+
+    // No terminal missing from topTerminals echoed more often than this
+    private long untrackedMaxCount;
+
+    // Instances whose sketches were merged, this one included
+    private int instances;
+
+    // Echoes recorded on other instances are included at most this late
+    private long publishIntervalMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TerminalCount {
+        private String terminalId;
+
+        // Never below the true count
+        private long estimatedCount;
+
+        // Never above the true count
+        private long guaranteedCount;
+    }
+}
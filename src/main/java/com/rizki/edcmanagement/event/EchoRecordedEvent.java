@@ -0,0 +1,21 @@
+package com.rizki.edcmanagement.event;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by EchoLogServiceImpl for every stored echo. Listeners should use
+ * {@code @TransactionalEventListener} so they only see echoes that were committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EchoRecordedEvent {
+    private final Long echoLogId;
+    private final String terminalId;
+    private final String location;
+    private final Instant timestamp;
+}
@@ -0,0 +1,17 @@
+package com.rizki.edcmanagement.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published inside the transaction that deletes a terminal and queues its purge job. The
+ * job is started once the transaction commits, when a worker can see both.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TerminalPurgeQueuedEvent {
+    private final Long jobId;
+    private final String terminalId;
+}
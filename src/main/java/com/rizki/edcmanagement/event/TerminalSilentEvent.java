@@ -0,0 +1,21 @@
+package com.rizki.edcmanagement.event;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by TerminalSilenceServiceImpl when a terminal has not echoed within the silence
+ * timeout. lastSeenAt is the terminal's last echo, or the time watching started for terminals
+ * that have not echoed since startup.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TerminalSilentEvent {
+    private final String terminalId;
+    private final Instant lastSeenAt;
+    private final Instant detectedAt;
+}
@@ -0,0 +1,18 @@
+package com.rizki.edcmanagement.event;
+
+import java.util.Collection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published inside the transaction that updates or deletes terminals. Listeners should use
+ * {@code @TransactionalEventListener} so they only act once the change is committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TerminalsChangedEvent {
+    private final Collection<String> terminalIds;
+}
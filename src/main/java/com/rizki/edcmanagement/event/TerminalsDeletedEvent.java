@@ -0,0 +1,18 @@
+package com.rizki.edcmanagement.event;
+
+import java.util.Collection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published inside the transaction that deletes terminals, next to {@link TerminalsChangedEvent}.
+ * Listeners drop in-memory state kept for the terminals once the delete is committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TerminalsDeletedEvent {
+    private final Collection<String> terminalIds;
+}
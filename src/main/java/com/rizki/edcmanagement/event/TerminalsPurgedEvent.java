@@ -0,0 +1,20 @@
+package com.rizki.edcmanagement.event;
+
+import java.util.Collection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by EchoArchiveServiceImpl on every instance once it sees that terminals were
+ * purged, right away on the instance that ran the purge and within a rescan elsewhere. The
+ * echoes of these terminals are gone, so state built from them has to be rebuilt; a terminal
+ * created again under the same ID may already have echoed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TerminalsPurgedEvent {
+    private final Collection<String> terminalIds;
+}
@@ -1,5 +1,6 @@
 package com.rizki.edcmanagement.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -7,7 +8,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.servlet.NoHandlerFoundException;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.validation.BindException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
@@ -75,8 +76,55 @@ public class GlobalExceptionHandler {
                 return new ResponseEntity<>(error, HttpStatus.CONFLICT);
         }
 
-        @ExceptionHandler(MethodArgumentNotValidException.class)
-        public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex,
+        @ExceptionHandler(PreconditionFailedException.class)
+        public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex,
+                        WebRequest request) {
+                ErrorResponse error = ErrorResponse.builder()
+                                .message(ex.getMessage())
+                                .build();
+                return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+        }
+
+        @ExceptionHandler(ResourceGoneException.class)
+        public ResponseEntity<ErrorResponse> handleResourceGoneException(ResourceGoneException ex,
+                        WebRequest request) {
+                ErrorResponse error = ErrorResponse.builder()
+                                .message(ex.getMessage())
+                                .build();
+                return new ResponseEntity<>(error, HttpStatus.GONE);
+        }
+
+        // A write that lost a race against another write to the same row
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+                        OptimisticLockingFailureException ex, WebRequest request) {
+                ErrorResponse error = ErrorResponse.builder()
+                                .message("The resource was modified by another request, please retry")
+                                .build();
+                return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        }
+
+        @ExceptionHandler(ValidationException.class)
+        public ResponseEntity<ErrorResponse> handleValidationException(ValidationException ex, WebRequest request) {
+                ErrorResponse error = ex.getFieldErrors() != null
+                                ? ErrorResponse.builder().errors(new HashMap<>(ex.getFieldErrors())).build()
+                                : ErrorResponse.builder().message(ex.getMessage()).build();
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex,
+                        WebRequest request) {
+                ErrorResponse error = ErrorResponse.builder()
+                                .message(ex.getMessage())
+                                .build();
+                return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        // BindException covers @ModelAttribute query parameter validation as well as
+        // MethodArgumentNotValidException raised for @RequestBody
+        @ExceptionHandler(BindException.class)
+        public ResponseEntity<ErrorResponse> handleBindException(BindException ex,
                         WebRequest request) {
                 Map<String, List<String>> fieldErrors = new HashMap<>();
 
@@ -16,7 +16,10 @@ public class TerminalEDCMapper {
                 .serialNumber(requestDTO.getSerialNumber())
                 .model(requestDTO.getModel())
                 .manufacturer(requestDTO.getManufacturer())
-                .ipAddress(requestDTO.getIpAddress());
+                // Blank means no address, and must not take part in IP uniqueness
+                .ipAddress(requestDTO.getIpAddress() != null && !requestDTO.getIpAddress().trim().isEmpty()
+                        ? requestDTO.getIpAddress()
+                        : null);
 
         // Convert String status to TerminalStatus enum
         if (requestDTO.getStatus() != null && !requestDTO.getStatus().trim().isEmpty()) {
@@ -42,6 +45,7 @@ public class TerminalEDCMapper {
                 .ipAddress(terminal.getIpAddress())
                 .createdAt(terminal.getCreatedAt())
                 .updatedAt(terminal.getUpdatedAt())
+                .version(terminal.getVersion())
                 .build();
     }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import java.time.Instant;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -13,18 +15,24 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
+import com.rizki.edcmanagement.model.enums.TerminalStatus;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * The composite (terminal_id, timestamp DESC) INCLUDE (id) index is created by
+ * db/echo-log-indexes.sql because it needs an operator class that @Index cannot express.
+ * The same script indexes the terminal attribute copies by (attribute, timestamp DESC).
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "echo_log", indexes = {
-        @Index(name = "idx_echo_terminal_id", columnList = "terminal_id"),
         @Index(name = "idx_echo_timestamp", columnList = "timestamp"),
 })
 public class EchoLog {
@@ -38,4 +46,16 @@ public class EchoLog {
 
     @Column(nullable = false, updatable = false)
     private Instant timestamp;
+
+    /**
+     * Terminal location and status copied at echo time, so echo filters on them need no
+     * join to terminal_edc. Null on rows written before the columns existed until the
+     * startup backfill has filled them.
+     */
+    @Column(name = "terminal_location", updatable = false)
+    private String terminalLocation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "terminal_status", length = 20, updatable = false)
+    private TerminalStatus terminalStatus;
 }
\ No newline at end of file
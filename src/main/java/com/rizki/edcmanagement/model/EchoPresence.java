@@ -0,0 +1,20 @@
+package com.rizki.edcmanagement.model;
+
+import java.time.LocalDate;
+
+import com.rizki.edcmanagement.util.PresenceBitmap;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One row of echo_presence. Not a JPA entity: the BIT(1440) column is read and written
+ * through EchoPresenceRepository.
+ */
+@Data
+@AllArgsConstructor
+public class EchoPresence {
+    private String terminalId;
+    private LocalDate day;
+    private PresenceBitmap minutes;
+}
@@ -0,0 +1,51 @@
+package com.rizki.edcmanagement.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A run of echoes from one terminal with no gap longer than the session gap threshold.
+ * Written instead of echo_log rows when application.echo.storage-mode is SESSION.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "echo_session", indexes = {
+        @Index(name = "idx_echo_session_terminal_last_echo", columnList = "terminal_id, lastEchoAt"),
+        @Index(name = "idx_echo_session_started_at", columnList = "startedAt"),
+})
+public class EchoSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "terminal_id", nullable = false)
+    private TerminalEDC terminal;
+
+    @Column(nullable = false, updatable = false)
+    private Instant startedAt;
+
+    @Column(nullable = false)
+    private Instant lastEchoAt;
+
+    @Column(nullable = false)
+    private Integer echoCount;
+}
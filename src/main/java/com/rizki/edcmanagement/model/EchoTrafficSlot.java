@@ -0,0 +1,32 @@
+package com.rizki.edcmanagement.model;
+
+import java.util.List;
+
+import com.rizki.edcmanagement.util.HyperLogLog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One instance's echo traffic sketches for one UTC minute, as stored in echo_traffic_slot.
+ * Not a JPA entity: the row is read and written through EchoTrafficRepository.
+ */
+@Data
+@AllArgsConstructor
+public class EchoTrafficSlot {
+    private String nodeId;
+    private long minute;
+    private long totalEchoes;
+    // Upper bound on the count of any terminal missing from topTerminals
+    private long minCount;
+    private List<Counter> topTerminals;
+    private HyperLogLog distinctTerminals;
+
+    @Data
+    @AllArgsConstructor
+    public static class Counter {
+        private String terminalId;
+        private long count;
+        private long error;
+    }
+}
@@ -0,0 +1,91 @@
+package com.rizki.edcmanagement.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus;
+import com.rizki.edcmanagement.model.enums.TerminalBulkOperation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A bulk update or delete of the terminals matching a filter, processed in chunks of
+ * terminal IDs in ascending order. Each chunk commits together with the new cursor and
+ * counters, so a stopped job resumes after the last committed chunk.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "terminal_bulk_job", indexes = {
+        @Index(name = "idx_terminal_bulk_job_status", columnList = "status"),
+})
+public class TerminalBulkJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private TerminalBulkOperation operation;
+
+    // GetTerminalEDCRequestDTO filter fields as JSON
+    @Column(nullable = false, columnDefinition = "TEXT", updatable = false)
+    private String filters;
+
+    // UpdateTerminalEDCRequestDTO as JSON, null for deletes
+    @Column(columnDefinition = "TEXT", updatable = false)
+    private String changes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TerminalBulkJobStatus status;
+
+    @Column(nullable = false)
+    private boolean cancelRequested;
+
+    // Last terminal ID of the last committed chunk
+    @Column(length = 15)
+    private String cursorTerminalId;
+
+    // Matching terminals counted when the job first started
+    private Long totalEstimate;
+
+    @Column(nullable = false)
+    private long matched;
+
+    @Column(nullable = false)
+    private long affected;
+
+    @Column(nullable = false)
+    private long skipped;
+
+    @Column(nullable = false)
+    private long chunks;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    // Renewed by every chunk; a RUNNING job with an old heartbeat lost its worker
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,21 @@
+package com.rizki.edcmanagement.model;
+
+import java.time.LocalDateTime;
+
+import com.rizki.edcmanagement.model.enums.TerminalChangeOperation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One row of terminal_change_log. Not a JPA entity: the rows are written by a trigger on
+ * terminal_edc (db/terminal-changes.sql) and read through TerminalChangeRepository.
+ */
+@Data
+@AllArgsConstructor
+public class TerminalChange {
+    private long version;
+    private String terminalId;
+    private TerminalChangeOperation operation;
+    private LocalDateTime changedAt;
+}
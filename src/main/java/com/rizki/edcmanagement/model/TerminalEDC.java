@@ -10,7 +10,9 @@ import javax.persistence.Enumerated;
 import javax.persistence.Id;
 import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.Where;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -33,10 +35,10 @@ import lombok.NoArgsConstructor;
         @Index(name = "idx_serial_number", columnList = "serialNumber"),
         @Index(name = "idx_terminal_location", columnList = "location"),
         @Index(name = "idx_last_maintenance", columnList = "lastMaintenance"),
-        @Index(name = "idx_terminal_ip", columnList = "ipAddress"),
         @Index(name = "idx_created_at", columnList = "createdAt"),
 })
 @EntityListeners(AuditingEntityListener.class)
+@Where(clause = "deleted_at IS NULL")
 public class TerminalEDC {
     /**
      * Terminal ID following pattern: {TYPE}-{LOCATION}-{SEQUENCE}
@@ -67,6 +69,9 @@ public class TerminalEDC {
 
     private LocalDateTime lastMaintenance;
 
+    /**
+     * Unique when set, enforced by uq_terminal_edc_ip_address in db/terminal-constraints.sql
+     */
     private String ipAddress;
 
     @CreatedDate
@@ -75,4 +80,19 @@ public class TerminalEDC {
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
+
+    /**
+     * Incremented by every write, including the statements in TerminalBatchRepository, so a
+     * client can tell whether the terminal changed since it read it. New terminals start at 0.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
+    /**
+     * Set when the terminal is deleted. The row stays, hidden from every JPA query by @Where,
+     * until TerminalPurgeServiceImpl has removed its echo history and then the row itself.
+     * Statements in TerminalBatchRepository must exclude such rows themselves.
+     */
+    private LocalDateTime deletedAt;
 }
\ No newline at end of file
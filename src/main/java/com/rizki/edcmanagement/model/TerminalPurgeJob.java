@@ -0,0 +1,73 @@
+package com.rizki.edcmanagement.model;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Removal of a deleted terminal's echo history in chunks, followed by the terminal row. Each
+ * chunk commits together with the counters, so a stopped job continues with the rows that
+ * are left. Kept after the terminal is gone, so the outcome stays visible.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "terminal_purge_job", indexes = {
+        @Index(name = "idx_terminal_purge_job_status", columnList = "status"),
+        @Index(name = "idx_terminal_purge_job_terminal_id", columnList = "terminalId"),
+})
+public class TerminalPurgeJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 15, updatable = false)
+    private String terminalId;
+
+    // Never CANCELLED: a deleted terminal cannot be restored
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TerminalBulkJobStatus status;
+
+    // Echo log rows and echo sessions counted when the job first started
+    private Long echoesEstimate;
+
+    @Column(nullable = false)
+    private long echoLogsDeleted;
+
+    @Column(nullable = false)
+    private long echoSessionsDeleted;
+
+    @Column(nullable = false)
+    private long chunks;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    // Renewed by every chunk; a RUNNING job with an old heartbeat lost its worker
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime finishedAt;
+}
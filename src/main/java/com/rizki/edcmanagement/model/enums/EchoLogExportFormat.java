@@ -0,0 +1,42 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum EchoLogExportFormat {
+    /**
+     * Comma separated values with a header row
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * One JSON object per line
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    EchoLogExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static EchoLogExportFormat fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return CSV;
+        }
+
+        try {
+            return EchoLogExportFormat.valueOf(value.toUpperCase().trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid export format: " + value +
+                    ". Valid values are: CSV, NDJSON");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum EchoStorageMode {
+    /**
+     * Every echo is stored as one echo_log row
+     */
+    POINT,
+
+    /**
+     * Consecutive echoes of a terminal extend one echo_session row; a gap longer than
+     * the session gap threshold starts a new session
+     */
+    SESSION
+}
@@ -0,0 +1,26 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum PresenceMatchMode {
+    /**
+     * Present on every day of the range (bit_and of the daily bitmaps)
+     */
+    ALL,
+
+    /**
+     * Present on at least one day of the range (bit_or of the daily bitmaps)
+     */
+    ANY;
+
+    public static PresenceMatchMode fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ALL;
+        }
+
+        try {
+            return PresenceMatchMode.valueOf(value.toUpperCase().trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid presence match mode: " + value +
+                    ". Valid values are: ALL, ANY");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum TerminalBulkJobStatus {
+    /**
+     * Waiting for a worker, including jobs handed back by an instance shutting down
+     */
+    PENDING,
+
+    RUNNING,
+
+    COMPLETED,
+
+    /**
+     * Stopped on request between two chunks, resumable
+     */
+    CANCELLED,
+
+    /**
+     * Stopped by an error, resumable from the last committed chunk
+     */
+    FAILED;
+
+    public boolean isResumable() {
+        return this == CANCELLED || this == FAILED;
+    }
+}
@@ -0,0 +1,22 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum TerminalBulkOperation {
+    /**
+     * Set status and fields of the selected terminals, with the side effects of a single update
+     */
+    UPDATE,
+
+    /**
+     * Delete the selected terminals that have no echo history
+     */
+    DELETE;
+
+    public static TerminalBulkOperation fromString(String value) {
+        try {
+            return TerminalBulkOperation.valueOf(value.toUpperCase().trim());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid bulk operation: " + value +
+                    ". Valid values are: UPDATE, DELETE");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum TerminalChangeOperation {
+    CREATE,
+
+    UPDATE,
+
+    /**
+     * The terminal was deleted; its purge is not a separate change
+     */
+    DELETE
+}
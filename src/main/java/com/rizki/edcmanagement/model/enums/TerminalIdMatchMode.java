@@ -0,0 +1,34 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum TerminalIdMatchMode {
+    /**
+     * Terminal ID must equal the filter value.
+     * Served by the (terminal_id, timestamp) index on echo_log
+     */
+    EXACT,
+
+    /**
+     * Terminal ID must start with the filter value (e.g. "EDC-JKT").
+     * Served by the (terminal_id, timestamp) index on echo_log
+     */
+    PREFIX,
+
+    /**
+     * Terminal ID must contain the filter value anywhere.
+     * Matching terminals are resolved through the trigram index on terminal_edc
+     */
+    CONTAINS;
+
+    public static TerminalIdMatchMode fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return CONTAINS;
+        }
+
+        try {
+            return TerminalIdMatchMode.valueOf(value.toUpperCase().trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid terminal ID match mode: " + value +
+                    ". Valid values are: EXACT, PREFIX, CONTAINS");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum TerminalImportFormat {
+    /**
+     * Comma separated values with a header row naming the columns
+     */
+    CSV("text/csv"),
+
+    /**
+     * One JSON object per line, with the fields of a create request
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    TerminalImportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * The format named by {@code value}, or else the one matching the request content type.
+     */
+    public static TerminalImportFormat resolve(String value, String contentType) {
+        // The servlet container reads form bodies as request parameters
+        if (contentType != null && (contentType.startsWith("application/x-www-form-urlencoded")
+                || contentType.startsWith("multipart/"))) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType +
+                    ". Send the file as the raw request body");
+        }
+
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return TerminalImportFormat.valueOf(value.toUpperCase().trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid import format: " + value +
+                        ". Valid values are: CSV, NDJSON");
+            }
+        }
+
+        if (contentType != null) {
+            String mediaType = contentType.split(";")[0].trim().toLowerCase();
+            for (TerminalImportFormat format : values()) {
+                if (format.contentType.equals(mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type: " + contentType +
+                ". Send text/csv or application/x-ndjson, or set the format parameter");
+    }
+}
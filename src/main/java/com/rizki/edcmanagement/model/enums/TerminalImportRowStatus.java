@@ -0,0 +1,20 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum TerminalImportRowStatus {
+    CREATED,
+
+    /**
+     * The row could not be parsed or failed the create request validation
+     */
+    INVALID,
+
+    /**
+     * The terminal ID exists already, or appears earlier in the import
+     */
+    DUPLICATE_ID,
+
+    /**
+     * The IP address is used by another terminal, or appears earlier in the import
+     */
+    DUPLICATE_IP
+}
@@ -0,0 +1,31 @@
+package com.rizki.edcmanagement.model.enums;
+
+public enum TimeSeriesGroupBy {
+    /**
+     * One series with the echoes of every matching terminal
+     */
+    NONE,
+
+    /**
+     * One series per terminal
+     */
+    TERMINAL,
+
+    /**
+     * One series per terminal location
+     */
+    LOCATION;
+
+    public static TimeSeriesGroupBy fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return NONE;
+        }
+
+        try {
+            return TimeSeriesGroupBy.valueOf(value.toUpperCase().trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid time series grouping: " + value +
+                    ". Valid values are: NONE, TERMINAL, LOCATION");
+        }
+    }
+}
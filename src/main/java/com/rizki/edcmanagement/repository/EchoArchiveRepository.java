@@ -0,0 +1,67 @@
+package com.rizki.edcmanagement.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.archive.EchoArchivePurges;
+
+/**
+ * JDBC access to the archive run lease in echo_archive_state and the purged terminals in
+ * echo_archive_purge (db/echo-archive.sql). Times are taken from the database clock, so
+ * instances with skewed clocks agree on expiry.
+ */
+@Repository
+public class EchoArchiveRepository {
+    private static final String STATE_NAME = "echo_archive";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Take the lease if it is free, already ours, or its holder has not renewed it for
+     * {@code leaseMillis}.
+     */
+    public boolean claim(String owner, long leaseMillis) {
+        return jdbcTemplate.update("UPDATE echo_archive_state SET owner = :owner, heartbeat_at = LOCALTIMESTAMP "
+                + "WHERE name = :name AND (owner IS NULL OR owner = :owner "
+                + "OR heartbeat_at < LOCALTIMESTAMP - make_interval(secs => :leaseSeconds))",
+                new MapSqlParameterSource("name", STATE_NAME)
+                        .addValue("owner", owner)
+                        .addValue("leaseSeconds", leaseMillis / 1000.0)) == 1;
+    }
+
+    /**
+     * Renew the lease. Returns false when another instance has taken it over.
+     */
+    public boolean heartbeat(String owner) {
+        return jdbcTemplate.update("UPDATE echo_archive_state SET heartbeat_at = LOCALTIMESTAMP "
+                + "WHERE name = :name AND owner = :owner",
+                new MapSqlParameterSource("name", STATE_NAME).addValue("owner", owner)) == 1;
+    }
+
+    public void release(String owner) {
+        jdbcTemplate.update("UPDATE echo_archive_state SET owner = NULL, heartbeat_at = NULL "
+                + "WHERE name = :name AND owner = :owner",
+                new MapSqlParameterSource("name", STATE_NAME).addValue("owner", owner));
+    }
+
+    /**
+     * Every purge recorded by TerminalBatchRepository#deletePurgedTerminal, with the highest
+     * generation among them.
+     */
+    public EchoArchivePurges findPurges() {
+        Map<String, Long> purgedThroughIds = new HashMap<>();
+        long[] generation = { 0 };
+        jdbcTemplate.query("SELECT terminal_id, purged_through_id, generation FROM echo_archive_purge",
+                resultSet -> {
+                    purgedThroughIds.put(resultSet.getString("terminal_id"), resultSet.getLong("purged_through_id"));
+                    generation[0] = Math.max(generation[0], resultSet.getLong("generation"));
+                });
+        return new EchoArchivePurges(purgedThroughIds, generation[0]);
+    }
+}
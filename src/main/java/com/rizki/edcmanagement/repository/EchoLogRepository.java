@@ -1,11 +1,87 @@
 package com.rizki.edcmanagement.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
 import com.rizki.edcmanagement.model.EchoLog;
 
 @Repository
-public interface EchoLogRepository extends JpaRepository<EchoLog, Long>, JpaSpecificationExecutor<EchoLog> {
-}
\ No newline at end of file
+public interface EchoLogRepository
+        extends JpaRepository<EchoLog, Long>, JpaSpecificationExecutor<EchoLog>, EchoLogRepositoryCustom {
+    @Query("SELECT MIN(e.timestamp) FROM EchoLog e")
+    Instant findEarliestTimestamp();
+
+    /**
+     * Copy the current terminal location and status onto up to {@code batchSize} rows that
+     * lack them, picked through the partial index idx_echo_missing_terminal_attributes.
+     */
+    @Modifying
+    @Query(value = "UPDATE echo_log e SET terminal_location = t.location, terminal_status = t.status "
+            + "FROM terminal_edc t WHERE t.terminal_id = e.terminal_id AND e.id IN ("
+            + "SELECT id FROM echo_log WHERE terminal_status IS NULL ORDER BY id LIMIT :batchSize)",
+            nativeQuery = true)
+    int fillMissingTerminalAttributes(@Param("batchSize") int batchSize);
+
+    /**
+     * Rows of [from, to) grouped by terminal and ordered by (timestamp, id), the order the
+     * archive segment writer expects. Must be called inside a transaction and closed.
+     */
+    @Query("SELECT new com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO(e.id, e.terminal.terminalId, e.timestamp) "
+            + "FROM EchoLog e WHERE e.timestamp >= :from AND e.timestamp < :to "
+            + "ORDER BY e.terminal.terminalId, e.timestamp, e.id")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    Stream<EchoResponseDTO> streamForArchive(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Newest echoes of one terminal, served by the (terminal_id, timestamp) index.
+     */
+    @Query("SELECT new com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO(e.id, e.terminal.terminalId, e.timestamp) "
+            + "FROM EchoLog e WHERE e.terminal.terminalId = :terminalId ORDER BY e.timestamp DESC, e.id DESC")
+    List<EchoResponseDTO> findRecentByTerminalId(@Param("terminalId") String terminalId, Pageable pageable);
+
+    /**
+     * Rows of the given terminals at or after {@code since}, each terminal's rows in timestamp
+     * order. Must be called inside a transaction and closed.
+     */
+    @Query("SELECT new com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO(e.id, e.terminal.terminalId, e.timestamp) "
+            + "FROM EchoLog e WHERE e.terminal.terminalId IN :terminalIds AND e.timestamp >= :since "
+            + "ORDER BY e.timestamp")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    Stream<EchoResponseDTO> streamByTerminalIdsSince(@Param("terminalIds") Collection<String> terminalIds,
+            @Param("since") Instant since);
+
+    /**
+     * Echo count, first and last echo of one terminal in [from, to).
+     */
+    @Query("SELECT COUNT(e), MIN(e.timestamp), MAX(e.timestamp) FROM EchoLog e "
+            + "WHERE e.terminal.terminalId = :terminalId AND e.timestamp >= :from AND e.timestamp < :to")
+    List<Object[]> summarizeByTerminalId(@Param("terminalId") String terminalId, @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    /**
+     * Delete up to {@code limit} rows of [from, to), picked through idx_echo_timestamp, so a
+     * day is removed in short transactions.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM echo_log WHERE id IN (SELECT id FROM echo_log "
+            + "WHERE timestamp >= :from AND timestamp < :to LIMIT :limit)", nativeQuery = true)
+    int deleteByTimestampRange(@Param("from") Instant from, @Param("to") Instant to, @Param("limit") int limit);
+}
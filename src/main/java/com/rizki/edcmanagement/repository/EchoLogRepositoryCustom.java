@@ -0,0 +1,44 @@
+package com.rizki.edcmanagement.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.model.EchoLog;
+
+public interface EchoLogRepositoryCustom {
+    /**
+     * Page through echo logs as a constructor projection of (id, terminal_id, timestamp).
+     * No EchoLog entities or TerminalEDC proxies are created, so nothing is added to the
+     * persistence context.
+     */
+    Page<EchoResponseDTO> findAllAsResponse(Specification<EchoLog> specification, Pageable pageable);
+
+    /**
+     * Same projection as {@link #findAllAsResponse(Specification, Pageable)} for an arbitrary
+     * offset, without a count query.
+     */
+    List<EchoResponseDTO> findRangeAsResponse(Specification<EchoLog> specification, Sort sort, long offset, int limit);
+
+    /**
+     * Stream every matching echo log through a forward-only cursor that fetches
+     * {@code fetchSize} rows per round trip. Must be called inside a transaction, since
+     * the PostgreSQL driver only uses a server-side cursor when auto-commit is off, and
+     * the returned stream must be closed to release the cursor.
+     */
+    Stream<EchoResponseDTO> streamAllAsResponse(Specification<EchoLog> specification, Sort sort, int fetchSize);
+
+    /**
+     * The newest {@code limit} echoes at or after {@code since} of each given terminal, ordered
+     * by terminal ID and then newest first. One LATERAL probe per terminal, each an index-only
+     * scan of idx_echo_terminal_id_timestamp_desc. Unknown terminal IDs yield no rows.
+     */
+    List<EchoResponseDTO> findLatestByTerminalIds(Collection<String> terminalIds, Instant since, int limit);
+}
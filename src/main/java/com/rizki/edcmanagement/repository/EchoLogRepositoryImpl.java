@@ -0,0 +1,135 @@
+package com.rizki.edcmanagement.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.model.EchoLog;
+
+/**
+ * Spring Data fragment implementation for {@link EchoLogRepositoryCustom}.
+ */
+public class EchoLogRepositoryImpl implements EchoLogRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<EchoResponseDTO> findAllAsResponse(Specification<EchoLog> specification, Pageable pageable) {
+        TypedQuery<EchoResponseDTO> typedQuery = createResponseQuery(specification, pageable.getSort());
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<EchoResponseDTO> content = typedQuery.getResultList();
+
+        // Like SimpleJpaRepository, the count query is skipped when the page itself
+        // tells us the total (first page not full, or last page)
+        return PageableExecutionUtils.getPage(content, pageable, () -> countMatching(specification));
+    }
+
+    @Override
+    public List<EchoResponseDTO> findRangeAsResponse(Specification<EchoLog> specification, Sort sort, long offset,
+            int limit) {
+        return createResponseQuery(specification, sort)
+                .setFirstResult((int) Math.min(offset, Integer.MAX_VALUE))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<EchoResponseDTO> streamAllAsResponse(Specification<EchoLog> specification, Sort sort,
+            int fetchSize) {
+        return createResponseQuery(specification, sort)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    public List<EchoResponseDTO> findLatestByTerminalIds(Collection<String> terminalIds, Instant since, int limit) {
+        if (terminalIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // The criteria API cannot express LATERAL, hence the native query
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery("SELECT e.id, t.terminal_id, e.timestamp "
+                + "FROM terminal_edc t CROSS JOIN LATERAL ("
+                + "SELECT l.id, l.timestamp FROM echo_log l "
+                + "WHERE l.terminal_id = t.terminal_id AND l.timestamp >= :since "
+                + "ORDER BY l.timestamp DESC LIMIT :limit) e "
+                + "WHERE t.terminal_id IN (:terminalIds) "
+                + "ORDER BY t.terminal_id, e.timestamp DESC")
+                .setParameter("since", since)
+                .setParameter("limit", limit)
+                .setParameter("terminalIds", terminalIds)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultList();
+
+        List<EchoResponseDTO> echoes = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            echoes.add(new EchoResponseDTO(((Number) row[0]).longValue(), (String) row[1],
+                    ((Timestamp) row[2]).toInstant()));
+        }
+        return echoes;
+    }
+
+    private TypedQuery<EchoResponseDTO> createResponseQuery(Specification<EchoLog> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<EchoResponseDTO> query = criteriaBuilder.createQuery(EchoResponseDTO.class);
+        Root<EchoLog> root = query.from(EchoLog.class);
+        // terminal.terminalId is the foreign key column itself, so no join is rendered
+        query.select(criteriaBuilder.construct(EchoResponseDTO.class,
+                root.get("id"),
+                root.get("terminal").get("terminalId"),
+                root.get("timestamp")));
+        applySpecification(specification, root, query, criteriaBuilder);
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_READONLY, true);
+    }
+
+    private long countMatching(Specification<EchoLog> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<EchoLog> root = query.from(EchoLog.class);
+        query.select(criteriaBuilder.count(root));
+        applySpecification(specification, root, query, criteriaBuilder);
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private void applySpecification(Specification<EchoLog> specification, Root<EchoLog> root,
+            CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        if (specification == null) {
+            return;
+        }
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
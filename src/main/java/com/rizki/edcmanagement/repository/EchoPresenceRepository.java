@@ -0,0 +1,161 @@
+package com.rizki.edcmanagement.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.model.EchoPresence;
+import com.rizki.edcmanagement.util.PresenceBitmap;
+
+/**
+ * JDBC access to echo_presence (db/echo-presence.sql). Fleet queries combine the bitmaps
+ * with bit_and/bit_or in PostgreSQL, so only terminal IDs cross the wire.
+ */
+@Repository
+public class EchoPresenceRepository {
+    private static final String ALL_MINUTES = "repeat('1', 1440)::bit(1440)";
+    private static final String BACKFILL_STATE_NAME = "echo_presence_backfill";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * OR the given minutes into the stored rows, inserting rows that do not exist yet.
+     */
+    public void mergeAll(List<EchoPresence> rows) {
+        SqlParameterSource[] batch = new SqlParameterSource[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            EchoPresence row = rows.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("terminalId", row.getTerminalId())
+                    .addValue("day", Date.valueOf(row.getDay()))
+                    .addValue("minutes", row.getMinutes().toBitString());
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO echo_presence (terminal_id, day, minutes) "
+                + "VALUES (:terminalId, :day, CAST(:minutes AS bit(1440))) "
+                + "ON CONFLICT (terminal_id, day) DO UPDATE SET minutes = echo_presence.minutes | EXCLUDED.minutes",
+                batch);
+    }
+
+    public boolean isBackfillCompleted() {
+        return jdbcTemplate.queryForObject("SELECT completed FROM echo_presence_state WHERE name = :name",
+                new MapSqlParameterSource("name", BACKFILL_STATE_NAME), Boolean.class);
+    }
+
+    /**
+     * Last day the history backfill has written, or null before its first day. Locks the state
+     * row, so instances backfilling at the same time take turns day by day.
+     */
+    public LocalDate findBackfilledThroughForUpdate() {
+        Date day = jdbcTemplate.queryForObject(
+                "SELECT backfilled_through FROM echo_presence_state WHERE name = :name FOR UPDATE",
+                new MapSqlParameterSource("name", BACKFILL_STATE_NAME), Date.class);
+        return day != null ? day.toLocalDate() : null;
+    }
+
+    public void saveBackfillProgress(LocalDate backfilledThrough, boolean completed) {
+        jdbcTemplate.update("UPDATE echo_presence_state SET backfilled_through = :backfilledThrough, "
+                + "completed = :completed WHERE name = :name",
+                new MapSqlParameterSource("name", BACKFILL_STATE_NAME)
+                        .addValue("backfilledThrough", backfilledThrough != null ? Date.valueOf(backfilledThrough) : null)
+                        .addValue("completed", completed));
+    }
+
+    public List<EchoPresence> findByTerminalId(String terminalId, LocalDate from, LocalDate to) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("terminalId", terminalId)
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to));
+
+        return jdbcTemplate.query("SELECT terminal_id, day, minutes::text AS minutes FROM echo_presence "
+                + "WHERE terminal_id = :terminalId AND day BETWEEN :from AND :to ORDER BY day",
+                parameters,
+                (resultSet, rowNumber) -> new EchoPresence(resultSet.getString("terminal_id"),
+                        resultSet.getDate("day").toLocalDate(),
+                        PresenceBitmap.fromBitString(resultSet.getString("minutes"))));
+    }
+
+    /**
+     * Terminals present on every day of [from, to]: at the given minute, or at every minute
+     * when {@code minute} is null.
+     */
+    public List<String> findTerminalsPresentOnAllDays(LocalDate from, LocalDate to, Integer minute,
+            String terminalIdPrefix) {
+        MapSqlParameterSource parameters = rangeParameters(from, to, terminalIdPrefix)
+                .addValue("days", (int) (to.toEpochDay() - from.toEpochDay() + 1))
+                .addValue("minutePosition", minute != null ? minute + 1 : null);
+
+        String minuteCondition = minute != null
+                ? "substring(bit_and(minutes) FROM :minutePosition FOR 1) = B'1'"
+                : "bit_and(minutes) = " + ALL_MINUTES;
+        return jdbcTemplate.queryForList("SELECT terminal_id FROM echo_presence WHERE "
+                + rangeCondition(terminalIdPrefix)
+                + " GROUP BY terminal_id HAVING count(*) = :days AND " + minuteCondition
+                + " ORDER BY terminal_id", parameters, String.class);
+    }
+
+    /**
+     * Terminals present on at least one day of [from, to]: at the given minute, or at any
+     * minute when {@code minute} is null.
+     */
+    public List<String> findTerminalsPresentOnAnyDay(LocalDate from, LocalDate to, Integer minute,
+            String terminalIdPrefix) {
+        MapSqlParameterSource parameters = rangeParameters(from, to, terminalIdPrefix)
+                .addValue("minutePosition", minute != null ? minute + 1 : null);
+
+        String having = minute != null
+                ? " HAVING substring(bit_or(minutes) FROM :minutePosition FOR 1) = B'1'"
+                : "";
+        return jdbcTemplate.queryForList("SELECT terminal_id FROM echo_presence WHERE "
+                + rangeCondition(terminalIdPrefix)
+                + " GROUP BY terminal_id" + having
+                + " ORDER BY terminal_id", parameters, String.class);
+    }
+
+    /**
+     * Stream every row of [from, to]. Must be called inside a transaction for the fetch size
+     * to take effect.
+     */
+    public void forEachInRange(LocalDate from, LocalDate to, String terminalIdPrefix, int fetchSize,
+            Consumer<EchoPresence> consumer) {
+        // A separate template, so the shared one keeps its default fetch size
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streamingTemplate.setFetchSize(fetchSize);
+        NamedParameterJdbcTemplate streaming = new NamedParameterJdbcTemplate(streamingTemplate);
+
+        streaming.query("SELECT terminal_id, day, minutes::text AS minutes FROM echo_presence WHERE "
+                + rangeCondition(terminalIdPrefix),
+                rangeParameters(from, to, terminalIdPrefix),
+                (RowCallbackHandler) resultSet -> {
+                    consumer.accept(new EchoPresence(resultSet.getString("terminal_id"),
+                            resultSet.getDate("day").toLocalDate(),
+                            PresenceBitmap.fromBitString(resultSet.getString("minutes"))));
+                });
+    }
+
+    private static MapSqlParameterSource rangeParameters(LocalDate from, LocalDate to, String terminalIdPrefix) {
+        return new MapSqlParameterSource()
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to))
+                .addValue("terminalIdPrefix", terminalIdPrefix != null ? escapeLike(terminalIdPrefix) + "%" : null);
+    }
+
+    private static String rangeCondition(String terminalIdPrefix) {
+        return "day BETWEEN :from AND :to" + (terminalIdPrefix != null ? " AND terminal_id LIKE :terminalIdPrefix" : "");
+    }
+
+    // PostgreSQL treats backslash as the default LIKE escape character
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,266 @@
+package com.rizki.edcmanagement.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+import com.rizki.edcmanagement.model.enums.TimeSeriesGroupBy;
+
+/**
+ * JDBC access to echo_rollup_hourly (db/echo-rollup.sql) and the on-the-fly bucketing of
+ * echo_log. Both aggregate in PostgreSQL, so one row per (bucket, series) crosses the wire.
+ *
+ * Timestamps are TIMESTAMP columns holding wall-clock time in the JVM's default zone, the way
+ * Hibernate and {@link Timestamp#from(Instant)} bind an Instant. Buckets are UTC, like the
+ * archive's, so every bucketing expression first turns the wall-clock time into an instant
+ * with AT TIME ZONE.
+ */
+@Repository
+public class EchoRollupRepository {
+    private static final String STATE_NAME = "echo_rollup_hourly";
+    // The zone stored wall-clock times were bound in
+    private static final String STORAGE_ZONE = ZoneId.systemDefault().getId();
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Exclusive upper bound of the rolled up hours, or null before the first run. Locks the
+     * state row, so concurrent rollup runs take turns.
+     */
+    public Instant findRolledUpUntilForUpdate() {
+        return toInstant(jdbcTemplate.queryForObject(
+                "SELECT rolled_up_until FROM echo_rollup_state WHERE name = :name FOR UPDATE",
+                new MapSqlParameterSource("name", STATE_NAME), Timestamp.class));
+    }
+
+    public Instant findRolledUpUntil() {
+        return toInstant(jdbcTemplate.queryForObject(
+                "SELECT rolled_up_until FROM echo_rollup_state WHERE name = :name",
+                new MapSqlParameterSource("name", STATE_NAME), Timestamp.class));
+    }
+
+    public void saveRolledUpUntil(Instant rolledUpUntil) {
+        jdbcTemplate.update("UPDATE echo_rollup_state SET rolled_up_until = :rolledUpUntil WHERE name = :name",
+                new MapSqlParameterSource("name", STATE_NAME)
+                        .addValue("rolledUpUntil", Timestamp.from(rolledUpUntil)));
+    }
+
+    public void deleteRange(Instant from, Instant to) {
+        jdbcTemplate.update("DELETE FROM echo_rollup_hourly WHERE bucket >= :from AND bucket < :to",
+                timeParameters(from, to));
+    }
+
+    /**
+     * Count the echo_log rows of [from, to) per terminal and UTC hour. The range must have been
+     * deleted first.
+     */
+    public int insertFromEchoLog(Instant from, Instant to) {
+        return jdbcTemplate.update("INSERT INTO echo_rollup_hourly (bucket, terminal_id, echo_count) "
+                + "SELECT date_trunc('hour', timestamp AT TIME ZONE :storageZone AT TIME ZONE 'UTC') "
+                + "AT TIME ZONE 'UTC' AT TIME ZONE :storageZone, terminal_id, count(*) FROM echo_log "
+                + "WHERE timestamp >= :from AND timestamp < :to GROUP BY 1, 2",
+                timeParameters(from, to).addValue("storageZone", STORAGE_ZONE));
+    }
+
+    /**
+     * Insert hourly counts computed elsewhere, keyed by terminal ID then hour start.
+     */
+    public void insertAll(Map<String, Map<Instant, Long>> counts) {
+        int size = 0;
+        for (Map<Instant, Long> hours : counts.values()) {
+            size += hours.size();
+        }
+
+        SqlParameterSource[] batch = new SqlParameterSource[size];
+        int i = 0;
+        for (Map.Entry<String, Map<Instant, Long>> terminal : counts.entrySet()) {
+            for (Map.Entry<Instant, Long> hour : terminal.getValue().entrySet()) {
+                batch[i++] = new MapSqlParameterSource()
+                        .addValue("bucket", Timestamp.from(hour.getKey()))
+                        .addValue("terminalId", terminal.getKey())
+                        .addValue("echoCount", hour.getValue());
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO echo_rollup_hourly (bucket, terminal_id, echo_count) "
+                + "VALUES (:bucket, :terminalId, :echoCount)", batch);
+    }
+
+    /**
+     * Sum the rolled up hours of [from, to) into buckets of {@code resolutionSeconds}, which
+     * must be a whole number of hours.
+     */
+    public void sumRollup(Instant from, Instant to, long resolutionSeconds, TimeSeriesQuery query,
+            BucketVisitor visitor) {
+        aggregate("echo_rollup_hourly", "bucket", "SUM(x.echo_count)", from, to, resolutionSeconds, query,
+                visitor);
+    }
+
+    /**
+     * Count the echo_log rows of [from, to) into buckets of {@code resolutionSeconds}.
+     */
+    public void countEchoLog(Instant from, Instant to, long resolutionSeconds, TimeSeriesQuery query,
+            BucketVisitor visitor) {
+        aggregate("echo_log", "timestamp", "count(*)", from, to, resolutionSeconds, query, visitor);
+    }
+
+    /**
+     * Location of every terminal matching the query's terminal filters, keyed by terminal ID.
+     */
+    public Map<String, String> findMatchingTerminals(TimeSeriesQuery query) {
+        MapSqlParameterSource parameters = filterParameters(query);
+        StringBuilder sql = new StringBuilder("SELECT t.terminal_id, t.location FROM terminal_edc t WHERE true");
+        appendTerminalConditions(sql, "t", query, false);
+
+        Map<String, String> terminals = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), parameters, (RowCallbackHandler) resultSet -> terminals
+                .put(resultSet.getString("terminal_id"), resultSet.getString("location")));
+        return terminals;
+    }
+
+    private void aggregate(String table, String timeColumn, String aggregate, Instant from, Instant to,
+            long resolutionSeconds, TimeSeriesQuery query, BucketVisitor visitor) {
+        MapSqlParameterSource parameters = filterParameters(query)
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to))
+                .addValue("resolution", resolutionSeconds)
+                .addValue("storageZone", STORAGE_ZONE);
+
+        StringBuilder sql = new StringBuilder("SELECT floor(extract(epoch FROM x.").append(timeColumn)
+                .append(" AT TIME ZONE :storageZone) / :resolution)::bigint AS slot, ").append(seriesColumn(query.getGroupBy()))
+                .append(" AS series, ").append(aggregate).append(" AS echo_count FROM ").append(table).append(" x");
+        boolean joinTerminal = query.getLocation() != null || query.getGroupBy() == TimeSeriesGroupBy.LOCATION;
+        if (joinTerminal) {
+            sql.append(" JOIN terminal_edc t ON t.terminal_id = x.terminal_id");
+        }
+        sql.append(" WHERE x.").append(timeColumn).append(" >= :from AND x.").append(timeColumn).append(" < :to");
+        appendTerminalConditions(sql, "x", query, true);
+        sql.append(" GROUP BY 1, 2");
+
+        jdbcTemplate.query(sql.toString(), parameters, (RowCallbackHandler) resultSet -> visitor.visit(
+                resultSet.getLong("slot"), resultSet.getString("series"), resultSet.getLong("echo_count")));
+    }
+
+    private static String seriesColumn(TimeSeriesGroupBy groupBy) {
+        switch (groupBy) {
+            case TERMINAL:
+                return "x.terminal_id";
+            case LOCATION:
+                return "t.location";
+            case NONE:
+            default:
+                return "CAST(NULL AS varchar)";
+        }
+    }
+
+    /**
+     * Terminal ID conditions on {@code alias}.terminal_id and, when a location is filtered, on
+     * t.location. Contains matches on echo tables go through the trigram index on terminal_edc.
+     */
+    private static void appendTerminalConditions(StringBuilder sql, String alias, TimeSeriesQuery query,
+            boolean echoTable) {
+        if (query.getTerminalId() != null) {
+            switch (query.getMatchMode()) {
+                case EXACT:
+                    sql.append(" AND ").append(alias).append(".terminal_id = :terminalId");
+                    break;
+                case PREFIX:
+                    sql.append(" AND ").append(alias).append(".terminal_id LIKE :terminalIdPattern");
+                    break;
+                case CONTAINS:
+                default:
+                    sql.append(" AND ").append(alias).append(echoTable
+                            ? ".terminal_id IN (SELECT terminal_id FROM terminal_edc WHERE terminal_id LIKE :terminalIdPattern)"
+                            : ".terminal_id LIKE :terminalIdPattern");
+                    break;
+            }
+        }
+        if (query.getLocation() != null) {
+            sql.append(" AND lower(t.location) LIKE :location");
+        }
+    }
+
+    private static MapSqlParameterSource filterParameters(TimeSeriesQuery query) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        if (query.getTerminalId() != null) {
+            String value = escapeLike(query.getTerminalId());
+            parameters.addValue("terminalId", query.getTerminalId())
+                    .addValue("terminalIdPattern", query.getMatchMode() == TerminalIdMatchMode.PREFIX
+                            ? value + "%"
+                            : "%" + value + "%");
+        }
+        if (query.getLocation() != null) {
+            parameters.addValue("location", "%" + escapeLike(query.getLocation()) + "%");
+        }
+        return parameters;
+    }
+
+    private static MapSqlParameterSource timeParameters(Instant from, Instant to) {
+        return new MapSqlParameterSource()
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to));
+    }
+
+    // PostgreSQL treats backslash as the default LIKE escape character
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    /**
+     * Filters and grouping of a time series query. Terminal ID is upper case and location
+     * lower case, or null when not filtered.
+     */
+    public static class TimeSeriesQuery {
+        private final String terminalId;
+        private final TerminalIdMatchMode matchMode;
+        private final String location;
+        private final TimeSeriesGroupBy groupBy;
+
+        public TimeSeriesQuery(String terminalId, TerminalIdMatchMode matchMode, String location,
+                TimeSeriesGroupBy groupBy) {
+            this.terminalId = terminalId;
+            this.matchMode = matchMode;
+            this.location = location;
+            this.groupBy = groupBy;
+        }
+
+        public String getTerminalId() {
+            return terminalId;
+        }
+
+        public TerminalIdMatchMode getMatchMode() {
+            return matchMode;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public TimeSeriesGroupBy getGroupBy() {
+            return groupBy;
+        }
+    }
+
+    public interface BucketVisitor {
+        /**
+         * @param slot bucket start in seconds since the epoch divided by the resolution
+         * @param series terminal ID or location, null when not grouped
+         */
+        void visit(long slot, String series, long echoCount);
+    }
+}
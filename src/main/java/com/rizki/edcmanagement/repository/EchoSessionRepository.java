@@ -0,0 +1,32 @@
+package com.rizki.edcmanagement.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.model.EchoSession;
+
+@Repository
+public interface EchoSessionRepository extends JpaRepository<EchoSession, Long>, JpaSpecificationExecutor<EchoSession> {
+    /**
+     * Newest session of one terminal, served by the (terminal_id, last_echo_at) index.
+     */
+    @Query("SELECT s FROM EchoSession s WHERE s.terminal.terminalId = :terminalId ORDER BY s.lastEchoAt DESC")
+    List<EchoSession> findLatestByTerminalId(@Param("terminalId") String terminalId, Pageable pageable);
+
+    /**
+     * Echo count, session count, first and last echo of the sessions of one terminal that
+     * overlap [from, to). Sessions crossing either bound are counted in full.
+     */
+    @Query("SELECT COALESCE(SUM(s.echoCount), 0), COUNT(s), MIN(s.startedAt), MAX(s.lastEchoAt) "
+            + "FROM EchoSession s WHERE s.terminal.terminalId = :terminalId "
+            + "AND s.lastEchoAt >= :from AND s.startedAt < :to")
+    List<Object[]> summarizeByTerminalId(@Param("terminalId") String terminalId, @Param("from") Instant from,
+            @Param("to") Instant to);
+}
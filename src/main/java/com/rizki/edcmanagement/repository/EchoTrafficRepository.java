@@ -0,0 +1,99 @@
+package com.rizki.edcmanagement.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.model.EchoTrafficSlot;
+import com.rizki.edcmanagement.util.HyperLogLog;
+
+/**
+ * JDBC access to echo_traffic_slot (db/echo-traffic.sql), where every instance publishes its
+ * per-minute traffic sketches so that any instance can answer for the whole cluster.
+ */
+@Repository
+public class EchoTrafficRepository {
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void saveAll(List<EchoTrafficSlot> slots) {
+        SqlParameterSource[] batch = new SqlParameterSource[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            EchoTrafficSlot slot = slots.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("minute", slot.getMinute())
+                    .addValue("nodeId", slot.getNodeId())
+                    .addValue("totalEchoes", slot.getTotalEchoes())
+                    .addValue("minCount", slot.getMinCount())
+                    .addValue("topTerminals", encodeCounters(slot.getTopTerminals()))
+                    .addValue("distinctRegisters", slot.getDistinctTerminals().toBytes());
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO echo_traffic_slot (minute, node_id, total_echoes, min_count, "
+                + "top_terminals, distinct_registers, published_at) "
+                + "VALUES (:minute, :nodeId, :totalEchoes, :minCount, :topTerminals, :distinctRegisters, LOCALTIMESTAMP) "
+                + "ON CONFLICT (minute, node_id) DO UPDATE SET total_echoes = EXCLUDED.total_echoes, "
+                + "min_count = EXCLUDED.min_count, top_terminals = EXCLUDED.top_terminals, "
+                + "distinct_registers = EXCLUDED.distinct_registers, published_at = EXCLUDED.published_at",
+                batch);
+    }
+
+    /**
+     * Slots of minutes in [fromMinute, toMinute] published by instances other than
+     * {@code excludedNodeId}.
+     */
+    public List<EchoTrafficSlot> findByMinuteRange(long fromMinute, long toMinute, String excludedNodeId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("fromMinute", fromMinute)
+                .addValue("toMinute", toMinute)
+                .addValue("nodeId", excludedNodeId);
+
+        return jdbcTemplate.query("SELECT node_id, minute, total_echoes, min_count, top_terminals, distinct_registers "
+                + "FROM echo_traffic_slot WHERE minute BETWEEN :fromMinute AND :toMinute AND node_id <> :nodeId",
+                parameters,
+                (resultSet, rowNumber) -> new EchoTrafficSlot(resultSet.getString("node_id"),
+                        resultSet.getLong("minute"),
+                        resultSet.getLong("total_echoes"),
+                        resultSet.getLong("min_count"),
+                        decodeCounters(resultSet.getString("top_terminals")),
+                        HyperLogLog.fromBytes(resultSet.getBytes("distinct_registers"))));
+    }
+
+    public int deleteOlderThan(long minute) {
+        return jdbcTemplate.update("DELETE FROM echo_traffic_slot WHERE minute < :minute",
+                new MapSqlParameterSource("minute", minute));
+    }
+
+    private static String encodeCounters(List<EchoTrafficSlot.Counter> counters) {
+        StringBuilder encoded = new StringBuilder(counters.size() * 24);
+        for (EchoTrafficSlot.Counter counter : counters) {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(counter.getTerminalId()).append(':').append(counter.getCount())
+                    .append(':').append(counter.getError());
+        }
+        return encoded.toString();
+    }
+
+    private static List<EchoTrafficSlot.Counter> decodeCounters(String encoded) {
+        List<EchoTrafficSlot.Counter> counters = new ArrayList<>();
+        if (encoded.isEmpty()) {
+            return counters;
+        }
+        // Terminal IDs are letters, digits and dashes, so neither separator can appear in them
+        for (String entry : encoded.split(",")) {
+            int errorStart = entry.lastIndexOf(':');
+            int countStart = entry.lastIndexOf(':', errorStart - 1);
+            counters.add(new EchoTrafficSlot.Counter(entry.substring(0, countStart),
+                    Long.parseLong(entry.substring(countStart + 1, errorStart)),
+                    Long.parseLong(entry.substring(errorStart + 1))));
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,428 @@
+package com.rizki.edcmanagement.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.model.enums.TerminalStatus;
+import com.rizki.edcmanagement.util.EntityTags;
+
+/**
+ * Set-based, single-statement and JDBC batch writes to terminal_edc, for creates, imports
+ * and bulk jobs where loading and saving entities would take extra round trips. Auditing
+ * does not run, so timestamps must be set by the caller. The @Where of TerminalEDC does not
+ * apply either: statements skip deleted terminals through their deleted_at condition.
+ */
+@Repository
+public class TerminalBatchRepository {
+    /**
+     * Unique index on ip_address, see db/terminal-constraints.sql
+     */
+    public static final String IP_ADDRESS_INDEX = "uq_terminal_edc_ip_address";
+
+    private static final String INSERT_SQL = "INSERT INTO terminal_edc (terminal_id, location, status, "
+            + "serial_number, model, manufacturer, last_maintenance, ip_address, created_at, updated_at, version) "
+            + "VALUES (:terminalId, :location, :status, :serialNumber, :model, :manufacturer, "
+            + ":lastMaintenance, :ipAddress, :createdAt, :updatedAt, 0) ";
+
+    // Descriptive fields are replaced, the status only when given. Right-hand sides see the
+    // old row, so leaving MAINTENANCE is detected as in a single update. A deleted terminal
+    // is left alone and nothing is returned. xmax is 0 only for a row this statement inserted.
+    private static final String UPSERT_SQL = "INSERT INTO terminal_edc AS t (terminal_id, location, status, "
+            + "serial_number, model, manufacturer, ip_address, created_at, updated_at) "
+            + "VALUES (:terminalId, :location, COALESCE(:status, 'INACTIVE'), :serialNumber, :model, "
+            + ":manufacturer, :ipAddress, :now, :now) "
+            + "ON CONFLICT (terminal_id) DO UPDATE SET location = EXCLUDED.location, "
+            + "serial_number = EXCLUDED.serial_number, model = EXCLUDED.model, "
+            + "manufacturer = EXCLUDED.manufacturer, ip_address = EXCLUDED.ip_address, "
+            + "status = COALESCE(:status, t.status), "
+            + "last_maintenance = CASE WHEN t.status = 'MAINTENANCE' AND COALESCE(:status, t.status) <> 'MAINTENANCE' "
+            + "THEN :now ELSE t.last_maintenance END, "
+            + "updated_at = :now, version = t.version + 1 "
+            + "WHERE t.deleted_at IS NULL "
+            + "RETURNING t.*, (t.xmax = 0) AS inserted";
+
+    // Columns a patch may set, by request field name
+    private static final Map<String, String> PATCH_COLUMNS = new LinkedHashMap<>();
+
+    /**
+     * Field names accepted by {@link #patch}
+     */
+    public static final Set<String> PATCHABLE_FIELDS = Collections.unmodifiableSet(PATCH_COLUMNS.keySet());
+
+    static {
+        PATCH_COLUMNS.put("location", "location");
+        PATCH_COLUMNS.put("status", "status");
+        PATCH_COLUMNS.put("serialNumber", "serial_number");
+        PATCH_COLUMNS.put("model", "model");
+        PATCH_COLUMNS.put("manufacturer", "manufacturer");
+        PATCH_COLUMNS.put("ipAddress", "ip_address");
+    }
+
+    private static final RowMapper<TerminalEDC> TERMINAL_ROW_MAPPER = (resultSet, rowNumber) -> TerminalEDC.builder()
+            .terminalId(resultSet.getString("terminal_id"))
+            .location(resultSet.getString("location"))
+            .status(TerminalStatus.valueOf(resultSet.getString("status")))
+            .serialNumber(resultSet.getString("serial_number"))
+            .model(resultSet.getString("model"))
+            .manufacturer(resultSet.getString("manufacturer"))
+            .lastMaintenance(toLocalDateTime(resultSet.getTimestamp("last_maintenance")))
+            .ipAddress(resultSet.getString("ip_address"))
+            .createdAt(toLocalDateTime(resultSet.getTimestamp("created_at")))
+            .updatedAt(toLocalDateTime(resultSet.getTimestamp("updated_at")))
+            .version(resultSet.getLong("version"))
+            .build();
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Insert the terminal in one statement unless its ID exists already.
+     *
+     * @return whether the terminal was inserted
+     * @throws DuplicateKeyException when another terminal has the same IP address
+     */
+    public boolean insertIfAbsent(TerminalEDC terminal) {
+        return jdbcTemplate.update(INSERT_SQL + "ON CONFLICT (terminal_id) DO NOTHING", toParameters(terminal)) > 0;
+    }
+
+    /**
+     * Insert the terminals as one JDBC batch, skipping any whose ID or IP address is taken
+     * already, also by a deleted terminal that is still being purged. Never throws
+     * DuplicateKeyException, so a row claimed concurrently does not fail the whole batch.
+     *
+     * @return whether each terminal was inserted, in order
+     */
+    public boolean[] insertAllSkippingConflicts(List<TerminalEDC> terminals) {
+        SqlParameterSource[] batch = new SqlParameterSource[terminals.size()];
+        for (int i = 0; i < terminals.size(); i++) {
+            batch[i] = toParameters(terminals.get(i));
+        }
+
+        // No conflict target: every unique index, uq_terminal_edc_ip_address included, is an arbiter
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL + "ON CONFLICT DO NOTHING", batch);
+
+        boolean[] inserted = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            // Exact per row, as long as reWriteBatchedInserts stays off in the JDBC URL
+            inserted[i] = counts[i] > 0;
+        }
+        return inserted;
+    }
+
+    /**
+     * The given IDs that a terminal row holds, deleted terminals included.
+     */
+    public List<String> findTakenTerminalIds(Collection<String> terminalIds) {
+        return jdbcTemplate.queryForList("SELECT terminal_id FROM terminal_edc WHERE terminal_id IN (:terminalIds)",
+                new MapSqlParameterSource("terminalIds", terminalIds), String.class);
+    }
+
+    /**
+     * Create the terminal, or replace the fields of the existing one, in one statement. A
+     * null status keeps the current status, or makes a new terminal INACTIVE.
+     *
+     * @return the terminal as stored, or empty when a deleted terminal with this ID is still
+     *         being purged
+     * @throws DuplicateKeyException when another terminal has the same IP address
+     */
+    public Optional<UpsertResult> upsert(TerminalEDC terminal, LocalDateTime now) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("terminalId", terminal.getTerminalId())
+                .addValue("location", terminal.getLocation())
+                .addValue("status", terminal.getStatus() != null ? terminal.getStatus().name() : null, Types.VARCHAR)
+                .addValue("serialNumber", terminal.getSerialNumber())
+                .addValue("model", terminal.getModel())
+                .addValue("manufacturer", terminal.getManufacturer())
+                .addValue("ipAddress", terminal.getIpAddress(), Types.VARCHAR)
+                .addValue("now", Timestamp.valueOf(now));
+
+        return jdbcTemplate.query(UPSERT_SQL, parameters, (resultSet, rowNumber) -> new UpsertResult(
+                TERMINAL_ROW_MAPPER.mapRow(resultSet, rowNumber), resultSet.getBoolean("inserted")))
+                .stream().findFirst();
+    }
+
+    /**
+     * Set only the given fields of one terminal, in one statement that writes nothing unless
+     * a value differs. Leaving MAINTENANCE records the time in last_maintenance, as a single
+     * update does.
+     *
+     * @param values           new values by field name ({@code location}, {@code status},
+     *                         {@code serialNumber}, {@code model}, {@code manufacturer},
+     *                         {@code ipAddress}); a null value clears the column
+     * @param expectedTags     entity tags the terminal must have, or null for any
+     * @return the terminal as stored, or empty when nothing was written because the terminal
+     *         does not exist, is deleted, has another tag or already has these values
+     * @throws DuplicateKeyException when another terminal has the same IP address
+     */
+    public Optional<TerminalEDC> patch(String terminalId, Map<String, String> values,
+            Collection<EntityTags.Tag> expectedTags, LocalDateTime now) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("terminalId", terminalId)
+                .addValue("now", Timestamp.valueOf(now));
+        List<String> assignments = new ArrayList<>();
+        List<String> differences = new ArrayList<>();
+
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            String column = PATCH_COLUMNS.get(value.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("Field '" + value.getKey() + "' cannot be patched");
+            }
+            parameters.addValue(value.getKey(), value.getValue(), Types.VARCHAR);
+            assignments.add(column + " = :" + value.getKey());
+            differences.add(column + " IS DISTINCT FROM :" + value.getKey());
+        }
+        if (differences.isEmpty()) {
+            return Optional.empty();
+        }
+        if (values.containsKey("status")) {
+            assignments.add("last_maintenance = CASE WHEN status = 'MAINTENANCE' AND :status <> 'MAINTENANCE' "
+                    + "THEN :now ELSE last_maintenance END");
+        }
+        assignments.add("updated_at = :now");
+        assignments.add("version = version + 1");
+
+        String versionCondition = "";
+        if (expectedTags != null) {
+            if (expectedTags.isEmpty()) {
+                return Optional.empty();
+            }
+            List<Object[]> tags = new ArrayList<>(expectedTags.size());
+            for (EntityTags.Tag tag : expectedTags) {
+                tags.add(new Object[] { Timestamp.valueOf(tag.getCreatedAt()), tag.getVersion() });
+            }
+            parameters.addValue("expectedTags", tags);
+            versionCondition = " AND (date_trunc('milliseconds', created_at), version) IN (:expectedTags)";
+        }
+
+        List<TerminalEDC> updated = jdbcTemplate.query("UPDATE terminal_edc SET " + String.join(", ", assignments)
+                + " WHERE terminal_id = :terminalId AND deleted_at IS NULL" + versionCondition
+                + " AND (" + String.join(" OR ", differences) + ") RETURNING *", parameters, TERMINAL_ROW_MAPPER);
+        return updated.stream().findFirst();
+    }
+
+    /**
+     * Whether the write failed on the unique IP address index rather than another constraint.
+     */
+    public static boolean isIpAddressConflict(DataIntegrityViolationException e) {
+        return e.getMessage() != null && e.getMessage().contains(IP_ADDRESS_INDEX);
+    }
+
+    private static MapSqlParameterSource toParameters(TerminalEDC terminal) {
+        return new MapSqlParameterSource()
+                .addValue("terminalId", terminal.getTerminalId())
+                .addValue("location", terminal.getLocation())
+                .addValue("status", terminal.getStatus().name())
+                .addValue("serialNumber", terminal.getSerialNumber())
+                .addValue("model", terminal.getModel())
+                .addValue("manufacturer", terminal.getManufacturer())
+                .addValue("lastMaintenance", toTimestamp(terminal.getLastMaintenance()))
+                .addValue("ipAddress", terminal.getIpAddress())
+                .addValue("createdAt", toTimestamp(terminal.getCreatedAt()))
+                .addValue("updatedAt", toTimestamp(terminal.getUpdatedAt()));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp value) {
+        return value != null ? value.toLocalDateTime() : null;
+    }
+
+    /**
+     * The first {@code limit} IDs after {@code afterTerminalId} of the terminals matching the
+     * specification, in ascending order. Only IDs are read, so no entities are loaded.
+     */
+    public List<String> findIdsAfter(Specification<TerminalEDC> specification, String afterTerminalId, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = criteriaBuilder.createQuery(String.class);
+        Root<TerminalEDC> root = query.from(TerminalEDC.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = specification.toPredicate(root, query, criteriaBuilder);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (afterTerminalId != null) {
+            predicates.add(criteriaBuilder.greaterThan(root.get("terminalId"), afterTerminalId));
+        }
+
+        query.select(root.get("terminalId"))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(criteriaBuilder.asc(root.get("terminalId")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Apply the same changes to the terminals, touching only those where something differs.
+     * Leaving MAINTENANCE records the time in last_maintenance, as a single update does.
+     * Null arguments leave their column alone.
+     *
+     * @return number of terminals changed
+     */
+    public int updateAll(Collection<String> terminalIds, TerminalStatus status, String location,
+            String serialNumber, String model, String manufacturer, LocalDateTime now) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("terminalIds", terminalIds)
+                .addValue("now", Timestamp.valueOf(now));
+        List<String> assignments = new ArrayList<>();
+        List<String> differences = new ArrayList<>();
+
+        if (status != null) {
+            parameters.addValue("status", status.name());
+            // Right-hand sides see the old row, so this compares the previous status
+            assignments.add("last_maintenance = CASE WHEN status = 'MAINTENANCE' AND :status <> 'MAINTENANCE' "
+                    + "THEN :now ELSE last_maintenance END");
+        }
+        addColumn("status", "status", status != null ? status.name() : null, parameters, assignments, differences);
+        addColumn("location", "location", location, parameters, assignments, differences);
+        addColumn("serial_number", "serialNumber", serialNumber, parameters, assignments, differences);
+        addColumn("model", "model", model, parameters, assignments, differences);
+        addColumn("manufacturer", "manufacturer", manufacturer, parameters, assignments, differences);
+        if (differences.isEmpty()) {
+            return 0;
+        }
+        assignments.add("updated_at = :now");
+        assignments.add("version = version + 1");
+
+        return jdbcTemplate.update("UPDATE terminal_edc SET " + String.join(", ", assignments)
+                + " WHERE terminal_id IN (:terminalIds) AND deleted_at IS NULL AND ("
+                + String.join(" OR ", differences) + ")",
+                parameters);
+    }
+
+    /**
+     * Mark the terminals deleted and free their IP addresses, like a single delete. Their echo
+     * history stays until a purge job removes it together with the row.
+     *
+     * @return IDs of the terminals deleted, without those another request deleted first
+     */
+    public List<String> softDeleteAll(Collection<String> terminalIds, LocalDateTime now) {
+        return jdbcTemplate.queryForList("UPDATE terminal_edc SET deleted_at = :now, ip_address = NULL, "
+                + "updated_at = :now, version = version + 1 "
+                + "WHERE terminal_id IN (:terminalIds) AND deleted_at IS NULL RETURNING terminal_id",
+                new MapSqlParameterSource("terminalIds", terminalIds)
+                        .addValue("now", Timestamp.valueOf(now)),
+                String.class);
+    }
+
+    /**
+     * Echo log rows and echo sessions of the terminal, for the progress of a purge.
+     */
+    public long countEchoes(String terminalId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("terminalId", terminalId);
+        Long count = jdbcTemplate.queryForObject("SELECT (SELECT count(*) FROM echo_log WHERE terminal_id = :terminalId) "
+                + "+ (SELECT count(*) FROM echo_session WHERE terminal_id = :terminalId)", parameters, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Delete at most {@code limit} echo log rows of the terminal. The rows are found through
+     * the (terminal_id, timestamp) index, so each call only locks the rows it deletes.
+     *
+     * @return number of rows deleted, 0 once none are left
+     */
+    public int deleteEchoLogs(String terminalId, int limit) {
+        return jdbcTemplate.update("DELETE FROM echo_log WHERE id IN "
+                + "(SELECT id FROM echo_log WHERE terminal_id = :terminalId LIMIT :limit)",
+                new MapSqlParameterSource("terminalId", terminalId).addValue("limit", limit));
+    }
+
+    /**
+     * Delete at most {@code limit} echo sessions of the terminal.
+     *
+     * @return number of sessions deleted, 0 once none are left
+     */
+    public int deleteEchoSessions(String terminalId, int limit) {
+        return jdbcTemplate.update("DELETE FROM echo_session WHERE id IN "
+                + "(SELECT id FROM echo_session WHERE terminal_id = :terminalId LIMIT :limit)",
+                new MapSqlParameterSource("terminalId", terminalId).addValue("limit", limit));
+    }
+
+    /**
+     * Delete a deleted terminal once no echo log row or echo session refers to it, together
+     * with its presence and hourly rollup rows. Those hold one row per day or hour, few
+     * enough for one statement each. Its archived echoes cannot be deleted from the segments,
+     * so the purge is recorded in echo_archive_purge for the archive readers to skip them.
+     *
+     * @return whether the terminal row was deleted
+     * @throws DataIntegrityViolationException when an echo was recorded after the check
+     */
+    public boolean deletePurgedTerminal(String terminalId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("terminalId", terminalId);
+        int deleted = jdbcTemplate.update("DELETE FROM terminal_edc t WHERE t.terminal_id = :terminalId "
+                + "AND t.deleted_at IS NOT NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM echo_log e WHERE e.terminal_id = t.terminal_id) "
+                + "AND NOT EXISTS (SELECT 1 FROM echo_session s WHERE s.terminal_id = t.terminal_id)", parameters);
+        if (deleted > 0) {
+            jdbcTemplate.update("DELETE FROM echo_presence WHERE terminal_id = :terminalId", parameters);
+            jdbcTemplate.update("DELETE FROM echo_rollup_hourly WHERE terminal_id = :terminalId", parameters);
+            // Every echo the terminal ever recorded has an ID up to the sequence's last value
+            jdbcTemplate.update("INSERT INTO echo_archive_purge (terminal_id, purged_through_id, generation) "
+                    + "VALUES (:terminalId, COALESCE(pg_sequence_last_value(pg_get_serial_sequence('echo_log', 'id')), 0), "
+                    + "nextval('echo_archive_purge_generation_seq')) "
+                    + "ON CONFLICT (terminal_id) DO UPDATE SET "
+                    + "purged_through_id = GREATEST(echo_archive_purge.purged_through_id, EXCLUDED.purged_through_id), "
+                    + "generation = EXCLUDED.generation", parameters);
+        }
+        return deleted > 0;
+    }
+
+    private static void addColumn(String column, String parameter, String value, MapSqlParameterSource parameters,
+            List<String> assignments, List<String> differences) {
+        if (value == null) {
+            return;
+        }
+        parameters.addValue(parameter, value);
+        assignments.add(column + " = :" + parameter);
+        differences.add(column + " IS DISTINCT FROM :" + parameter);
+    }
+
+    public static class UpsertResult {
+        private final TerminalEDC terminal;
+        private final boolean inserted;
+
+        public UpsertResult(TerminalEDC terminal, boolean inserted) {
+            this.terminal = terminal;
+            this.inserted = inserted;
+        }
+
+        public TerminalEDC getTerminal() {
+            return terminal;
+        }
+
+        public boolean isInserted() {
+            return inserted;
+        }
+    }
+}
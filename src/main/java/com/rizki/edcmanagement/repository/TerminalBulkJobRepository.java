@@ -0,0 +1,49 @@
+package com.rizki.edcmanagement.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.model.TerminalBulkJob;
+
+@Repository
+public interface TerminalBulkJobRepository extends JpaRepository<TerminalBulkJob, Long> {
+    /**
+     * Loads the job with SELECT ... FOR UPDATE, so chunks, cancellation and resumption of
+     * one job never interleave.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM TerminalBulkJob j WHERE j.id = :id")
+    Optional<TerminalBulkJob> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Jobs waiting for a worker, and running jobs whose worker stopped renewing the heartbeat.
+     */
+    @Query("SELECT j.id FROM TerminalBulkJob j WHERE j.status = com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus.PENDING "
+            + "OR (j.status = com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus.RUNNING "
+            + "AND j.heartbeatAt < :staleBefore) ORDER BY j.id")
+    List<Long> findClaimableIds(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Take a claimable job for this instance. Only one of several competing instances
+     * updates the row.
+     *
+     * @return 1 when claimed
+     */
+    @Modifying
+    @Query("UPDATE TerminalBulkJob j SET j.status = com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus.RUNNING, "
+            + "j.heartbeatAt = :now, j.startedAt = COALESCE(j.startedAt, :now) WHERE j.id = :id "
+            + "AND (j.status = com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus.PENDING "
+            + "OR (j.status = com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus.RUNNING "
+            + "AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,106 @@
+package com.rizki.edcmanagement.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.rizki.edcmanagement.model.TerminalChange;
+import com.rizki.edcmanagement.model.enums.TerminalChangeOperation;
+
+/**
+ * JDBC access to the terminal change log (db/terminal-changes.sql).
+ */
+@Repository
+public class TerminalChangeRepository {
+    private static final String STATE_NAME = "terminal_change_log";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Versions up to this one were removed by retention. Locks the state row, so the
+     * sequencer and retention runs of all instances take turns.
+     */
+    public long findPrunedThroughForUpdate() {
+        Long prunedThrough = jdbcTemplate.queryForObject(
+                "SELECT pruned_through FROM terminal_change_state WHERE name = :name FOR UPDATE",
+                new MapSqlParameterSource("name", STATE_NAME), Long.class);
+        return prunedThrough != null ? prunedThrough : 0;
+    }
+
+    public long findPrunedThrough() {
+        Long prunedThrough = jdbcTemplate.queryForObject(
+                "SELECT pruned_through FROM terminal_change_state WHERE name = :name",
+                new MapSqlParameterSource("name", STATE_NAME), Long.class);
+        return prunedThrough != null ? prunedThrough : 0;
+    }
+
+    public void savePrunedThrough(long prunedThrough) {
+        jdbcTemplate.update("UPDATE terminal_change_state SET pruned_through = :prunedThrough WHERE name = :name",
+                new MapSqlParameterSource("name", STATE_NAME).addValue("prunedThrough", prunedThrough));
+    }
+
+    /**
+     * Number the committed pending changes in the order they were written and move them to
+     * the log, in one statement. Must run under {@link #findPrunedThroughForUpdate()}.
+     *
+     * @return number of changes moved
+     */
+    public int sequencePending() {
+        return jdbcTemplate.update("WITH moved AS (DELETE FROM terminal_change_pending "
+                + "RETURNING id, terminal_id, operation, changed_at) "
+                + "INSERT INTO terminal_change_log (version, terminal_id, operation, changed_at) "
+                + "SELECT nextval('terminal_change_version_seq'), terminal_id, operation, changed_at "
+                + "FROM (SELECT * FROM moved ORDER BY id) ordered",
+                new MapSqlParameterSource());
+    }
+
+    /**
+     * The first {@code limit} changes after {@code since}, oldest first.
+     */
+    public List<TerminalChange> findAfter(long since, int limit) {
+        return jdbcTemplate.query("SELECT version, terminal_id, operation, changed_at FROM terminal_change_log "
+                + "WHERE version > :since ORDER BY version LIMIT :limit",
+                new MapSqlParameterSource("since", since).addValue("limit", limit),
+                (resultSet, rowNumber) -> new TerminalChange(
+                        resultSet.getLong("version"),
+                        resultSet.getString("terminal_id"),
+                        TerminalChangeOperation.valueOf(resultSet.getString("operation")),
+                        resultSet.getTimestamp("changed_at").toLocalDateTime()));
+    }
+
+    /**
+     * Highest version in the log, or {@code prunedThrough} when retention emptied it.
+     */
+    public long findLatestVersion(long prunedThrough) {
+        Long latest = jdbcTemplate.queryForObject("SELECT max(version) FROM terminal_change_log",
+                new MapSqlParameterSource(), Long.class);
+        return latest != null ? Math.max(latest, prunedThrough) : prunedThrough;
+    }
+
+    /**
+     * Highest version recorded before {@code cutoff}, or null when there is none.
+     */
+    public Long findLastVersionBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForObject("SELECT max(version) FROM terminal_change_log WHERE changed_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)), Long.class);
+    }
+
+    /**
+     * Delete up to {@code limit} of the oldest changes with a version up to {@code through}.
+     *
+     * @return highest version deleted, or null when none were left
+     */
+    public Long deleteOldest(long through, int limit) {
+        List<Long> deleted = jdbcTemplate.queryForList("DELETE FROM terminal_change_log WHERE version IN "
+                + "(SELECT version FROM terminal_change_log WHERE version <= :through ORDER BY version LIMIT :limit) "
+                + "RETURNING version",
+                new MapSqlParameterSource("through", through).addValue("limit", limit), Long.class);
+        return deleted.stream().max(Long::compare).orElse(null);
+    }
+}
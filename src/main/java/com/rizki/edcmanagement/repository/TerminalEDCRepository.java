@@ -1,13 +1,63 @@
 package com.rizki.edcmanagement.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.model.enums.TerminalStatus;
 
 @Repository
 public interface TerminalEDCRepository
         extends JpaRepository<TerminalEDC, String>, JpaSpecificationExecutor<TerminalEDC> {
     boolean existsByIpAddress(String ipAddress);
-}
\ No newline at end of file
+
+    /**
+     * Loads the terminal with SELECT ... FOR UPDATE, serializing writers of the same terminal
+     * until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TerminalEDC t WHERE t.terminalId = :terminalId")
+    Optional<TerminalEDC> findByIdForUpdate(@Param("terminalId") String terminalId);
+
+    @Query("SELECT t.terminalId FROM TerminalEDC t ORDER BY t.terminalId")
+    List<String> findAllTerminalIds();
+
+    @Query("SELECT t.terminalId FROM TerminalEDC t WHERE t.terminalId IN :terminalIds")
+    List<String> findExistingTerminalIds(@Param("terminalIds") Collection<String> terminalIds);
+
+    @Query("SELECT DISTINCT t.ipAddress FROM TerminalEDC t WHERE t.ipAddress IN :ipAddresses")
+    List<String> findExistingIpAddresses(@Param("ipAddresses") Collection<String> ipAddresses);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    @Query("SELECT t.terminalId FROM TerminalEDC t WHERE t.status = :status")
+    Stream<String> streamTerminalIdsByStatus(@Param("status") TerminalStatus status);
+
+    /**
+     * Bulk status change that only touches terminals still in {@code currentStatus}, so a
+     * terminal moved to maintenance in the meantime is left alone.
+     */
+    @Modifying
+    @Query("UPDATE TerminalEDC t SET t.status = :newStatus, t.updatedAt = :updatedAt, t.version = t.version + 1 "
+            + "WHERE t.terminalId IN :terminalIds AND t.status = :currentStatus AND t.deletedAt IS NULL")
+    int updateStatusWhereCurrent(@Param("terminalIds") Collection<String> terminalIds,
+            @Param("currentStatus") TerminalStatus currentStatus,
+            @Param("newStatus") TerminalStatus newStatus,
+            @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -0,0 +1,16 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.dto.availability.response.AvailabilityReportResponseDTO;
+import com.rizki.edcmanagement.dto.availability.response.AvailabilityResponseDTO;
+
+public interface AvailabilityService {
+    /**
+     * Availability of one terminal over [from, to), both UTC dates or date-times.
+     */
+    AvailabilityResponseDTO getAvailability(String terminalId, String from, String to);
+
+    /**
+     * Availability of every terminal over one UTC calendar month (yyyy-MM).
+     */
+    AvailabilityReportResponseDTO getMonthlyReport(String month);
+}
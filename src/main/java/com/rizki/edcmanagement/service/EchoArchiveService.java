@@ -0,0 +1,22 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.archive.EchoArchive;
+
+public interface EchoArchiveService {
+    /**
+     * Current snapshot of published archive segments. Take it once per request so the live
+     * query and the archive reads agree on the archive boundary.
+     */
+    EchoArchive getArchive();
+
+    /**
+     * Reload the purged terminals whose archived rows are skipped. Called after a purge on
+     * this instance; other instances pick purges up when they rescan.
+     */
+    void refreshPurges();
+
+    /**
+     * Move every closed day older than the hot window from echo_log into archive segments.
+     */
+    void archiveClosedDays();
+}
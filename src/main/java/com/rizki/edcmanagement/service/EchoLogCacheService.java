@@ -0,0 +1,26 @@
+package com.rizki.edcmanagement.service;
+
+import java.util.function.Supplier;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.dto.echo.response.PagedEchoLogResponseDTO;
+
+public interface EchoLogCacheService {
+    /**
+     * Strong ETag for an echo log query whose date range ends before the current UTC day, so
+     * only a terminal purge can change its result. Null when the result may still change
+     * otherwise.
+     */
+    String closedRangeETag(GetEchoLogRequestDTO requestDTO);
+
+    /**
+     * The cached page for an ETag returned by {@link #closedRangeETag}, loading and caching it
+     * on a miss.
+     */
+    PagedEchoLogResponseDTO getOrLoad(String eTag, Supplier<PagedEchoLogResponseDTO> loader);
+
+    /**
+     * Cache-Control max-age in seconds for responses of closed ranges.
+     */
+    long getMaxAgeSeconds();
+}
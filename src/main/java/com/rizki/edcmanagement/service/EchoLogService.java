@@ -1,12 +1,52 @@
 package com.rizki.edcmanagement.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import com.rizki.edcmanagement.dto.echo.request.EchoRequestDTO;
 import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
 import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoStatsResponseDTO;
 import com.rizki.edcmanagement.dto.echo.response.PagedEchoLogResponseDTO;
+import com.rizki.edcmanagement.dto.echo.response.TerminalLatestEchoesDTO;
+import com.rizki.edcmanagement.model.enums.EchoLogExportFormat;
 
 public interface EchoLogService {
     EchoResponseDTO createEchoLog(String signature, EchoRequestDTO requestDTO);
 
     PagedEchoLogResponseDTO getAllEchoLogs(GetEchoLogRequestDTO requestDTO);
-}
\ No newline at end of file
+
+    /**
+     * Write every echo log matching the filters to the output stream, ignoring page and size.
+     *
+     * @return number of rows written
+     */
+    long exportEchoLogs(GetEchoLogRequestDTO requestDTO, EchoLogExportFormat format, OutputStream outputStream)
+            throws IOException;
+
+    /**
+     * Echo count and first/last echo of one terminal in [timestampFrom, timestampTo + 1 day),
+     * read from echo_log and the archive or from echo_session depending on the storage mode.
+     */
+    EchoStatsResponseDTO getEchoStats(String terminalId, String timestampFrom, String timestampTo);
+
+    /**
+     * The newest {@code limit} echoes of each terminal, in the order the IDs were given.
+     */
+    List<TerminalLatestEchoesDTO> getLatestEchoes(List<String> terminalIds, Integer limit);
+
+    /**
+     * Last echo of each terminal that has one, from a single batched query.
+     */
+    Map<String, Instant> findLastEchoAt(Collection<String> terminalIds);
+
+    /**
+     * Whether every echo_log row carries the terminal location and status copies, i.e. the
+     * startup backfill has finished.
+     */
+    boolean hasCompleteTerminalAttributes();
+}
@@ -0,0 +1,29 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.dto.presence.response.FleetPresenceResponseDTO;
+import com.rizki.edcmanagement.dto.presence.response.PresenceHeatmapResponseDTO;
+import com.rizki.edcmanagement.dto.presence.response.TerminalPresenceResponseDTO;
+
+public interface EchoPresenceService {
+    /**
+     * Minute presence of one terminal for each UTC day of [from, to], optionally checked at a time (HH:mm).
+     */
+    TerminalPresenceResponseDTO getTerminalPresence(String terminalId, String from, String to, String time);
+
+    /**
+     * Terminals present on all (or any) days of [from, to], at a time (HH:mm) or, without one, all
+     * day (for ALL) or at some point (for ANY).
+     */
+    FleetPresenceResponseDTO getFleetPresence(String from, String to, String time, String match,
+            String terminalIdPrefix);
+
+    /**
+     * Number of terminals present in each bucket of each UTC day of [from, to].
+     */
+    PresenceHeatmapResponseDTO getHeatmap(String from, String to, Integer bucketMinutes, String terminalIdPrefix);
+
+    /**
+     * Write the minutes recorded since the last flush to echo_presence.
+     */
+    void flush();
+}
@@ -0,0 +1,26 @@
+package com.rizki.edcmanagement.service;
+
+import java.time.Instant;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.model.EchoSession;
+import com.rizki.edcmanagement.model.TerminalEDC;
+
+public interface EchoSessionService {
+    /**
+     * Extend the terminal's latest session with an echo at {@code timestamp}, or open a new
+     * session when the latest one ended more than the gap threshold earlier. The caller must
+     * hold a write lock on the terminal row for the current transaction.
+     */
+    EchoSession recordEcho(TerminalEDC terminal, Instant timestamp);
+
+    /**
+     * One page of sessions matching the echo log filters, as echo log rows whose timestamp is
+     * the session start.
+     */
+    Page<EchoResponseDTO> findSessions(GetEchoLogRequestDTO requestDTO, Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package com.rizki.edcmanagement.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.rizki.edcmanagement.dto.echo.request.EchoStreamRequestDTO;
+
+public interface EchoStreamService {
+    /**
+     * Open a Server-Sent Events stream of newly recorded echoes matching the filters.
+     */
+    SseEmitter subscribe(EchoStreamRequestDTO requestDTO);
+}
@@ -0,0 +1,17 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.dto.timeseries.response.EchoTimeSeriesResponseDTO;
+
+public interface EchoTimeSeriesService {
+    /**
+     * Echo counts of [from, to) in buckets of the given resolution (e.g. 5m, 1h, 1d) or, without
+     * one, of the finest resolution that fits the window into {@code points} buckets.
+     */
+    EchoTimeSeriesResponseDTO getTimeSeries(String from, String to, String resolution, Integer points,
+            String terminalId, String terminalIdMatch, String location, String groupBy);
+
+    /**
+     * Count the echoes of every closed hour not rolled up yet into echo_rollup_hourly.
+     */
+    void rollUp();
+}
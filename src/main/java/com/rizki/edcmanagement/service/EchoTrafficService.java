@@ -0,0 +1,11 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.dto.traffic.response.EchoTrafficResponseDTO;
+
+public interface EchoTrafficService {
+    /**
+     * Echo volume, distinct terminals and the busiest terminals over the last
+     * {@code windowMinutes} minutes, read from in-memory sketches.
+     */
+    EchoTrafficResponseDTO getTraffic(Integer windowMinutes, Integer top);
+}
@@ -0,0 +1,12 @@
+package com.rizki.edcmanagement.service;
+
+import java.util.List;
+
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+
+public interface RecentEchoService {
+    /**
+     * Newest echoes of a terminal, newest first, served from memory when possible.
+     */
+    List<EchoResponseDTO> getRecentEchoes(String terminalId, Integer limit);
+}
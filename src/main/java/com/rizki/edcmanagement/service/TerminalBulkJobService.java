@@ -0,0 +1,23 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.dto.terminal.request.CreateTerminalBulkJobRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalBulkJobResponseDTO;
+
+public interface TerminalBulkJobService {
+    /**
+     * Queue a bulk job. It runs in the background on any instance.
+     */
+    TerminalBulkJobResponseDTO createJob(CreateTerminalBulkJobRequestDTO requestDTO);
+
+    TerminalBulkJobResponseDTO getJob(Long jobId);
+
+    /**
+     * Stop the job before its next chunk. Committed chunks stay applied.
+     */
+    TerminalBulkJobResponseDTO cancelJob(Long jobId);
+
+    /**
+     * Queue a cancelled or failed job again, continuing after its last committed chunk.
+     */
+    TerminalBulkJobResponseDTO resumeJob(Long jobId);
+}
@@ -0,0 +1,24 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.dto.terminal.response.TerminalChangeFeedResponseDTO;
+
+public interface TerminalChangeService {
+    /**
+     * Terminal changes with a version above {@code since}, oldest first. Without
+     * {@code since}, no changes are returned, only the latest version to start from.
+     *
+     * @param includeTerminals whether to add the current state of created and updated
+     *                         terminals
+     */
+    TerminalChangeFeedResponseDTO getChanges(Long since, int size, boolean includeTerminals);
+
+    /**
+     * Number the changes committed since the last run, making them visible in the feed.
+     */
+    void sequenceChanges();
+
+    /**
+     * Remove changes older than the retention period.
+     */
+    void pruneChanges();
+}
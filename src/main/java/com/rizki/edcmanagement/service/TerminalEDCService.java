@@ -1,10 +1,21 @@
 package com.rizki.edcmanagement.service;
 
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
 import com.rizki.edcmanagement.dto.terminal.request.CreateTerminalEDCRequestDTO;
 import com.rizki.edcmanagement.dto.terminal.request.GetTerminalEDCRequestDTO;
 import com.rizki.edcmanagement.dto.terminal.request.UpdateTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.request.UpsertTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.response.MultiGetTerminalEDCResponseDTO;
 import com.rizki.edcmanagement.dto.terminal.response.PagedTerminalEDCResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalCacheStatsResponseDTO;
 import com.rizki.edcmanagement.dto.terminal.response.TerminalEDCResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalPurgeJobResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalUpsertResultDTO;
+import com.rizki.edcmanagement.util.EntityTags;
 
 public interface TerminalEDCService {
     TerminalEDCResponseDTO createTerminal(CreateTerminalEDCRequestDTO requestDTO);
@@ -13,7 +24,44 @@ public interface TerminalEDCService {
 
     TerminalEDCResponseDTO getTerminalById(String terminalId);
 
-    TerminalEDCResponseDTO updateTerminal(String terminalId, UpdateTerminalEDCRequestDTO requestDTO);
+    /**
+     * Look up several terminals at once: cached ones from the cache of
+     * {@link #getTerminalById(String)}, the others with one query. Unknown IDs are reported
+     * as not found instead of failing the request.
+     */
+    MultiGetTerminalEDCResponseDTO getTerminalsByIds(List<String> terminalIds);
+
+    /**
+     * @param expectedTags entity tags the terminal must have (If-Match), or null for any
+     */
+    TerminalEDCResponseDTO updateTerminal(String terminalId, UpdateTerminalEDCRequestDTO requestDTO,
+            Collection<EntityTags.Tag> expectedTags);
+
+    /**
+     * Apply a JSON merge patch: fields present are set, null clears them, absent ones are
+     * left alone. Writes nothing when the terminal already has the values.
+     *
+     * @param expectedTags entity tags the terminal must have (If-Match), or null for any
+     */
+    TerminalEDCResponseDTO patchTerminal(String terminalId, JsonNode patch, Collection<EntityTags.Tag> expectedTags);
+
+    /**
+     * Hide the terminal and free its IP address at once, and queue the purge of its echo
+     * history, after which the terminal row is removed.
+     */
+    TerminalPurgeJobResponseDTO deleteTerminal(String terminalId);
+
+    /**
+     * Create the terminal or replace the existing one, in a single statement.
+     */
+    TerminalUpsertResultDTO upsertTerminal(String terminalId, UpsertTerminalEDCRequestDTO requestDTO);
+
+    /**
+     * Size and hit rate of the cache behind {@link #getTerminalById(String)}.
+     */
+    TerminalCacheStatsResponseDTO getCacheStats();
+
+    void evictCachedTerminals(Collection<String> terminalIds);
 
-    void deleteTerminal(String terminalId);
+    void evictAllCachedTerminals();
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.rizki.edcmanagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.rizki.edcmanagement.dto.terminal.response.TerminalImportSummaryDTO;
+import com.rizki.edcmanagement.model.enums.TerminalImportFormat;
+
+public interface TerminalImportService {
+    /**
+     * Create the terminals read from {@code input}, one chunk per transaction. Writes one
+     * NDJSON status line per row to {@code report}, followed by a {"summary": ...} line.
+     */
+    TerminalImportSummaryDTO importTerminals(InputStream input, TerminalImportFormat format, OutputStream report)
+            throws IOException;
+}
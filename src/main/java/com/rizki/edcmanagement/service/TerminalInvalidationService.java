@@ -0,0 +1,11 @@
+package com.rizki.edcmanagement.service;
+
+import java.util.Collection;
+
+public interface TerminalInvalidationService {
+    /**
+     * Tell the other instances to evict these terminals. Sent with the current transaction,
+     * so it is delivered when the transaction commits and dropped if it rolls back.
+     */
+    void publish(Collection<String> terminalIds);
+}
@@ -0,0 +1,18 @@
+package com.rizki.edcmanagement.service;
+
+import com.rizki.edcmanagement.dto.terminal.response.TerminalPurgeJobResponseDTO;
+
+public interface TerminalPurgeService {
+    /**
+     * Queue the purge of a terminal that the current transaction marks as deleted. The job
+     * starts once the transaction commits and runs in the background on any instance.
+     */
+    TerminalPurgeJobResponseDTO queuePurge(String terminalId);
+
+    TerminalPurgeJobResponseDTO getJob(Long jobId);
+
+    /**
+     * Queue a failed job again, continuing with the echo rows that are left.
+     */
+    TerminalPurgeJobResponseDTO resumeJob(Long jobId);
+}
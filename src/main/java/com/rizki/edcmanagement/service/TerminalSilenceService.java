@@ -0,0 +1,12 @@
+package com.rizki.edcmanagement.service;
+
+import java.time.Instant;
+
+public interface TerminalSilenceService {
+    /**
+     * Expect another echo from the terminal within the silence timeout of {@code seenAt}.
+     */
+    void watch(String terminalId, Instant seenAt);
+
+    int getWatchedTerminalCount();
+}
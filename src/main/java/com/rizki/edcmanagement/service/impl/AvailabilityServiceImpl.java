@@ -0,0 +1,437 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rizki.edcmanagement.archive.EchoArchive;
+import com.rizki.edcmanagement.dto.availability.response.AvailabilityReportResponseDTO;
+import com.rizki.edcmanagement.dto.availability.response.AvailabilityResponseDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.event.TerminalsDeletedEvent;
+import com.rizki.edcmanagement.event.TerminalsPurgedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.exception.ResourceNotFoundException;
+import com.rizki.edcmanagement.repository.EchoLogRepository;
+import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.AvailabilityService;
+import com.rizki.edcmanagement.service.EchoArchiveService;
+import com.rizki.edcmanagement.util.ConnectivityTimeline;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+/**
+ * Keeps a connectivity timeline per queried terminal. Echoes can be recorded by any instance, so
+ * timelines are not fed by local events: every query first reads the terminal's echo_log rows
+ * since its last sync, going back by the sync overlap to catch echoes that committed late. A
+ * timeline whose last sync predates rows moved to the archive since is rebuilt from scratch.
+ */
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+    private static final int DEFAULT_WINDOW_DAYS = 30;
+    // Slices per report thread, so one slow slice does not leave the other threads idle
+    private static final int SLICES_PER_THREAD = 4;
+
+    @Autowired
+    private EchoLogRepository echoLogRepository;
+
+    @Autowired
+    private TerminalEDCRepository terminalEDCRepository;
+
+    @Autowired
+    private EchoArchiveService echoArchiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.availability.gap-threshold-ms:300000}")
+    private long gapThresholdMillis;
+
+    @Value("${application.availability.report-threads:4}")
+    private int reportThreads;
+
+    @Value("${application.availability.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    @Value("${application.availability.sync-overlap-ms:60000}")
+    private long syncOverlapMillis;
+
+    @Value("${application.availability.max-timelines:20000}")
+    private int maxTimelines;
+
+    @Value("${application.availability.idle-timeout-ms:1800000}")
+    private long idleTimeoutMillis;
+
+    private final Map<String, CachedTimeline> timelines = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private ExecutorService reportExecutor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        reportExecutor = Executors.newFixedThreadPool(reportThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-report-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        reportExecutor.shutdownNow();
+    }
+
+    /**
+     * Drop timelines of terminals that have not been queried within the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${application.availability.sweep-interval-ms:60000}")
+    public void evictIdleTimelines() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        int before = timelines.size();
+        timelines.entrySet().removeIf(entry -> entry.getValue().lastAccessMillis < idleSince);
+
+        int evicted = before - timelines.size();
+        if (evicted > 0) {
+            LoggingUtil.logBusinessEvent("AVAILABILITY_IDLE_EVICTED",
+                    "EVICTED", evicted,
+                    "REMAINING", timelines.size());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTerminalsDeleted(TerminalsDeletedEvent event) {
+        timelines.keySet().removeAll(event.getTerminalIds());
+    }
+
+    /**
+     * A terminal created again under a purged ID must not start from the old timeline, which
+     * other instances still hold, and which a report running during the delete may have put
+     * back here.
+     */
+    @EventListener
+    public void onTerminalsPurged(TerminalsPurgedEvent event) {
+        timelines.keySet().removeAll(event.getTerminalIds());
+    }
+
+    @Override
+    public AvailabilityResponseDTO getAvailability(String terminalId, String from, String to) {
+        Instant now = Instant.now();
+        Instant windowTo = to != null && !to.trim().isEmpty() ? parseInstant("to", to) : now;
+        Instant windowFrom = from != null && !from.trim().isEmpty()
+                ? parseInstant("from", from)
+                : windowTo.minusSeconds(DEFAULT_WINDOW_DAYS * 86_400L);
+        if (!windowFrom.isBefore(windowTo)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        if (windowTo.isAfter(now)) {
+            windowTo = now;
+        }
+        if (!windowFrom.isBefore(windowTo)) {
+            throw new BadRequestException("'from' must be in the past");
+        }
+
+        if (!timelines.containsKey(terminalId) && !terminalEDCRepository.existsById(terminalId)) {
+            throw new ResourceNotFoundException("Terminal EDC with ID '" + terminalId + "' not found");
+        }
+        ConnectivityTimeline timeline = sync(Collections.singletonList(terminalId)).get(terminalId);
+
+        return toResponse(terminalId, timeline, windowFrom, windowTo);
+    }
+
+    @Override
+    public AvailabilityReportResponseDTO getMonthlyReport(String month) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new BadRequestException("Month must use the format yyyy-MM");
+        }
+
+        Instant now = Instant.now();
+        Instant windowFrom = yearMonth.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant windowTo = yearMonth.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        if (windowTo.isAfter(now)) {
+            windowTo = now;
+        }
+        if (!windowFrom.isBefore(windowTo)) {
+            throw new BadRequestException("Month must not be in the future");
+        }
+
+        long startTime = System.currentTimeMillis();
+        List<String> terminalIds = terminalEDCRepository.findAllTerminalIds();
+
+        int sliceSize = Math.max(1, (terminalIds.size() + reportThreads * SLICES_PER_THREAD - 1)
+                / (reportThreads * SLICES_PER_THREAD));
+        List<Future<List<AvailabilityResponseDTO>>> slices = new ArrayList<>();
+        for (int sliceFrom = 0; sliceFrom < terminalIds.size(); sliceFrom += sliceSize) {
+            List<String> slice = terminalIds.subList(sliceFrom, Math.min(sliceFrom + sliceSize, terminalIds.size()));
+            Instant sliceWindowTo = windowTo;
+            slices.add(reportExecutor.submit(() -> computeSlice(slice, windowFrom, sliceWindowTo)));
+        }
+
+        List<AvailabilityResponseDTO> terminals = new ArrayList<>(terminalIds.size());
+        try {
+            for (Future<List<AvailabilityResponseDTO>> slice : slices) {
+                terminals.addAll(slice.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Availability report was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Availability report failed", e.getCause());
+        }
+
+        long totalUptime = 0;
+        long totalWindow = 0;
+        for (AvailabilityResponseDTO terminal : terminals) {
+            totalUptime += terminal.getUptimeSeconds();
+            totalWindow += terminal.getWindowSeconds();
+        }
+
+        LoggingUtil.logBusinessEvent("AVAILABILITY_REPORT_COMPLETED",
+                "MONTH", yearMonth,
+                "TERMINAL_COUNT", terminals.size(),
+                "SLICES", slices.size(),
+                "DURATION_MS", System.currentTimeMillis() - startTime);
+
+        return AvailabilityReportResponseDTO.builder()
+                .month(yearMonth.toString())
+                .from(LocalDateTime.ofInstant(windowFrom, ZoneOffset.UTC))
+                .to(LocalDateTime.ofInstant(windowTo, ZoneOffset.UTC))
+                .terminalCount(terminals.size())
+                .averageAvailabilityPercentage(percentage(totalUptime, totalWindow))
+                .terminals(terminals)
+                .build();
+    }
+
+    private List<AvailabilityResponseDTO> computeSlice(List<String> terminalIds, Instant from, Instant to) {
+        Map<String, ConnectivityTimeline> synced = sync(terminalIds);
+
+        List<AvailabilityResponseDTO> result = new ArrayList<>(terminalIds.size());
+        for (String terminalId : terminalIds) {
+            result.add(toResponse(terminalId, synced.get(terminalId), from, to));
+        }
+        return result;
+    }
+
+    /**
+     * Bring the timelines of the given terminals up to date with the database and return them.
+     * The returned timelines stay usable even if the cache evicts them meanwhile.
+     */
+    private Map<String, ConnectivityTimeline> sync(List<String> terminalIds) {
+        Map<String, ConnectivityTimeline> synced;
+        EchoArchive archive;
+        do {
+            // Rows archived during the read may have been missed, the next pass rebuilds those
+            archive = echoArchiveService.getArchive();
+            synced = sync(terminalIds, archive);
+        } while (echoArchiveService.getArchive() != archive);
+        return synced;
+    }
+
+    private Map<String, ConnectivityTimeline> sync(List<String> terminalIds, EchoArchive archive) {
+        long syncStartMillis = System.currentTimeMillis();
+        long archivedUntilMillis = archive.getArchivedUntil() != null
+                ? archive.getArchivedUntil().toEpochMilli()
+                : Long.MIN_VALUE;
+
+        Map<String, ConnectivityTimeline> synced = new HashMap<>();
+        List<String> current = new ArrayList<>();
+        List<String> rebuild = new ArrayList<>();
+        long readFromMillis = Long.MAX_VALUE;
+        for (String terminalId : terminalIds) {
+            CachedTimeline cached = timelines.get(terminalId);
+            // Rows archived since the last sync are no longer in echo_log
+            if (cached == null || cached.syncedUntilMillis - syncOverlapMillis < archivedUntilMillis) {
+                rebuild.add(terminalId);
+            } else {
+                cached.lastAccessMillis = syncStartMillis;
+                current.add(terminalId);
+                synced.put(terminalId, cached.timeline);
+                readFromMillis = Math.min(readFromMillis, cached.syncedUntilMillis - syncOverlapMillis);
+            }
+        }
+
+        if (!current.isEmpty()) {
+            // Echoes already in a timeline are merged once, so re-reading the overlap is harmless
+            readEchoLog(current, Instant.ofEpochMilli(readFromMillis), synced);
+            for (String terminalId : current) {
+                CachedTimeline cached = timelines.get(terminalId);
+                if (cached != null && cached.timeline == synced.get(terminalId)) {
+                    cached.syncedUntilMillis = Math.max(cached.syncedUntilMillis, syncStartMillis);
+                }
+            }
+        }
+
+        if (!rebuild.isEmpty()) {
+            Map<String, ConnectivityTimeline> history = backfill(rebuild);
+            for (String terminalId : rebuild) {
+                synced.put(terminalId, history.get(terminalId));
+                timelines.put(terminalId, new CachedTimeline(history.get(terminalId), syncStartMillis));
+            }
+            if (timelines.size() > maxTimelines) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        return synced;
+    }
+
+    /**
+     * Build the timelines of the given terminals from the archive and echo_log.
+     */
+    private Map<String, ConnectivityTimeline> backfill(List<String> terminalIds) {
+        long startTime = System.currentTimeMillis();
+
+        Map<String, ConnectivityTimeline> history;
+        EchoArchive archive;
+        do {
+            // Rows archived while echo_log is being read would be missed, so read again
+            archive = echoArchiveService.getArchive();
+            history = loadHistory(terminalIds, archive);
+        } while (echoArchiveService.getArchive() != archive);
+
+        LoggingUtil.logBusinessEvent("AVAILABILITY_TIMELINES_BACKFILLED",
+                "TERMINAL_COUNT", terminalIds.size(),
+                "DURATION_MS", System.currentTimeMillis() - startTime);
+        return history;
+    }
+
+    /**
+     * Over budget: drop the least recently queried tenth of the timelines in one pass. Only one
+     * thread evicts at a time, the others carry on.
+     */
+    private void evictLeastRecentlyUsed() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            int excess = timelines.size() - maxTimelines;
+            if (excess <= 0) {
+                return;
+            }
+
+            List<Map.Entry<String, CachedTimeline>> entries = new ArrayList<>(timelines.entrySet());
+            entries.sort((left, right) -> Long.compare(left.getValue().lastAccessMillis,
+                    right.getValue().lastAccessMillis));
+
+            int toEvict = Math.min(entries.size(), excess + maxTimelines / 10);
+            for (int i = 0; i < toEvict; i++) {
+                timelines.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+
+            LoggingUtil.logBusinessEvent("AVAILABILITY_BUDGET_EVICTED",
+                    "EVICTED", toEvict,
+                    "REMAINING", timelines.size(),
+                    "MAX_TIMELINES", maxTimelines);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private Map<String, ConnectivityTimeline> loadHistory(List<String> terminalIds, EchoArchive archive) {
+        Map<String, ConnectivityTimeline> history = new HashMap<>();
+        for (String terminalId : terminalIds) {
+            history.put(terminalId, new ConnectivityTimeline(gapThresholdMillis));
+        }
+
+        // Archived rows are all older than the live ones, so each timeline is built in order
+        archive.forEachRow(history::containsKey, (terminalId, id, timestampMicros) -> history.get(terminalId)
+                .addEcho(Math.floorDiv(timestampMicros, 1_000L)));
+
+        Instant since = archive.getArchivedUntil() != null ? archive.getArchivedUntil() : Instant.EPOCH;
+        readEchoLog(terminalIds, since, history);
+        return history;
+    }
+
+    private void readEchoLog(List<String> terminalIds, Instant since, Map<String, ConnectivityTimeline> into) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        for (int batchFrom = 0; batchFrom < terminalIds.size(); batchFrom += backfillBatchSize) {
+            List<String> batch = terminalIds.subList(batchFrom,
+                    Math.min(batchFrom + backfillBatchSize, terminalIds.size()));
+            transactionTemplate.execute(status -> {
+                try (Stream<EchoResponseDTO> rows = echoLogRepository.streamByTerminalIdsSince(batch, since)) {
+                    rows.forEach(row -> into.get(row.getTerminalId())
+                            .addEcho(row.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli()));
+                }
+                return null;
+            });
+        }
+    }
+
+    private AvailabilityResponseDTO toResponse(String terminalId, ConnectivityTimeline timeline, Instant from,
+            Instant to) {
+        long windowMillis = to.toEpochMilli() - from.toEpochMilli();
+        long uptimeMillis = timeline.uptimeMillis(from.toEpochMilli(), to.toEpochMilli());
+
+        return AvailabilityResponseDTO.builder()
+                .terminalId(terminalId)
+                .from(LocalDateTime.ofInstant(from, ZoneOffset.UTC))
+                .to(LocalDateTime.ofInstant(to, ZoneOffset.UTC))
+                .windowSeconds(windowMillis / 1_000L)
+                .uptimeSeconds(uptimeMillis / 1_000L)
+                .downtimeSeconds((windowMillis - uptimeMillis) / 1_000L)
+                .availabilityPercentage(percentage(uptimeMillis, windowMillis))
+                .build();
+    }
+
+    private static double percentage(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(part * 100_000.0 / whole) / 1_000.0;
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        try {
+            if (value.trim().length() == 10) {
+                return LocalDate.parse(value.trim()).atStartOfDay().toInstant(ZoneOffset.UTC);
+            }
+            return LocalDateTime.parse(value.trim()).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("'" + name + "' must be a UTC date (yyyy-MM-dd) or date-time "
+                    + "(yyyy-MM-ddTHH:mm:ss)");
+        }
+    }
+
+    private static class CachedTimeline {
+        private final ConnectivityTimeline timeline;
+        // Every echo older than this, less the sync overlap, is in the timeline
+        private volatile long syncedUntilMillis;
+        private volatile long lastAccessMillis;
+
+        CachedTimeline(ConnectivityTimeline timeline, long syncedUntilMillis) {
+            this.timeline = timeline;
+            this.syncedUntilMillis = syncedUntilMillis;
+            this.lastAccessMillis = syncedUntilMillis;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rizki.edcmanagement.archive.EchoArchive;
+import com.rizki.edcmanagement.archive.EchoArchivePurges;
+import com.rizki.edcmanagement.archive.EchoArchiveSegment;
+import com.rizki.edcmanagement.archive.EchoArchiveSegmentWriter;
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.event.TerminalsPurgedEvent;
+import com.rizki.edcmanagement.repository.EchoArchiveRepository;
+import com.rizki.edcmanagement.repository.EchoLogRepository;
+import com.rizki.edcmanagement.service.EchoArchiveService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+@Service
+public class EchoArchiveServiceImpl implements EchoArchiveService {
+    private static final String SEGMENT_PREFIX = "echo-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Autowired
+    private EchoLogRepository echoLogRepository;
+
+    @Autowired
+    private EchoArchiveRepository echoArchiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${application.echo.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${application.echo.archive.directory:archive}")
+    private String archiveDirectory;
+
+    @Value("${application.echo.archive.hot-days:30}")
+    private int hotDays;
+
+    @Value("${application.echo.archive.delete-chunk-size:10000}")
+    private int deleteChunkSize;
+
+    @Value("${application.echo.archive.publish-delay-ms:120000}")
+    private long publishDelayMillis;
+
+    @Value("${application.echo.archive.lease-ms:600000}")
+    private long leaseMillis;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile EchoArchive archive = EchoArchive.empty();
+
+    // Guards replacing the snapshot, which segments and purges both do
+    private final Object snapshotLock = new Object();
+
+    /**
+     * Segments already on disk are always served, even when the archiver is disabled,
+     * since their rows are no longer in echo_log. Nothing has been built from the archive
+     * yet, so loading the purges needs no TerminalsPurgedEvent.
+     */
+    @PostConstruct
+    public void loadSegments() throws IOException {
+        scanSegments();
+        EchoArchivePurges purges = echoArchiveRepository.findPurges();
+        EchoArchive loaded;
+        synchronized (snapshotLock) {
+            archive = archive.withPurges(purges);
+            loaded = archive;
+        }
+
+        LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_LOADED",
+                "DIRECTORY", Paths.get(archiveDirectory).toAbsolutePath(),
+                "SEGMENTS", loaded.getSegments().size(),
+                "ROWS", loaded.getRowCount(),
+                "ARCHIVED_UNTIL", loaded.getArchivedUntil(),
+                "PURGE_GENERATION", loaded.getPurges().getGeneration());
+    }
+
+    /**
+     * Pick up segments published by the instance holding the archive lease. The directory
+     * must be shared by all instances; a day's live rows are only deleted publish-delay-ms
+     * after its segment appeared, by which time every instance has seen it.
+     */
+    @Scheduled(fixedDelayString = "${application.echo.archive.rescan-ms:60000}",
+            initialDelayString = "${application.echo.archive.rescan-ms:60000}")
+    public void rescanSegments() {
+        int before = archive.getSegments().size();
+        try {
+            EchoArchive scanned = scanSegments();
+            if (scanned.getSegments().size() > before) {
+                LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_SEGMENTS_DISCOVERED",
+                        "SEGMENTS", scanned.getSegments().size() - before,
+                        "ARCHIVED_UNTIL", scanned.getArchivedUntil());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            LoggingUtil.logError("ECHO_ARCHIVE_RESCAN_FAILED", e,
+                    "DIRECTORY", archiveDirectory);
+        }
+
+        try {
+            refreshPurges();
+        } catch (RuntimeException e) {
+            LoggingUtil.logError("ECHO_ARCHIVE_PURGE_REFRESH_FAILED", e,
+                    "PURGE_GENERATION", archive.getPurges().getGeneration());
+        }
+    }
+
+    /**
+     * Takes a new snapshot only when the generation moved on, and tells the listeners of
+     * TerminalsPurgedEvent which terminals were purged since the previous one.
+     */
+    @Override
+    public void refreshPurges() {
+        EchoArchivePurges purges = echoArchiveRepository.findPurges();
+        Set<String> purgedTerminalIds;
+        synchronized (snapshotLock) {
+            EchoArchivePurges previous = archive.getPurges();
+            // A concurrent refresh may already have taken a later generation
+            if (purges.getGeneration() <= previous.getGeneration()) {
+                return;
+            }
+            archive = archive.withPurges(purges);
+            purgedTerminalIds = purges.purgedSince(previous);
+        }
+
+        LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_PURGES_REFRESHED",
+                "PURGE_GENERATION", purges.getGeneration(),
+                "PURGED_TERMINALS", purgedTerminalIds.size());
+        if (!purgedTerminalIds.isEmpty()) {
+            eventPublisher.publishEvent(new TerminalsPurgedEvent(purgedTerminalIds));
+        }
+    }
+
+    /**
+     * Add the segments on disk that are not in the current snapshot. Segments are immutable
+     * once published, so known days are not opened again.
+     */
+    private synchronized EchoArchive scanSegments() throws IOException {
+        Path directory = Paths.get(archiveDirectory);
+        if (!Files.isDirectory(directory)) {
+            return archive;
+        }
+
+        EchoArchive known = archive;
+        Map<LocalDate, EchoArchiveSegment> discovered = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                LocalDate day = parseSegmentDay(file.getFileName().toString());
+                if (day != null && !known.contains(day)) {
+                    discovered.put(day, EchoArchiveSegment.open(file));
+                }
+            }
+        }
+
+        synchronized (snapshotLock) {
+            EchoArchive scanned = archive;
+            for (Map.Entry<LocalDate, EchoArchiveSegment> entry : discovered.entrySet()) {
+                scanned = scanned.withSegment(entry.getKey(), entry.getValue());
+            }
+            archive = scanned;
+            return scanned;
+        }
+    }
+
+    @Override
+    public EchoArchive getArchive() {
+        return archive;
+    }
+
+    @Override
+    @Scheduled(cron = "${application.echo.archive.cron:0 15 0 * * *}", zone = "UTC")
+    public synchronized void archiveClosedDays() {
+        if (!archiveEnabled) {
+            return;
+        }
+
+        // One instance archives at a time; the others pick its segments up by rescanning
+        if (!echoArchiveRepository.claim(nodeId, leaseMillis)) {
+            LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_RUN_SKIPPED",
+                    "NODE_ID", nodeId,
+                    "REASON", "Another instance holds the archive lease");
+            return;
+        }
+
+        try {
+            deleteTemporaryFiles();
+            scanSegments();
+
+            LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(hotDays);
+            Instant earliest = echoLogRepository.findEarliestTimestamp();
+            if (earliest == null) {
+                return;
+            }
+
+            LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_RUN_STARTED",
+                    "NODE_ID", nodeId,
+                    "EARLIEST_LIVE_DAY", earliest.atZone(ZoneOffset.UTC).toLocalDate(),
+                    "CUTOFF_DAY", cutoff);
+
+            // Days are archived oldest first so that everything before the archive boundary
+            // is always in a segment
+            for (LocalDate day = earliest.atZone(ZoneOffset.UTC).toLocalDate(); day.isBefore(cutoff); day = day
+                    .plusDays(1)) {
+                try {
+                    archiveDay(day);
+                } catch (Exception e) {
+                    LoggingUtil.logError("ECHO_ARCHIVE_DAY_FAILED", e, "DAY", day);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            LoggingUtil.logError("ECHO_ARCHIVE_RUN_FAILED", e, "DIRECTORY", archiveDirectory);
+        } finally {
+            echoArchiveRepository.release(nodeId);
+        }
+    }
+
+    private void archiveDay(LocalDate day) throws IOException {
+        Instant from = day.atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = day.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        long startTime = System.currentTimeMillis();
+        if (!echoArchiveRepository.heartbeat(nodeId)) {
+            throw new IllegalStateException("Archive lease was taken over by another instance");
+        }
+
+        if (!archive.contains(day)) {
+            TransactionTemplate readTemplate = new TransactionTemplate(transactionManager);
+            readTemplate.setReadOnly(true);
+            EchoArchiveSegment segment = readTemplate.execute(status -> writeSegment(day, from, to));
+            if (segment == null) {
+                return;
+            }
+
+            // Publish before deleting: from here on the live query excludes this day,
+            // so readers never see its rows twice or not at all
+            synchronized (snapshotLock) {
+                archive = archive.withSegment(day, segment);
+            }
+
+            LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_SEGMENT_PUBLISHED",
+                    "DAY", day,
+                    "ROWS", segment.getRowCount(),
+                    "TERMINALS", segment.getBlocks().size(),
+                    "BYTES", fileSize(segment.getFile()));
+        }
+
+        // Other instances still read the day from echo_log until their next rescan
+        long publishedForMillis = System.currentTimeMillis()
+                - Files.getLastModifiedTime(archive.getSegments().get(day).getFile()).toMillis();
+        if (publishedForMillis < publishDelayMillis) {
+            LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_DELETE_DEFERRED",
+                    "DAY", day,
+                    "PUBLISHED_FOR_MS", publishedForMillis,
+                    "PUBLISH_DELAY_MS", publishDelayMillis);
+            return;
+        }
+
+        // Also clears rows left behind when a previous run stopped after publishing. One
+        // transaction per chunk, so no lock is held for the whole day's volume.
+        TransactionTemplate deleteTemplate = new TransactionTemplate(transactionManager);
+        long deleted = 0;
+        int chunks = 0;
+        while (true) {
+            Integer chunk = deleteTemplate.execute(status -> {
+                if (!echoArchiveRepository.heartbeat(nodeId)) {
+                    throw new IllegalStateException("Archive lease was taken over by another instance");
+                }
+                return echoLogRepository.deleteByTimestampRange(from, to, deleteChunkSize);
+            });
+            if (chunk == null || chunk == 0) {
+                break;
+            }
+            deleted += chunk;
+            chunks++;
+        }
+
+        LoggingUtil.logBusinessEvent("ECHO_ARCHIVE_DAY_COMPLETED",
+                "DAY", day,
+                "DELETED_LIVE_ROWS", deleted,
+                "CHUNKS", chunks,
+                "DURATION", (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * Remove segment files left behind by an archive run that did not finish. Only called
+     * while holding the lease, so no other instance is writing one.
+     */
+    private void deleteTemporaryFiles() throws IOException {
+        Path directory = Paths.get(archiveDirectory);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX + ".tmp")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private EchoArchiveSegment writeSegment(LocalDate day, Instant from, Instant to) {
+        try {
+            Path directory = Files.createDirectories(Paths.get(archiveDirectory));
+            Path file = directory.resolve(SEGMENT_PREFIX + day + SEGMENT_SUFFIX);
+            Path temporaryFile = directory.resolve(SEGMENT_PREFIX + day + SEGMENT_SUFFIX + ".tmp");
+
+            long rowCount;
+            try (EchoArchiveSegmentWriter writer = new EchoArchiveSegmentWriter(temporaryFile, from, to);
+                    Stream<EchoResponseDTO> rows = echoLogRepository.streamForArchive(from, to)) {
+                Iterator<EchoResponseDTO> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    EchoResponseDTO row = iterator.next();
+                    writer.append(row.getId(), row.getTerminalId(), row.getTimestamp().toInstant(ZoneOffset.UTC));
+                }
+                rowCount = writer.getRowCount();
+                if (rowCount > 0) {
+                    writer.finish();
+                }
+            }
+
+            if (rowCount == 0) {
+                return null;
+            }
+
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+            return EchoArchiveSegment.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDate parseSegmentDay(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(fileName.substring(SEGMENT_PREFIX.length(),
+                    fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
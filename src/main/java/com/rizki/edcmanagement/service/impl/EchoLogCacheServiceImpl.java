@@ -0,0 +1,184 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.dto.echo.response.PagedEchoLogResponseDTO;
+import com.rizki.edcmanagement.model.enums.EchoStorageMode;
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+import com.rizki.edcmanagement.service.EchoArchiveService;
+import com.rizki.edcmanagement.service.EchoLogCacheService;
+import com.rizki.edcmanagement.service.EchoLogService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+import com.rizki.edcmanagement.util.LruCache;
+
+/**
+ * Echoes are stamped with the server clock on insert and never updated, so the echo logs of a
+ * closed UTC day only change when a deleted terminal is purged. Moving a day to the archive
+ * does not change its rows. The ETag is derived from the normalized query and the archive's
+ * purge generation, which lets a matching If-None-Match be answered without reading any data;
+ * a purge moves the generation on and so outdates every tag and cached page. Other instances
+ * learn of a purge when they rescan the archive, and clients revalidate after max-age, so
+ * responses are never marked immutable.
+ *
+ * Location and status filters are the exception: archived days and rows still waiting for the
+ * attribute backfill are matched on the terminal's current attributes, which can change.
+ */
+@Service
+public class EchoLogCacheServiceImpl implements EchoLogCacheService {
+    // Bump when the response format changes so clients drop their cached copies
+    private static final String RESPONSE_VERSION = "echo-logs-v1";
+
+    @Value("${application.echo.http-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.echo.http-cache.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${application.echo.http-cache.max-age-seconds:0}")
+    private long maxAgeSeconds;
+
+    // Echoes whose transaction commits just after midnight carry the previous day's timestamp
+    @Value("${application.echo.http-cache.closed-day-grace-ms:60000}")
+    private long closedDayGraceMs;
+
+    @Value("${application.echo.storage-mode:POINT}")
+    private EchoStorageMode storageMode;
+
+    @Autowired
+    private EchoLogService echoLogService;
+
+    @Autowired
+    private EchoArchiveService echoArchiveService;
+
+    private LruCache<String, PagedEchoLogResponseDTO> responses;
+
+    @PostConstruct
+    public void init() {
+        responses = new LruCache<>(maxEntries);
+    }
+
+    @Override
+    public String closedRangeETag(GetEchoLogRequestDTO requestDTO) {
+        // Open sessions keep growing, so session pages of past days can still change
+        if (!enabled || storageMode != EchoStorageMode.POINT) {
+            return null;
+        }
+
+        LocalDate toDate = parseDate(requestDTO.getTimestampTo());
+        if (toDate == null) {
+            return null;
+        }
+        Instant closedAt = toDate.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC).plusMillis(closedDayGraceMs);
+        if (Instant.now().isBefore(closedAt)) {
+            return null;
+        }
+
+        LocalDate fromDate = parseDate(requestDTO.getTimestampFrom());
+        if (matchesCurrentTerminalAttributes(requestDTO, fromDate)) {
+            return null;
+        }
+
+        // Same normalization as EchoLogSpecification, so equivalent queries share an ETag
+        String terminalId = requestDTO.getTerminalId() == null || requestDTO.getTerminalId().trim().isEmpty()
+                ? ""
+                : requestDTO.getTerminalId().toUpperCase().trim() + "|"
+                        + TerminalIdMatchMode.fromString(requestDTO.getTerminalIdMatch()).name();
+        String key = RESPONSE_VERSION
+                + "|" + terminalId
+                + "|" + normalize(requestDTO.getLocation()).toLowerCase()
+                + "|" + normalize(requestDTO.getTerminalType()).toUpperCase()
+                + "|" + normalize(requestDTO.getStatus()).toUpperCase()
+                + "|" + (fromDate != null ? fromDate : "")
+                + "|" + toDate
+                + "|" + requestDTO.getPage()
+                + "|" + requestDTO.getSize()
+                + "|" + requestDTO.getSortBy()
+                + "|" + ("asc".equalsIgnoreCase(requestDTO.getSortDirection()) ? "asc" : "desc")
+                + "|" + echoArchiveService.getArchive().getPurges().getGeneration();
+
+        return "\"" + sha256Hex(key).substring(0, 32) + "\"";
+    }
+
+    @Override
+    public PagedEchoLogResponseDTO getOrLoad(String eTag, Supplier<PagedEchoLogResponseDTO> loader) {
+        PagedEchoLogResponseDTO cached = responses.get(eTag);
+        if (cached != null) {
+            LoggingUtil.logBusinessEvent("ECHO_LOGS_CACHE_HIT",
+                    "ETAG", eTag);
+            return cached;
+        }
+
+        // Concurrent misses may load the same page twice; both results are identical
+        PagedEchoLogResponseDTO loaded = loader.get();
+        responses.put(eTag, loaded);
+
+        LoggingUtil.logBusinessEvent("ECHO_LOGS_CACHE_STORED",
+                "ETAG", eTag,
+                "CACHED_RESPONSES", responses.size());
+
+        return loaded;
+    }
+
+    @Override
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    /**
+     * Whether a location or status filter would be matched on current terminal attributes
+     * for part of the range.
+     */
+    private boolean matchesCurrentTerminalAttributes(GetEchoLogRequestDTO requestDTO, LocalDate fromDate) {
+        if (normalize(requestDTO.getLocation()).isEmpty() && normalize(requestDTO.getStatus()).isEmpty()) {
+            return false;
+        }
+        if (!echoLogService.hasCompleteTerminalAttributes()) {
+            return true;
+        }
+
+        Instant archivedUntil = echoArchiveService.getArchive().getArchivedUntil();
+        return archivedUntil != null
+                && (fromDate == null || fromDate.atStartOfDay().toInstant(ZoneOffset.UTC).isBefore(archivedUntil));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private String sha256Hex(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,37 +1,86 @@
 package com.rizki.edcmanagement.service.impl;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.rizki.edcmanagement.archive.EchoArchive;
+import com.rizki.edcmanagement.archive.EchoArchiveFilter;
 import com.rizki.edcmanagement.dto.echo.request.EchoRequestDTO;
 import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
 import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoStatsResponseDTO;
 import com.rizki.edcmanagement.dto.echo.response.PagedEchoLogResponseDTO;
+import com.rizki.edcmanagement.dto.echo.response.TerminalLatestEchoesDTO;
+import com.rizki.edcmanagement.event.EchoRecordedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
 import com.rizki.edcmanagement.exception.InvalidSignatureException;
 import com.rizki.edcmanagement.exception.ResourceNotFoundException;
 import com.rizki.edcmanagement.model.EchoLog;
+import com.rizki.edcmanagement.model.EchoSession;
 import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.model.enums.EchoLogExportFormat;
+import com.rizki.edcmanagement.model.enums.EchoStorageMode;
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+import com.rizki.edcmanagement.model.enums.TerminalStatus;
 import com.rizki.edcmanagement.repository.EchoLogRepository;
+import com.rizki.edcmanagement.repository.EchoSessionRepository;
 import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.EchoArchiveService;
 import com.rizki.edcmanagement.service.EchoLogService;
+import com.rizki.edcmanagement.service.EchoSessionService;
 import com.rizki.edcmanagement.service.SignatureValidationService;
 import com.rizki.edcmanagement.specification.EchoLogSpecification;
+import com.rizki.edcmanagement.util.Formatter;
 import com.rizki.edcmanagement.util.LoggingUtil;
 
 @Service
 public class EchoLogServiceImpl implements EchoLogService {
+    // Bounds used by the stats query when no date range is given
+    private static final Instant UNBOUNDED_FROM = Instant.EPOCH;
+    private static final Instant UNBOUNDED_TO = LocalDate.of(9999, 1, 1).atStartOfDay().toInstant(ZoneOffset.UTC);
+
     @Autowired
     private EchoLogRepository echoLogRepository;
 
@@ -41,6 +90,84 @@ public class EchoLogServiceImpl implements EchoLogService {
     @Autowired
     private SignatureValidationService signatureValidationService;
 
+    @Autowired
+    private EchoArchiveService echoArchiveService;
+
+    @Autowired
+    private EchoSessionService echoSessionService;
+
+    @Autowired
+    private EchoSessionRepository echoSessionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.echo.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Value("${application.echo.latest.max-terminals:100}")
+    private int latestMaxTerminals;
+
+    @Value("${application.echo.latest.max-limit:50}")
+    private int latestMaxLimit;
+
+    @Value("${application.echo.storage-mode:POINT}")
+    private EchoStorageMode storageMode;
+
+    @Value("${application.echo.archive.max-merged-rows:10000}")
+    private int maxMergedRows;
+
+    @Value("${application.echo.terminal-attributes.backfill-batch-size:10000}")
+    private int attributeBackfillBatchSize;
+
+    private volatile boolean terminalAttributesComplete;
+
+    /**
+     * Copies the current location and status of each terminal onto echo rows written before
+     * echo_log carried them. Batches are picked through the partial index on rows missing the
+     * copies, so once they are filled each startup costs a single index probe.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTerminalAttributes() {
+        long startTime = System.currentTimeMillis();
+        long rows = 0;
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            while (true) {
+                Integer updated = transactionTemplate.execute(
+                        status -> echoLogRepository.fillMissingTerminalAttributes(attributeBackfillBatchSize));
+                if (updated == null || updated == 0) {
+                    break;
+                }
+                rows += updated;
+            }
+        } catch (RuntimeException e) {
+            LoggingUtil.logError("ECHO_TERMINAL_ATTRIBUTES_BACKFILL_FAILED", e,
+                    "ROWS", rows,
+                    "ERROR_MESSAGE", e.getMessage());
+            return;
+        }
+
+        terminalAttributesComplete = true;
+        if (rows > 0) {
+            LoggingUtil.logBusinessEvent("ECHO_TERMINAL_ATTRIBUTES_BACKFILLED",
+                    "ROWS", rows,
+                    "DURATION_MS", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    @Override
+    public boolean hasCompleteTerminalAttributes() {
+        return terminalAttributesComplete;
+    }
+
     @Override
     @Transactional
     public EchoResponseDTO createEchoLog(String signature, EchoRequestDTO requestDTO) {
@@ -74,7 +201,11 @@ public class EchoLogServiceImpl implements EchoLogService {
             LoggingUtil.logBusinessEvent("ECHO_TERMINAL_LOOKUP_STARTED",
                     "TERMINAL_ID", requestDTO.getTerminalId());
 
-            TerminalEDC terminal = terminalEDCRepository.findById(requestDTO.getTerminalId())
+            // Session mode locks the terminal so concurrent echoes extend the same session
+            Optional<TerminalEDC> foundTerminal = storageMode == EchoStorageMode.SESSION
+                    ? terminalEDCRepository.findByIdForUpdate(requestDTO.getTerminalId())
+                    : terminalEDCRepository.findById(requestDTO.getTerminalId());
+            TerminalEDC terminal = foundTerminal
                     .orElseThrow(() -> {
                         LoggingUtil.logBusinessEvent("ECHO_TERMINAL_NOT_FOUND",
                                 "TERMINAL_ID", requestDTO.getTerminalId());
@@ -85,33 +216,53 @@ public class EchoLogServiceImpl implements EchoLogService {
                     "TERMINAL_ID", requestDTO.getTerminalId(),
                     "TERMINAL_STATUS", terminal.getStatus());
 
-            // Create echo log entry with current UTC instant - set timestamp manually
-            EchoLog echoLog = EchoLog.builder()
-                    .terminal(terminal)
-                    .timestamp(now) // Set timestamp manually from server
-                    .build();
-
-            LoggingUtil.logBusinessEvent("ECHO_LOG_SAVE_STARTED",
-                    "TERMINAL_ID", requestDTO.getTerminalId());
+            Long savedId;
+            if (storageMode == EchoStorageMode.SESSION) {
+                EchoSession session = echoSessionService.recordEcho(terminal, now);
+                savedId = session.getId();
 
-            // Save to database
-            EchoLog saved = echoLogRepository.save(echoLog);
+                LoggingUtil.logBusinessEvent("ECHO_SESSION_SAVE_SUCCESS",
+                        "TERMINAL_ID", requestDTO.getTerminalId(),
+                        "ECHO_SESSION_ID", session.getId(),
+                        "ECHO_COUNT", session.getEchoCount(),
+                        "TIMESTAMP", now);
+            } else {
+                // Create echo log entry with current UTC instant - set timestamp manually
+                EchoLog echoLog = EchoLog.builder()
+                        .terminal(terminal)
+                        .timestamp(now) // Set timestamp manually from server
+                        .terminalLocation(terminal.getLocation())
+                        .terminalStatus(terminal.getStatus())
+                        .build();
+
+                LoggingUtil.logBusinessEvent("ECHO_LOG_SAVE_STARTED",
+                        "TERMINAL_ID", requestDTO.getTerminalId());
+
+                // Save to database
+                EchoLog saved = echoLogRepository.save(echoLog);
+                savedId = saved.getId();
+
+                LoggingUtil.logBusinessEvent("ECHO_LOG_SAVE_SUCCESS",
+                        "TERMINAL_ID", requestDTO.getTerminalId(),
+                        "ECHO_LOG_ID", saved.getId(),
+                        "TIMESTAMP", saved.getTimestamp());
+            }
 
-            LoggingUtil.logBusinessEvent("ECHO_LOG_SAVE_SUCCESS",
-                    "TERMINAL_ID", requestDTO.getTerminalId(),
-                    "ECHO_LOG_ID", saved.getId(),
-                    "TIMESTAMP", saved.getTimestamp());
+            // Delivered to listeners once the transaction commits
+            eventPublisher.publishEvent(new EchoRecordedEvent(savedId, terminal.getTerminalId(),
+                    terminal.getLocation(), now));
 
             // Return response - convert Instant to LocalDateTime for response
             EchoResponseDTO response = EchoResponseDTO.builder()
-                    .id(saved.getId())
+                    .id(savedId)
                     .terminalId(requestDTO.getTerminalId())
-                    .timestamp(LocalDateTime.ofInstant(saved.getTimestamp(), ZoneOffset.UTC))
+                    .timestamp(LocalDateTime.ofInstant(now, ZoneOffset.UTC))
                     .build();
 
             LoggingUtil.logBusinessEvent("ECHO_SERVICE_CREATE_COMPLETED",
                     "TERMINAL_ID", requestDTO.getTerminalId(),
-                    "ECHO_LOG_ID", saved.getId(),
+                    "ECHO_LOG_ID", savedId,
+                    "STORAGE_MODE", storageMode,
                     "STATUS", "SUCCESS");
 
             return response;
@@ -158,39 +309,55 @@ public class EchoLogServiceImpl implements EchoLogService {
                     "PAGE", requestDTO.getPage(),
                     "SIZE", requestDTO.getSize());
 
-            // Build specification for filtering
-            Specification<EchoLog> specification = EchoLogSpecification.buildSpecification(requestDTO);
-
-            LoggingUtil.logBusinessEvent("ECHO_LOGS_FILTERS_APPLIED",
-                    "TERMINAL_ID_FILTER", requestDTO.getTerminalId(),
-                    "TIMESTAMP_FROM", requestDTO.getTimestampFrom(),
-                    "TIMESTAMP_TO", requestDTO.getTimestampTo());
-
-            // Execute query
-            LoggingUtil.logBusinessEvent("ECHO_LOGS_DATABASE_QUERY_STARTED");
-
-            Page<EchoLog> echoLogPage = echoLogRepository.findAll(specification, pageable);
+            Page<EchoResponseDTO> echoLogPage;
+            if (storageMode == EchoStorageMode.SESSION) {
+                // One row per session, matched when any part of it falls inside the date range
+                LoggingUtil.logBusinessEvent("ECHO_LOGS_DATABASE_QUERY_STARTED",
+                        "STORAGE_MODE", storageMode);
+
+                echoLogPage = echoSessionService.findSessions(requestDTO, pageable);
+            } else {
+                // Build specification for filtering
+                Specification<EchoLog> specification = EchoLogSpecification.buildSpecification(requestDTO);
+
+                LoggingUtil.logBusinessEvent("ECHO_LOGS_FILTERS_APPLIED",
+                        "TERMINAL_ID_FILTER", requestDTO.getTerminalId(),
+                        "LOCATION_FILTER", requestDTO.getLocation(),
+                        "TERMINAL_TYPE_FILTER", requestDTO.getTerminalType(),
+                        "STATUS_FILTER", requestDTO.getStatus(),
+                        "TIMESTAMP_FROM", requestDTO.getTimestampFrom(),
+                        "TIMESTAMP_TO", requestDTO.getTimestampTo());
+
+                // Days moved to the archive are read from the segments, not from echo_log
+                EchoArchive archive = echoArchiveService.getArchive();
+                EchoArchiveFilter archiveFilter = null;
+                long archivedCount = 0;
+                if (!archive.isEmpty()) {
+                    archiveFilter = buildArchiveFilter(requestDTO);
+                    specification = specification
+                            .and(EchoLogSpecification.timestampAtOrAfter(archive.getArchivedUntil()));
+                    archivedCount = archive.count(archiveFilter);
+
+                    LoggingUtil.logBusinessEvent("ECHO_LOGS_ARCHIVE_MATCHED",
+                            "ARCHIVED_UNTIL", archive.getArchivedUntil(),
+                            "ARCHIVED_MATCHES", archivedCount);
+                }
+
+                // Execute query
+                LoggingUtil.logBusinessEvent("ECHO_LOGS_DATABASE_QUERY_STARTED");
+
+                // Project straight into response DTOs, no entity hydration
+                echoLogPage = archivedCount == 0
+                        ? echoLogRepository.findAllAsResponse(specification, pageable)
+                        : findAllIncludingArchive(specification, pageable, archive, archiveFilter, archivedCount);
+            }
 
             LoggingUtil.logBusinessEvent("ECHO_LOGS_DATABASE_QUERY_COMPLETED",
                     "TOTAL_ELEMENTS", echoLogPage.getTotalElements(),
                     "TOTAL_PAGES", echoLogPage.getTotalPages(),
                     "NUMBER_OF_ELEMENTS", echoLogPage.getNumberOfElements());
 
-            // Convert entities to DTOs
-            LoggingUtil.logBusinessEvent("ECHO_LOGS_DTO_MAPPING_STARTED",
-                    "RECORDS_TO_MAP", echoLogPage.getNumberOfElements());
-
-            List<EchoResponseDTO> echoLogDTOs = echoLogPage.getContent()
-                    .stream()
-                    .map(echoLog -> EchoResponseDTO.builder()
-                            .id(echoLog.getId())
-                            .terminalId(echoLog.getTerminal().getTerminalId())
-                            .timestamp(LocalDateTime.ofInstant(echoLog.getTimestamp(), ZoneOffset.UTC))
-                            .build())
-                    .collect(Collectors.toList());
-
-            LoggingUtil.logBusinessEvent("ECHO_LOGS_DTO_MAPPING_COMPLETED",
-                    "MAPPED_RECORDS", echoLogDTOs.size());
+            List<EchoResponseDTO> echoLogDTOs = echoLogPage.getContent();
 
             // Build applied filters description
             String appliedFilters = EchoLogSpecification.buildAppliedFiltersDescription(requestDTO);
@@ -229,4 +396,384 @@ public class EchoLogServiceImpl implements EchoLogService {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportEchoLogs(GetEchoLogRequestDTO requestDTO, EchoLogExportFormat format,
+            OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.logBusinessEvent("ECHO_LOGS_EXPORT_STARTED",
+                "FORMAT", format,
+                "FETCH_SIZE", exportFetchSize,
+                "APPLIED_FILTERS", EchoLogSpecification.buildAppliedFiltersDescription(requestDTO));
+
+        Sort.Direction direction = "asc".equalsIgnoreCase(requestDTO.getSortDirection()) ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, requestDTO.getSortBy());
+        Specification<EchoLog> specification = EchoLogSpecification.buildSpecification(requestDTO);
+
+        // Archived days are older than every live row, so they are exported after the live
+        // rows (descending) or before them (ascending), always in timestamp order
+        EchoArchive archive = echoArchiveService.getArchive();
+        Stream<EchoResponseDTO> archivedRows = Stream.empty();
+        if (!archive.isEmpty()) {
+            specification = specification.and(EchoLogSpecification.timestampAtOrAfter(archive.getArchivedUntil()));
+            archivedRows = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                    archive.iterator(buildArchiveFilter(requestDTO), direction.isAscending()),
+                    Spliterator.ORDERED), false);
+        }
+
+        long rowCount = 0;
+        // Closing the stream closes the cursor. When the client disconnects, the next write
+        // fails and the cursor is closed before the remaining rows are fetched.
+        Stream<EchoResponseDTO> liveRows = echoLogRepository.streamAllAsResponse(specification, sort,
+                exportFetchSize);
+        try (Stream<EchoResponseDTO> rows = direction.isAscending() ? Stream.concat(archivedRows, liveRows)
+                : Stream.concat(liveRows, archivedRows)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                    64 * 1024);
+            Iterator<EchoResponseDTO> iterator = rows.iterator();
+
+            if (format == EchoLogExportFormat.NDJSON) {
+                SequenceWriter sequenceWriter = objectMapper.writerFor(EchoResponseDTO.class)
+                        .withRootValueSeparator("\n")
+                        .writeValues(writer);
+                while (iterator.hasNext()) {
+                    sequenceWriter.write(iterator.next());
+                    rowCount++;
+                }
+                sequenceWriter.flush();
+                if (rowCount > 0) {
+                    writer.write('\n');
+                }
+            } else {
+                writer.write("id,terminalId,timestamp\n");
+                while (iterator.hasNext()) {
+                    EchoResponseDTO row = iterator.next();
+                    writer.write(String.valueOf(row.getId()));
+                    writer.write(',');
+                    writer.write(row.getTerminalId());
+                    writer.write(',');
+                    writer.write(row.getTimestamp().format(Formatter.DATETIME_FORMATTER));
+                    writer.write('\n');
+                    rowCount++;
+                }
+            }
+
+            writer.flush();
+
+            LoggingUtil.logBusinessEvent("ECHO_LOGS_EXPORT_COMPLETED",
+                    "FORMAT", format,
+                    "ROWS", rowCount,
+                    "DURATION", (System.currentTimeMillis() - startTime) + "ms");
+
+            return rowCount;
+        } catch (IOException e) {
+            LoggingUtil.logBusinessEvent("ECHO_LOGS_EXPORT_ABORTED",
+                    "FORMAT", format,
+                    "ROWS_WRITTEN", rowCount,
+                    "ERROR", e.getClass().getSimpleName(),
+                    "MESSAGE", e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EchoStatsResponseDTO getEchoStats(String terminalId, String timestampFrom, String timestampTo) {
+        String normalizedId = terminalId.toUpperCase().trim();
+        if (!terminalEDCRepository.existsById(normalizedId)) {
+            throw new ResourceNotFoundException("Terminal ID not found");
+        }
+
+        LocalDate fromDate = parseStatsDate(timestampFrom, "timestampFrom");
+        LocalDate toDate = parseStatsDate(timestampTo, "timestampTo");
+        if (fromDate != null && toDate != null && toDate.isBefore(fromDate)) {
+            throw new BadRequestException("timestampTo must not be before timestampFrom");
+        }
+        Instant from = fromDate != null ? fromDate.atStartOfDay().toInstant(ZoneOffset.UTC) : UNBOUNDED_FROM;
+        Instant to = toDate != null ? toDate.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC) : UNBOUNDED_TO;
+
+        EchoStatsResponseDTO.EchoStatsResponseDTOBuilder builder = EchoStatsResponseDTO.builder()
+                .terminalId(normalizedId)
+                .storageMode(storageMode)
+                .timestampFrom(timestampFrom)
+                .timestampTo(timestampTo);
+
+        if (storageMode == EchoStorageMode.SESSION) {
+            Object[] summary = echoSessionRepository.summarizeByTerminalId(normalizedId, from, to).get(0);
+            builder.echoCount(((Number) summary[0]).longValue())
+                    .sessionCount(((Number) summary[1]).longValue())
+                    .firstEchoAt(toDateTime((Instant) summary[2]))
+                    .lastEchoAt(toDateTime((Instant) summary[3]));
+        } else {
+            // Rows of archived days are counted from the segments, the rest from echo_log
+            EchoArchive archive = echoArchiveService.getArchive();
+            Instant liveFrom = from;
+            long echoCount = 0;
+            Instant firstEchoAt = null;
+            Instant lastEchoAt = null;
+
+            if (!archive.isEmpty()) {
+                if (liveFrom.isBefore(archive.getArchivedUntil())) {
+                    liveFrom = archive.getArchivedUntil();
+                }
+                EchoArchiveFilter archiveFilter = EchoArchiveFilter.from(GetEchoLogRequestDTO.builder()
+                        .terminalId(normalizedId)
+                        .terminalIdMatch(TerminalIdMatchMode.EXACT.name())
+                        .timestampFrom(fromDate != null ? fromDate.toString() : null)
+                        .timestampTo(toDate != null ? toDate.toString() : null)
+                        .build());
+                echoCount = archive.count(archiveFilter);
+                if (echoCount > 0) {
+                    firstEchoAt = archive.findPage(archiveFilter, true, 0, 1).get(0).getTimestamp()
+                            .toInstant(ZoneOffset.UTC);
+                    lastEchoAt = archive.findPage(archiveFilter, false, 0, 1).get(0).getTimestamp()
+                            .toInstant(ZoneOffset.UTC);
+                }
+            }
+
+            if (liveFrom.isBefore(to)) {
+                Object[] summary = echoLogRepository.summarizeByTerminalId(normalizedId, liveFrom, to).get(0);
+                long liveCount = ((Number) summary[0]).longValue();
+                if (liveCount > 0) {
+                    echoCount += liveCount;
+                    if (firstEchoAt == null) {
+                        firstEchoAt = (Instant) summary[1];
+                    }
+                    lastEchoAt = (Instant) summary[2];
+                }
+            }
+
+            builder.echoCount(echoCount)
+                    .firstEchoAt(toDateTime(firstEchoAt))
+                    .lastEchoAt(toDateTime(lastEchoAt));
+        }
+
+        EchoStatsResponseDTO response = builder.build();
+
+        LoggingUtil.logBusinessEvent("ECHO_STATS_COMPLETED",
+                "TERMINAL_ID", normalizedId,
+                "STORAGE_MODE", storageMode,
+                "ECHO_COUNT", response.getEchoCount());
+
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TerminalLatestEchoesDTO> getLatestEchoes(List<String> terminalIds, Integer limit) {
+        int perTerminal = limit != null ? limit : 1;
+        if (perTerminal < 1 || perTerminal > latestMaxLimit) {
+            throw new BadRequestException("limit must be between 1 and " + latestMaxLimit);
+        }
+
+        LinkedHashSet<String> ids = new LinkedHashSet<>();
+        if (terminalIds != null) {
+            for (String terminalId : terminalIds) {
+                if (terminalId != null && !terminalId.trim().isEmpty()) {
+                    ids.add(terminalId.toUpperCase().trim());
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new BadRequestException("At least one terminal ID is required");
+        }
+        if (ids.size() > latestMaxTerminals) {
+            throw new BadRequestException("At most " + latestMaxTerminals + " terminal IDs are allowed");
+        }
+
+        Map<String, List<EchoResponseDTO>> latest = findLatest(ids, perTerminal);
+        List<TerminalLatestEchoesDTO> response = new ArrayList<>(ids.size());
+        for (String terminalId : ids) {
+            List<EchoResponseDTO> echoes = latest.get(terminalId);
+            response.add(TerminalLatestEchoesDTO.builder()
+                    .terminalId(terminalId)
+                    .echoes(echoes != null ? echoes : new ArrayList<>())
+                    .build());
+        }
+
+        LoggingUtil.logBusinessEvent("ECHO_LATEST_QUERY_COMPLETED",
+                "TERMINALS", ids.size(),
+                "LIMIT", perTerminal,
+                "TERMINALS_WITH_ECHOES", latest.size());
+
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Instant> findLastEchoAt(Collection<String> terminalIds) {
+        Map<String, Instant> lastEchoAt = new HashMap<>();
+        for (Map.Entry<String, List<EchoResponseDTO>> entry : findLatest(terminalIds, 1).entrySet()) {
+            lastEchoAt.put(entry.getKey(), entry.getValue().get(0).getTimestamp().toInstant(ZoneOffset.UTC));
+        }
+        return lastEchoAt;
+    }
+
+    /**
+     * Newest echoes per terminal from echo_log, topped up from the archive for terminals with
+     * fewer than {@code limit} live rows. Terminals without any echo are absent from the map.
+     */
+    private Map<String, List<EchoResponseDTO>> findLatest(Collection<String> terminalIds, int limit) {
+        Map<String, List<EchoResponseDTO>> latest = new LinkedHashMap<>();
+        if (terminalIds.isEmpty()) {
+            return latest;
+        }
+
+        // Rows of archived days that are not deleted yet are read from the archive only
+        EchoArchive archive = echoArchiveService.getArchive();
+        Instant since = archive.isEmpty() ? Instant.EPOCH : archive.getArchivedUntil();
+
+        for (EchoResponseDTO echo : echoLogRepository.findLatestByTerminalIds(terminalIds, since, limit)) {
+            List<EchoResponseDTO> echoes = latest.get(echo.getTerminalId());
+            if (echoes == null) {
+                echoes = new ArrayList<>(limit);
+                latest.put(echo.getTerminalId(), echoes);
+            }
+            echoes.add(echo);
+        }
+
+        if (!archive.isEmpty()) {
+            for (String terminalId : terminalIds) {
+                List<EchoResponseDTO> echoes = latest.get(terminalId);
+                int missing = echoes == null ? limit : limit - echoes.size();
+                if (missing <= 0) {
+                    continue;
+                }
+                List<EchoResponseDTO> archived = archive.findPage(EchoArchiveFilter.from(GetEchoLogRequestDTO.builder()
+                        .terminalId(terminalId)
+                        .terminalIdMatch(TerminalIdMatchMode.EXACT.name())
+                        .build()), false, 0, missing);
+                if (!archived.isEmpty()) {
+                    if (echoes == null) {
+                        echoes = new ArrayList<>(limit);
+                        latest.put(terminalId, echoes);
+                    }
+                    echoes.addAll(archived);
+                }
+            }
+        }
+        return latest;
+    }
+
+    private LocalDate parseStatsDate(String value, String name) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (Exception e) {
+            throw new BadRequestException(name + " must be a date in YYYY-MM-DD format");
+        }
+    }
+
+    private LocalDateTime toDateTime(Instant instant) {
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * The archive side of an echo log request. Segments hold no terminal attributes, so
+     * location and status filters are resolved to the terminals that currently have them.
+     */
+    private EchoArchiveFilter buildArchiveFilter(GetEchoLogRequestDTO requestDTO) {
+        EchoArchiveFilter archiveFilter = EchoArchiveFilter.from(requestDTO);
+        boolean hasLocation = requestDTO.getLocation() != null && !requestDTO.getLocation().trim().isEmpty();
+        boolean hasStatus = requestDTO.getStatus() != null && !requestDTO.getStatus().trim().isEmpty();
+        if (!hasLocation && !hasStatus) {
+            return archiveFilter;
+        }
+
+        Specification<TerminalEDC> terminalSpecification = (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                hasLocation
+                        ? criteriaBuilder.equal(criteriaBuilder.lower(root.get("location")),
+                                requestDTO.getLocation().toLowerCase().trim())
+                        : criteriaBuilder.conjunction(),
+                hasStatus
+                        ? criteriaBuilder.equal(root.get("status"), TerminalStatus.fromString(requestDTO.getStatus()))
+                        : criteriaBuilder.conjunction());
+        Set<String> terminalIds = terminalEDCRepository.findAll(terminalSpecification).stream()
+                .map(TerminalEDC::getTerminalId)
+                .collect(Collectors.toSet());
+        return archiveFilter.restrictToTerminals(terminalIds);
+    }
+
+    /**
+     * One page over live and archived rows together. For timestamp order the two sources are
+     * concatenated, since every archived row is older than every live row. Any other order
+     * takes the first (offset + size) rows of each source and merges them, so pages ending past
+     * max-merged-rows are rejected rather than loaded.
+     */
+    private Page<EchoResponseDTO> findAllIncludingArchive(Specification<EchoLog> specification, Pageable pageable,
+            EchoArchive archive, EchoArchiveFilter archiveFilter, long archivedCount) {
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        Sort sort = pageable.getSort();
+        Sort.Order order = sort.iterator().next();
+        long liveCount = echoLogRepository.count(specification);
+
+        List<EchoResponseDTO> content = new ArrayList<>(size);
+        if ("timestamp".equals(order.getProperty())) {
+            if (order.isDescending()) {
+                if (offset < liveCount) {
+                    content.addAll(echoLogRepository.findRangeAsResponse(specification, sort, offset, size));
+                }
+                if (content.size() < size) {
+                    content.addAll(archive.findPage(archiveFilter, false, Math.max(0, offset - liveCount),
+                            size - content.size()));
+                }
+            } else {
+                if (offset < archivedCount) {
+                    content.addAll(archive.findPage(archiveFilter, true, offset, size));
+                }
+                if (content.size() < size) {
+                    content.addAll(echoLogRepository.findRangeAsResponse(specification, sort,
+                            Math.max(0, offset - archivedCount), size - content.size()));
+                }
+            }
+        } else {
+            Comparator<EchoResponseDTO> comparator = archiveComparator(order);
+            if (offset + size > maxMergedRows) {
+                throw new BadRequestException("Archived echo logs sorted by " + order.getProperty()
+                        + " can only be paged through the first " + maxMergedRows
+                        + " rows. Sort by timestamp or narrow the filters");
+            }
+            int limit = (int) (offset + size);
+
+            List<EchoResponseDTO> merged = new ArrayList<>(
+                    echoLogRepository.findRangeAsResponse(specification, sort, 0, limit));
+            merged.addAll(archive.findTop(archiveFilter, comparator, limit));
+            merged.sort(comparator);
+
+            if (offset < merged.size()) {
+                content.addAll(merged.subList((int) offset, (int) Math.min(merged.size(), offset + size)));
+            }
+        }
+
+        LoggingUtil.logBusinessEvent("ECHO_LOGS_ARCHIVE_MERGED",
+                "LIVE_MATCHES", liveCount,
+                "ARCHIVED_MATCHES", archivedCount,
+                "RETURNED", content.size());
+
+        return new PageImpl<>(content, pageable, liveCount + archivedCount);
+    }
+
+    private Comparator<EchoResponseDTO> archiveComparator(Sort.Order order) {
+        Comparator<EchoResponseDTO> comparator;
+        switch (order.getProperty()) {
+            case "id":
+                comparator = Comparator.comparing(EchoResponseDTO::getId);
+                break;
+            case "terminal":
+            case "terminal.terminalId":
+                comparator = Comparator.comparing(EchoResponseDTO::getTerminalId)
+                        .thenComparing(EchoResponseDTO::getTimestamp);
+                break;
+            default:
+                throw new BadRequestException("Archived echo logs cannot be sorted by " + order.getProperty()
+                        + ". Valid values are: timestamp, id, terminal");
+        }
+        return order.isAscending() ? comparator : comparator.reversed();
+    }
+}
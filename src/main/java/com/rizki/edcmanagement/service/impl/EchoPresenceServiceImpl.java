@@ -0,0 +1,493 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.dto.presence.response.DailyPresenceDTO;
+import com.rizki.edcmanagement.dto.presence.response.FleetPresenceResponseDTO;
+import com.rizki.edcmanagement.dto.presence.response.PresenceHeatmapResponseDTO;
+import com.rizki.edcmanagement.dto.presence.response.TerminalPresenceResponseDTO;
+import com.rizki.edcmanagement.event.EchoRecordedEvent;
+import com.rizki.edcmanagement.event.TerminalsDeletedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.exception.ResourceNotFoundException;
+import com.rizki.edcmanagement.model.EchoPresence;
+import com.rizki.edcmanagement.model.enums.PresenceMatchMode;
+import com.rizki.edcmanagement.repository.EchoLogRepository;
+import com.rizki.edcmanagement.repository.EchoPresenceRepository;
+import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.EchoArchiveService;
+import com.rizki.edcmanagement.service.EchoPresenceService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+import com.rizki.edcmanagement.util.PresenceBitmap;
+
+@Service
+public class EchoPresenceServiceImpl implements EchoPresenceService {
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final int READ_FETCH_SIZE = 1000;
+
+    @Autowired
+    private EchoPresenceRepository echoPresenceRepository;
+
+    @Autowired
+    private EchoLogRepository echoLogRepository;
+
+    @Autowired
+    private TerminalEDCRepository terminalEDCRepository;
+
+    @Autowired
+    private EchoArchiveService echoArchiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.echo.presence.max-range-days:31}")
+    private int maxRangeDays;
+
+    // Minutes recorded since the last flush, keyed by terminal and UTC day
+    private final Map<PresenceKey, PresenceBitmap> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Runs after the echo's transaction commits. compute() is atomic per key, so a bit is either
+     * set before flush() removes the bitmap or lands in a new one.
+     */
+    @TransactionalEventListener
+    public void onEchoRecorded(EchoRecordedEvent event) {
+        long epochSecond = event.getTimestamp().getEpochSecond();
+        LocalDate day = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, 86_400L));
+        int minute = (int) (Math.floorMod(epochSecond, 86_400L) / 60);
+
+        pending.compute(new PresenceKey(event.getTerminalId(), day), (key, bitmap) -> {
+            PresenceBitmap target = bitmap != null ? bitmap : new PresenceBitmap();
+            target.set(minute);
+            return target;
+        });
+    }
+
+    /**
+     * The purge deletes the terminal's presence rows, so its unflushed minutes must not be
+     * written after it.
+     */
+    @TransactionalEventListener
+    public void onTerminalsDeleted(TerminalsDeletedEvent event) {
+        Set<String> terminalIds = new HashSet<>(event.getTerminalIds());
+        pending.keySet().removeIf(key -> terminalIds.contains(key.terminalId));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${application.echo.presence.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<EchoPresence> rows = new ArrayList<>();
+        Iterator<PresenceKey> keys = pending.keySet().iterator();
+        while (keys.hasNext()) {
+            PresenceKey key = keys.next();
+            PresenceBitmap bitmap = pending.remove(key);
+            if (bitmap != null) {
+                rows.add(new EchoPresence(key.terminalId, key.day, bitmap));
+            }
+        }
+
+        try {
+            write(rows);
+        } catch (RuntimeException e) {
+            // Keep the minutes for the next flush; merging is idempotent
+            for (EchoPresence row : rows) {
+                pending.merge(new PresenceKey(row.getTerminalId(), row.getDay()), row.getMinutes(),
+                        (current, failed) -> {
+                            current.or(failed);
+                            return current;
+                        });
+            }
+            LoggingUtil.logError("ECHO_PRESENCE_FLUSH_FAILED", e,
+                    "ROWS", rows.size(),
+                    "ERROR_MESSAGE", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Fill from echo history until it has reached today once. Day by day, so memory stays
+     * bounded by one day's terminals, and each day is committed together with the watermark in
+     * echo_presence_state: a fill interrupted by a restart resumes with the next day. Live echoes
+     * flushed meanwhile are merged, not lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFromHistory() {
+        if (echoPresenceRepository.isBackfillCompleted()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        // A day can have archived rows and echo_log rows while its archive run is finishing
+        TreeSet<LocalDate> historyDays = new TreeSet<>(echoArchiveService.getArchive().getSegments().keySet());
+        Instant earliest = echoLogRepository.findEarliestTimestamp();
+        if (earliest != null) {
+            for (LocalDate day = earliest.atZone(ZoneOffset.UTC).toLocalDate(); !day.isAfter(today); day = day
+                    .plusDays(1)) {
+                historyDays.add(day);
+            }
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int days = 0;
+        for (LocalDate day : historyDays.headSet(today, true)) {
+            Boolean written = transactionTemplate.execute(status -> {
+                LocalDate backfilledThrough = echoPresenceRepository.findBackfilledThroughForUpdate();
+                if (backfilledThrough != null && !day.isAfter(backfilledThrough)) {
+                    // Written by another instance or before a restart
+                    return false;
+                }
+
+                Map<String, PresenceBitmap> bitmaps = loadDay(day);
+                write(toRows(day, bitmaps));
+                echoPresenceRepository.saveBackfillProgress(day, false);
+                return true;
+            });
+            if (Boolean.TRUE.equals(written)) {
+                days++;
+            }
+        }
+
+        transactionTemplate.execute(status -> {
+            echoPresenceRepository.findBackfilledThroughForUpdate();
+            echoPresenceRepository.saveBackfillProgress(today, true);
+            return null;
+        });
+
+        LoggingUtil.logBusinessEvent("ECHO_PRESENCE_BACKFILLED",
+                "DAYS", days,
+                "DURATION_MS", System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public TerminalPresenceResponseDTO getTerminalPresence(String terminalId, String from, String to, String time) {
+        LocalDate fromDate = parseDate("from", from);
+        LocalDate toDate = to != null && !to.trim().isEmpty() ? parseDate("to", to) : fromDate;
+        validateRange(fromDate, toDate);
+        Integer minute = parseMinute(time);
+
+        List<EchoPresence> rows = echoPresenceRepository.findByTerminalId(terminalId, fromDate, toDate);
+        Map<PresenceKey, PresenceBitmap> unflushed = snapshotPending(fromDate, toDate, terminalId::equals);
+        if (rows.isEmpty() && unflushed.isEmpty() && !terminalEDCRepository.existsById(terminalId)) {
+            throw new ResourceNotFoundException("Terminal EDC with ID '" + terminalId + "' not found");
+        }
+
+        Map<LocalDate, PresenceBitmap> byDay = new HashMap<>();
+        for (EchoPresence row : rows) {
+            byDay.put(row.getDay(), row.getMinutes());
+        }
+        for (Map.Entry<PresenceKey, PresenceBitmap> entry : unflushed.entrySet()) {
+            byDay.merge(entry.getKey().day, entry.getValue(), (stored, recent) -> {
+                stored.or(recent);
+                return stored;
+            });
+        }
+
+        List<DailyPresenceDTO> days = new ArrayList<>();
+        for (LocalDate day = fromDate; !day.isAfter(toDate); day = day.plusDays(1)) {
+            PresenceBitmap bitmap = byDay.containsKey(day) ? byDay.get(day) : new PresenceBitmap();
+            days.add(DailyPresenceDTO.builder()
+                    .date(day)
+                    .presentMinutes(bitmap.cardinality())
+                    .periods(toPeriods(bitmap))
+                    .presentAtTime(minute != null ? bitmap.get(minute) : null)
+                    .build());
+        }
+
+        return TerminalPresenceResponseDTO.builder()
+                .terminalId(terminalId)
+                .days(days)
+                .build();
+    }
+
+    @Override
+    public FleetPresenceResponseDTO getFleetPresence(String from, String to, String time, String match,
+            String terminalIdPrefix) {
+        LocalDate fromDate = parseDate("from", from);
+        LocalDate toDate = to != null && !to.trim().isEmpty() ? parseDate("to", to) : fromDate;
+        validateRange(fromDate, toDate);
+        Integer minute = parseMinute(time);
+        String prefix = normalizePrefix(terminalIdPrefix);
+
+        PresenceMatchMode matchMode;
+        try {
+            matchMode = PresenceMatchMode.fromString(match);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        // Aggregated in PostgreSQL, so echoes not flushed yet are not included
+        List<String> terminalIds = matchMode == PresenceMatchMode.ALL
+                ? echoPresenceRepository.findTerminalsPresentOnAllDays(fromDate, toDate, minute, prefix)
+                : echoPresenceRepository.findTerminalsPresentOnAnyDay(fromDate, toDate, minute, prefix);
+
+        LoggingUtil.logBusinessEvent("FLEET_PRESENCE_QUERIED",
+                "FROM", fromDate,
+                "TO", toDate,
+                "TIME", time,
+                "MATCH", matchMode,
+                "TERMINALS", terminalIds.size());
+
+        return FleetPresenceResponseDTO.builder()
+                .from(fromDate)
+                .to(toDate)
+                .time(minute != null ? formatMinute(minute) : null)
+                .match(matchMode.name())
+                .terminalCount(terminalIds.size())
+                .terminalIds(terminalIds)
+                .build();
+    }
+
+    @Override
+    public PresenceHeatmapResponseDTO getHeatmap(String from, String to, Integer bucketMinutes,
+            String terminalIdPrefix) {
+        LocalDate fromDate = parseDate("from", from);
+        LocalDate toDate = to != null && !to.trim().isEmpty() ? parseDate("to", to) : fromDate;
+        validateRange(fromDate, toDate);
+        String prefix = normalizePrefix(terminalIdPrefix);
+
+        int bucketSize = bucketMinutes != null ? bucketMinutes : 60;
+        if (bucketSize < 1 || PresenceBitmap.MINUTES_PER_DAY % bucketSize != 0) {
+            throw new BadRequestException("Bucket minutes must divide a day of 1440 minutes");
+        }
+        int buckets = PresenceBitmap.MINUTES_PER_DAY / bucketSize;
+
+        Map<LocalDate, int[]> counts = new LinkedHashMap<>();
+        for (LocalDate day = fromDate; !day.isAfter(toDate); day = day.plusDays(1)) {
+            counts.put(day, new int[buckets]);
+        }
+
+        Map<PresenceKey, PresenceBitmap> unflushed = snapshotPending(fromDate, toDate,
+                terminalId -> prefix == null || terminalId.startsWith(prefix));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.execute(status -> {
+            echoPresenceRepository.forEachInRange(fromDate, toDate, prefix, READ_FETCH_SIZE, row -> {
+                PresenceBitmap bitmap = row.getMinutes();
+                PresenceBitmap recent = unflushed.remove(new PresenceKey(row.getTerminalId(), row.getDay()));
+                if (recent != null) {
+                    bitmap.or(recent);
+                }
+                countBuckets(bitmap, bucketSize, counts.get(row.getDay()));
+            });
+            return null;
+        });
+        // Terminal days that only have minutes not flushed yet
+        for (Map.Entry<PresenceKey, PresenceBitmap> entry : unflushed.entrySet()) {
+            countBuckets(entry.getValue(), bucketSize, counts.get(entry.getKey().day));
+        }
+
+        List<PresenceHeatmapResponseDTO.Row> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, int[]> entry : counts.entrySet()) {
+            days.add(PresenceHeatmapResponseDTO.Row.builder()
+                    .date(entry.getKey())
+                    .terminalCounts(entry.getValue())
+                    .build());
+        }
+
+        return PresenceHeatmapResponseDTO.builder()
+                .from(fromDate)
+                .to(toDate)
+                .bucketMinutes(bucketSize)
+                .days(days)
+                .build();
+    }
+
+    // Count each bucket once, jumping straight to the next bucket after a hit
+    private static void countBuckets(PresenceBitmap bitmap, int bucketSize, int[] dayCounts) {
+        for (int minute = bitmap.nextSetBit(0); minute >= 0; minute = bitmap
+                .nextSetBit((minute / bucketSize + 1) * bucketSize)) {
+            dayCounts[minute / bucketSize]++;
+        }
+    }
+
+    /**
+     * Copies of this instance's unflushed minutes for the given days and terminals. Reads merge
+     * them in rather than flushing, so a query never waits on a write.
+     */
+    private Map<PresenceKey, PresenceBitmap> snapshotPending(LocalDate from, LocalDate to,
+            Predicate<String> terminalFilter) {
+        Map<PresenceKey, PresenceBitmap> snapshot = new HashMap<>();
+        for (PresenceKey key : pending.keySet()) {
+            if (key.day.isBefore(from) || key.day.isAfter(to) || !terminalFilter.test(key.terminalId)) {
+                continue;
+            }
+            // compute() runs atomically with onEchoRecorded for the same key
+            pending.computeIfPresent(key, (ignored, bitmap) -> {
+                PresenceBitmap copy = new PresenceBitmap();
+                copy.or(bitmap);
+                snapshot.put(key, copy);
+                return bitmap;
+            });
+        }
+        return snapshot;
+    }
+
+    /**
+     * Minutes of one day from its archive segment, if any, and from echo_log.
+     */
+    private Map<String, PresenceBitmap> loadDay(LocalDate day) {
+        Map<String, PresenceBitmap> bitmaps = new HashMap<>();
+        Instant dayStart = day.atStartOfDay().toInstant(ZoneOffset.UTC);
+
+        echoArchiveService.getArchive().forEachBlock(day, day, terminalId -> true,
+                (terminalId, timestamps, ids, rowCount) -> {
+                    PresenceBitmap bitmap = bitmaps.computeIfAbsent(terminalId, key -> new PresenceBitmap());
+                    for (int i = 0; i < rowCount; i++) {
+                        bitmap.set((int) (Math.floorMod(timestamps[i], 86_400_000_000L) / 60_000_000L));
+                    }
+                });
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.execute(status -> {
+            try (Stream<EchoResponseDTO> rows = echoLogRepository.streamForArchive(dayStart,
+                    dayStart.plusSeconds(86_400L))) {
+                rows.forEach(row -> bitmaps.computeIfAbsent(row.getTerminalId(), key -> new PresenceBitmap())
+                        .set(row.getTimestamp().getHour() * 60 + row.getTimestamp().getMinute()));
+            }
+            return null;
+        });
+        return bitmaps;
+    }
+
+    private void write(List<EchoPresence> rows) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < rows.size(); from += WRITE_BATCH_SIZE) {
+            List<EchoPresence> batch = rows.subList(from, Math.min(from + WRITE_BATCH_SIZE, rows.size()));
+            transactionTemplate.execute(status -> {
+                echoPresenceRepository.mergeAll(batch);
+                return null;
+            });
+        }
+    }
+
+    private static List<EchoPresence> toRows(LocalDate day, Map<String, PresenceBitmap> bitmaps) {
+        List<EchoPresence> rows = new ArrayList<>(bitmaps.size());
+        for (Map.Entry<String, PresenceBitmap> entry : bitmaps.entrySet()) {
+            rows.add(new EchoPresence(entry.getKey(), day, entry.getValue()));
+        }
+        return rows;
+    }
+
+    private static List<String> toPeriods(PresenceBitmap bitmap) {
+        List<String> periods = new ArrayList<>();
+        for (int start = bitmap.nextSetBit(0); start >= 0; start = bitmap.nextSetBit(start)) {
+            int end = bitmap.nextClearBit(start);
+            periods.add(formatMinute(start) + "-" + formatMinute(end));
+            start = end;
+        }
+        return periods;
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+        if (to.toEpochDay() - from.toEpochDay() + 1 > maxRangeDays) {
+            throw new BadRequestException("Date range must not exceed " + maxRangeDays + " days");
+        }
+    }
+
+    private static LocalDate parseDate(String name, String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return LocalDate.now(ZoneOffset.UTC);
+        }
+
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("'" + name + "' must be a UTC date (yyyy-MM-dd)");
+        }
+    }
+
+    private static Integer parseMinute(String time) {
+        if (time == null || time.trim().isEmpty()) {
+            return null;
+        }
+
+        try {
+            LocalTime localTime = LocalTime.parse(time.trim());
+            return localTime.getHour() * 60 + localTime.getMinute();
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("'time' must be a UTC time (HH:mm)");
+        }
+    }
+
+    private static String normalizePrefix(String terminalIdPrefix) {
+        if (terminalIdPrefix == null || terminalIdPrefix.trim().isEmpty()) {
+            return null;
+        }
+        return terminalIdPrefix.toUpperCase().trim();
+    }
+
+    private static final class PresenceKey {
+        private final String terminalId;
+        private final LocalDate day;
+
+        PresenceKey(String terminalId, LocalDate day) {
+            this.terminalId = terminalId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PresenceKey)) {
+                return false;
+            }
+            PresenceKey key = (PresenceKey) other;
+            return terminalId.equals(key.terminalId) && day.equals(key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(terminalId, day);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.model.EchoSession;
+import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.repository.EchoSessionRepository;
+import com.rizki.edcmanagement.service.EchoSessionService;
+import com.rizki.edcmanagement.specification.EchoSessionSpecification;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+@Service
+public class EchoSessionServiceImpl implements EchoSessionService {
+    @Autowired
+    private EchoSessionRepository echoSessionRepository;
+
+    @Value("${application.echo.session.gap-threshold-ms:120000}")
+    private long gapThresholdMs;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EchoSession recordEcho(TerminalEDC terminal, Instant timestamp) {
+        List<EchoSession> latest = echoSessionRepository.findLatestByTerminalId(terminal.getTerminalId(),
+                PageRequest.of(0, 1));
+
+        EchoSession session;
+        if (!latest.isEmpty()
+                && !latest.get(0).getLastEchoAt().isBefore(timestamp.minusMillis(gapThresholdMs))) {
+            session = latest.get(0);
+            if (timestamp.isAfter(session.getLastEchoAt())) {
+                session.setLastEchoAt(timestamp);
+            }
+            session.setEchoCount(session.getEchoCount() + 1);
+        } else {
+            session = EchoSession.builder()
+                    .terminal(terminal)
+                    .startedAt(timestamp)
+                    .lastEchoAt(timestamp)
+                    .echoCount(1)
+                    .build();
+
+            LoggingUtil.logBusinessEvent("ECHO_SESSION_OPENED",
+                    "TERMINAL_ID", terminal.getTerminalId(),
+                    "PREVIOUS_SESSION_END", latest.isEmpty() ? null : latest.get(0).getLastEchoAt());
+        }
+
+        return echoSessionRepository.save(session);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<EchoResponseDTO> findSessions(GetEchoLogRequestDTO requestDTO, Pageable pageable) {
+        Pageable sessionPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                EchoSessionSpecification.mapSort(pageable.getSort()));
+
+        // The terminal ID comes from the foreign key, the lazy terminal is never loaded
+        return echoSessionRepository.findAll(EchoSessionSpecification.buildSpecification(requestDTO), sessionPageable)
+                .map(session -> EchoResponseDTO.builder()
+                        .id(session.getId())
+                        .terminalId(session.getTerminal().getTerminalId())
+                        .timestamp(LocalDateTime.ofInstant(session.getStartedAt(), ZoneOffset.UTC))
+                        .lastEchoAt(LocalDateTime.ofInstant(session.getLastEchoAt(), ZoneOffset.UTC))
+                        .echoCount(session.getEchoCount())
+                        .build());
+    }
+}
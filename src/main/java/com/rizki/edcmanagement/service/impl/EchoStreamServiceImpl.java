@@ -0,0 +1,506 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rizki.edcmanagement.dto.echo.request.EchoStreamRequestDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoStreamEventDTO;
+import com.rizki.edcmanagement.event.EchoRecordedEvent;
+import com.rizki.edcmanagement.exception.ServiceUnavailableException;
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+import com.rizki.edcmanagement.service.EchoStreamService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+/**
+ * Fans recorded echoes out to SSE subscribers in three stages, so the ingest thread never waits
+ * on a client:
+ * <ol>
+ * <li>the after-commit listener offers the event to a bounded dispatch queue and returns</li>
+ * <li>a single dispatcher thread serializes each event once and appends it to the bounded queue
+ * of every matching subscriber, dropping that subscriber's oldest event when it is full</li>
+ * <li>a small sender pool drains subscriber queues into their emitters, one task per subscriber
+ * at a time</li>
+ * </ol>
+ * Subscribers are told how many events they missed through a "dropped" event, after which they
+ * can catch up with GET /api/edc/echo-logs.
+ *
+ * Emitter writes block, and the servlet container only gives up on a client that stopped reading
+ * after its own write timeout. A watchdog therefore disconnects a subscriber whose write has
+ * taken longer than the write timeout, and lends the pool a replacement thread until the stuck
+ * write returns. It also disconnects subscribers whose buffer overflowed and has not been
+ * emptied since, within the slow subscriber timeout.
+ */
+@Service
+public class EchoStreamServiceImpl implements EchoStreamService {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${application.echo.stream.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${application.echo.stream.subscriber-buffer-size:256}")
+    private int subscriberBufferSize;
+
+    @Value("${application.echo.stream.dispatch-queue-size:10000}")
+    private int dispatchQueueSize;
+
+    @Value("${application.echo.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${application.echo.stream.timeout-ms:1800000}")
+    private long streamTimeoutMillis;
+
+    @Value("${application.echo.stream.write-timeout-ms:10000}")
+    private long writeTimeoutMillis;
+
+    @Value("${application.echo.stream.slow-subscriber-timeout-ms:30000}")
+    private long slowSubscriberTimeoutMillis;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedAtDispatch = new AtomicLong();
+
+    private BlockingQueue<EchoRecordedEvent> dispatchQueue;
+    private ThreadPoolExecutor senders;
+    private int stalledSenders;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        dispatchQueue = new ArrayBlockingQueue<>(dispatchQueueSize);
+
+        AtomicInteger senderNumber = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "echo-stream-sender-" + senderNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "echo-stream-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Runs on the ingest thread after commit: a non-blocking offer, nothing else.
+     */
+    @TransactionalEventListener
+    public void onEchoRecorded(EchoRecordedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!dispatchQueue.offer(event)) {
+            droppedAtDispatch.incrementAndGet();
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(EchoStreamRequestDTO requestDTO) {
+        if (subscribers.size() >= maxSubscribers) {
+            LoggingUtil.logBusinessEvent("ECHO_STREAM_SUBSCRIBE_REJECTED",
+                    "SUBSCRIBERS", subscribers.size(),
+                    "MAX_SUBSCRIBERS", maxSubscribers);
+            throw new ServiceUnavailableException("Too many echo stream subscribers, try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
+                emitter, requestDTO);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber, "COMPLETED"));
+        emitter.onTimeout(() -> unsubscribe(subscriber, "TIMEOUT"));
+        emitter.onError(error -> unsubscribe(subscriber, "ERROR"));
+        subscribers.add(subscriber);
+
+        LoggingUtil.logBusinessEvent("ECHO_STREAM_SUBSCRIBED",
+                "SUBSCRIBER_ID", subscriber.id,
+                "TERMINAL_ID_FILTER", requestDTO.getTerminalId(),
+                "TERMINAL_TYPE_FILTER", requestDTO.getTerminalType(),
+                "LOCATION_FILTER", requestDTO.getLocation(),
+                "SUBSCRIBERS", subscribers.size());
+
+        // Send a comment right away so the client sees the stream open
+        subscriber.requestHeartbeat();
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Keeps idle connections alive through proxies and detects clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${application.echo.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.requestHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Disconnects subscribers stuck in a write or falling behind for good. Never touches an
+     * emitter itself: a stuck write holds the emitter's lock, so the subscriber is only marked
+     * closed and its sender task completes the emitter.
+     */
+    @Scheduled(fixedDelayString = "${application.echo.stream.watchdog-interval-ms:1000}")
+    public void disconnectSlowSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.markStalled(now, writeTimeoutMillis)) {
+                adjustSenders(1);
+                close(subscriber, "WRITE_TIMEOUT");
+            } else if (subscriber.isOverflowingSince(now - slowSubscriberTimeoutMillis)) {
+                close(subscriber, "SLOW_SUBSCRIBER");
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            EchoRecordedEvent event;
+            try {
+                event = dispatchQueue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            long dropped = droppedAtDispatch.getAndSet(0);
+            if (dropped > 0) {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.addDropped(dropped);
+                    schedule(subscriber);
+                }
+            }
+
+            if (event == null) {
+                continue;
+            }
+
+            try {
+                PreparedEvent prepared = null;
+                for (Subscriber subscriber : subscribers) {
+                    if (!subscriber.matches(event)) {
+                        continue;
+                    }
+                    if (prepared == null) {
+                        // Serialized once, shared by every matching subscriber
+                        prepared = prepare(event);
+                    }
+                    if (subscriber.offer(prepared, subscriberBufferSize, System.currentTimeMillis())) {
+                        schedule(subscriber);
+                    }
+                }
+            } catch (Exception e) {
+                LoggingUtil.logError("ECHO_STREAM_DISPATCH_FAILED", e, "ECHO_LOG_ID", event.getEchoLogId());
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.markScheduled()) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                // Rejected during shutdown
+                subscriber.clearScheduled();
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                long dropped;
+                PreparedEvent next;
+                boolean heartbeat;
+                boolean closed;
+                synchronized (subscriber) {
+                    closed = subscriber.closed;
+                    dropped = subscriber.dropped;
+                    next = subscriber.queue.pollFirst();
+                    heartbeat = subscriber.heartbeatDue;
+                    subscriber.dropped = 0;
+                    subscriber.heartbeatDue = false;
+                    if (!closed && dropped == 0 && next == null && !heartbeat) {
+                        // Caught up, whatever overflowed before has been delivered or reported
+                        subscriber.overflowSinceMillis = 0;
+                        subscriber.scheduled = false;
+                        return;
+                    }
+                }
+
+                if (closed) {
+                    subscriber.clearScheduled();
+                    complete(subscriber);
+                    return;
+                }
+
+                if (dropped > 0) {
+                    send(subscriber, SseEmitter.event()
+                            .name("dropped")
+                            .data("{\"count\":" + dropped + "}", MediaType.APPLICATION_JSON));
+                }
+                if (next != null) {
+                    send(subscriber, SseEmitter.event()
+                            .id(next.id)
+                            .name("echo")
+                            .data(next.json, MediaType.APPLICATION_JSON));
+                } else if (heartbeat) {
+                    send(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (Exception e) {
+            // Usually the client disconnected
+            unsubscribe(subscriber, "SEND_FAILED");
+            subscriber.clearScheduled();
+            complete(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEventBuilder event) throws IOException {
+        subscriber.beginSend(System.currentTimeMillis());
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            if (subscriber.endSend()) {
+                // The watchdog lent the pool a thread while this write was stuck
+                adjustSenders(-1);
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber, String reason) {
+        subscriber.close();
+        unsubscribe(subscriber, reason);
+        // Completes the emitter now, or once the sender holding it returns
+        schedule(subscriber);
+    }
+
+    private static void complete(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (Exception ignored) {
+            // The response is already unusable
+        }
+    }
+
+    private synchronized void adjustSenders(int delta) {
+        stalledSenders += delta;
+        int size = senderThreads + stalledSenders;
+        // The core size may never exceed the maximum, so grow the maximum first and shrink it last
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            LoggingUtil.logBusinessEvent("ECHO_STREAM_UNSUBSCRIBED",
+                    "SUBSCRIBER_ID", subscriber.id,
+                    "REASON", reason,
+                    "SUBSCRIBERS", subscribers.size());
+        }
+    }
+
+    private PreparedEvent prepare(EchoRecordedEvent event) throws JsonProcessingException {
+        EchoStreamEventDTO payload = EchoStreamEventDTO.builder()
+                .id(event.getEchoLogId())
+                .terminalId(event.getTerminalId())
+                .terminalType(terminalTypeOf(event.getTerminalId()))
+                .location(event.getLocation())
+                .timestamp(LocalDateTime.ofInstant(event.getTimestamp(), ZoneOffset.UTC))
+                .build();
+        return new PreparedEvent(String.valueOf(event.getEchoLogId()), objectMapper.writeValueAsString(payload));
+    }
+
+    // Terminal IDs follow {TYPE}-{LOCATION}-{SEQUENCE}
+    private static String terminalTypeOf(String terminalId) {
+        int separator = terminalId.indexOf('-');
+        return separator > 0 ? terminalId.substring(0, separator) : terminalId;
+    }
+
+    private static class PreparedEvent {
+        private final String id;
+        private final String json;
+
+        PreparedEvent(String id, String json) {
+            this.id = id;
+            this.json = json;
+        }
+    }
+
+    /**
+     * Queue and write state are guarded by the subscriber's monitor; the emitter is only used by
+     * the one sender task that holds the scheduled flag.
+     */
+    private static class Subscriber {
+        private final String id;
+        private final SseEmitter emitter;
+        private final TerminalIdMatchMode terminalIdMatchMode;
+        private final String terminalId;
+        private final String terminalType;
+        private final String location;
+
+        private final ArrayDeque<PreparedEvent> queue = new ArrayDeque<>();
+        private long dropped;
+        private boolean heartbeatDue;
+        private boolean scheduled;
+        private boolean closed;
+        private long overflowSinceMillis;
+        private long sendStartedMillis;
+        private boolean stalled;
+
+        Subscriber(String id, SseEmitter emitter, EchoStreamRequestDTO filters) {
+            this.id = id;
+            this.emitter = emitter;
+            this.terminalIdMatchMode = TerminalIdMatchMode.fromString(filters.getTerminalIdMatch());
+            this.terminalId = normalize(filters.getTerminalId(), true);
+            this.terminalType = normalize(filters.getTerminalType(), true);
+            this.location = normalize(filters.getLocation(), false);
+        }
+
+        boolean matches(EchoRecordedEvent event) {
+            if (terminalType != null && !terminalTypeOf(event.getTerminalId()).equals(terminalType)) {
+                return false;
+            }
+            if (location != null && (event.getLocation() == null
+                    || !event.getLocation().toLowerCase().contains(location))) {
+                return false;
+            }
+            if (terminalId == null) {
+                return true;
+            }
+
+            switch (terminalIdMatchMode) {
+                case EXACT:
+                    return event.getTerminalId().equals(terminalId);
+                case PREFIX:
+                    return event.getTerminalId().startsWith(terminalId);
+                case CONTAINS:
+                default:
+                    return event.getTerminalId().contains(terminalId);
+            }
+        }
+
+        /**
+         * Append an event, dropping the oldest pending one when the buffer is full.
+         *
+         * @return whether a sender task has to be scheduled
+         */
+        synchronized boolean offer(PreparedEvent event, int capacity, long nowMillis) {
+            if (queue.size() >= capacity) {
+                queue.pollFirst();
+                dropped++;
+                if (overflowSinceMillis == 0) {
+                    overflowSinceMillis = nowMillis;
+                }
+            }
+            queue.addLast(event);
+            return !scheduled;
+        }
+
+        synchronized void addDropped(long count) {
+            dropped += count;
+        }
+
+        synchronized void requestHeartbeat() {
+            heartbeatDue = true;
+        }
+
+        synchronized boolean markScheduled() {
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        synchronized void clearScheduled() {
+            scheduled = false;
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+
+        synchronized boolean isOverflowingSince(long thresholdMillis) {
+            return overflowSinceMillis > 0 && overflowSinceMillis < thresholdMillis;
+        }
+
+        synchronized void beginSend(long nowMillis) {
+            sendStartedMillis = nowMillis;
+        }
+
+        /**
+         * @return whether the write had been marked stalled
+         */
+        synchronized boolean endSend() {
+            boolean wasStalled = stalled;
+            sendStartedMillis = 0;
+            stalled = false;
+            return wasStalled;
+        }
+
+        /**
+         * Mark the running write stalled once it took longer than the timeout, at most once per write.
+         */
+        synchronized boolean markStalled(long nowMillis, long timeoutMillis) {
+            if (stalled || sendStartedMillis == 0 || nowMillis - sendStartedMillis <= timeoutMillis) {
+                return false;
+            }
+            stalled = true;
+            closed = true;
+            return true;
+        }
+
+        private static String normalize(String value, boolean upperCase) {
+            if (value == null || value.trim().isEmpty()) {
+                return null;
+            }
+            return upperCase ? value.trim().toUpperCase() : value.trim().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rizki.edcmanagement.archive.EchoArchive;
+import com.rizki.edcmanagement.archive.EchoArchiveSegment;
+import com.rizki.edcmanagement.dto.timeseries.response.EchoTimeSeriesResponseDTO;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.model.enums.EchoStorageMode;
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+import com.rizki.edcmanagement.model.enums.TimeSeriesGroupBy;
+import com.rizki.edcmanagement.repository.EchoLogRepository;
+import com.rizki.edcmanagement.repository.EchoRollupRepository;
+import com.rizki.edcmanagement.repository.EchoRollupRepository.BucketVisitor;
+import com.rizki.edcmanagement.repository.EchoRollupRepository.TimeSeriesQuery;
+import com.rizki.edcmanagement.service.EchoArchiveService;
+import com.rizki.edcmanagement.service.EchoTimeSeriesService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+import com.rizki.edcmanagement.util.LruCache;
+
+@Service
+public class EchoTimeSeriesServiceImpl implements EchoTimeSeriesService {
+    private static final long HOUR_SECONDS = 3_600L;
+    private static final long DEFAULT_WINDOW_SECONDS = 86_400L;
+    private static final String SERIES_ALL = "ALL";
+
+    // Supported bucket sizes, finest first. All divide a day, so buckets align to UTC midnight.
+    private static final String[] RESOLUTION_NAMES = { "1m", "5m", "15m", "30m", "1h", "3h", "6h", "12h", "1d" };
+    private static final long[] RESOLUTION_SECONDS = { 60, 300, 900, 1_800, 3_600, 10_800, 21_600, 43_200,
+            86_400 };
+
+    @Autowired
+    private EchoRollupRepository echoRollupRepository;
+
+    @Autowired
+    private EchoLogRepository echoLogRepository;
+
+    @Autowired
+    private EchoArchiveService echoArchiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.echo.storage-mode:POINT}")
+    private EchoStorageMode storageMode;
+
+    @Value("${application.echo.rollup.enabled:true}")
+    private boolean rollupEnabled;
+
+    @Value("${application.echo.rollup.closed-hour-grace-ms:60000}")
+    private long closedHourGraceMs;
+
+    @Value("${application.echo.timeseries.default-points:120}")
+    private int defaultPoints;
+
+    @Value("${application.echo.timeseries.max-points:2000}")
+    private int maxPoints;
+
+    @Value("${application.echo.timeseries.max-series:50}")
+    private int maxSeries;
+
+    @Value("${application.echo.timeseries.cache.max-entries:200}")
+    private int cacheMaxEntries;
+
+    @Value("${application.echo.timeseries.cache.live-ttl-ms:30000}")
+    private long cacheLiveTtlMs;
+
+    private LruCache<String, CachedTimeSeries> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = new LruCache<>(cacheMaxEntries);
+    }
+
+    @Override
+    public EchoTimeSeriesResponseDTO getTimeSeries(String from, String to, String resolution, Integer points,
+            String terminalId, String terminalIdMatch, String location, String groupBy) {
+        if (storageMode != EchoStorageMode.POINT) {
+            throw new BadRequestException("Echo time series require the POINT storage mode");
+        }
+
+        TerminalIdMatchMode matchMode;
+        TimeSeriesGroupBy grouping;
+        try {
+            matchMode = TerminalIdMatchMode.fromString(terminalIdMatch);
+            grouping = TimeSeriesGroupBy.fromString(groupBy);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        Instant now = Instant.now();
+        Instant toInstant = to != null && !to.trim().isEmpty() ? parseInstant("to", to, true) : now;
+        Instant fromInstant = from != null && !from.trim().isEmpty()
+                ? parseInstant("from", from, false)
+                : toInstant.minusSeconds(DEFAULT_WINDOW_SECONDS);
+        if (!fromInstant.isBefore(toInstant)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+
+        int resolutionIndex = resolution != null && !resolution.trim().isEmpty()
+                ? parseResolution(resolution)
+                : chooseResolution(fromInstant, toInstant, points != null ? points : defaultPoints);
+        long resolutionSeconds = RESOLUTION_SECONDS[resolutionIndex];
+
+        // Widen the window to whole buckets
+        long fromSlot = Math.floorDiv(fromInstant.getEpochSecond(), resolutionSeconds);
+        long toSlot = Math.floorDiv(ceilSeconds(toInstant) + resolutionSeconds - 1, resolutionSeconds);
+        if (toSlot - fromSlot > maxPoints) {
+            throw new BadRequestException("The window holds " + (toSlot - fromSlot) + " buckets of "
+                    + RESOLUTION_NAMES[resolutionIndex] + "; at most " + maxPoints + " are allowed");
+        }
+
+        TimeSeriesQuery query = new TimeSeriesQuery(normalize(terminalId, true), matchMode,
+                normalize(location, false), grouping);
+        Window window = new Window(resolutionIndex, fromSlot, toSlot);
+
+        String cacheKey = cacheKey(query, window);
+        // Read before computing, so a purge finishing meanwhile outdates the result
+        long purgeGeneration = echoArchiveService.getArchive().getPurges().getGeneration();
+        CachedTimeSeries cached = cache.get(cacheKey);
+        if (cached != null && cached.expiresAtMillis > now.toEpochMilli()
+                && cached.purgeGeneration == purgeGeneration) {
+            return cached.response;
+        }
+
+        long startTime = System.currentTimeMillis();
+        EchoTimeSeriesResponseDTO response = compute(query, window);
+
+        // Closed windows only change when a terminal is purged; windows reaching into the last
+        // minute are refreshed
+        boolean closed = !window.to().isAfter(now.minusMillis(closedHourGraceMs));
+        cache.put(cacheKey, new CachedTimeSeries(response,
+                closed ? Long.MAX_VALUE : now.toEpochMilli() + cacheLiveTtlMs, purgeGeneration));
+
+        LoggingUtil.logBusinessEvent("ECHO_TIME_SERIES_COMPUTED",
+                "FROM", window.from(),
+                "TO", window.to(),
+                "RESOLUTION", RESOLUTION_NAMES[resolutionIndex],
+                "GROUP_BY", grouping,
+                "SERIES", response.getSeries().size(),
+                "SOURCES", response.getSources(),
+                "DURATION_MS", System.currentTimeMillis() - startTime);
+        return response;
+    }
+
+    /**
+     * Runs once at startup, so an empty rollup is backfilled from the archive and echo_log.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rollUpOnStartup() {
+        rollUp();
+    }
+
+    @Override
+    @Scheduled(cron = "${application.echo.rollup.cron:0 5 * * * *}", zone = "UTC")
+    public synchronized void rollUp() {
+        if (!rollupEnabled) {
+            return;
+        }
+
+        Instant until = Instant.now().minusMillis(closedHourGraceMs).truncatedTo(ChronoUnit.HOURS);
+        long startTime = System.currentTimeMillis();
+        int chunks = 0;
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            // One transaction per UTC day, so a long backfill keeps its progress
+            while (Boolean.TRUE.equals(transactionTemplate.execute(status -> rollUpNextDay(until)))) {
+                chunks++;
+            }
+        } catch (RuntimeException e) {
+            LoggingUtil.logError("ECHO_ROLLUP_FAILED", e,
+                    "UNTIL", until,
+                    "ERROR_MESSAGE", e.getMessage());
+            return;
+        }
+
+        if (chunks > 0) {
+            LoggingUtil.logBusinessEvent("ECHO_ROLLUP_COMPLETED",
+                    "ROLLED_UP_UNTIL", until,
+                    "DAYS", chunks,
+                    "DURATION_MS", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * Roll up the hours from the watermark to the end of its UTC day (or {@code until}).
+     * Returns false when there was nothing left to roll up.
+     */
+    private Boolean rollUpNextDay(Instant until) {
+        Instant rolledUpUntil = echoRollupRepository.findRolledUpUntilForUpdate();
+        if (rolledUpUntil == null) {
+            Instant earliest = findEarliestEcho();
+            if (earliest == null) {
+                echoRollupRepository.saveRolledUpUntil(until);
+                return false;
+            }
+            rolledUpUntil = earliest.truncatedTo(ChronoUnit.HOURS);
+        }
+        if (!rolledUpUntil.isBefore(until)) {
+            return false;
+        }
+
+        Instant chunkEnd = rolledUpUntil.truncatedTo(ChronoUnit.DAYS).plus(1, ChronoUnit.DAYS);
+        if (chunkEnd.isAfter(until)) {
+            chunkEnd = until;
+        }
+
+        EchoArchive archive = echoArchiveService.getArchive();
+        if (isArchived(archive, chunkEnd)) {
+            rollUpFromArchive(archive, rolledUpUntil, chunkEnd);
+        } else {
+            echoRollupRepository.deleteRange(rolledUpUntil, chunkEnd);
+            echoRollupRepository.insertFromEchoLog(rolledUpUntil, chunkEnd);
+
+            // The archiver publishes a day before deleting its rows, so a day archived
+            // meanwhile shows up in the current snapshot
+            EchoArchive current = echoArchiveService.getArchive();
+            if (current != archive && isArchived(current, chunkEnd)) {
+                rollUpFromArchive(current, rolledUpUntil, chunkEnd);
+            }
+        }
+
+        echoRollupRepository.saveRolledUpUntil(chunkEnd);
+        return true;
+    }
+
+    private void rollUpFromArchive(EchoArchive archive, Instant from, Instant to) {
+        echoRollupRepository.deleteRange(from, to);
+
+        LocalDate day = from.atZone(ZoneOffset.UTC).toLocalDate();
+        long fromMicros = EchoArchiveSegment.toMicros(from);
+        long toMicros = EchoArchiveSegment.toMicros(to);
+        Map<String, Map<Instant, Long>> counts = new HashMap<>();
+        archive.forEachBlock(day, day, terminalId -> true, (terminalId, timestamps, ids, rowCount) -> {
+            Map<Instant, Long> hours = counts.computeIfAbsent(terminalId, key -> new TreeMap<>());
+            for (int i = 0; i < rowCount; i++) {
+                if (timestamps[i] >= fromMicros && timestamps[i] < toMicros) {
+                    Instant hour = Instant.ofEpochSecond(
+                            Math.floorDiv(timestamps[i], HOUR_SECONDS * 1_000_000L) * HOUR_SECONDS);
+                    hours.merge(hour, 1L, Long::sum);
+                }
+            }
+        });
+        echoRollupRepository.insertAll(counts);
+    }
+
+    private EchoTimeSeriesResponseDTO compute(TimeSeriesQuery query, Window window) {
+        int buckets = (int) (window.toSlot - window.fromSlot);
+        long resolutionSeconds = RESOLUTION_SECONDS[window.resolutionIndex];
+
+        // Terminals and locations are listed up front, so every series is present even without echoes
+        Map<String, String> terminals = null;
+        Map<String, long[]> counts = new TreeMap<>();
+        if (query.getGroupBy() == TimeSeriesGroupBy.NONE) {
+            counts.put(SERIES_ALL, new long[buckets]);
+        } else {
+            terminals = echoRollupRepository.findMatchingTerminals(query);
+            Set<String> keys = query.getGroupBy() == TimeSeriesGroupBy.TERMINAL
+                    ? terminals.keySet()
+                    : new TreeSet<>(terminals.values());
+            if (keys.size() > maxSeries) {
+                throw new BadRequestException("The filters match " + keys.size() + " series; at most " + maxSeries
+                        + " are allowed. Narrow the terminal ID or location filter");
+            }
+            for (String key : keys) {
+                counts.put(key, new long[buckets]);
+            }
+        }
+
+        BucketVisitor visitor = (slot, series, echoCount) -> {
+            long[] seriesCounts = counts.computeIfAbsent(series != null ? series : SERIES_ALL,
+                    key -> new long[buckets]);
+            seriesCounts[(int) (slot - window.fromSlot)] += echoCount;
+        };
+
+        Set<String> sources = new LinkedHashSet<>();
+        Instant liveFrom = window.from();
+        Instant rolledUpUntil = rollupEnabled ? echoRollupRepository.findRolledUpUntil() : null;
+        // Hourly rows only add up to whole-hour buckets
+        if (rolledUpUntil != null && resolutionSeconds % HOUR_SECONDS == 0 && rolledUpUntil.isAfter(liveFrom)) {
+            Instant rollupTo = rolledUpUntil.isBefore(window.to()) ? rolledUpUntil : window.to();
+            echoRollupRepository.sumRollup(liveFrom, rollupTo, resolutionSeconds, query, visitor);
+            sources.add("ROLLUP");
+            liveFrom = rollupTo;
+        }
+
+        if (liveFrom.isBefore(window.to())) {
+            EchoArchive archive = echoArchiveService.getArchive();
+            Instant archivedUntil = archive.getArchivedUntil();
+            if (archivedUntil != null && liveFrom.isBefore(archivedUntil)) {
+                Instant archiveTo = archivedUntil.isBefore(window.to()) ? archivedUntil : window.to();
+                if (terminals == null && (query.getTerminalId() != null || query.getLocation() != null)) {
+                    terminals = echoRollupRepository.findMatchingTerminals(query);
+                }
+                countArchive(archive, liveFrom, archiveTo, resolutionSeconds, query, terminals, visitor);
+                sources.add("ARCHIVE");
+                liveFrom = archiveTo;
+            }
+            if (liveFrom.isBefore(window.to())) {
+                echoRollupRepository.countEchoLog(liveFrom, window.to(), resolutionSeconds, query, visitor);
+                sources.add("ECHO_LOG");
+            }
+        }
+
+        List<LocalDateTime> timestamps = new ArrayList<>(buckets);
+        for (long slot = window.fromSlot; slot < window.toSlot; slot++) {
+            timestamps.add(LocalDateTime.ofEpochSecond(slot * resolutionSeconds, 0, ZoneOffset.UTC));
+        }
+
+        List<EchoTimeSeriesResponseDTO.Series> series = new ArrayList<>(counts.size());
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            long total = 0;
+            for (long count : entry.getValue()) {
+                total += count;
+            }
+            series.add(EchoTimeSeriesResponseDTO.Series.builder()
+                    .key(entry.getKey())
+                    .total(total)
+                    .counts(entry.getValue())
+                    .build());
+        }
+
+        return EchoTimeSeriesResponseDTO.builder()
+                .from(LocalDateTime.ofInstant(window.from(), ZoneOffset.UTC))
+                .to(LocalDateTime.ofInstant(window.to(), ZoneOffset.UTC))
+                .resolution(RESOLUTION_NAMES[window.resolutionIndex])
+                .resolutionSeconds(resolutionSeconds)
+                .groupBy(query.getGroupBy().name())
+                .terminalId(query.getTerminalId())
+                .terminalIdMatch(query.getTerminalId() != null ? query.getMatchMode().name() : null)
+                .location(query.getLocation())
+                .rolledUpUntil(rolledUpUntil != null ? LocalDateTime.ofInstant(rolledUpUntil, ZoneOffset.UTC) : null)
+                .sources(new ArrayList<>(sources))
+                .timestamps(timestamps)
+                .series(series)
+                .build();
+    }
+
+    /**
+     * Count archived echoes of [from, to). {@code terminals} holds the matching terminals and
+     * their locations, or is null when every terminal matches and locations are not needed.
+     */
+    private static void countArchive(EchoArchive archive, Instant from, Instant to, long resolutionSeconds,
+            TimeSeriesQuery query, Map<String, String> terminals, BucketVisitor visitor) {
+        LocalDate fromDay = from.atZone(ZoneOffset.UTC).toLocalDate();
+        LocalDate lastDay = to.minusNanos(1).atZone(ZoneOffset.UTC).toLocalDate();
+        long fromMicros = EchoArchiveSegment.toMicros(from);
+        long toMicros = EchoArchiveSegment.toMicros(to);
+        long resolutionMicros = resolutionSeconds * 1_000_000L;
+
+        archive.forEachBlock(fromDay, lastDay, terminalId -> terminals == null || terminals.containsKey(terminalId),
+                (terminalId, timestamps, ids, rowCount) -> {
+                    String series = query.getGroupBy() == TimeSeriesGroupBy.TERMINAL ? terminalId
+                            : query.getGroupBy() == TimeSeriesGroupBy.LOCATION ? terminals.get(terminalId)
+                                    : null;
+                    for (int i = 0; i < rowCount; i++) {
+                        if (timestamps[i] >= fromMicros && timestamps[i] < toMicros) {
+                            visitor.visit(Math.floorDiv(timestamps[i], resolutionMicros), series, 1L);
+                        }
+                    }
+                });
+    }
+
+    private Instant findEarliestEcho() {
+        EchoArchive archive = echoArchiveService.getArchive();
+        Instant earliest = archive.isEmpty()
+                ? null
+                : archive.getSegments().firstKey().atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant earliestLive = echoLogRepository.findEarliestTimestamp();
+        if (earliest == null || (earliestLive != null && earliestLive.isBefore(earliest))) {
+            earliest = earliestLive;
+        }
+        return earliest;
+    }
+
+    private static boolean isArchived(EchoArchive archive, Instant to) {
+        Instant archivedUntil = archive.getArchivedUntil();
+        return archivedUntil != null && !to.isAfter(archivedUntil);
+    }
+
+    private int chooseResolution(Instant from, Instant to, int points) {
+        if (points < 1 || points > maxPoints) {
+            throw new BadRequestException("Points must be between 1 and " + maxPoints);
+        }
+
+        long windowSeconds = ceilSeconds(to) - from.getEpochSecond();
+        for (int i = 0; i < RESOLUTION_SECONDS.length; i++) {
+            // Alignment may add one bucket at the start
+            if ((windowSeconds + RESOLUTION_SECONDS[i] - 1) / RESOLUTION_SECONDS[i] + 1 <= points) {
+                return i;
+            }
+        }
+        return RESOLUTION_SECONDS.length - 1;
+    }
+
+    private static int parseResolution(String resolution) {
+        String value = resolution.trim().toLowerCase();
+        for (int i = 0; i < RESOLUTION_NAMES.length; i++) {
+            if (RESOLUTION_NAMES[i].equals(value)) {
+                return i;
+            }
+        }
+        throw new BadRequestException("Invalid resolution: " + resolution + ". Valid values are: "
+                + String.join(", ", RESOLUTION_NAMES));
+    }
+
+    /**
+     * A UTC date-time (yyyy-MM-dd'T'HH:mm[:ss]) or date. A date {@code to} includes that whole day.
+     */
+    private static Instant parseInstant(String name, String value, boolean endOfDay) {
+        String trimmed = value.trim();
+        try {
+            if (trimmed.indexOf('T') < 0) {
+                LocalDate date = LocalDate.parse(trimmed);
+                return (endOfDay ? date.plusDays(1) : date).atStartOfDay().toInstant(ZoneOffset.UTC);
+            }
+            return LocalDateTime.parse(trimmed).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("'" + name + "' must be a UTC date (yyyy-MM-dd) or date-time "
+                    + "(yyyy-MM-dd'T'HH:mm:ss)");
+        }
+    }
+
+    private static long ceilSeconds(Instant instant) {
+        return instant.getNano() > 0 ? instant.getEpochSecond() + 1 : instant.getEpochSecond();
+    }
+
+    private static String normalize(String value, boolean upperCase) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return upperCase ? value.toUpperCase().trim() : value.toLowerCase().trim();
+    }
+
+    private static String cacheKey(TimeSeriesQuery query, Window window) {
+        return query.getGroupBy() + "|" + query.getMatchMode() + "|" + query.getTerminalId() + "|"
+                + query.getLocation() + "|" + RESOLUTION_NAMES[window.resolutionIndex] + "|" + window.fromSlot
+                + "|" + window.toSlot;
+    }
+
+    /**
+     * Buckets [fromSlot, toSlot) of one resolution, a slot being seconds since the epoch
+     * divided by the resolution.
+     */
+    private static final class Window {
+        private final int resolutionIndex;
+        private final long fromSlot;
+        private final long toSlot;
+
+        Window(int resolutionIndex, long fromSlot, long toSlot) {
+            this.resolutionIndex = resolutionIndex;
+            this.fromSlot = fromSlot;
+            this.toSlot = toSlot;
+        }
+
+        Instant from() {
+            return Instant.ofEpochSecond(fromSlot * RESOLUTION_SECONDS[resolutionIndex]);
+        }
+
+        Instant to() {
+            return Instant.ofEpochSecond(toSlot * RESOLUTION_SECONDS[resolutionIndex]);
+        }
+    }
+
+    private static final class CachedTimeSeries {
+        private final EchoTimeSeriesResponseDTO response;
+        private final long expiresAtMillis;
+        private final long purgeGeneration;
+
+        CachedTimeSeries(EchoTimeSeriesResponseDTO response, long expiresAtMillis, long purgeGeneration) {
+            this.response = response;
+            this.expiresAtMillis = expiresAtMillis;
+            this.purgeGeneration = purgeGeneration;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.rizki.edcmanagement.dto.traffic.response.EchoTrafficResponseDTO;
+import com.rizki.edcmanagement.event.EchoRecordedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.model.EchoTrafficSlot;
+import com.rizki.edcmanagement.repository.EchoTrafficRepository;
+import com.rizki.edcmanagement.service.EchoTrafficService;
+import com.rizki.edcmanagement.util.HyperLogLog;
+import com.rizki.edcmanagement.util.LoggingUtil;
+import com.rizki.edcmanagement.util.SpaceSaving;
+
+/**
+ * Keeps one slot per UTC minute for the last {@code window-slots} minutes. Each slot holds a
+ * Space-Saving summary for the busiest terminals and a HyperLogLog for distinct terminals, so
+ * memory depends on the slot count and sketch sizes, not on the fleet size. A slot is reset
+ * when its minute comes around again.
+ *
+ * Every instance only sees the echoes it recorded itself, so slots that changed are published
+ * to echo_traffic_slot every {@code publish-interval-ms}. A window is answered by merging this
+ * instance's live slots with the slots the other instances published for the same minutes:
+ * HyperLogLog registers merge exactly, and Space-Saving summaries of disjoint streams merge by
+ * adding counts and errors. Other instances' echoes show up one publish interval late.
+ */
+@Service
+public class EchoTrafficServiceImpl implements EchoTrafficService {
+    private static final long MINUTE_MILLIS = 60_000L;
+    private static final int DEFAULT_WINDOW_MINUTES = 5;
+    private static final int DEFAULT_TOP = 10;
+
+    @Value("${application.echo.traffic.window-slots:60}")
+    private int windowSlots;
+
+    @Value("${application.echo.traffic.top-k-capacity:256}")
+    private int topKCapacity;
+
+    @Value("${application.echo.traffic.hll-precision:12}")
+    private int hllPrecision;
+
+    @Value("${application.echo.traffic.publish-interval-ms:5000}")
+    private long publishIntervalMillis;
+
+    @Autowired
+    private EchoTrafficRepository echoTrafficRepository;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private Slot[] slots;
+
+    @PostConstruct
+    public void init() {
+        if (windowSlots <= 0) {
+            throw new IllegalStateException("application.echo.traffic.window-slots must be positive");
+        }
+        slots = new Slot[windowSlots];
+        for (int i = 0; i < windowSlots; i++) {
+            slots[i] = new Slot(topKCapacity, hllPrecision);
+        }
+
+        LoggingUtil.logBusinessEvent("ECHO_TRAFFIC_SKETCHES_INITIALIZED",
+                "WINDOW_SLOTS", windowSlots,
+                "TOP_K_CAPACITY", topKCapacity,
+                "HLL_PRECISION", hllPrecision,
+                "NODE_ID", nodeId);
+    }
+
+    @TransactionalEventListener
+    public void onEchoRecorded(EchoRecordedEvent event) {
+        long minute = Math.floorDiv(event.getTimestamp().toEpochMilli(), MINUTE_MILLIS);
+        Slot slot = slots[(int) Math.floorMod(minute, (long) windowSlots)];
+        synchronized (slot) {
+            if (slot.minute != minute) {
+                if (slot.minute > minute) {
+                    // Late echo for a minute that has already been recycled
+                    return;
+                }
+                slot.reset(minute);
+            }
+            slot.topTerminals.offer(event.getTerminalId());
+            slot.distinctTerminals.add(event.getTerminalId());
+            slot.dirty = true;
+        }
+    }
+
+    /**
+     * Publish the slots that changed since the last run and drop published minutes that have
+     * left every window.
+     */
+    @Scheduled(fixedDelayString = "${application.echo.traffic.publish-interval-ms:5000}")
+    public synchronized void publish() {
+        List<Slot> published = new ArrayList<>();
+        List<EchoTrafficSlot> snapshots = new ArrayList<>();
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                if (slot.dirty) {
+                    slot.dirty = false;
+                    published.add(slot);
+                    snapshots.add(slot.snapshot(nodeId));
+                }
+            }
+        }
+
+        long currentMinute = Math.floorDiv(System.currentTimeMillis(), MINUTE_MILLIS);
+        try {
+            if (!snapshots.isEmpty()) {
+                echoTrafficRepository.saveAll(snapshots);
+            }
+            echoTrafficRepository.deleteOlderThan(currentMinute - windowSlots + 1);
+        } catch (RuntimeException e) {
+            // Publish the same slots again next time; the rows are overwritten, not added to
+            for (int i = 0; i < published.size(); i++) {
+                Slot slot = published.get(i);
+                synchronized (slot) {
+                    if (slot.minute == snapshots.get(i).getMinute()) {
+                        slot.dirty = true;
+                    }
+                }
+            }
+            LoggingUtil.logError("ECHO_TRAFFIC_PUBLISH_FAILED", e,
+                    "SLOTS", snapshots.size(),
+                    "ERROR_MESSAGE", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void publishOnShutdown() {
+        publish();
+    }
+
+    @Override
+    public EchoTrafficResponseDTO getTraffic(Integer windowMinutes, Integer top) {
+        int window = windowMinutes != null ? windowMinutes : DEFAULT_WINDOW_MINUTES;
+        if (window < 1 || window > windowSlots) {
+            throw new BadRequestException("windowMinutes must be between 1 and " + windowSlots);
+        }
+        int limit = top != null ? top : DEFAULT_TOP;
+        if (limit < 1 || limit > topKCapacity) {
+            throw new BadRequestException("top must be between 1 and " + topKCapacity);
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        long currentMinute = Math.floorDiv(nowMillis, MINUTE_MILLIS);
+        long firstMinute = currentMinute - window + 1;
+
+        List<EchoTrafficSlot> covered = new ArrayList<>();
+        for (long minute = firstMinute; minute <= currentMinute; minute++) {
+            Slot slot = slots[(int) Math.floorMod(minute, (long) windowSlots)];
+            synchronized (slot) {
+                if (slot.minute == minute) {
+                    covered.add(slot.snapshot(nodeId));
+                }
+            }
+        }
+        covered.addAll(echoTrafficRepository.findByMinuteRange(firstMinute, currentMinute, nodeId));
+
+        HyperLogLog distinct = new HyperLogLog(hllPrecision);
+        Map<String, MergedCounter> merged = new HashMap<>();
+        Set<String> instances = new HashSet<>();
+        instances.add(nodeId);
+        long totalEchoes = 0;
+        // Sum of every covered slot's minimum; a terminal absent from a slot may have had up to
+        // that slot's minimum there
+        long minCountSum = 0;
+
+        for (EchoTrafficSlot slot : covered) {
+            instances.add(slot.getNodeId());
+            totalEchoes += slot.getTotalEchoes();
+            minCountSum += slot.getMinCount();
+            distinct.merge(slot.getDistinctTerminals());
+            for (EchoTrafficSlot.Counter counter : slot.getTopTerminals()) {
+                MergedCounter mergedCounter = merged.get(counter.getTerminalId());
+                if (mergedCounter == null) {
+                    mergedCounter = new MergedCounter(counter.getTerminalId());
+                    merged.put(counter.getTerminalId(), mergedCounter);
+                }
+                mergedCounter.count += counter.getCount();
+                mergedCounter.error += counter.getError();
+                mergedCounter.presentMinSum += slot.getMinCount();
+            }
+        }
+
+        List<EchoTrafficResponseDTO.TerminalCount> topTerminals = new ArrayList<>(merged.size());
+        for (MergedCounter counter : merged.values()) {
+            long absentBound = minCountSum - counter.presentMinSum;
+            topTerminals.add(EchoTrafficResponseDTO.TerminalCount.builder()
+                    .terminalId(counter.terminalId)
+                    .estimatedCount(counter.count + absentBound)
+                    .guaranteedCount(counter.count - counter.error)
+                    .build());
+        }
+        topTerminals.sort(Comparator
+                .comparingLong(EchoTrafficResponseDTO.TerminalCount::getEstimatedCount).reversed()
+                .thenComparing(EchoTrafficResponseDTO.TerminalCount::getTerminalId));
+        if (topTerminals.size() > limit) {
+            topTerminals = new ArrayList<>(topTerminals.subList(0, limit));
+        }
+
+        return EchoTrafficResponseDTO.builder()
+                .windowMinutes(window)
+                .windowStart(LocalDateTime.ofInstant(Instant.ofEpochMilli(firstMinute * MINUTE_MILLIS),
+                        ZoneOffset.UTC))
+                .windowEnd(LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), ZoneOffset.UTC))
+                .totalEchoes(totalEchoes)
+                .distinctTerminals(totalEchoes == 0 ? 0 : Math.min(totalEchoes, Math.max(1, distinct.estimate())))
+                .distinctTerminalsRelativeError(distinct.relativeStandardError())
+                .topTerminals(topTerminals)
+                .untrackedMaxCount(minCountSum)
+                .instances(instances.size())
+                .publishIntervalMs(publishIntervalMillis)
+                .build();
+    }
+
+    private static final class Slot {
+        final SpaceSaving<String> topTerminals;
+        final HyperLogLog distinctTerminals;
+        long minute = Long.MIN_VALUE;
+        // Changed since it was last published
+        boolean dirty;
+
+        Slot(int topKCapacity, int hllPrecision) {
+            this.topTerminals = new SpaceSaving<>(topKCapacity);
+            this.distinctTerminals = new HyperLogLog(hllPrecision);
+        }
+
+        void reset(long newMinute) {
+            topTerminals.clear();
+            distinctTerminals.clear();
+            minute = newMinute;
+        }
+
+        EchoTrafficSlot snapshot(String nodeId) {
+            List<EchoTrafficSlot.Counter> counters = new ArrayList<>(topTerminals.size());
+            topTerminals.forEach((terminalId, count, error) -> counters
+                    .add(new EchoTrafficSlot.Counter(terminalId, count, error)));
+            return new EchoTrafficSlot(nodeId, minute, topTerminals.total(), topTerminals.minCount(), counters,
+                    HyperLogLog.fromBytes(distinctTerminals.toBytes()));
+        }
+    }
+
+    private static final class MergedCounter {
+        final String terminalId;
+        long count;
+        long error;
+        long presentMinSum;
+
+        MergedCounter(String terminalId) {
+            this.terminalId = terminalId;
+        }
+    }
+}
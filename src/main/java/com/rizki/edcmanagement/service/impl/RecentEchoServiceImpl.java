@@ -0,0 +1,445 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.sql.DriverManager;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.rizki.edcmanagement.archive.EchoArchive;
+import com.rizki.edcmanagement.archive.EchoArchiveFilter;
+import com.rizki.edcmanagement.archive.EchoArchiveSegment;
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+import com.rizki.edcmanagement.event.EchoRecordedEvent;
+import com.rizki.edcmanagement.event.TerminalsDeletedEvent;
+import com.rizki.edcmanagement.event.TerminalsPurgedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.exception.ResourceNotFoundException;
+import com.rizki.edcmanagement.model.enums.EchoStorageMode;
+import com.rizki.edcmanagement.repository.EchoLogRepository;
+import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.EchoArchiveService;
+import com.rizki.edcmanagement.service.RecentEchoService;
+import com.rizki.edcmanagement.util.EchoRingBuffer;
+import com.rizki.edcmanagement.util.LoggingUtil;
+import com.rizki.edcmanagement.util.PostgresNotificationListener;
+
+/**
+ * Recent echoes per terminal in memory. Rings are filled by this instance's echoes and, when
+ * the cluster fan-out is enabled, by the echoes of the other instances: each instance sends
+ * the echoes it committed on the configured channel every publish interval as
+ * {@code <node id>:<terminal id> <echo id> <micros>,...}, and the others add them to the
+ * rings they hold. Reads never go to the database while a ring holds enough echoes.
+ */
+@Service
+public class RecentEchoServiceImpl implements RecentEchoService {
+    // Map entry, ring object, two array headers and the terminal ID string
+    private static final int RING_OVERHEAD_BYTES = 200;
+
+    // NOTIFY payloads must be shorter than 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    @Autowired
+    private EchoLogRepository echoLogRepository;
+
+    @Autowired
+    private TerminalEDCRepository terminalEDCRepository;
+
+    @Autowired
+    private EchoArchiveService echoArchiveService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${application.echo.recent.capacity:50}")
+    private int capacity;
+
+    @Value("${application.echo.recent.memory-budget-bytes:33554432}")
+    private long memoryBudgetBytes;
+
+    @Value("${application.echo.recent.idle-timeout-ms:1800000}")
+    private long idleTimeoutMillis;
+
+    @Value("${application.echo.storage-mode:POINT}")
+    private EchoStorageMode storageMode;
+
+    @Value("${application.echo.recent.cluster.enabled:true}")
+    private boolean clusterEnabled;
+
+    @Value("${application.echo.recent.cluster.channel:recent_echoes}")
+    private String channel;
+
+    @Value("${application.terminal.invalidation.batch-window-ms:50}")
+    private long batchWindowMillis;
+
+    @Value("${application.terminal.invalidation.reconnect-delay-ms:1000}")
+    private long reconnectDelayMillis;
+
+    @Value("${application.terminal.invalidation.max-reconnect-delay-ms:30000}")
+    private long maxReconnectDelayMillis;
+
+    @Value("${application.terminal.invalidation.keepalive-ms:30000}")
+    private long keepaliveMillis;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String datasourceUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String datasourcePassword;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, EchoRingBuffer> buffers = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final Queue<String> unpublished = new ConcurrentLinkedQueue<>();
+    private int maxTerminals;
+    private PostgresNotificationListener listener;
+
+    @PostConstruct
+    public void init() {
+        long bytesPerTerminal = capacity * 16L + RING_OVERHEAD_BYTES;
+        maxTerminals = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudgetBytes / bytesPerTerminal));
+
+        LoggingUtil.logBusinessEvent("RECENT_ECHO_BUFFER_CONFIGURED",
+                "CAPACITY", capacity,
+                "MEMORY_BUDGET_BYTES", memoryBudgetBytes,
+                "MAX_TERMINALS", maxTerminals);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!clusterEnabled || storageMode != EchoStorageMode.POINT) {
+            return;
+        }
+
+        // Held for the lifetime of the application, so not taken from the pool
+        Properties properties = new Properties();
+        properties.setProperty("user", datasourceUsername);
+        properties.setProperty("password", datasourcePassword);
+        properties.setProperty("ApplicationName", "edc-recent-echoes-" + nodeId);
+
+        listener = new PostgresNotificationListener(
+                () -> DriverManager.getConnection(datasourceUrl, properties), channel, batchWindowMillis,
+                reconnectDelayMillis, maxReconnectDelayMillis, keepaliveMillis,
+                new PostgresNotificationListener.Handler() {
+                    @Override
+                    public void onNotifications(List<String> payloads) {
+                        addRemoteEchoes(payloads);
+                    }
+
+                    @Override
+                    public void onResync() {
+                        // Echoes sent while not listening are lost, so no ring can be trusted
+                        buffers.clear();
+                        LoggingUtil.logBusinessEvent("RECENT_ECHO_RESYNC",
+                                "NODE_ID", nodeId);
+                    }
+                });
+        listener.start("recent-echo-listener");
+
+        LoggingUtil.logBusinessEvent("RECENT_ECHO_FAN_OUT_STARTED",
+                "NODE_ID", nodeId,
+                "CHANNEL", channel);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    /**
+     * Runs after the echo's transaction commits, so no ring ever holds a rolled back echo.
+     */
+    @TransactionalEventListener
+    public void onEchoRecorded(EchoRecordedEvent event) {
+        // In SESSION mode the event carries a session ID, not an echo log ID
+        if (storageMode != EchoStorageMode.POINT) {
+            return;
+        }
+
+        long timestampMicros = EchoArchiveSegment.toMicros(event.getTimestamp());
+        bufferFor(event.getTerminalId()).add(event.getEchoLogId(), timestampMicros);
+        if (listener != null) {
+            unpublished.add(event.getTerminalId() + ' ' + event.getEchoLogId() + ' ' + timestampMicros);
+        }
+    }
+
+    /**
+     * Send the echoes committed since the last run to the other instances. Sent outside any
+     * transaction, so they are delivered at once; a failed batch is retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${application.echo.recent.cluster.publish-interval-ms:100}")
+    public void publishRecordedEchoes() {
+        if (listener == null || unpublished.isEmpty()) {
+            return;
+        }
+
+        List<String> entries = new ArrayList<>();
+        for (String entry = unpublished.poll(); entry != null; entry = unpublished.poll()) {
+            entries.add(entry);
+        }
+
+        try {
+            for (String payload : buildPayloads(entries)) {
+                jdbcTemplate.queryForRowSet("SELECT pg_notify(:channel, :payload)",
+                        new MapSqlParameterSource("channel", channel).addValue("payload", payload));
+            }
+        } catch (RuntimeException e) {
+            // Resending a published entry is harmless, rings match entries by ID
+            unpublished.addAll(entries);
+            LoggingUtil.logError("RECENT_ECHO_PUBLISH_FAILED", e,
+                    "PENDING", entries.size());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTerminalsDeleted(TerminalsDeletedEvent event) {
+        buffers.keySet().removeAll(event.getTerminalIds());
+    }
+
+    /**
+     * Rings of other instances still hold the purged echoes, and so does this one's when an
+     * echo was recorded while the terminal was deleted.
+     */
+    @EventListener
+    public void onTerminalsPurged(TerminalsPurgedEvent event) {
+        buffers.keySet().removeAll(event.getTerminalIds());
+    }
+
+    /**
+     * Not transactional, so a hit does not even take a connection from the pool.
+     */
+    @Override
+    public List<EchoResponseDTO> getRecentEchoes(String terminalId, Integer limit) {
+        // In SESSION mode echoes are stored as sessions and echo_log stops growing
+        if (storageMode != EchoStorageMode.POINT) {
+            throw new BadRequestException("Recent echoes require the POINT storage mode");
+        }
+
+        int effectiveLimit = limit != null ? limit : capacity;
+        if (effectiveLimit < 1 || effectiveLimit > capacity) {
+            throw new BadRequestException("Limit must be between 1 and " + capacity);
+        }
+
+        EchoRingBuffer buffer = buffers.get(terminalId);
+        if (buffer != null) {
+            buffer.touch();
+            long[] ids = new long[effectiveLimit];
+            long[] timestamps = new long[effectiveLimit];
+            int buffered = buffer.copyNewest(effectiveLimit, ids, timestamps);
+
+            // An incomplete ring is still enough when it already holds the requested number of echoes
+            if (buffer.isComplete() || buffered >= effectiveLimit) {
+                LoggingUtil.logBusinessEvent("RECENT_ECHO_BUFFER_HIT",
+                        "TERMINAL_ID", terminalId,
+                        "RETURNED", buffered);
+
+                return toResponse(terminalId, ids, timestamps, buffered);
+            }
+        }
+
+        LoggingUtil.logBusinessEvent("RECENT_ECHO_BUFFER_MISS",
+                "TERMINAL_ID", terminalId,
+                "BUFFERED", buffer != null ? buffer.size() : 0);
+
+        // Created before loading, so echoes of other instances committed after the load started
+        // are added to it rather than dropped for want of a ring
+        EchoRingBuffer seeded = bufferFor(terminalId);
+        List<EchoResponseDTO> newest = loadNewest(terminalId);
+        if (newest.isEmpty()) {
+            buffers.remove(terminalId, seeded);
+            if (!terminalEDCRepository.existsById(terminalId)) {
+                throw new ResourceNotFoundException("Terminal EDC with ID '" + terminalId + "' not found");
+            }
+            // Nothing to cache for a terminal that never echoed
+            return newest;
+        }
+
+        long[] seedIds = new long[newest.size()];
+        long[] seedTimestamps = new long[newest.size()];
+        for (int i = 0; i < newest.size(); i++) {
+            seedIds[i] = newest.get(i).getId();
+            seedTimestamps[i] = EchoArchiveSegment.toMicros(newest.get(i).getTimestamp().toInstant(ZoneOffset.UTC));
+        }
+
+        seeded.seed(seedIds, seedTimestamps, seedIds.length);
+        long[] ids = new long[effectiveLimit];
+        long[] timestamps = new long[effectiveLimit];
+        int count = seeded.copyNewest(effectiveLimit, ids, timestamps);
+        return toResponse(terminalId, ids, timestamps, count);
+    }
+
+    /**
+     * Drop rings of terminals that have neither echoed nor been read within the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${application.echo.recent.sweep-interval-ms:60000}")
+    public void evictIdleTerminals() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        int before = buffers.size();
+        buffers.entrySet().removeIf(entry -> entry.getValue().getLastAccessMillis() < idleSince);
+
+        int evicted = before - buffers.size();
+        if (evicted > 0) {
+            LoggingUtil.logBusinessEvent("RECENT_ECHO_IDLE_EVICTED",
+                    "EVICTED", evicted,
+                    "REMAINING", buffers.size());
+        }
+    }
+
+    private EchoRingBuffer bufferFor(String terminalId) {
+        EchoRingBuffer buffer = buffers.get(terminalId);
+        if (buffer == null) {
+            buffer = buffers.computeIfAbsent(terminalId, id -> new EchoRingBuffer(capacity));
+            if (buffers.size() > maxTerminals) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        buffer.touch();
+        return buffer;
+    }
+
+    /**
+     * Over budget: drop the least recently used tenth of the rings in one pass, so the sort is
+     * paid once per many insertions. Only one thread evicts at a time, the others carry on.
+     */
+    private void evictLeastRecentlyUsed() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            int excess = buffers.size() - maxTerminals;
+            if (excess <= 0) {
+                return;
+            }
+
+            List<Map.Entry<String, EchoRingBuffer>> entries = new ArrayList<>(buffers.entrySet());
+            entries.sort((left, right) -> Long.compare(left.getValue().getLastAccessMillis(),
+                    right.getValue().getLastAccessMillis()));
+
+            int toEvict = Math.min(entries.size(), excess + maxTerminals / 10);
+            for (int i = 0; i < toEvict; i++) {
+                buffers.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+
+            LoggingUtil.logBusinessEvent("RECENT_ECHO_BUDGET_EVICTED",
+                    "EVICTED", toEvict,
+                    "REMAINING", buffers.size(),
+                    "MAX_TERMINALS", maxTerminals);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private List<EchoResponseDTO> loadNewest(String terminalId) {
+        List<EchoResponseDTO> newest = new ArrayList<>(
+                echoLogRepository.findRecentByTerminalId(terminalId, PageRequest.of(0, capacity)));
+
+        // Terminals that stopped echoing before the hot window only have archived rows
+        EchoArchive archive = echoArchiveService.getArchive();
+        if (newest.size() < capacity && !archive.isEmpty()) {
+            GetEchoLogRequestDTO filter = GetEchoLogRequestDTO.builder()
+                    .terminalId(terminalId)
+                    .terminalIdMatch("exact")
+                    .build();
+            newest.addAll(archive.findPage(EchoArchiveFilter.from(filter), false, 0, capacity - newest.size()));
+        }
+        return newest;
+    }
+
+    // Terminal IDs are ASCII, so characters count as bytes
+    private List<String> buildPayloads(List<String> entries) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append(':');
+        int emptyLength = payload.length();
+
+        for (String entry : entries) {
+            if (payload.length() > emptyLength) {
+                if (payload.length() + 1 + entry.length() > MAX_PAYLOAD_BYTES) {
+                    payloads.add(payload.toString());
+                    payload.setLength(emptyLength);
+                } else {
+                    payload.append(',');
+                }
+            }
+            payload.append(entry);
+        }
+
+        if (payload.length() > emptyLength) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    /**
+     * Only rings this instance already holds are updated. A terminal without one is loaded
+     * from the database on its next read, which sees every committed echo.
+     */
+    private void addRemoteEchoes(List<String> payloads) {
+        int received = 0;
+        int added = 0;
+        for (String payload : payloads) {
+            int separator = payload.indexOf(':');
+            if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+                continue;
+            }
+            for (String entry : payload.substring(separator + 1).split(",")) {
+                String[] fields = entry.split(" ");
+                if (fields.length != 3) {
+                    continue;
+                }
+                received++;
+                EchoRingBuffer buffer = buffers.get(fields[0]);
+                if (buffer != null) {
+                    buffer.add(Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+                    added++;
+                }
+            }
+        }
+
+        if (received > 0) {
+            LoggingUtil.logBusinessEvent("RECENT_ECHO_FAN_OUT_RECEIVED",
+                    "NOTIFICATION_COUNT", payloads.size(),
+                    "ECHO_COUNT", received,
+                    "ADDED", added);
+        }
+    }
+
+    private static List<EchoResponseDTO> toResponse(String terminalId, long[] ids, long[] timestamps, int count) {
+        List<EchoResponseDTO> echoes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            echoes.add(EchoResponseDTO.builder()
+                    .id(ids[i])
+                    .terminalId(terminalId)
+                    .timestamp(LocalDateTime.ofInstant(EchoArchiveSegment.fromMicros(timestamps[i]), ZoneOffset.UTC))
+                    .build());
+        }
+        return echoes;
+    }
+}
@@ -0,0 +1,509 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rizki.edcmanagement.dto.terminal.request.CreateTerminalBulkJobRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.request.GetTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.request.UpdateTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalBulkJobResponseDTO;
+import com.rizki.edcmanagement.event.TerminalsChangedEvent;
+import com.rizki.edcmanagement.event.TerminalsDeletedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.exception.ResourceNotFoundException;
+import com.rizki.edcmanagement.model.TerminalBulkJob;
+import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus;
+import com.rizki.edcmanagement.model.enums.TerminalBulkOperation;
+import com.rizki.edcmanagement.model.enums.TerminalStatus;
+import com.rizki.edcmanagement.repository.TerminalBatchRepository;
+import com.rizki.edcmanagement.repository.TerminalBulkJobRepository;
+import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.TerminalBulkJobService;
+import com.rizki.edcmanagement.service.TerminalPurgeService;
+import com.rizki.edcmanagement.specification.TerminalEDCSpecification;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+/**
+ * Runs bulk jobs on a small worker pool. A job is claimed by flipping it to RUNNING, and
+ * every chunk then locks the job row, reads the next terminal IDs after the cursor, applies
+ * one set-based UPDATE and moves the cursor, all in one transaction. Any instance
+ * picks up PENDING jobs and RUNNING jobs whose heartbeat is older than the lease, so a job
+ * survives restarts and crashes. Two workers on the same job cannot apply a chunk twice,
+ * because each reads the cursor under the row lock.
+ */
+@Service
+public class TerminalBulkJobServiceImpl implements TerminalBulkJobService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private TerminalBulkJobRepository jobRepository;
+
+    @Autowired
+    private TerminalEDCRepository terminalRepository;
+
+    @Autowired
+    private TerminalBatchRepository terminalBatchRepository;
+
+    @Autowired
+    private TerminalPurgeService terminalPurgeService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.terminal.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${application.terminal.bulk.workers:2}")
+    private int workers;
+
+    @Value("${application.terminal.bulk.lease-ms:60000}")
+    private long leaseMillis;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "terminal-bulk-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lets running jobs finish their current chunk and hands them back as PENDING, so the
+     * next instance to poll continues without waiting for the lease to expire.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        shuttingDown = true;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public TerminalBulkJobResponseDTO createJob(CreateTerminalBulkJobRequestDTO requestDTO) {
+        TerminalBulkOperation operation;
+        try {
+            operation = TerminalBulkOperation.fromString(requestDTO.getOperation());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        GetTerminalEDCRequestDTO filter = normalizeFilter(requestDTO.getFilter());
+        UpdateTerminalEDCRequestDTO changes = operation == TerminalBulkOperation.UPDATE
+                ? normalizeChanges(requestDTO.getChanges())
+                : null;
+
+        TerminalBulkJob job = TerminalBulkJob.builder()
+                .operation(operation)
+                .filters(toJson(filter))
+                .changes(changes != null ? toJson(changes) : null)
+                .status(TerminalBulkJobStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        job = jobRepository.save(job);
+
+        LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_CREATED",
+                "JOB_ID", job.getId(),
+                "OPERATION", operation,
+                "APPLIED_FILTERS", TerminalEDCSpecification.buildAppliedFiltersDescription(filter));
+
+        claimAndRun(job.getId());
+        return toResponse(jobRepository.findById(job.getId()).orElse(job));
+    }
+
+    @Override
+    public TerminalBulkJobResponseDTO getJob(Long jobId) {
+        return toResponse(jobRepository.findById(jobId).orElseThrow(() -> notFound(jobId)));
+    }
+
+    @Override
+    public TerminalBulkJobResponseDTO cancelJob(Long jobId) {
+        TerminalBulkJob job = transactionTemplate.execute(status -> {
+            TerminalBulkJob current = jobRepository.findByIdForUpdate(jobId).orElseThrow(() -> notFound(jobId));
+            if (current.getStatus() == TerminalBulkJobStatus.PENDING) {
+                current.setStatus(TerminalBulkJobStatus.CANCELLED);
+                current.setFinishedAt(LocalDateTime.now());
+            } else if (current.getStatus() == TerminalBulkJobStatus.RUNNING) {
+                // Seen by the worker before its next chunk
+                current.setCancelRequested(true);
+            } else {
+                throw new BadRequestException("Bulk job " + jobId + " is already " + current.getStatus());
+            }
+            return current;
+        });
+
+        LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_CANCEL_REQUESTED",
+                "JOB_ID", jobId,
+                "STATUS", job.getStatus());
+        return toResponse(job);
+    }
+
+    @Override
+    public TerminalBulkJobResponseDTO resumeJob(Long jobId) {
+        transactionTemplate.execute(status -> {
+            TerminalBulkJob current = jobRepository.findByIdForUpdate(jobId).orElseThrow(() -> notFound(jobId));
+            if (!current.getStatus().isResumable()) {
+                throw new BadRequestException("Bulk job " + jobId + " is " + current.getStatus()
+                        + ", only CANCELLED and FAILED jobs can be resumed");
+            }
+            current.setStatus(TerminalBulkJobStatus.PENDING);
+            current.setCancelRequested(false);
+            current.setError(null);
+            current.setFinishedAt(null);
+            return current;
+        });
+
+        LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_RESUMED",
+                "JOB_ID", jobId);
+
+        claimAndRun(jobId);
+        return getJob(jobId);
+    }
+
+    /**
+     * Picks up jobs queued while all workers were busy, handed back by a stopping instance,
+     * or abandoned by a crashed one.
+     */
+    @Scheduled(fixedDelayString = "${application.terminal.bulk.poll-ms:5000}")
+    public void pollJobs() {
+        if (shuttingDown || runningJobs.size() >= workers) {
+            return;
+        }
+        List<Long> claimable = jobRepository.findClaimableIds(LocalDateTime.now().minusNanos(leaseMillis * 1_000_000));
+        for (Long jobId : claimable) {
+            if (runningJobs.size() >= workers) {
+                break;
+            }
+            if (!runningJobs.contains(jobId)) {
+                claimAndRun(jobId);
+            }
+        }
+    }
+
+    private void claimAndRun(Long jobId) {
+        if (shuttingDown || runningJobs.size() >= workers || !runningJobs.add(jobId)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate
+                .execute(status -> jobRepository.claim(jobId, now, now.minusNanos(leaseMillis * 1_000_000)));
+        if (claimed == null || claimed == 0) {
+            runningJobs.remove(jobId);
+            return;
+        }
+
+        try {
+            executor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    private void runJob(Long jobId) {
+        long startTime = System.currentTimeMillis();
+        try {
+            TerminalBulkJob job = jobRepository.findById(jobId).orElseThrow(() -> notFound(jobId));
+            GetTerminalEDCRequestDTO filter = objectMapper.readValue(job.getFilters(), GetTerminalEDCRequestDTO.class);
+            UpdateTerminalEDCRequestDTO changes = job.getChanges() != null
+                    ? objectMapper.readValue(job.getChanges(), UpdateTerminalEDCRequestDTO.class)
+                    : null;
+            Specification<TerminalEDC> specification = TerminalEDCSpecification.buildSpecification(filter);
+
+            if (job.getTotalEstimate() == null) {
+                long total = terminalRepository.count(specification);
+                transactionTemplate.execute(status -> {
+                    jobRepository.findByIdForUpdate(jobId).ifPresent(current -> current.setTotalEstimate(total));
+                    return null;
+                });
+            }
+
+            LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_STARTED",
+                    "JOB_ID", jobId,
+                    "OPERATION", job.getOperation(),
+                    "CURSOR", job.getCursorTerminalId());
+
+            TerminalStatus status = changes != null && changes.getStatus() != null
+                    ? TerminalStatus.valueOf(changes.getStatus())
+                    : null;
+            while (Boolean.TRUE.equals(transactionTemplate
+                    .execute(transaction -> processChunk(jobId, specification, changes, status)))) {
+                // One chunk per transaction until the job stops
+            }
+
+            TerminalBulkJob finished = jobRepository.findById(jobId).orElse(job);
+            LoggingUtil.logBusinessEvent("TERMINAL_BULK_JOB_STOPPED",
+                    "JOB_ID", jobId,
+                    "STATUS", finished.getStatus(),
+                    "MATCHED", finished.getMatched(),
+                    "AFFECTED", finished.getAffected(),
+                    "SKIPPED", finished.getSkipped(),
+                    "DURATION_MS", System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            LoggingUtil.logError("TERMINAL_BULK_JOB_FAILED", e,
+                    "JOB_ID", jobId);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            try {
+                transactionTemplate.execute(transaction -> {
+                    jobRepository.findByIdForUpdate(jobId).ifPresent(current -> {
+                        current.setStatus(TerminalBulkJobStatus.FAILED);
+                        current.setError(message.length() > MAX_ERROR_LENGTH
+                                ? message.substring(0, MAX_ERROR_LENGTH)
+                                : message);
+                        current.setFinishedAt(LocalDateTime.now());
+                    });
+                    return null;
+                });
+            } catch (RuntimeException statusError) {
+                // The lease expires and another poll retries the job
+                LoggingUtil.logError("TERMINAL_BULK_JOB_STATUS_UPDATE_FAILED", statusError,
+                        "JOB_ID", jobId);
+            }
+        } finally {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * @return whether another chunk should follow
+     */
+    private boolean processChunk(Long jobId, Specification<TerminalEDC> specification,
+            UpdateTerminalEDCRequestDTO changes, TerminalStatus status) {
+        TerminalBulkJob job = jobRepository.findByIdForUpdate(jobId).orElseThrow(() -> notFound(jobId));
+        LocalDateTime now = LocalDateTime.now();
+        if (job.getStatus() != TerminalBulkJobStatus.RUNNING) {
+            return false;
+        }
+        if (job.isCancelRequested()) {
+            job.setStatus(TerminalBulkJobStatus.CANCELLED);
+            job.setFinishedAt(now);
+            return false;
+        }
+        if (shuttingDown) {
+            job.setStatus(TerminalBulkJobStatus.PENDING);
+            return false;
+        }
+
+        List<String> terminalIds = terminalBatchRepository.findIdsAfter(specification, job.getCursorTerminalId(),
+                chunkSize);
+        if (terminalIds.isEmpty()) {
+            job.setStatus(TerminalBulkJobStatus.COMPLETED);
+            job.setFinishedAt(now);
+            return false;
+        }
+
+        int affected;
+        if (job.getOperation() == TerminalBulkOperation.DELETE) {
+            // Same as deleteTerminal: hidden now, echo history removed by one purge job each
+            List<String> deletedIds = terminalBatchRepository.softDeleteAll(terminalIds, now);
+            affected = deletedIds.size();
+            job.setSkipped(job.getSkipped() + terminalIds.size() - affected);
+            if (!deletedIds.isEmpty()) {
+                eventPublisher.publishEvent(new TerminalsDeletedEvent(deletedIds));
+                for (String terminalId : deletedIds) {
+                    terminalPurgeService.queuePurge(terminalId);
+                }
+            }
+        } else {
+            affected = terminalBatchRepository.updateAll(terminalIds, status, changes.getLocation(),
+                    changes.getSerialNumber(), changes.getModel(), changes.getManufacturer(), now);
+        }
+        if (affected > 0) {
+            eventPublisher.publishEvent(new TerminalsChangedEvent(terminalIds));
+        }
+
+        job.setCursorTerminalId(terminalIds.get(terminalIds.size() - 1));
+        job.setMatched(job.getMatched() + terminalIds.size());
+        job.setAffected(job.getAffected() + affected);
+        job.setChunks(job.getChunks() + 1);
+        job.setHeartbeatAt(now);
+        return true;
+    }
+
+    /**
+     * Copy of the filter fields, rejecting values the list endpoint would silently ignore:
+     * a typo there shows too many terminals, here it would change them.
+     */
+    private static GetTerminalEDCRequestDTO normalizeFilter(GetTerminalEDCRequestDTO filter) {
+        GetTerminalEDCRequestDTO normalized = GetTerminalEDCRequestDTO.builder()
+                .page(null)
+                .size(null)
+                .sortBy(null)
+                .sortDirection(null)
+                .status(blankToNull(filter.getStatus()))
+                .location(blankToNull(filter.getLocation()))
+                .manufacturer(blankToNull(filter.getManufacturer()))
+                .model(blankToNull(filter.getModel()))
+                .terminalType(blankToNull(filter.getTerminalType()))
+                .ipAddress(blankToNull(filter.getIpAddress()))
+                .serialNumber(blankToNull(filter.getSerialNumber()))
+                .createdFrom(blankToNull(filter.getCreatedFrom()))
+                .createdTo(blankToNull(filter.getCreatedTo()))
+                .lastMaintenanceFrom(blankToNull(filter.getLastMaintenanceFrom()))
+                .lastMaintenanceTo(blankToNull(filter.getLastMaintenanceTo()))
+                .build();
+
+        if (normalized.getStatus() != null) {
+            parseStatus(normalized.getStatus(), "filter");
+        }
+        validateDate(normalized.getCreatedFrom(), "createdFrom");
+        validateDate(normalized.getCreatedTo(), "createdTo");
+        validateDate(normalized.getLastMaintenanceFrom(), "lastMaintenanceFrom");
+        validateDate(normalized.getLastMaintenanceTo(), "lastMaintenanceTo");
+
+        if (normalized.getStatus() == null && normalized.getLocation() == null
+                && normalized.getManufacturer() == null && normalized.getModel() == null
+                && normalized.getTerminalType() == null && normalized.getIpAddress() == null
+                && normalized.getSerialNumber() == null && normalized.getCreatedFrom() == null
+                && normalized.getCreatedTo() == null && normalized.getLastMaintenanceFrom() == null
+                && normalized.getLastMaintenanceTo() == null) {
+            throw new BadRequestException("At least one filter is required for a bulk job");
+        }
+        return normalized;
+    }
+
+    /**
+     * Trimmed like a single update. A blank status means no status change.
+     */
+    private static UpdateTerminalEDCRequestDTO normalizeChanges(UpdateTerminalEDCRequestDTO changes) {
+        if (changes == null) {
+            throw new BadRequestException("Changes are required for an UPDATE bulk job");
+        }
+        if (changes.getIpAddress() != null) {
+            throw new BadRequestException("IP addresses are unique per terminal and cannot be changed in bulk");
+        }
+
+        String status = blankToNull(changes.getStatus());
+        UpdateTerminalEDCRequestDTO normalized = UpdateTerminalEDCRequestDTO.builder()
+                .status(status != null ? parseStatus(status, "changes").name() : null)
+                .location(trim(changes.getLocation()))
+                .serialNumber(trim(changes.getSerialNumber()))
+                .model(trim(changes.getModel()))
+                .manufacturer(trim(changes.getManufacturer()))
+                .build();
+
+        if (normalized.getStatus() == null && normalized.getLocation() == null
+                && normalized.getSerialNumber() == null && normalized.getModel() == null
+                && normalized.getManufacturer() == null) {
+            throw new BadRequestException("At least one change is required for an UPDATE bulk job");
+        }
+        return normalized;
+    }
+
+    private static TerminalStatus parseStatus(String value, String field) {
+        try {
+            return TerminalStatus.valueOf(value.toUpperCase().trim());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid " + field + " status: '" + value
+                    + "'. Valid values are: ACTIVE, INACTIVE, MAINTENANCE, OUT_OF_SERVICE");
+        }
+    }
+
+    private static void validateDate(String value, String field) {
+        if (value == null) {
+            return;
+        }
+        try {
+            LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid " + field + " date: '" + value + "'. Expected YYYY-MM-DD");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize bulk job parameters", e);
+        }
+    }
+
+    private TerminalBulkJobResponseDTO toResponse(TerminalBulkJob job) {
+        GetTerminalEDCRequestDTO filter;
+        UpdateTerminalEDCRequestDTO changes;
+        try {
+            filter = objectMapper.readValue(job.getFilters(), GetTerminalEDCRequestDTO.class);
+            changes = job.getChanges() != null
+                    ? objectMapper.readValue(job.getChanges(), UpdateTerminalEDCRequestDTO.class)
+                    : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read bulk job parameters", e);
+        }
+
+        Double progressPercent = null;
+        if (job.getStatus() == TerminalBulkJobStatus.COMPLETED) {
+            progressPercent = 100.0;
+        } else if (job.getTotalEstimate() != null && job.getTotalEstimate() > 0) {
+            // Terminals created or changed meanwhile can push the estimate past 100
+            progressPercent = Math.min(99.9, 100.0 * job.getMatched() / job.getTotalEstimate());
+        }
+
+        return TerminalBulkJobResponseDTO.builder()
+                .jobId(job.getId())
+                .operation(job.getOperation())
+                .status(job.getStatus())
+                .cancelRequested(job.isCancelRequested())
+                .appliedFilters(TerminalEDCSpecification.buildAppliedFiltersDescription(filter))
+                .changes(changes)
+                .totalEstimate(job.getTotalEstimate())
+                .matched(job.getMatched())
+                .affected(job.getAffected())
+                .skipped(job.getSkipped())
+                .chunks(job.getChunks())
+                .progressPercent(progressPercent)
+                .lastTerminalId(job.getCursorTerminalId())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .heartbeatAt(job.getHeartbeatAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private static ResourceNotFoundException notFound(Long jobId) {
+        return new ResourceNotFoundException("Bulk job with ID '" + jobId + "' not found");
+    }
+}
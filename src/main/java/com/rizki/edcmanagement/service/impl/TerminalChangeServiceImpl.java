@@ -0,0 +1,228 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rizki.edcmanagement.dto.terminal.response.TerminalChangeDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalChangeFeedResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalEDCResponseDTO;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.exception.ResourceGoneException;
+import com.rizki.edcmanagement.mapper.TerminalEDCMapper;
+import com.rizki.edcmanagement.model.TerminalChange;
+import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.model.enums.TerminalChangeOperation;
+import com.rizki.edcmanagement.repository.TerminalChangeRepository;
+import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.TerminalChangeService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+/**
+ * Serves the terminal change feed from terminal_change_log. A trigger records every write to
+ * terminal_edc as a pending change; {@link #sequenceChanges()} numbers the committed ones, so
+ * versions follow commit order and a client polling with the last version it saw never skips
+ * a change.
+ */
+@Service
+public class TerminalChangeServiceImpl implements TerminalChangeService {
+    @Autowired
+    private TerminalChangeRepository terminalChangeRepository;
+
+    @Autowired
+    private TerminalEDCRepository terminalRepository;
+
+    @Autowired
+    private TerminalEDCMapper terminalEDCMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.terminal.changes.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${application.terminal.changes.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${application.terminal.changes.prune-chunk-size:10000}")
+    private int pruneChunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public TerminalChangeFeedResponseDTO getChanges(Long since, int size, boolean includeTerminals) {
+        if (size < 1 || size > maxPageSize) {
+            throw new BadRequestException("Size must be between 1 and " + maxPageSize);
+        }
+        if (since != null && since < 0) {
+            throw new BadRequestException("Since must not be negative");
+        }
+
+        if (since == null) {
+            long prunedThrough = terminalChangeRepository.findPrunedThrough();
+            long latestVersion = terminalChangeRepository.findLatestVersion(prunedThrough);
+            return TerminalChangeFeedResponseDTO.builder()
+                    .nextSince(latestVersion)
+                    .latestVersion(latestVersion)
+                    .hasMore(false)
+                    .changes(new ArrayList<>())
+                    .build();
+        }
+
+        List<TerminalChange> rows = terminalChangeRepository.findAfter(since, size + 1);
+        // Read after the rows: retention deletes and advances it in one transaction, so a
+        // page read before a prune is complete, and one read after it is caught here
+        long prunedThrough = terminalChangeRepository.findPrunedThrough();
+        if (since < prunedThrough) {
+            throw new ResourceGoneException("Changes up to version " + prunedThrough
+                    + " are no longer retained; reload all terminals and continue from the latest version");
+        }
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        long nextSince = rows.isEmpty() ? since : rows.get(rows.size() - 1).getVersion();
+
+        // Only the latest change per terminal matters to a client applying the page
+        Map<String, TerminalChange> latest = new LinkedHashMap<>();
+        for (TerminalChange row : rows) {
+            latest.remove(row.getTerminalId());
+            latest.put(row.getTerminalId(), row);
+        }
+
+        Map<String, TerminalEDCResponseDTO> terminals = includeTerminals
+                ? loadTerminals(latest.values())
+                : new HashMap<>();
+
+        List<TerminalChangeDTO> changes = new ArrayList<>(latest.size());
+        for (TerminalChange change : latest.values()) {
+            TerminalChangeOperation operation = change.getOperation();
+            TerminalEDCResponseDTO terminal = null;
+            if (includeTerminals && operation != TerminalChangeOperation.DELETE) {
+                terminal = terminals.get(change.getTerminalId());
+                // Deleted after this change; its own DELETE follows in a later version
+                if (terminal == null) {
+                    operation = TerminalChangeOperation.DELETE;
+                }
+            }
+            changes.add(TerminalChangeDTO.builder()
+                    .version(change.getVersion())
+                    .terminalId(change.getTerminalId())
+                    .operation(operation)
+                    .changedAt(change.getChangedAt())
+                    .terminal(terminal)
+                    .build());
+        }
+
+        return TerminalChangeFeedResponseDTO.builder()
+                .since(since)
+                .nextSince(nextSince)
+                .latestVersion(terminalChangeRepository.findLatestVersion(prunedThrough))
+                .hasMore(hasMore)
+                .changes(changes)
+                .build();
+    }
+
+    /**
+     * Current state of the changed terminals, read from the database rather than the terminal
+     * cache, which another instance may not have invalidated yet.
+     */
+    private Map<String, TerminalEDCResponseDTO> loadTerminals(Iterable<TerminalChange> changes) {
+        Set<String> terminalIds = new HashSet<>();
+        for (TerminalChange change : changes) {
+            if (change.getOperation() != TerminalChangeOperation.DELETE) {
+                terminalIds.add(change.getTerminalId());
+            }
+        }
+        if (terminalIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<TerminalEDC> found = terminalRepository.findAllById(terminalIds);
+        return found.stream().collect(Collectors.toMap(TerminalEDC::getTerminalId,
+                terminalEDCMapper::fromTerminalEDCToResponse));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${application.terminal.changes.sequence-interval-ms:1000}")
+    public void sequenceChanges() {
+        try {
+            Integer sequenced = transactionTemplate.execute(status -> {
+                // Serializes sequencers of all instances, so versions are handed out in order
+                terminalChangeRepository.findPrunedThroughForUpdate();
+                return terminalChangeRepository.sequencePending();
+            });
+            if (sequenced != null && sequenced > 0) {
+                LoggingUtil.logBusinessEvent("TERMINAL_CHANGES_SEQUENCED",
+                        "COUNT", sequenced);
+            }
+        } catch (RuntimeException e) {
+            LoggingUtil.logError("TERMINAL_CHANGES_SEQUENCE_FAILED", e,
+                    "ERROR_MESSAGE", e.getMessage());
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${application.terminal.changes.prune-cron:0 45 0 * * *}", zone = "UTC")
+    public void pruneChanges() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long startTime = System.currentTimeMillis();
+        Long through = terminalChangeRepository.findLastVersionBefore(cutoff);
+        if (through == null) {
+            return;
+        }
+
+        long prunedThrough = 0;
+        try {
+            // One transaction per chunk, each advancing pruned_through with the rows it deletes
+            while (true) {
+                Long deleted = transactionTemplate.execute(status -> {
+                    long current = terminalChangeRepository.findPrunedThroughForUpdate();
+                    Long last = terminalChangeRepository.deleteOldest(through, pruneChunkSize);
+                    if (last == null) {
+                        return null;
+                    }
+                    long advanced = Math.max(current, last);
+                    terminalChangeRepository.savePrunedThrough(advanced);
+                    return advanced;
+                });
+                if (deleted == null) {
+                    break;
+                }
+                prunedThrough = deleted;
+            }
+        } catch (RuntimeException e) {
+            LoggingUtil.logError("TERMINAL_CHANGES_PRUNE_FAILED", e,
+                    "THROUGH", through,
+                    "ERROR_MESSAGE", e.getMessage());
+            return;
+        }
+
+        if (prunedThrough > 0) {
+            LoggingUtil.logBusinessEvent("TERMINAL_CHANGES_PRUNED",
+                    "PRUNED_THROUGH", prunedThrough,
+                    "CUTOFF", cutoff,
+                    "DURATION_MS", System.currentTimeMillis() - startTime);
+        }
+    }
+}
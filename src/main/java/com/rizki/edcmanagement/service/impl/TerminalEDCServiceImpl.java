@@ -1,10 +1,29 @@
 package com.rizki.edcmanagement.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -12,30 +31,109 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.rizki.edcmanagement.dto.terminal.request.CreateTerminalEDCRequestDTO;
 import com.rizki.edcmanagement.dto.terminal.request.GetTerminalEDCRequestDTO;
 import com.rizki.edcmanagement.dto.terminal.request.UpdateTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.request.UpsertTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.response.MultiGetTerminalEDCResponseDTO;
 import com.rizki.edcmanagement.dto.terminal.response.PagedTerminalEDCResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalCacheStatsResponseDTO;
 import com.rizki.edcmanagement.dto.terminal.response.TerminalEDCResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalLookupResultDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalPurgeJobResponseDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalUpsertResultDTO;
+import com.rizki.edcmanagement.event.TerminalsChangedEvent;
+import com.rizki.edcmanagement.event.TerminalsDeletedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.exception.PreconditionFailedException;
 import com.rizki.edcmanagement.exception.ResourceAlreadyExistsException;
 import com.rizki.edcmanagement.exception.ResourceNotFoundException;
+import com.rizki.edcmanagement.exception.ValidationException;
 import com.rizki.edcmanagement.mapper.TerminalEDCMapper;
 import com.rizki.edcmanagement.model.TerminalEDC;
 import com.rizki.edcmanagement.model.enums.TerminalStatus;
+import com.rizki.edcmanagement.repository.TerminalBatchRepository;
 import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.EchoLogService;
 import com.rizki.edcmanagement.service.TerminalEDCService;
+import com.rizki.edcmanagement.service.TerminalPurgeService;
 import com.rizki.edcmanagement.specification.TerminalEDCSpecification;
+import com.rizki.edcmanagement.util.EntityTags;
 import com.rizki.edcmanagement.util.LoggingUtil;
+import com.rizki.edcmanagement.util.ReadThroughCache;
 
 @Service
 public class TerminalEDCServiceImpl implements TerminalEDCService {
     @Autowired
     private TerminalEDCRepository terminalRepository;
 
+    @Autowired
+    private TerminalBatchRepository terminalBatchRepository;
+
     @Autowired
     private TerminalEDCMapper terminalEDCMapper;
 
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private EchoLogService echoLogService;
+
+    @Autowired
+    private TerminalPurgeService terminalPurgeService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${application.terminal.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // Responses of getTerminalById, shared between callers, so they must not be modified
+    private ReadThroughCache<String, TerminalEDCResponseDTO> terminalCache;
+
+    @PostConstruct
+    public void initCache() {
+        terminalCache = new ReadThroughCache<>(cacheMaxEntries);
+    }
+
+    /**
+     * Runs once the change is committed, so a read that misses afterwards loads the new row.
+     * Reads that started before are not cached (see ReadThroughCache).
+     */
+    @TransactionalEventListener
+    public void onTerminalsChanged(TerminalsChangedEvent event) {
+        evictCachedTerminals(event.getTerminalIds());
+    }
+
+    @Override
+    public void evictCachedTerminals(Collection<String> terminalIds) {
+        for (String terminalId : terminalIds) {
+            terminalCache.invalidate(terminalId);
+        }
+    }
+
+    @Override
+    public void evictAllCachedTerminals() {
+        terminalCache.invalidateAll();
+    }
+
+    @Override
+    public TerminalCacheStatsResponseDTO getCacheStats() {
+        ReadThroughCache.Stats stats = terminalCache.getStats();
+        return TerminalCacheStatsResponseDTO.builder()
+                .size(stats.getSize())
+                .maxEntries(stats.getMaxEntries())
+                .hits(stats.getHits())
+                .misses(stats.getMisses())
+                .hitRate(stats.getHitRate())
+                .invalidations(stats.getInvalidations())
+                .discardedFills(stats.getDiscardedFills())
+                .build();
+    }
+
     @Override
     @Transactional
     public TerminalEDCResponseDTO createTerminal(CreateTerminalEDCRequestDTO requestDTO) {
@@ -47,41 +145,32 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
                 "status", requestDTO.getStatus());
 
         try {
-            // Business validation: Check terminal ID uniqueness (cannot be done in DTO)
-            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_VALIDATING_UNIQUENESS",
+            // Convert DTO to entity
+            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_MAPPING_ENTITY",
                     "terminalId", requestDTO.getTerminalId());
-
-            if (terminalRepository.existsById(requestDTO.getTerminalId())) {
+            TerminalEDC savedTerminal = terminalEDCMapper.fromCreateRequestToTerminalEDC(requestDTO);
+            LocalDateTime now = LocalDateTime.now();
+            savedTerminal.setCreatedAt(now);
+            savedTerminal.setUpdatedAt(now);
+            savedTerminal.setVersion(0L);
+
+            // ID and IP address uniqueness are enforced by the database in the same statement,
+            // so concurrent creates cannot both pass a check made beforehand
+            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_SAVING_ENTITY",
+                    "terminalId", requestDTO.getTerminalId());
+            boolean inserted;
+            try {
+                inserted = terminalBatchRepository.insertIfAbsent(savedTerminal);
+            } catch (DuplicateKeyException e) {
+                throw duplicateIpAddress(e, requestDTO.getTerminalId(), savedTerminal.getIpAddress());
+            }
+            if (!inserted) {
                 LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_CREATE_FAILED_DUPLICATE_ID",
                         "terminalId", requestDTO.getTerminalId());
                 throw new ResourceAlreadyExistsException(
                         "Terminal EDC with ID '" + requestDTO.getTerminalId() + "' already exists");
             }
 
-            // Business validation: Check IP address uniqueness (cannot be done in DTO)
-            if (requestDTO.getIpAddress() != null && !requestDTO.getIpAddress().trim().isEmpty()) {
-                LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_VALIDATING_IP_UNIQUENESS",
-                        "terminalId", requestDTO.getTerminalId(),
-                        "ipAddress", requestDTO.getIpAddress());
-
-                if (terminalRepository.existsByIpAddress(requestDTO.getIpAddress())) {
-                    LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_CREATE_FAILED_DUPLICATE_IP",
-                            "terminalId", requestDTO.getTerminalId(),
-                            "ipAddress", requestDTO.getIpAddress());
-                    throw new ResourceAlreadyExistsException(
-                            "Terminal EDC with IP address '" + requestDTO.getIpAddress() + "' already exists");
-                }
-            }
-
-            // Convert DTO to entity and save
-            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_MAPPING_ENTITY",
-                    "terminalId", requestDTO.getTerminalId());
-            TerminalEDC terminal = terminalEDCMapper.fromCreateRequestToTerminalEDC(requestDTO);
-
-            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_SAVING_ENTITY",
-                    "terminalId", requestDTO.getTerminalId());
-            TerminalEDC savedTerminal = terminalRepository.save(terminal);
-
             TerminalEDCResponseDTO response = terminalEDCMapper.fromTerminalEDCToResponse(savedTerminal);
 
             long duration = System.currentTimeMillis() - startTime;
@@ -152,6 +241,19 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
                     .map(terminalEDCMapper::fromTerminalEDCToResponse)
                     .collect(Collectors.toList());
 
+            // One batched query for the whole page instead of one per terminal
+            if (Boolean.TRUE.equals(requestDTO.getIncludeLastEcho()) && !terminalDTOs.isEmpty()) {
+                Map<String, Instant> lastEchoAt = echoLogService.findLastEchoAt(terminalDTOs.stream()
+                        .map(TerminalEDCResponseDTO::getTerminalId)
+                        .collect(Collectors.toList()));
+                for (TerminalEDCResponseDTO terminalDTO : terminalDTOs) {
+                    Instant instant = lastEchoAt.get(terminalDTO.getTerminalId());
+                    if (instant != null) {
+                        terminalDTO.setLastEchoAt(LocalDateTime.ofInstant(instant, ZoneOffset.UTC));
+                    }
+                }
+            }
+
             // Build applied filters description
             String appliedFilters = TerminalEDCSpecification.buildAppliedFiltersDescription(requestDTO);
 
@@ -215,31 +317,16 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
                 "terminalId", terminalId);
 
         try {
-            // Find terminal by ID
-            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_FINDING_BY_ID",
-                    "terminalId", terminalId);
-            TerminalEDC terminal = terminalRepository.findById(terminalId)
-                    .orElseThrow(() -> {
-                        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_GET_BY_ID_NOT_FOUND",
-                                "terminalId", terminalId);
-                        return new ResourceNotFoundException(
-                                "Terminal EDC with ID '" + terminalId + "' not found");
-                    });
-
-            // Convert entity to DTO and return
-            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_MAPPING_RESPONSE",
-                    "terminalId", terminalId,
-                    "location", terminal.getLocation(),
-                    "status", terminal.getStatus().toString());
-            TerminalEDCResponseDTO response = terminalEDCMapper.fromTerminalEDCToResponse(terminal);
+            // Served from the cache, or found by ID and mapped on a miss
+            TerminalEDCResponseDTO response = terminalCache.get(terminalId, this::loadTerminalResponse);
 
             long duration = System.currentTimeMillis() - startTime;
             LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_GET_BY_ID_SUCCESS",
-                    "terminalId", terminal.getTerminalId(),
-                    "location", terminal.getLocation(),
-                    "status", terminal.getStatus().toString(),
+                    "terminalId", response.getTerminalId(),
+                    "location", response.getLocation(),
+                    "status", response.getStatus().toString(),
                     "lastMaintenance",
-                    terminal.getLastMaintenance() != null ? terminal.getLastMaintenance().toString() : "null",
+                    response.getLastMaintenance() != null ? response.getLastMaintenance().toString() : "null",
                     "duration", duration + "ms");
 
             return response;
@@ -253,16 +340,90 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public MultiGetTerminalEDCResponseDTO getTerminalsByIds(List<String> terminalIds) {
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_MULTI_GET_START",
+                "requested", terminalIds.size());
+
+        try {
+            int[] loaded = new int[1];
+            Map<String, TerminalEDCResponseDTO> terminals = terminalCache.getAll(terminalIds, missing -> {
+                loaded[0] = missing.size();
+                Map<String, TerminalEDCResponseDTO> found = new HashMap<>();
+                for (TerminalEDC terminal : terminalRepository.findAllById(missing)) {
+                    found.put(terminal.getTerminalId(), terminalEDCMapper.fromTerminalEDCToResponse(terminal));
+                }
+                return found;
+            });
+
+            List<TerminalLookupResultDTO> results = new ArrayList<>(terminalIds.size());
+            for (String terminalId : terminalIds) {
+                TerminalEDCResponseDTO terminal = terminals.get(terminalId);
+                results.add(TerminalLookupResultDTO.builder()
+                        .terminalId(terminalId)
+                        .found(terminal != null)
+                        .terminal(terminal)
+                        .build());
+            }
+            int found = (int) results.stream().filter(TerminalLookupResultDTO::isFound).count();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_MULTI_GET_SUCCESS",
+                    "requested", terminalIds.size(),
+                    "found", found,
+                    "loadedFromDatabase", loaded[0],
+                    "duration", duration + "ms");
+
+            return MultiGetTerminalEDCResponseDTO.builder()
+                    .requested(terminalIds.size())
+                    .found(found)
+                    .notFound(terminalIds.size() - found)
+                    .results(results)
+                    .build();
+
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_SERVICE_MULTI_GET_ERROR", e,
+                    "requested", terminalIds.size(),
+                    "duration", duration + "ms");
+            throw e;
+        }
+    }
+
+    private TerminalEDCResponseDTO loadTerminalResponse(String terminalId) {
+        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_FINDING_BY_ID",
+                "terminalId", terminalId);
+        TerminalEDC terminal = terminalRepository.findById(terminalId)
+                .orElseThrow(() -> {
+                    LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_GET_BY_ID_NOT_FOUND",
+                            "terminalId", terminalId);
+                    return new ResourceNotFoundException(
+                            "Terminal EDC with ID '" + terminalId + "' not found");
+                });
+
+        // Convert entity to DTO
+        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_MAPPING_RESPONSE",
+                "terminalId", terminalId,
+                "location", terminal.getLocation(),
+                "status", terminal.getStatus().toString());
+        return terminalEDCMapper.fromTerminalEDCToResponse(terminal);
+    }
+
     @Override
     @Transactional
-    public TerminalEDCResponseDTO updateTerminal(String terminalId, UpdateTerminalEDCRequestDTO requestDTO) {
+    public TerminalEDCResponseDTO updateTerminal(String terminalId, UpdateTerminalEDCRequestDTO requestDTO,
+            Collection<EntityTags.Tag> expectedTags) {
         long startTime = System.currentTimeMillis();
 
         LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_UPDATE_START",
                 "terminalId", terminalId,
                 "newLocation", requestDTO.getLocation(),
                 "newStatus", requestDTO.getStatus(),
-                "newIpAddress", requestDTO.getIpAddress());
+                "newIpAddress", requestDTO.getIpAddress(),
+                "expectedTags", expectedTags);
 
         try {
             // Find existing terminal
@@ -281,7 +442,14 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
                     "terminalId", terminalId,
                     "currentLocation", existingTerminal.getLocation(),
                     "currentStatus", existingTerminal.getStatus().toString(),
-                    "currentIpAddress", existingTerminal.getIpAddress());
+                    "currentIpAddress", existingTerminal.getIpAddress(),
+                    "currentVersion", existingTerminal.getVersion());
+
+            // Conditional update: the client's copy must still be current
+            if (expectedTags != null && !expectedTags
+                    .contains(EntityTags.tag(existingTerminal.getCreatedAt(), existingTerminal.getVersion()))) {
+                throw versionMismatch(terminalId, existingTerminal.getVersion(), expectedTags);
+            }
 
             // Business validation: Check IP address uniqueness if provided and different
             // from current
@@ -396,7 +564,22 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
             if (hasChanges) {
                 LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_SAVING_UPDATES",
                         "terminalId", terminalId);
-                TerminalEDC updatedTerminal = terminalRepository.save(existingTerminal);
+                TerminalEDC updatedTerminal;
+                try {
+                    // Flushed here so a concurrent update taking the same IP address fails
+                    // on the unique index with the usual response
+                    updatedTerminal = terminalRepository.saveAndFlush(existingTerminal);
+                } catch (DataIntegrityViolationException e) {
+                    throw duplicateIpAddress(e, terminalId, existingTerminal.getIpAddress());
+                } catch (OptimisticLockingFailureException e) {
+                    // Changed after it was read above; without If-Match this is a plain conflict
+                    if (expectedTags == null) {
+                        throw e;
+                    }
+                    throw new PreconditionFailedException(
+                            "Terminal EDC with ID '" + terminalId + "' has changed, please read it again");
+                }
+                eventPublisher.publishEvent(new TerminalsChangedEvent(Collections.singletonList(terminalId)));
 
                 TerminalEDCResponseDTO response = terminalEDCMapper.fromTerminalEDCToResponse(updatedTerminal);
 
@@ -434,7 +617,114 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
 
     @Override
     @Transactional
-    public void deleteTerminal(String terminalId) {
+    public TerminalEDCResponseDTO patchTerminal(String terminalId, JsonNode patch,
+            Collection<EntityTags.Tag> expectedTags) {
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_PATCH_START",
+                "terminalId", terminalId,
+                "fields", patch != null && patch.isObject() ? String.join(",", (Iterable<String>) patch::fieldNames) : null,
+                "expectedTags", expectedTags);
+
+        try {
+            Map<String, String> values = readPatch(patch);
+
+            Optional<TerminalEDC> patched;
+            try {
+                patched = terminalBatchRepository.patch(terminalId, values, expectedTags, LocalDateTime.now());
+            } catch (DuplicateKeyException e) {
+                throw duplicateIpAddress(e, terminalId, values.get("ipAddress"));
+            }
+
+            TerminalEDC terminal;
+            if (patched.isPresent()) {
+                terminal = patched.get();
+                eventPublisher.publishEvent(new TerminalsChangedEvent(Collections.singletonList(terminalId)));
+            } else {
+                // Nothing was written: the terminal is missing, has another version, or
+                // already has the values
+                terminal = terminalRepository.findById(terminalId)
+                        .orElseThrow(() -> new ResourceNotFoundException(
+                                "Terminal EDC with ID '" + terminalId + "' not found"));
+                if (expectedTags != null
+                        && !expectedTags.contains(EntityTags.tag(terminal.getCreatedAt(), terminal.getVersion()))) {
+                    throw versionMismatch(terminalId, terminal.getVersion(), expectedTags);
+                }
+            }
+
+            TerminalEDCResponseDTO response = terminalEDCMapper.fromTerminalEDCToResponse(terminal);
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logBusinessEvent(patched.isPresent() ? "TERMINAL_SERVICE_PATCH_SUCCESS"
+                    : "TERMINAL_SERVICE_PATCH_NO_CHANGES",
+                    "terminalId", terminalId,
+                    "status", terminal.getStatus().toString(),
+                    "version", terminal.getVersion(),
+                    "duration", duration + "ms");
+
+            return response;
+
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_SERVICE_PATCH_ERROR", e,
+                    "terminalId", terminalId,
+                    "duration", duration + "ms");
+            throw e;
+        }
+    }
+
+    /**
+     * The new column values of a merge patch, validated like an update. Location and status
+     * cannot be cleared.
+     */
+    private Map<String, String> readPatch(JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new BadRequestException("The patch must be a JSON object");
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, List<String>> fieldErrors = new HashMap<>();
+        patch.fields().forEachRemaining(field -> {
+            String name = field.getKey();
+            JsonNode node = field.getValue();
+            if (!TerminalBatchRepository.PATCHABLE_FIELDS.contains(name)) {
+                fieldErrors.computeIfAbsent(name, k -> new ArrayList<>()).add("Field cannot be patched");
+                return;
+            }
+            if (!node.isNull() && !node.isTextual()) {
+                fieldErrors.computeIfAbsent(name, k -> new ArrayList<>()).add("Field must be a string");
+                return;
+            }
+
+            String value = node.isNull() ? null : node.textValue().trim();
+            if ((value == null || value.isEmpty()) && (name.equals("location") || name.equals("status"))) {
+                fieldErrors.computeIfAbsent(name, k -> new ArrayList<>()).add("Field cannot be cleared");
+                return;
+            }
+            for (ConstraintViolation<UpdateTerminalEDCRequestDTO> violation : validator
+                    .validateValue(UpdateTerminalEDCRequestDTO.class, name, value)) {
+                fieldErrors.computeIfAbsent(name, k -> new ArrayList<>()).add(violation.getMessage());
+            }
+
+            if (name.equals("status")) {
+                values.put(name, value.toUpperCase());
+            } else if (name.equals("ipAddress") && value != null && value.isEmpty()) {
+                values.put(name, null);
+            } else {
+                values.put(name, value);
+            }
+        });
+
+        if (!fieldErrors.isEmpty()) {
+            fieldErrors.forEach((name, messages) -> Collections.sort(messages));
+            throw new ValidationException(fieldErrors);
+        }
+        return values;
+    }
+
+    @Override
+    @Transactional
+    public TerminalPurgeJobResponseDTO deleteTerminal(String terminalId) {
         long startTime = System.currentTimeMillis();
 
         LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_DELETE_START",
@@ -444,7 +734,7 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
             // Find existing terminal to ensure it exists
             LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_FINDING_FOR_DELETE",
                     "terminalId", terminalId);
-            TerminalEDC existingTerminal = terminalRepository.findById(terminalId)
+            TerminalEDC existingTerminal = terminalRepository.findByIdForUpdate(terminalId)
                     .orElseThrow(() -> {
                         LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_DELETE_NOT_FOUND",
                                 "terminalId", terminalId);
@@ -462,22 +752,32 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
                     "ipAddress", existingTerminal.getIpAddress(),
                     "createdAt", existingTerminal.getCreatedAt().toString());
 
-            // Delete the terminal
+            // Hide the terminal and free its IP address now; its echo history can be far too
+            // large for one transaction and is removed by the purge job
             LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_EXECUTING_DELETE",
                     "terminalId", terminalId);
-            terminalRepository.delete(existingTerminal);
+            existingTerminal.setDeletedAt(LocalDateTime.now());
+            existingTerminal.setIpAddress(null);
+            terminalRepository.saveAndFlush(existingTerminal);
+            eventPublisher.publishEvent(new TerminalsChangedEvent(Collections.singletonList(terminalId)));
+            eventPublisher.publishEvent(new TerminalsDeletedEvent(Collections.singletonList(terminalId)));
+            TerminalPurgeJobResponseDTO purgeJob = terminalPurgeService.queuePurge(terminalId);
 
             long duration = System.currentTimeMillis() - startTime;
             LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_DELETE_SUCCESS",
                     "terminalId", terminalId,
                     "deletedLocation", existingTerminal.getLocation(),
                     "deletedStatus", existingTerminal.getStatus().toString(),
+                    "purgeJobId", purgeJob.getJobId(),
                     "duration", duration + "ms");
 
             // Log audit event for deletion
             LoggingUtil.logAuditEvent("TERMINAL_DELETED_BY_SERVICE",
                     "Terminal " + terminalId + " (Location: " + existingTerminal.getLocation() +
-                            ", Status: " + existingTerminal.getStatus() + ") was successfully deleted");
+                            ", Status: " + existingTerminal.getStatus() + ") was deleted, purge job "
+                            + purgeJob.getJobId() + " removes its echo history");
+
+            return purgeJob;
 
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
@@ -487,4 +787,101 @@ public class TerminalEDCServiceImpl implements TerminalEDCService {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional
+    public TerminalUpsertResultDTO upsertTerminal(String terminalId, UpsertTerminalEDCRequestDTO requestDTO) {
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_UPSERT_START",
+                "terminalId", terminalId,
+                "location", requestDTO.getLocation(),
+                "status", requestDTO.getStatus());
+
+        try {
+            // The ID comes from the path, so it is checked against the create rules here
+            Set<ConstraintViolation<CreateTerminalEDCRequestDTO>> violations = validator
+                    .validateValue(CreateTerminalEDCRequestDTO.class, "terminalId", terminalId);
+            if (!violations.isEmpty()) {
+                throw new BadRequestException(violations.iterator().next().getMessage());
+            }
+
+            TerminalEDC terminal = terminalEDCMapper.fromCreateRequestToTerminalEDC(CreateTerminalEDCRequestDTO.builder()
+                    .terminalId(terminalId)
+                    .location(requestDTO.getLocation().trim())
+                    .status(requestDTO.getStatus())
+                    .serialNumber(trimToNull(requestDTO.getSerialNumber()))
+                    .model(trimToNull(requestDTO.getModel()))
+                    .manufacturer(trimToNull(requestDTO.getManufacturer()))
+                    .ipAddress(trimToNull(requestDTO.getIpAddress()))
+                    .build());
+            if (requestDTO.getStatus() == null || requestDTO.getStatus().trim().isEmpty()) {
+                // Keeps the current status of an existing terminal
+                terminal.setStatus(null);
+            }
+
+            TerminalBatchRepository.UpsertResult result;
+            try {
+                result = terminalBatchRepository.upsert(terminal, LocalDateTime.now())
+                        .orElseThrow(() -> new ResourceAlreadyExistsException("Terminal EDC with ID '" + terminalId
+                                + "' is being deleted, its ID can be used again once the deletion has finished"));
+            } catch (DuplicateKeyException e) {
+                throw duplicateIpAddress(e, terminalId, terminal.getIpAddress());
+            }
+            if (!result.isInserted()) {
+                eventPublisher.publishEvent(new TerminalsChangedEvent(Collections.singletonList(terminalId)));
+            }
+
+            TerminalUpsertResultDTO response = TerminalUpsertResultDTO.builder()
+                    .created(result.isInserted())
+                    .terminal(terminalEDCMapper.fromTerminalEDCToResponse(result.getTerminal()))
+                    .build();
+
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_UPSERT_SUCCESS",
+                    "terminalId", terminalId,
+                    "created", String.valueOf(result.isInserted()),
+                    "status", result.getTerminal().getStatus().toString(),
+                    "duration", duration + "ms");
+
+            return response;
+
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - startTime;
+            LoggingUtil.logError("TERMINAL_SERVICE_UPSERT_ERROR", e,
+                    "terminalId", terminalId,
+                    "duration", duration + "ms");
+            throw e;
+        }
+    }
+
+    /**
+     * The response for a write that failed on the unique IP address index. Other constraint
+     * violations are returned unchanged.
+     */
+    private RuntimeException duplicateIpAddress(DataIntegrityViolationException e, String terminalId,
+            String ipAddress) {
+        if (!TerminalBatchRepository.isIpAddressConflict(e)) {
+            return e;
+        }
+        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_FAILED_DUPLICATE_IP",
+                "terminalId", terminalId,
+                "ipAddress", ipAddress);
+        return new ResourceAlreadyExistsException(
+                "Terminal EDC with IP address '" + ipAddress + "' already exists");
+    }
+
+    private static PreconditionFailedException versionMismatch(String terminalId, Long currentVersion,
+            Collection<EntityTags.Tag> expectedTags) {
+        LoggingUtil.logBusinessEvent("TERMINAL_SERVICE_VERSION_MISMATCH",
+                "terminalId", terminalId,
+                "currentVersion", currentVersion,
+                "expectedTags", expectedTags);
+        return new PreconditionFailedException("Terminal EDC with ID '" + terminalId
+                + "' has changed, its current version is " + currentVersion);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
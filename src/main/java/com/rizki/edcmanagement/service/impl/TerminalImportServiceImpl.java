@@ -0,0 +1,433 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.rizki.edcmanagement.dto.terminal.request.CreateTerminalEDCRequestDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalImportRowResultDTO;
+import com.rizki.edcmanagement.dto.terminal.response.TerminalImportSummaryDTO;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.mapper.TerminalEDCMapper;
+import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.model.enums.TerminalImportFormat;
+import com.rizki.edcmanagement.model.enums.TerminalImportRowStatus;
+import com.rizki.edcmanagement.repository.TerminalBatchRepository;
+import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.TerminalImportService;
+import com.rizki.edcmanagement.util.CsvReader;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+/**
+ * Streams the import: rows are parsed and checked one chunk at a time, so memory depends on
+ * the chunk size rather than the file size. Each chunk costs two set-based uniqueness queries
+ * and one JDBC batch insert, and is committed on its own. Duplicates across chunks are found
+ * by the queries, because earlier chunks are committed by then. Rows that conflict anyway,
+ * because another request took the ID or IP address in between, are skipped by the insert
+ * and reported per row.
+ */
+@Service
+public class TerminalImportServiceImpl implements TerminalImportService {
+    private static final List<String> CSV_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            "terminalId", "location", "status", "serialNumber", "model", "manufacturer", "ipAddress"));
+    private static final int MAX_FIELD_LENGTH = 1024;
+
+    @Autowired
+    private TerminalEDCRepository terminalRepository;
+
+    @Autowired
+    private TerminalBatchRepository terminalBatchRepository;
+
+    @Autowired
+    private TerminalEDCMapper terminalEDCMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.terminal.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public TerminalImportSummaryDTO importTerminals(InputStream input, TerminalImportFormat format,
+            OutputStream report) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        LoggingUtil.logBusinessEvent("TERMINAL_IMPORT_STARTED",
+                "FORMAT", format,
+                "CHUNK_SIZE", chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource rows = format == TerminalImportFormat.CSV ? csvRows(reader) : ndjsonRows(reader);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(report, StandardCharsets.UTF_8), 64 * 1024);
+        SequenceWriter rowWriter = objectMapper.writerFor(TerminalImportRowResultDTO.class)
+                .withRootValueSeparator("\n")
+                .writeValues(writer);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        TerminalImportSummaryDTO summary = new TerminalImportSummaryDTO();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        for (ParsedRow row = rows.next(); row != null; row = rows.next()) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, transactionTemplate, rowWriter, summary);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, transactionTemplate, rowWriter, summary);
+        }
+
+        summary.setDurationMs(System.currentTimeMillis() - startTime);
+        rowWriter.flush();
+        if (summary.getTotalRows() > 0) {
+            writer.write('\n');
+        }
+        writer.write(objectMapper.writeValueAsString(Collections.singletonMap("summary", summary)));
+        writer.write('\n');
+        writer.flush();
+
+        LoggingUtil.logBusinessEvent("TERMINAL_IMPORT_COMPLETED",
+                "FORMAT", format,
+                "TOTAL_ROWS", summary.getTotalRows(),
+                "CREATED", summary.getCreated(),
+                "INVALID", summary.getInvalid(),
+                "DUPLICATE_IDS", summary.getDuplicateIds(),
+                "DUPLICATE_IPS", summary.getDuplicateIps(),
+                "CHUNKS", summary.getChunks(),
+                "DURATION_MS", summary.getDurationMs());
+        return summary;
+    }
+
+    private void importChunk(List<ParsedRow> chunk, TransactionTemplate transactionTemplate,
+            SequenceWriter rowWriter, TerminalImportSummaryDTO summary) throws IOException {
+        TerminalImportRowResultDTO[] results = new TerminalImportRowResultDTO[chunk.size()];
+
+        // Validation, then duplicates within the chunk
+        Set<String> chunkIds = new HashSet<>();
+        Set<String> chunkIps = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow row = chunk.get(i);
+            results[i] = validate(row);
+            if (results[i] != null) {
+                continue;
+            }
+
+            CreateTerminalEDCRequestDTO request = row.request;
+            if (!chunkIds.add(request.getTerminalId())) {
+                results[i] = result(row, TerminalImportRowStatus.DUPLICATE_ID,
+                        "Terminal ID appears earlier in the import");
+            } else if (request.getIpAddress() != null && !chunkIps.add(request.getIpAddress())) {
+                results[i] = result(row, TerminalImportRowStatus.DUPLICATE_IP,
+                        "IP address appears earlier in the import");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // Duplicates of existing terminals, including those of earlier chunks
+        Set<String> existingIds = chunkIds.isEmpty() ? Collections.<String>emptySet()
+                : new HashSet<>(terminalRepository.findExistingTerminalIds(chunkIds));
+        Set<String> existingIps = chunkIps.isEmpty() ? Collections.<String>emptySet()
+                : new HashSet<>(terminalRepository.findExistingIpAddresses(chunkIps));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> inserts = new ArrayList<>();
+        List<TerminalEDC> terminals = new ArrayList<>();
+        for (int i : candidates) {
+            ParsedRow row = chunk.get(i);
+            CreateTerminalEDCRequestDTO request = row.request;
+            if (existingIds.contains(request.getTerminalId())) {
+                results[i] = duplicateId(row);
+            } else if (request.getIpAddress() != null && existingIps.contains(request.getIpAddress())) {
+                results[i] = result(row, TerminalImportRowStatus.DUPLICATE_IP,
+                        "Terminal EDC with IP address '" + request.getIpAddress() + "' already exists");
+            } else {
+                TerminalEDC terminal = terminalEDCMapper.fromCreateRequestToTerminalEDC(request);
+                terminal.setCreatedAt(now);
+                terminal.setUpdatedAt(now);
+                terminals.add(terminal);
+                inserts.add(i);
+            }
+        }
+
+        if (!terminals.isEmpty()) {
+            boolean[] inserted = transactionTemplate
+                    .execute(status -> terminalBatchRepository.insertAllSkippingConflicts(terminals));
+            List<Integer> conflicts = new ArrayList<>();
+            Set<String> conflictIds = new HashSet<>();
+            for (int j = 0; j < inserts.size(); j++) {
+                int i = inserts.get(j);
+                if (inserted[j]) {
+                    results[i] = result(chunk.get(i), TerminalImportRowStatus.CREATED, null);
+                } else {
+                    conflicts.add(i);
+                    conflictIds.add(chunk.get(i).request.getTerminalId());
+                }
+            }
+
+            // Another request took the ID or the IP address after the check, or a deleted
+            // terminal still being purged holds it
+            if (!conflicts.isEmpty()) {
+                Set<String> takenIds = new HashSet<>(terminalBatchRepository.findTakenTerminalIds(conflictIds));
+                for (int i : conflicts) {
+                    ParsedRow row = chunk.get(i);
+                    results[i] = takenIds.contains(row.request.getTerminalId()) || row.request.getIpAddress() == null
+                            ? duplicateId(row)
+                            : result(row, TerminalImportRowStatus.DUPLICATE_IP,
+                                    "Terminal EDC with IP address '" + row.request.getIpAddress() + "' already exists");
+                }
+            }
+        }
+
+        for (TerminalImportRowResultDTO result : results) {
+            rowWriter.write(result);
+            count(summary, result.getStatus());
+        }
+        summary.setChunks(summary.getChunks() + 1);
+
+        LoggingUtil.logBusinessEvent("TERMINAL_IMPORT_CHUNK_COMPLETED",
+                "CHUNK", summary.getChunks(),
+                "ROWS", chunk.size(),
+                "INSERTED", terminals.size());
+    }
+
+    private TerminalImportRowResultDTO validate(ParsedRow row) {
+        if (row.parseError != null) {
+            return result(row, TerminalImportRowStatus.INVALID, row.parseError);
+        }
+
+        Set<ConstraintViolation<CreateTerminalEDCRequestDTO>> violations = validator.validate(row.request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        Map<String, List<String>> errors = new TreeMap<>();
+        for (ConstraintViolation<CreateTerminalEDCRequestDTO> violation : violations) {
+            errors.computeIfAbsent(violation.getPropertyPath().toString(), k -> new ArrayList<>())
+                    .add(violation.getMessage());
+        }
+        errors.values().forEach(Collections::sort);
+
+        TerminalImportRowResultDTO result = result(row, TerminalImportRowStatus.INVALID, null);
+        result.setErrors(errors);
+        return result;
+    }
+
+    private static TerminalImportRowResultDTO duplicateId(ParsedRow row) {
+        return result(row, TerminalImportRowStatus.DUPLICATE_ID,
+                "Terminal EDC with ID '" + row.request.getTerminalId() + "' already exists");
+    }
+
+    private static TerminalImportRowResultDTO result(ParsedRow row, TerminalImportRowStatus status,
+            String message) {
+        return TerminalImportRowResultDTO.builder()
+                .row(row.number)
+                .terminalId(row.request != null ? row.request.getTerminalId() : null)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    private static void count(TerminalImportSummaryDTO summary, TerminalImportRowStatus status) {
+        summary.setTotalRows(summary.getTotalRows() + 1);
+        switch (status) {
+            case CREATED:
+                summary.setCreated(summary.getCreated() + 1);
+                break;
+            case INVALID:
+                summary.setInvalid(summary.getInvalid() + 1);
+                break;
+            case DUPLICATE_ID:
+                summary.setDuplicateIds(summary.getDuplicateIds() + 1);
+                break;
+            case DUPLICATE_IP:
+            default:
+                summary.setDuplicateIps(summary.getDuplicateIps() + 1);
+                break;
+        }
+    }
+
+    /**
+     * Rows of a CSV file whose header names some of {@link #CSV_COLUMNS}, in any order and
+     * case. terminalId and location are required. Empty fields are read as absent.
+     */
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvReader csvReader = new CsvReader(reader, MAX_FIELD_LENGTH);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            throw new BadRequestException("CSV import is empty, a header row is required");
+        }
+
+        Map<String, String> knownColumns = new HashMap<>();
+        for (String column : CSV_COLUMNS) {
+            knownColumns.put(column.toLowerCase(Locale.ROOT), column);
+        }
+        List<String> columns = new ArrayList<>();
+        // Spreadsheets often start UTF-8 files with a byte order mark
+        if (header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        for (String name : header) {
+            String column = knownColumns.get(name.trim().toLowerCase(Locale.ROOT));
+            if (column == null) {
+                throw new BadRequestException("Unknown CSV column: '" + name + "'. Valid columns are: "
+                        + String.join(", ", CSV_COLUMNS));
+            }
+            if (columns.contains(column)) {
+                throw new BadRequestException("Duplicate CSV column: '" + name + "'");
+            }
+            columns.add(column);
+        }
+        if (!columns.contains("terminalId") || !columns.contains("location")) {
+            throw new BadRequestException("CSV header must contain the terminalId and location columns");
+        }
+
+        long[] number = { 0 };
+        boolean[] malformed = { false };
+        return () -> {
+            if (malformed[0]) {
+                return null;
+            }
+
+            List<String> fields;
+            try {
+                fields = csvReader.readRecord();
+                // Blank lines
+                while (fields != null && fields.size() == 1 && fields.get(0).isEmpty()) {
+                    fields = csvReader.readRecord();
+                }
+            } catch (CsvReader.MalformedCsvException e) {
+                // The reader cannot tell where the next record starts, so this is the last row
+                malformed[0] = true;
+                ParsedRow row = new ParsedRow(++number[0]);
+                row.parseError = "Malformed CSV, import stopped: " + e.getMessage();
+                return row;
+            }
+            if (fields == null) {
+                return null;
+            }
+
+            ParsedRow row = new ParsedRow(++number[0]);
+            CreateTerminalEDCRequestDTO request = new CreateTerminalEDCRequestDTO();
+            for (int i = 0; i < Math.min(columns.size(), fields.size()); i++) {
+                String value = fields.get(i).isEmpty() ? null : fields.get(i);
+                setField(request, columns.get(i), value);
+            }
+            row.request = request;
+            if (fields.size() != columns.size()) {
+                row.parseError = "Expected " + columns.size() + " fields but found " + fields.size();
+            }
+            return row;
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] number = { 0 };
+        return () -> {
+            String line = reader.readLine();
+            while (line != null && line.trim().isEmpty()) {
+                line = reader.readLine();
+            }
+            if (line == null) {
+                return null;
+            }
+
+            ParsedRow row = new ParsedRow(++number[0]);
+            try {
+                CreateTerminalEDCRequestDTO request = objectMapper.readValue(line, CreateTerminalEDCRequestDTO.class);
+                if (request == null) {
+                    row.parseError = "Row must be a JSON object";
+                } else {
+                    if (request.getIpAddress() != null && request.getIpAddress().isEmpty()) {
+                        request.setIpAddress(null);
+                    }
+                    row.request = request;
+                }
+            } catch (JsonProcessingException e) {
+                row.parseError = "Invalid JSON format or data type";
+            }
+            return row;
+        };
+    }
+
+    private static void setField(CreateTerminalEDCRequestDTO request, String column, String value) {
+        switch (column) {
+            case "terminalId":
+                request.setTerminalId(value);
+                break;
+            case "location":
+                request.setLocation(value);
+                break;
+            case "status":
+                request.setStatus(value);
+                break;
+            case "serialNumber":
+                request.setSerialNumber(value);
+                break;
+            case "model":
+                request.setModel(value);
+                break;
+            case "manufacturer":
+                request.setManufacturer(value);
+                break;
+            case "ipAddress":
+            default:
+                request.setIpAddress(value);
+                break;
+        }
+    }
+
+    private interface RowSource {
+        /**
+         * The next data row, or null at the end of the input.
+         */
+        ParsedRow next() throws IOException;
+    }
+
+    private static class ParsedRow {
+        private final long number;
+        private CreateTerminalEDCRequestDTO request;
+        private String parseError;
+
+        ParsedRow(long number) {
+            this.number = number;
+        }
+    }
+}
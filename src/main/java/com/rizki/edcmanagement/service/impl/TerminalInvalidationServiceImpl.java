@@ -0,0 +1,183 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.rizki.edcmanagement.event.TerminalsChangedEvent;
+import com.rizki.edcmanagement.service.TerminalEDCService;
+import com.rizki.edcmanagement.service.TerminalInvalidationService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+import com.rizki.edcmanagement.util.PostgresNotificationListener;
+
+/**
+ * Keeps the terminal caches of all instances in step through PostgreSQL NOTIFY. Every
+ * TerminalsChangedEvent is sent on the configured channel as
+ * {@code <node id>:<terminal id>,<terminal id>,...}, and each instance evicts the terminals
+ * it receives from other nodes. Its own changes are already evicted after commit by
+ * TerminalEDCServiceImpl.
+ */
+@Service
+public class TerminalInvalidationServiceImpl implements TerminalInvalidationService {
+    // NOTIFY payloads must be shorter than 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TerminalEDCService terminalEDCService;
+
+    @Value("${application.terminal.invalidation.enabled:true}")
+    private boolean invalidationEnabled;
+
+    @Value("${application.terminal.invalidation.channel:terminal_changes}")
+    private String channel;
+
+    @Value("${application.terminal.invalidation.batch-window-ms:50}")
+    private long batchWindowMillis;
+
+    @Value("${application.terminal.invalidation.reconnect-delay-ms:1000}")
+    private long reconnectDelayMillis;
+
+    @Value("${application.terminal.invalidation.max-reconnect-delay-ms:30000}")
+    private long maxReconnectDelayMillis;
+
+    @Value("${application.terminal.invalidation.keepalive-ms:30000}")
+    private long keepaliveMillis;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String datasourceUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String datasourcePassword;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private PostgresNotificationListener listener;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!invalidationEnabled) {
+            return;
+        }
+
+        // Held for the lifetime of the application, so not taken from the pool
+        Properties properties = new Properties();
+        properties.setProperty("user", datasourceUsername);
+        properties.setProperty("password", datasourcePassword);
+        properties.setProperty("ApplicationName", "edc-invalidation-" + nodeId);
+
+        listener = new PostgresNotificationListener(
+                () -> DriverManager.getConnection(datasourceUrl, properties), channel, batchWindowMillis,
+                reconnectDelayMillis, maxReconnectDelayMillis, keepaliveMillis,
+                new PostgresNotificationListener.Handler() {
+                    @Override
+                    public void onNotifications(List<String> payloads) {
+                        evictRemoteChanges(payloads);
+                    }
+
+                    @Override
+                    public void onResync() {
+                        terminalEDCService.evictAllCachedTerminals();
+                        LoggingUtil.logBusinessEvent("TERMINAL_INVALIDATION_RESYNC",
+                                "NODE_ID", nodeId);
+                    }
+                });
+        listener.start("terminal-invalidation-listener");
+
+        LoggingUtil.logBusinessEvent("TERMINAL_INVALIDATION_STARTED",
+                "NODE_ID", nodeId,
+                "CHANNEL", channel,
+                "BATCH_WINDOW_MS", batchWindowMillis);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    /**
+     * Runs inside the publishing transaction, so the notification shares its fate.
+     */
+    @EventListener
+    public void onTerminalsChanged(TerminalsChangedEvent event) {
+        if (invalidationEnabled) {
+            publish(event.getTerminalIds());
+        }
+    }
+
+    @Override
+    public void publish(Collection<String> terminalIds) {
+        for (String payload : buildPayloads(terminalIds)) {
+            jdbcTemplate.queryForRowSet("SELECT pg_notify(:channel, :payload)",
+                    new MapSqlParameterSource("channel", channel).addValue("payload", payload));
+        }
+    }
+
+    // Terminal IDs are ASCII, so characters count as bytes
+    private List<String> buildPayloads(Collection<String> terminalIds) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append(':');
+        int emptyLength = payload.length();
+
+        for (String terminalId : terminalIds) {
+            if (payload.length() > emptyLength) {
+                if (payload.length() + 1 + terminalId.length() > MAX_PAYLOAD_BYTES) {
+                    payloads.add(payload.toString());
+                    payload.setLength(emptyLength);
+                } else {
+                    payload.append(',');
+                }
+            }
+            payload.append(terminalId);
+        }
+
+        if (payload.length() > emptyLength) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private void evictRemoteChanges(List<String> payloads) {
+        Set<String> terminalIds = new LinkedHashSet<>();
+        for (String payload : payloads) {
+            int separator = payload.indexOf(':');
+            if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+                continue;
+            }
+            for (String terminalId : payload.substring(separator + 1).split(",")) {
+                if (!terminalId.isEmpty()) {
+                    terminalIds.add(terminalId);
+                }
+            }
+        }
+
+        if (!terminalIds.isEmpty()) {
+            terminalEDCService.evictCachedTerminals(terminalIds);
+            LoggingUtil.logBusinessEvent("TERMINAL_INVALIDATION_RECEIVED",
+                    "NOTIFICATION_COUNT", payloads.size(),
+                    "TERMINAL_COUNT", terminalIds.size());
+        }
+    }
+}
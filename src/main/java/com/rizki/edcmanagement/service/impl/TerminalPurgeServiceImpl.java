@@ -0,0 +1,343 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rizki.edcmanagement.dto.terminal.response.TerminalPurgeJobResponseDTO;
+import com.rizki.edcmanagement.event.TerminalPurgeQueuedEvent;
+import com.rizki.edcmanagement.exception.BadRequestException;
+import com.rizki.edcmanagement.exception.ResourceNotFoundException;
+import com.rizki.edcmanagement.model.TerminalPurgeJob;
+import com.rizki.edcmanagement.model.enums.TerminalBulkJobStatus;
+import com.rizki.edcmanagement.repository.TerminalBatchRepository;
+import com.rizki.edcmanagement.repository.TerminalPurgeJobRepository;
+import com.rizki.edcmanagement.service.EchoArchiveService;
+import com.rizki.edcmanagement.service.TerminalPurgeService;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+/**
+ * Purges deleted terminals on a small worker pool, claimed and leased like bulk jobs (see
+ * TerminalBulkJobServiceImpl). Every chunk locks the job row, deletes up to chunk-size echo
+ * log rows or echo sessions of the terminal and adds them to the counters in one short
+ * transaction, so no lock is held for longer than one chunk. Once none are left, the
+ * terminal row goes in the same way.
+ */
+@Service
+public class TerminalPurgeServiceImpl implements TerminalPurgeService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // Echoes recorded while the delete committed make the final step fail on the foreign key
+    private static final int MAX_LATE_ECHO_RETRIES = 3;
+
+    @Autowired
+    private TerminalPurgeJobRepository jobRepository;
+
+    @Autowired
+    private TerminalBatchRepository terminalBatchRepository;
+
+    @Autowired
+    private EchoArchiveService echoArchiveService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.terminal.purge.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${application.terminal.purge.workers:1}")
+    private int workers;
+
+    @Value("${application.terminal.purge.lease-ms:60000}")
+    private long leaseMillis;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Claims run after the deleting transaction has committed, while it is still bound
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "terminal-purge-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lets running jobs finish their current chunk and hands them back as PENDING, so the
+     * next instance to poll continues without waiting for the lease to expire.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        shuttingDown = true;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public TerminalPurgeJobResponseDTO queuePurge(String terminalId) {
+        TerminalPurgeJob job = jobRepository.save(TerminalPurgeJob.builder()
+                .terminalId(terminalId)
+                .status(TerminalBulkJobStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        eventPublisher.publishEvent(new TerminalPurgeQueuedEvent(job.getId(), terminalId));
+
+        LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_QUEUED",
+                "JOB_ID", job.getId(),
+                "TERMINAL_ID", terminalId);
+        return toResponse(job);
+    }
+
+    @TransactionalEventListener
+    public void onPurgeQueued(TerminalPurgeQueuedEvent event) {
+        claimAndRun(event.getJobId());
+    }
+
+    @Override
+    public TerminalPurgeJobResponseDTO getJob(Long jobId) {
+        return toResponse(jobRepository.findById(jobId).orElseThrow(() -> notFound(jobId)));
+    }
+
+    @Override
+    public TerminalPurgeJobResponseDTO resumeJob(Long jobId) {
+        transactionTemplate.execute(status -> {
+            TerminalPurgeJob current = jobRepository.findByIdForUpdate(jobId).orElseThrow(() -> notFound(jobId));
+            if (current.getStatus() != TerminalBulkJobStatus.FAILED) {
+                throw new BadRequestException("Purge job " + jobId + " is " + current.getStatus()
+                        + ", only FAILED jobs can be resumed");
+            }
+            current.setStatus(TerminalBulkJobStatus.PENDING);
+            current.setError(null);
+            current.setFinishedAt(null);
+            return current;
+        });
+
+        LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_RESUMED",
+                "JOB_ID", jobId);
+
+        claimAndRun(jobId);
+        return getJob(jobId);
+    }
+
+    /**
+     * Picks up jobs queued while all workers were busy, handed back by a stopping instance,
+     * or abandoned by a crashed one.
+     */
+    @Scheduled(fixedDelayString = "${application.terminal.purge.poll-ms:5000}")
+    public void pollJobs() {
+        if (shuttingDown || runningJobs.size() >= workers) {
+            return;
+        }
+        List<Long> claimable = jobRepository.findClaimableIds(LocalDateTime.now().minusNanos(leaseMillis * 1_000_000));
+        for (Long jobId : claimable) {
+            if (runningJobs.size() >= workers) {
+                break;
+            }
+            if (!runningJobs.contains(jobId)) {
+                claimAndRun(jobId);
+            }
+        }
+    }
+
+    private void claimAndRun(Long jobId) {
+        if (shuttingDown || runningJobs.size() >= workers || !runningJobs.add(jobId)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate
+                .execute(status -> jobRepository.claim(jobId, now, now.minusNanos(leaseMillis * 1_000_000)));
+        if (claimed == null || claimed == 0) {
+            runningJobs.remove(jobId);
+            return;
+        }
+
+        try {
+            executor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    private void runJob(Long jobId) {
+        long startTime = System.currentTimeMillis();
+        try {
+            TerminalPurgeJob job = jobRepository.findById(jobId).orElseThrow(() -> notFound(jobId));
+            String terminalId = job.getTerminalId();
+
+            if (job.getEchoesEstimate() == null) {
+                long total = terminalBatchRepository.countEchoes(terminalId);
+                transactionTemplate.execute(status -> {
+                    jobRepository.findByIdForUpdate(jobId).ifPresent(current -> current.setEchoesEstimate(total));
+                    return null;
+                });
+            }
+
+            LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_STARTED",
+                    "JOB_ID", jobId,
+                    "TERMINAL_ID", terminalId,
+                    "ECHO_LOGS_DELETED", job.getEchoLogsDeleted());
+
+            int lateEchoRetries = 0;
+            while (true) {
+                try {
+                    if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> processChunk(jobId, terminalId)))) {
+                        break;
+                    }
+                } catch (DataIntegrityViolationException e) {
+                    if (++lateEchoRetries > MAX_LATE_ECHO_RETRIES) {
+                        throw e;
+                    }
+                    // The next chunk deletes the late echoes
+                    LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_LATE_ECHOES",
+                            "JOB_ID", jobId,
+                            "TERMINAL_ID", terminalId);
+                }
+            }
+
+            TerminalPurgeJob finished = jobRepository.findById(jobId).orElse(job);
+            LoggingUtil.logBusinessEvent("TERMINAL_PURGE_JOB_STOPPED",
+                    "JOB_ID", jobId,
+                    "TERMINAL_ID", terminalId,
+                    "STATUS", finished.getStatus(),
+                    "ECHO_LOGS_DELETED", finished.getEchoLogsDeleted(),
+                    "ECHO_SESSIONS_DELETED", finished.getEchoSessionsDeleted(),
+                    "DURATION_MS", System.currentTimeMillis() - startTime);
+
+            if (finished.getStatus() == TerminalBulkJobStatus.COMPLETED) {
+                LoggingUtil.logAuditEvent("TERMINAL_PURGED",
+                        "Terminal " + terminalId + " and its " + finished.getEchoLogsDeleted() + " echo log rows and "
+                                + finished.getEchoSessionsDeleted() + " echo sessions were removed");
+
+                // Hide its archived echoes here right away; other instances follow when they rescan
+                try {
+                    echoArchiveService.refreshPurges();
+                } catch (RuntimeException e) {
+                    LoggingUtil.logError("TERMINAL_PURGE_ARCHIVE_REFRESH_FAILED", e,
+                            "JOB_ID", jobId,
+                            "TERMINAL_ID", terminalId);
+                }
+            }
+        } catch (Exception e) {
+            LoggingUtil.logError("TERMINAL_PURGE_JOB_FAILED", e,
+                    "JOB_ID", jobId);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            try {
+                transactionTemplate.execute(transaction -> {
+                    jobRepository.findByIdForUpdate(jobId).ifPresent(current -> {
+                        current.setStatus(TerminalBulkJobStatus.FAILED);
+                        current.setError(message.length() > MAX_ERROR_LENGTH
+                                ? message.substring(0, MAX_ERROR_LENGTH)
+                                : message);
+                        current.setFinishedAt(LocalDateTime.now());
+                    });
+                    return null;
+                });
+            } catch (RuntimeException statusError) {
+                // The lease expires and another poll retries the job
+                LoggingUtil.logError("TERMINAL_PURGE_JOB_STATUS_UPDATE_FAILED", statusError,
+                        "JOB_ID", jobId);
+            }
+        } finally {
+            runningJobs.remove(jobId);
+        }
+    }
+
+    /**
+     * @return whether another chunk should follow
+     */
+    private boolean processChunk(Long jobId, String terminalId) {
+        TerminalPurgeJob job = jobRepository.findByIdForUpdate(jobId).orElseThrow(() -> notFound(jobId));
+        LocalDateTime now = LocalDateTime.now();
+        if (job.getStatus() != TerminalBulkJobStatus.RUNNING) {
+            return false;
+        }
+        if (shuttingDown) {
+            job.setStatus(TerminalBulkJobStatus.PENDING);
+            return false;
+        }
+
+        int echoLogs = terminalBatchRepository.deleteEchoLogs(terminalId, chunkSize);
+        int echoSessions = echoLogs < chunkSize
+                ? terminalBatchRepository.deleteEchoSessions(terminalId, chunkSize - echoLogs)
+                : 0;
+        if (echoLogs + echoSessions > 0) {
+            job.setEchoLogsDeleted(job.getEchoLogsDeleted() + echoLogs);
+            job.setEchoSessionsDeleted(job.getEchoSessionsDeleted() + echoSessions);
+            job.setChunks(job.getChunks() + 1);
+            job.setHeartbeatAt(now);
+            return true;
+        }
+
+        if (!terminalBatchRepository.deletePurgedTerminal(terminalId)
+                && terminalBatchRepository.countEchoes(terminalId) > 0) {
+            // Echoes committed after this chunk's deletes
+            job.setHeartbeatAt(now);
+            return true;
+        }
+        job.setStatus(TerminalBulkJobStatus.COMPLETED);
+        job.setFinishedAt(now);
+        return false;
+    }
+
+    private static TerminalPurgeJobResponseDTO toResponse(TerminalPurgeJob job) {
+        long deleted = job.getEchoLogsDeleted() + job.getEchoSessionsDeleted();
+        Double progressPercent = null;
+        if (job.getStatus() == TerminalBulkJobStatus.COMPLETED) {
+            progressPercent = 100.0;
+        } else if (job.getEchoesEstimate() != null) {
+            // Echoes recorded while the delete committed can push the estimate past 100
+            progressPercent = job.getEchoesEstimate() > 0
+                    ? Math.min(99.9, 100.0 * deleted / job.getEchoesEstimate())
+                    : 99.9;
+        }
+
+        return TerminalPurgeJobResponseDTO.builder()
+                .jobId(job.getId())
+                .terminalId(job.getTerminalId())
+                .status(job.getStatus())
+                .echoesEstimate(job.getEchoesEstimate())
+                .echoLogsDeleted(job.getEchoLogsDeleted())
+                .echoSessionsDeleted(job.getEchoSessionsDeleted())
+                .chunks(job.getChunks())
+                .progressPercent(progressPercent)
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .heartbeatAt(job.getHeartbeatAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private static ResourceNotFoundException notFound(Long jobId) {
+        return new ResourceNotFoundException("Purge job with ID '" + jobId + "' not found");
+    }
+}
@@ -0,0 +1,236 @@
+package com.rizki.edcmanagement.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rizki.edcmanagement.event.EchoRecordedEvent;
+import com.rizki.edcmanagement.event.TerminalSilentEvent;
+import com.rizki.edcmanagement.event.TerminalsChangedEvent;
+import com.rizki.edcmanagement.event.TerminalsDeletedEvent;
+import com.rizki.edcmanagement.model.enums.TerminalStatus;
+import com.rizki.edcmanagement.repository.TerminalEDCRepository;
+import com.rizki.edcmanagement.service.TerminalSilenceService;
+import com.rizki.edcmanagement.util.HashedTimingWheel;
+import com.rizki.edcmanagement.util.LoggingUtil;
+
+@Service
+public class TerminalSilenceServiceImpl implements TerminalSilenceService {
+    private static final int STATUS_UPDATE_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private TerminalEDCRepository terminalEDCRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${application.terminal.silence.enabled:true}")
+    private boolean silenceEnabled;
+
+    @Value("${application.terminal.silence.timeout-ms:300000}")
+    private long timeoutMillis;
+
+    @Value("${application.terminal.silence.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${application.terminal.silence.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${application.terminal.silence.mark-inactive:false}")
+    private boolean markInactive;
+
+    private HashedTimingWheel<String> wheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void start() {
+        if (!silenceEnabled) {
+            return;
+        }
+
+        wheel = new HashedTimingWheel<>(wheelSize, tickMillis, timeoutMillis, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "terminal-silence-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        LoggingUtil.logBusinessEvent("TERMINAL_SILENCE_MONITOR_STARTED",
+                "TIMEOUT_MS", timeoutMillis,
+                "TICK_MS", tickMillis,
+                "WHEEL_SIZE", wheelSize,
+                "MARK_INACTIVE", markInactive);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Terminals that are ACTIVE at startup get one full timeout to send their first echo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void watchActiveTerminals() {
+        if (!silenceEnabled) {
+            return;
+        }
+
+        long startMillis = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        Integer watched = transactionTemplate.execute(status -> {
+            int count = 0;
+            try (Stream<String> terminalIds = terminalEDCRepository
+                    .streamTerminalIdsByStatus(TerminalStatus.ACTIVE)) {
+                for (String terminalId : (Iterable<String>) terminalIds::iterator) {
+                    wheel.touch(terminalId, startMillis);
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        LoggingUtil.logBusinessEvent("TERMINAL_SILENCE_WATCH_SEEDED",
+                "ACTIVE_TERMINALS", watched,
+                "DURATION_MS", System.currentTimeMillis() - startMillis);
+    }
+
+    /**
+     * Runs on the ingest thread after commit. Re-arming only moves the terminal's deadline.
+     */
+    @TransactionalEventListener
+    public void onEchoRecorded(EchoRecordedEvent event) {
+        watch(event.getTerminalId(), event.getTimestamp());
+    }
+
+    @TransactionalEventListener
+    public void onTerminalsDeleted(TerminalsDeletedEvent event) {
+        if (silenceEnabled) {
+            for (String terminalId : event.getTerminalIds()) {
+                wheel.remove(terminalId);
+            }
+        }
+    }
+
+    @Override
+    public void watch(String terminalId, Instant seenAt) {
+        if (silenceEnabled) {
+            wheel.touch(terminalId, seenAt.toEpochMilli());
+        }
+    }
+
+    @Override
+    public int getWatchedTerminalCount() {
+        return silenceEnabled ? wheel.size() : 0;
+    }
+
+    private void tick() {
+        try {
+            List<String> silentTerminalIds = new ArrayList<>();
+            List<Long> lastSeenMillis = new ArrayList<>();
+            wheel.advance(System.currentTimeMillis(), (terminalId, lastSeen) -> {
+                silentTerminalIds.add(terminalId);
+                lastSeenMillis.add(lastSeen);
+            });
+
+            if (!silentTerminalIds.isEmpty()) {
+                handleSilentTerminals(silentTerminalIds, lastSeenMillis);
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the scheduled tick for good
+            LoggingUtil.logError("TERMINAL_SILENCE_TICK_FAILED", e,
+                    "ERROR_MESSAGE", e.getMessage());
+        }
+    }
+
+    private void handleSilentTerminals(List<String> expiredIds, List<Long> expiredLastSeenMillis) {
+        // Terminals deleted through another instance are still in this wheel: forget them instead
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < expiredIds.size(); from += STATUS_UPDATE_CHUNK_SIZE) {
+            existing.addAll(terminalEDCRepository.findExistingTerminalIds(
+                    expiredIds.subList(from, Math.min(from + STATUS_UPDATE_CHUNK_SIZE, expiredIds.size()))));
+        }
+
+        List<String> terminalIds = new ArrayList<>(existing.size());
+        List<Long> lastSeenMillis = new ArrayList<>(existing.size());
+        for (int i = 0; i < expiredIds.size(); i++) {
+            if (existing.contains(expiredIds.get(i))) {
+                terminalIds.add(expiredIds.get(i));
+                lastSeenMillis.add(expiredLastSeenMillis.get(i));
+            } else {
+                wheel.remove(expiredIds.get(i));
+            }
+        }
+
+        if (markInactive && !terminalIds.isEmpty()) {
+            markInactive(terminalIds);
+        }
+
+        Instant detectedAt = Instant.now();
+        for (int i = 0; i < terminalIds.size(); i++) {
+            String terminalId = terminalIds.get(i);
+            Instant lastSeenAt = Instant.ofEpochMilli(lastSeenMillis.get(i));
+
+            LoggingUtil.logBusinessEvent("TERMINAL_WENT_SILENT",
+                    "TERMINAL_ID", terminalId,
+                    "LAST_SEEN_AT", lastSeenAt);
+
+            eventPublisher.publishEvent(new TerminalSilentEvent(terminalId, lastSeenAt, detectedAt));
+        }
+    }
+
+    /**
+     * Move the silent terminals that are still ACTIVE to INACTIVE, one transaction per chunk.
+     */
+    private void markInactive(List<String> terminalIds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int from = 0; from < terminalIds.size(); from += STATUS_UPDATE_CHUNK_SIZE) {
+            List<String> chunk = terminalIds.subList(from,
+                    Math.min(from + STATUS_UPDATE_CHUNK_SIZE, terminalIds.size()));
+            try {
+                Integer updated = transactionTemplate.execute(status -> {
+                    int changed = terminalEDCRepository.updateStatusWhereCurrent(chunk, TerminalStatus.ACTIVE,
+                            TerminalStatus.INACTIVE, LocalDateTime.now());
+                    eventPublisher.publishEvent(new TerminalsChangedEvent(new ArrayList<>(chunk)));
+                    return changed;
+                });
+
+                LoggingUtil.logBusinessEvent("SILENT_TERMINALS_MARKED_INACTIVE",
+                        "SILENT_COUNT", chunk.size(),
+                        "UPDATED_COUNT", updated);
+            } catch (RuntimeException e) {
+                LoggingUtil.logError("TERMINAL_SILENCE_STATUS_UPDATE_FAILED", e,
+                        "TERMINAL_COUNT", chunk.size(),
+                        "ERROR_MESSAGE", e.getMessage());
+            }
+        }
+    }
+}
@@ -6,14 +6,20 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.persistence.criteria.Join;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 
 import org.springframework.data.jpa.domain.Specification;
 
 import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
 import com.rizki.edcmanagement.model.EchoLog;
 import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+import com.rizki.edcmanagement.model.enums.TerminalStatus;
 import com.rizki.edcmanagement.util.LoggingUtil;
 
 public class EchoLogSpecification {
@@ -28,17 +34,23 @@ public class EchoLogSpecification {
 
                 List<Predicate> predicates = new ArrayList<>();
 
-                // Join with TerminalEDC for terminal-related filters
-                Join<EchoLog, TerminalEDC> terminalJoin = root.join("terminal");
-
-                // Filter by terminal ID (like search, case insensitive)
+                // Filter by terminal ID on the echo_log foreign key column, no join needed
                 if (filters.getTerminalId() != null && !filters.getTerminalId().trim().isEmpty()) {
-                    String terminalIdFilter = "%" + filters.getTerminalId().toLowerCase().trim() + "%";
-                    predicates.add(criteriaBuilder.like(
-                            criteriaBuilder.lower(terminalJoin.get("terminalId")),
-                            terminalIdFilter));
+                    TerminalIdMatchMode matchMode = TerminalIdMatchMode.fromString(filters.getTerminalIdMatch());
+                    predicates.add(buildTerminalIdPredicate(root, query, criteriaBuilder, matchMode,
+                            filters.getTerminalId()));
                     LoggingUtil.logBusinessEvent("SPECIFICATION_TERMINAL_FILTER",
-                            "Added terminal ID filter: " + terminalIdFilter);
+                            "Added terminal ID filter: " + filters.getTerminalId().trim() + ", mode: " + matchMode);
+                }
+
+                // Filter by terminal attributes copied onto each echo row, no join needed
+                List<Predicate> attributePredicates = buildTerminalAttributePredicates(root, criteriaBuilder,
+                        filters, true);
+                if (!attributePredicates.isEmpty()) {
+                    predicates.addAll(attributePredicates);
+                    LoggingUtil.logBusinessEvent("SPECIFICATION_TERMINAL_ATTRIBUTE_FILTER",
+                            "Added terminal attribute filters: location=" + filters.getLocation() + ", type="
+                                    + filters.getTerminalType() + ", status=" + filters.getStatus());
                 }
 
                 // Filter by timestamp range
@@ -81,11 +93,96 @@ public class EchoLogSpecification {
         };
     }
 
+    /**
+     * Rows at or after the given instant. Used to hide days that have been moved to the
+     * archive but whose live rows are not deleted yet.
+     */
+    public static Specification<EchoLog> timestampAtOrAfter(Instant instant) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get("timestamp"), instant);
+    }
+
+    /**
+     * Terminal IDs are stored upper case (enforced by the request pattern), so the
+     * filter value is upper cased instead of wrapping the column in lower(), which
+     * would make the predicate unusable for any index. Shared with echo_session, which
+     * has the same terminal association.
+     */
+    static Predicate buildTerminalIdPredicate(Root<?> root, CriteriaQuery<?> query,
+            CriteriaBuilder criteriaBuilder, TerminalIdMatchMode matchMode, String terminalId) {
+        String value = terminalId.toUpperCase().trim();
+        Path<String> terminalIdPath = root.get("terminal").get("terminalId");
+
+        switch (matchMode) {
+            case EXACT:
+                return criteriaBuilder.equal(terminalIdPath, value);
+            case PREFIX:
+                return criteriaBuilder.like(terminalIdPath, escapeLike(value) + "%");
+            case CONTAINS:
+            default:
+                // Resolve matching terminals through the trigram index on terminal_edc,
+                // then probe the echo table by terminal ID for each of them
+                Subquery<String> matchingTerminals = query.subquery(String.class);
+                Root<TerminalEDC> terminalRoot = matchingTerminals.from(TerminalEDC.class);
+                matchingTerminals.select(terminalRoot.get("terminalId"))
+                        .where(criteriaBuilder.like(terminalRoot.get("terminalId"),
+                                "%" + escapeLike(value) + "%"));
+                return terminalIdPath.in(matchingTerminals);
+        }
+    }
+
+    /**
+     * Location (exact, case insensitive), type and status filters. Echo logs match the
+     * attributes copied onto each row at echo time. Sessions carry no copies and match the
+     * terminal's current attributes instead. The type is the terminal ID prefix, so it is
+     * matched on the terminal ID column in both cases.
+     */
+    static List<Predicate> buildTerminalAttributePredicates(Root<?> root, CriteriaBuilder criteriaBuilder,
+            GetEchoLogRequestDTO filters, boolean copiedAttributes) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (filters.getLocation() != null && !filters.getLocation().trim().isEmpty()) {
+            Path<String> locationPath = copiedAttributes ? root.get("terminalLocation")
+                    : root.get("terminal").get("location");
+            predicates.add(criteriaBuilder.equal(criteriaBuilder.lower(locationPath),
+                    filters.getLocation().toLowerCase().trim()));
+        }
+
+        if (filters.getTerminalType() != null && !filters.getTerminalType().trim().isEmpty()) {
+            Path<String> terminalIdPath = root.get("terminal").get("terminalId");
+            predicates.add(criteriaBuilder.like(terminalIdPath,
+                    escapeLike(filters.getTerminalType().toUpperCase().trim()) + "-%"));
+        }
+
+        if (filters.getStatus() != null && !filters.getStatus().trim().isEmpty()) {
+            Path<TerminalStatus> statusPath = copiedAttributes ? root.get("terminalStatus")
+                    : root.get("terminal").get("status");
+            predicates.add(criteriaBuilder.equal(statusPath, TerminalStatus.fromString(filters.getStatus())));
+        }
+
+        return predicates;
+    }
+
+    // PostgreSQL treats backslash as the default LIKE escape character
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     public static String buildAppliedFiltersDescription(GetEchoLogRequestDTO filters) {
         List<String> appliedFilters = new ArrayList<>();
 
         if (filters.getTerminalId() != null && !filters.getTerminalId().trim().isEmpty()) {
             appliedFilters.add("terminalId=" + filters.getTerminalId());
+            appliedFilters.add("terminalIdMatch="
+                    + TerminalIdMatchMode.fromString(filters.getTerminalIdMatch()).name().toLowerCase());
+        }
+        if (filters.getLocation() != null && !filters.getLocation().trim().isEmpty()) {
+            appliedFilters.add("location=" + filters.getLocation());
+        }
+        if (filters.getTerminalType() != null && !filters.getTerminalType().trim().isEmpty()) {
+            appliedFilters.add("terminalType=" + filters.getTerminalType());
+        }
+        if (filters.getStatus() != null && !filters.getStatus().trim().isEmpty()) {
+            appliedFilters.add("status=" + filters.getStatus());
         }
         if (filters.getTimestampFrom() != null && !filters.getTimestampFrom().trim().isEmpty()) {
             appliedFilters.add("timestampFrom=" + filters.getTimestampFrom());
@@ -0,0 +1,78 @@
+package com.rizki.edcmanagement.specification;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.criteria.Predicate;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.model.EchoSession;
+import com.rizki.edcmanagement.model.enums.TerminalIdMatchMode;
+
+/**
+ * The echo log filters applied to echo_session rows. A session matches the timestamp range
+ * when any part of it falls inside the range. Sessions carry no copies of the terminal
+ * attributes, so location and status are matched on the terminal's current values.
+ */
+public class EchoSessionSpecification {
+    public static Specification<EchoSession> buildSpecification(GetEchoLogRequestDTO filters) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filters.getTerminalId() != null && !filters.getTerminalId().trim().isEmpty()) {
+                TerminalIdMatchMode matchMode = TerminalIdMatchMode.fromString(filters.getTerminalIdMatch());
+                predicates.add(EchoLogSpecification.buildTerminalIdPredicate(root, query, criteriaBuilder,
+                        matchMode, filters.getTerminalId()));
+            }
+
+            predicates.addAll(EchoLogSpecification.buildTerminalAttributePredicates(root, criteriaBuilder,
+                    filters, false));
+
+            // Invalid dates are ignored, as they are for echo_log
+            Instant from = parseDay(filters.getTimestampFrom(), 0);
+            if (from != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("lastEchoAt"), from));
+            }
+
+            Instant to = parseDay(filters.getTimestampTo(), 1);
+            if (to != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("startedAt"), to));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Echo log sort properties mapped onto session properties: timestamp becomes the
+     * session start.
+     */
+    public static Sort mapSort(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if ("timestamp".equals(order.getProperty())) {
+                orders.add(order.withProperty("startedAt"));
+            } else {
+                orders.add(order);
+            }
+        }
+        return Sort.by(orders);
+    }
+
+    private static Instant parseDay(String value, int plusDays) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value).plusDays(plusDays).atStartOfDay().toInstant(ZoneOffset.UTC);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.rizki.edcmanagement.util;
+
+import java.util.Arrays;
+
+/**
+ * Connectivity of one terminal as sorted, disjoint [start, end) intervals in epoch milliseconds.
+ * An echo at {@code t} means the terminal was connected during [t, t + gapMillis). The
+ * timeline is the union of those ranges, so overlapping echoes merge into one interval and
+ * only gaps longer than {@code gapMillis} create new intervals.
+ *
+ * A prefix sum of interval lengths is kept alongside the intervals, so the uptime of any
+ * window is two binary searches. Adding an echo at or after the newest interval is O(1);
+ * an older echo is merged in place. Adding the same echo twice has no effect, which lets
+ * backfilled history and live echoes overlap.
+ */
+public class ConnectivityTimeline {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final long gapMillis;
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    // Total length of the intervals before index i
+    private long[] uptimeBefore = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean loaded;
+
+    public ConnectivityTimeline(long gapMillis) {
+        this.gapMillis = gapMillis;
+    }
+
+    public long getGapMillis() {
+        return gapMillis;
+    }
+
+    public synchronized int intervalCount() {
+        return size;
+    }
+
+    /**
+     * Whether the terminal's stored history has been merged in, rather than only the echoes
+     * seen since the timeline was created.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized void addEcho(long timestampMillis) {
+        long end = timestampMillis + gapMillis;
+        if (size == 0 || timestampMillis > ends[size - 1]) {
+            append(timestampMillis, end);
+        } else if (timestampMillis >= starts[size - 1]) {
+            ends[size - 1] = Math.max(ends[size - 1], end);
+        } else {
+            insert(timestampMillis, end);
+        }
+    }
+
+    /**
+     * Merge another timeline with the same gap into this one and mark this timeline loaded.
+     */
+    public synchronized void mergeFrom(ConnectivityTimeline other) {
+        long[] otherStarts;
+        long[] otherEnds;
+        int otherSize;
+        synchronized (other) {
+            otherStarts = Arrays.copyOf(other.starts, other.size);
+            otherEnds = Arrays.copyOf(other.ends, other.size);
+            otherSize = other.size;
+        }
+
+        long[] mergedStarts = new long[Math.max(INITIAL_CAPACITY, size + otherSize)];
+        long[] mergedEnds = new long[mergedStarts.length];
+        int merged = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < otherSize) {
+            long start;
+            long end;
+            if (j >= otherSize || (i < size && starts[i] <= otherStarts[j])) {
+                start = starts[i];
+                end = ends[i++];
+            } else {
+                start = otherStarts[j];
+                end = otherEnds[j++];
+            }
+
+            if (merged > 0 && start <= mergedEnds[merged - 1]) {
+                mergedEnds[merged - 1] = Math.max(mergedEnds[merged - 1], end);
+            } else {
+                mergedStarts[merged] = start;
+                mergedEnds[merged] = end;
+                merged++;
+            }
+        }
+
+        starts = mergedStarts;
+        ends = mergedEnds;
+        uptimeBefore = new long[mergedStarts.length];
+        size = merged;
+        recomputeUptimeFrom(0);
+        loaded = true;
+    }
+
+    /**
+     * Connected milliseconds within [fromMillis, toMillis).
+     */
+    public synchronized long uptimeMillis(long fromMillis, long toMillis) {
+        if (size == 0 || fromMillis >= toMillis) {
+            return 0;
+        }
+
+        int first = firstEndingAfter(fromMillis);
+        int last = firstStartingAtOrAfter(toMillis) - 1;
+        if (first > last) {
+            return 0;
+        }
+
+        long uptime = uptimeBefore[last] + (ends[last] - starts[last]) - uptimeBefore[first];
+        uptime -= Math.max(0, fromMillis - starts[first]);
+        uptime -= Math.max(0, ends[last] - toMillis);
+        return uptime;
+    }
+
+    private void append(long start, long end) {
+        ensureCapacity(size + 1);
+        starts[size] = start;
+        ends[size] = end;
+        uptimeBefore[size] = size == 0 ? 0 : uptimeBefore[size - 1] + (ends[size - 1] - starts[size - 1]);
+        size++;
+    }
+
+    private void insert(long start, long end) {
+        // Intervals [first, last] touch the new one and collapse into a single interval
+        int first = firstEndingAtOrAfter(start);
+        int last = firstStartingAfter(end) - 1;
+
+        if (first > last) {
+            ensureCapacity(size + 1);
+            System.arraycopy(starts, first, starts, first + 1, size - first);
+            System.arraycopy(ends, first, ends, first + 1, size - first);
+            starts[first] = start;
+            ends[first] = end;
+            size++;
+        } else {
+            long mergedStart = Math.min(start, starts[first]);
+            long mergedEnd = Math.max(end, ends[last]);
+            int removed = last - first;
+            System.arraycopy(starts, last + 1, starts, first + 1, size - last - 1);
+            System.arraycopy(ends, last + 1, ends, first + 1, size - last - 1);
+            starts[first] = mergedStart;
+            ends[first] = mergedEnd;
+            size -= removed;
+        }
+        recomputeUptimeFrom(first);
+    }
+
+    private void recomputeUptimeFrom(int index) {
+        for (int i = index; i < size; i++) {
+            uptimeBefore[i] = i == 0 ? 0 : uptimeBefore[i - 1] + (ends[i - 1] - starts[i - 1]);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > starts.length) {
+            int newCapacity = Math.max(capacity, starts.length * 2);
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+            uptimeBefore = Arrays.copyOf(uptimeBefore, newCapacity);
+        }
+    }
+
+    private int firstEndingAfter(long value) {
+        return lowerBound(ends, value + 1);
+    }
+
+    private int firstEndingAtOrAfter(long value) {
+        return lowerBound(ends, value);
+    }
+
+    private int firstStartingAtOrAfter(long value) {
+        return lowerBound(starts, value);
+    }
+
+    private int firstStartingAfter(long value) {
+        return lowerBound(starts, value + 1);
+    }
+
+    private int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
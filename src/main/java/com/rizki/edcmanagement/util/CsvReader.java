@@ -0,0 +1,125 @@
+package com.rizki.edcmanagement.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time, so only the current record is held in memory.
+ * Fields may be quoted, and quoted fields may contain commas, doubled quotes and line
+ * breaks. Records end with LF or CRLF.
+ */
+public class CsvReader {
+    private final Reader reader;
+    private final int maxFieldLength;
+    private int pushedBack = -2;
+    private boolean endOfInput;
+
+    /**
+     * @param reader         source, buffered by the caller
+     * @param maxFieldLength longest field accepted, so a missing closing quote cannot
+     *                       swallow the rest of the input
+     */
+    public CsvReader(Reader reader, int maxFieldLength) {
+        this.reader = reader;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    /**
+     * The fields of the next record, or null at the end of the input.
+     *
+     * @throws MalformedCsvException when a field is longer than the limit or a quoted field
+     *                               is not closed before the end of the input
+     */
+    public List<String> readRecord() throws IOException {
+        if (endOfInput) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new MalformedCsvException("Quoted field is not closed before the end of the input");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        append(field, '"');
+                        continue;
+                    }
+                    quoted = false;
+                    unread(next);
+                    continue;
+                }
+                append(field, (char) c);
+                continue;
+            }
+
+            if (c == -1) {
+                endOfInput = true;
+                if (!fieldStarted && fields.isEmpty()) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+                continue;
+            }
+            if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    unread(next);
+                }
+                c = '\n';
+            }
+            if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            }
+            if (c == '"' && field.length() == 0) {
+                quoted = true;
+                fieldStarted = true;
+                continue;
+            }
+            append(field, (char) c);
+            fieldStarted = true;
+        }
+    }
+
+    private void append(StringBuilder field, char c) throws IOException {
+        if (field.length() >= maxFieldLength) {
+            throw new MalformedCsvException("Field is longer than " + maxFieldLength + " characters");
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    public static class MalformedCsvException extends IOException {
+        public MalformedCsvException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.rizki.edcmanagement.util;
+
+/**
+ * Fixed-capacity ring of (echo log ID, timestamp in epoch microseconds) pairs held in
+ * primitive arrays. Entries are kept in (timestamp, id) order and the oldest entry is
+ * overwritten once the ring is full.
+ *
+ * A ring starts incomplete: it only holds the echoes seen since it was created. Once it is
+ * merged with the terminal's newest rows from the database it is complete and holds the
+ * terminal's newest {@code min(capacity, total)} echoes.
+ */
+public class EchoRingBuffer {
+    private final long[] ids;
+    private final long[] timestamps;
+    private int head; // physical index of the oldest entry
+    private int size;
+    private boolean complete;
+    private volatile long lastAccessMillis;
+
+    public EchoRingBuffer(int capacity) {
+        this.ids = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.lastAccessMillis = System.currentTimeMillis();
+    }
+
+    public int capacity() {
+        return ids.length;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    public void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    public synchronized void add(long id, long timestampMicros) {
+        if (size > 0) {
+            int newest = physical(size - 1);
+            if (timestamps[newest] > timestampMicros
+                    || (timestamps[newest] == timestampMicros && ids[newest] >= id)) {
+                // Concurrent echoes of one terminal can commit out of order
+                merge(new long[] { id }, new long[] { timestampMicros }, 1, complete);
+                return;
+            }
+        }
+
+        if (size < ids.length) {
+            int tail = physical(size);
+            ids[tail] = id;
+            timestamps[tail] = timestampMicros;
+            size++;
+        } else {
+            ids[head] = id;
+            timestamps[head] = timestampMicros;
+            head = (head + 1) % ids.length;
+        }
+    }
+
+    /**
+     * Merge the terminal's newest rows from the database, in any order, and mark the ring complete.
+     * Entries already in the ring are matched by ID, so echoes recorded while the rows were being
+     * loaded are neither lost nor duplicated.
+     */
+    public synchronized void seed(long[] seedIds, long[] seedTimestamps, int count) {
+        merge(seedIds, seedTimestamps, count, true);
+    }
+
+    /**
+     * Copy up to {@code limit} entries, newest first, and return how many were copied.
+     */
+    public synchronized int copyNewest(int limit, long[] idsOut, long[] timestampsOut) {
+        int count = Math.min(limit, size);
+        for (int i = 0; i < count; i++) {
+            int index = physical(size - 1 - i);
+            idsOut[i] = ids[index];
+            timestampsOut[i] = timestamps[index];
+        }
+        return count;
+    }
+
+    private void merge(long[] extraIds, long[] extraTimestamps, int extraCount, boolean markComplete) {
+        int total = size + extraCount;
+        long[] mergedIds = new long[total];
+        long[] mergedTimestamps = new long[total];
+        int merged = 0;
+
+        for (int i = 0; i < size; i++) {
+            mergedIds[merged] = ids[physical(i)];
+            mergedTimestamps[merged] = timestamps[physical(i)];
+            merged++;
+        }
+        for (int i = 0; i < extraCount; i++) {
+            if (!containsId(mergedIds, merged, extraIds[i])) {
+                mergedIds[merged] = extraIds[i];
+                mergedTimestamps[merged] = extraTimestamps[i];
+                merged++;
+            }
+        }
+
+        // Insertion sort, the arrays hold at most two rings' worth of entries
+        for (int i = 1; i < merged; i++) {
+            long id = mergedIds[i];
+            long timestamp = mergedTimestamps[i];
+            int j = i - 1;
+            while (j >= 0 && (mergedTimestamps[j] > timestamp
+                    || (mergedTimestamps[j] == timestamp && mergedIds[j] > id))) {
+                mergedIds[j + 1] = mergedIds[j];
+                mergedTimestamps[j + 1] = mergedTimestamps[j];
+                j--;
+            }
+            mergedIds[j + 1] = id;
+            mergedTimestamps[j + 1] = timestamp;
+        }
+
+        int keep = Math.min(merged, ids.length);
+        System.arraycopy(mergedIds, merged - keep, ids, 0, keep);
+        System.arraycopy(mergedTimestamps, merged - keep, timestamps, 0, keep);
+        head = 0;
+        size = keep;
+        complete = complete || markComplete;
+    }
+
+    private int physical(int logicalIndex) {
+        return (head + logicalIndex) % ids.length;
+    }
+
+    private static boolean containsId(long[] values, int count, long id) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,132 @@
+package com.rizki.edcmanagement.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * HTTP entity tags for versioned resources. A tag holds the creation time in milliseconds and
+ * the version, {@code "1758432000123-3"}. The version restarts at 0 when a resource is deleted
+ * and created again under the same ID, and the creation time keeps the new tags apart from the
+ * old ones.
+ */
+public final class EntityTags {
+    private EntityTags() {
+    }
+
+    public static String of(LocalDateTime createdAt, long version) {
+        return tag(createdAt, version).toString();
+    }
+
+    public static Tag tag(LocalDateTime createdAt, long version) {
+        return new Tag(createdMillis(createdAt), version);
+    }
+
+    /**
+     * Whether an If-None-Match header matches the current tag, so the client's copy is up to
+     * date. If-None-Match uses the weak comparison, so {@code W/"..."} matches like the strong
+     * tag. An absent header matches nothing, {@code *} matches any tag.
+     */
+    public static boolean matches(String header, LocalDateTime createdAt, long version) {
+        if (header == null || header.trim().isEmpty()) {
+            return false;
+        }
+        Set<Tag> tags = parse(header, true);
+        return tags == null || tags.contains(tag(createdAt, version));
+    }
+
+    /**
+     * The tags listed in an If-Match header. If-Match uses the strong comparison, under which a
+     * weak tag ({@code W/"..."}) never matches, so weak tags are skipped like tags that are not
+     * ours.
+     *
+     * @return null when the header is absent or {@code *}, meaning any tag; a header of only
+     *         skipped tags matches none
+     */
+    public static Set<Tag> parseIfMatch(String header) {
+        return parse(header, false);
+    }
+
+    private static Set<Tag> parse(String header, boolean weak) {
+        if (header == null || header.trim().isEmpty() || header.trim().equals("*")) {
+            return null;
+        }
+
+        Set<Tag> tags = new LinkedHashSet<>();
+        for (String entry : header.split(",")) {
+            String value = entry.trim();
+            if (value.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                value = value.substring(2);
+            }
+            if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+                continue;
+            }
+            value = value.substring(1, value.length() - 1);
+            int separator = value.indexOf('-', 1);
+            if (separator < 0) {
+                continue;
+            }
+            try {
+                tags.add(new Tag(Long.parseLong(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1))));
+            } catch (NumberFormatException e) {
+                // Not one of ours
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Milliseconds of the creation time as PostgreSQL stores it: rounded to the microsecond,
+     * then truncated, so a tag computed before the row is read back stays the same.
+     */
+    private static long createdMillis(LocalDateTime createdAt) {
+        long micros = createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + (createdAt.getNano() + 500) / 1_000;
+        return Math.floorDiv(micros, 1_000L);
+    }
+
+    public static final class Tag {
+        private final long createdMillis;
+        private final long version;
+
+        Tag(long createdMillis, long version) {
+            this.createdMillis = createdMillis;
+            this.version = version;
+        }
+
+        /**
+         * Creation time truncated to the millisecond, in the same clock as the one stored.
+         */
+        public LocalDateTime getCreatedAt() {
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(createdMillis, 1_000L),
+                    (int) Math.floorMod(createdMillis, 1_000L) * 1_000_000, ZoneOffset.UTC);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Tag)) {
+                return false;
+            }
+            Tag tag = (Tag) other;
+            return createdMillis == tag.createdMillis && version == tag.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(createdMillis) * 31 + Long.hashCode(version);
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + createdMillis + "-" + version + "\"";
+        }
+    }
+}
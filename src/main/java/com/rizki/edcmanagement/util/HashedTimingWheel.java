@@ -0,0 +1,193 @@
+package com.rizki.edcmanagement.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiConsumer;
+
+/**
+ * Hashed timing wheel holding one deadline per key, for detecting keys that were not touched
+ * within a fixed timeout.
+ *
+ * {@link #touch} may be called from any thread and is O(1): it only moves the key's volatile
+ * deadline forward. Nodes are not moved between buckets at that point. When the wheel reaches a
+ * node whose deadline has moved, the node is placed in the right bucket. Each tick only walks
+ * one bucket, and with a wheel that spans the timeout a node is visited about once per timeout,
+ * however often it is touched. {@link #advance} must only be called from a single thread.
+ */
+public class HashedTimingWheel<K> {
+    private static final int ARMED = 0;
+    private static final int EXPIRED = 1;
+    private static final int CANCELLED = 2;
+
+    private final long tickMillis;
+    private final long timeoutMillis;
+    private final long startMillis;
+    private final Node<K>[] buckets;
+    private final int mask;
+
+    private final Map<K, Node<K>> nodes = new ConcurrentHashMap<>();
+    // Nodes waiting to be linked into the wheel by the advancing thread
+    private final Queue<Node<K>> pending = new ConcurrentLinkedQueue<>();
+
+    private long currentTick;
+
+    // Test hook, runs between claiming a node's expiry and re-checking its deadline
+    Runnable onExpiryClaimed = () -> {
+    };
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(int wheelSize, long tickMillis, long timeoutMillis, long nowMillis) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.startMillis = nowMillis;
+        this.buckets = (Node<K>[]) new Node[wheelSize];
+        this.mask = wheelSize - 1;
+    }
+
+    /**
+     * Set the key's deadline to {@code nowMillis + timeout}, arming it again if it had expired.
+     */
+    public void touch(K key, long nowMillis) {
+        long deadline = nowMillis + timeoutMillis;
+
+        Node<K> node = nodes.get(key);
+        if (node == null) {
+            Node<K> created = new Node<>(key, deadline);
+            node = nodes.putIfAbsent(key, created);
+            if (node == null) {
+                pending.add(created);
+                return;
+            }
+        }
+
+        if (deadline > node.deadline) {
+            node.deadline = deadline;
+        }
+        if (node.state == EXPIRED && Node.STATE.compareAndSet(node, EXPIRED, ARMED)) {
+            pending.add(node);
+        }
+    }
+
+    /**
+     * Stop tracking the key. The node is unlinked when the wheel next reaches it.
+     */
+    public void remove(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node != null) {
+            node.state = CANCELLED;
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Process every tick up to {@code nowMillis}, reporting each expired key together with
+     * the time it was last touched. Single thread only.
+     */
+    public void advance(long nowMillis, BiConsumer<K, Long> onExpired) {
+        Node<K> node;
+        while ((node = pending.poll()) != null) {
+            if (node.state == ARMED && !node.linked) {
+                link(node);
+            }
+        }
+
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick <= targetTick) {
+            expireBucket(currentTick, onExpired);
+            currentTick++;
+        }
+    }
+
+    private void expireBucket(long tick, BiConsumer<K, Long> onExpired) {
+        long tickEndMillis = startMillis + (tick + 1) * tickMillis;
+        int index = (int) (tick & mask);
+
+        Node<K> node = buckets[index];
+        while (node != null) {
+            Node<K> next = node.next;
+
+            if (node.state == CANCELLED) {
+                unlink(node);
+            } else if (node.targetTick <= tick) {
+                unlink(node);
+                if (node.deadline >= tickEndMillis) {
+                    // Touched since it was linked: move it to its current deadline
+                    link(node);
+                } else if (Node.STATE.compareAndSet(node, ARMED, EXPIRED)) {
+                    onExpiryClaimed.run();
+                    if (node.deadline >= tickEndMillis) {
+                        // Touched between the deadline check and the state change. Unless that
+                        // touch already saw EXPIRED, re-armed the node and queued it, link it here
+                        if (Node.STATE.compareAndSet(node, EXPIRED, ARMED)) {
+                            link(node);
+                        }
+                    } else if (node.state == EXPIRED) {
+                        // Neither re-armed by a touch nor removed since the state change
+                        onExpired.accept(node.key, node.deadline - timeoutMillis);
+                    }
+                }
+            }
+
+            node = next;
+        }
+    }
+
+    private void link(Node<K> node) {
+        long tick = (node.deadline - startMillis + tickMillis - 1) / tickMillis;
+        node.targetTick = Math.max(tick, currentTick);
+
+        int index = (int) (node.targetTick & mask);
+        node.prev = null;
+        node.next = buckets[index];
+        if (buckets[index] != null) {
+            buckets[index].prev = node;
+        }
+        buckets[index] = node;
+        node.linked = true;
+    }
+
+    private void unlink(Node<K> node) {
+        int index = (int) (node.targetTick & mask);
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[index] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.linked = false;
+    }
+
+    private static class Node<K> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Node> STATE = AtomicIntegerFieldUpdater
+                .newUpdater(Node.class, "state");
+
+        private final K key;
+        private volatile long deadline;
+        private volatile int state = ARMED;
+
+        // Owned by the advancing thread
+        private long targetTick;
+        private boolean linked;
+        private Node<K> prev;
+        private Node<K> next;
+
+        Node(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.rizki.edcmanagement.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Listens on a PostgreSQL NOTIFY channel over a dedicated connection, on its own daemon
+ * thread. Notifications arriving within {@code batchWindowMillis} of the first one are
+ * delivered to the handler together.
+ *
+ * <p>
+ * PostgreSQL does not queue notifications for a session that is not listening, so any sent
+ * while the connection was down are lost. After every successful LISTEN, including the
+ * first, the handler is told to resynchronize before further notifications are delivered.
+ * Lost connections are retried with exponential backoff, and an idle connection is probed
+ * every {@code keepaliveMillis} so a dead one is noticed.
+ */
+public class PostgresNotificationListener {
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int POLL_MILLIS = 500;
+
+    private final ConnectionFactory connectionFactory;
+    private final String channel;
+    private final long batchWindowMillis;
+    private final long reconnectDelayMillis;
+    private final long maxReconnectDelayMillis;
+    private final long keepaliveMillis;
+    private final Handler handler;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public PostgresNotificationListener(ConnectionFactory connectionFactory, String channel,
+            long batchWindowMillis, long reconnectDelayMillis, long maxReconnectDelayMillis,
+            long keepaliveMillis, Handler handler) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Channel must be a lower case identifier: " + channel);
+        }
+        this.connectionFactory = connectionFactory;
+        this.channel = channel;
+        this.batchWindowMillis = batchWindowMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.maxReconnectDelayMillis = Math.max(reconnectDelayMillis, maxReconnectDelayMillis);
+        this.keepaliveMillis = keepaliveMillis;
+        this.handler = handler;
+    }
+
+    public synchronized void start(String threadName) {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        // Unblocks a pending read
+        closeQuietly(connection);
+        thread.join(5_000);
+    }
+
+    /**
+     * Whether LISTEN has run and the handler has resynchronized on the current connection.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void run() {
+        long delay = reconnectDelayMillis;
+        while (running) {
+            try (Connection current = connectionFactory.connect()) {
+                connection = current;
+                PGConnection pgConnection = current.unwrap(PGConnection.class);
+                try (Statement statement = current.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                handler.onResync();
+                listening = true;
+                delay = reconnectDelayMillis;
+                LoggingUtil.logBusinessEvent("PG_LISTENER_LISTENING",
+                        "CHANNEL", channel);
+
+                receive(current, pgConnection);
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    LoggingUtil.logError("PG_LISTENER_CONNECTION_LOST", e,
+                            "CHANNEL", channel,
+                            "RETRY_IN_MS", delay);
+                }
+            } finally {
+                listening = false;
+                connection = null;
+            }
+
+            if (!running || !sleep(delay)) {
+                break;
+            }
+            delay = Math.min(delay * 2, maxReconnectDelayMillis);
+        }
+    }
+
+    private void receive(Connection current, PGConnection pgConnection) throws SQLException {
+        long lastActivity = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+            long now = System.currentTimeMillis();
+            if (notifications == null || notifications.length == 0) {
+                if (now - lastActivity >= keepaliveMillis) {
+                    try (Statement statement = current.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                    lastActivity = now;
+                }
+                continue;
+            }
+
+            List<String> payloads = new ArrayList<>();
+            addPayloads(payloads, notifications);
+            long deadline = now + batchWindowMillis;
+            for (long remaining = batchWindowMillis; remaining > 0; remaining = deadline
+                    - System.currentTimeMillis()) {
+                addPayloads(payloads, pgConnection.getNotifications((int) remaining));
+            }
+
+            try {
+                handler.onNotifications(payloads);
+            } catch (RuntimeException e) {
+                LoggingUtil.logError("PG_LISTENER_HANDLER_FAILED", e,
+                        "CHANNEL", channel,
+                        "NOTIFICATION_COUNT", payloads.size());
+            }
+            lastActivity = System.currentTimeMillis();
+        }
+    }
+
+    private static void addPayloads(List<String> payloads, PGNotification[] notifications) {
+        if (notifications == null) {
+            return;
+        }
+        for (PGNotification notification : notifications) {
+            payloads.add(notification.getParameter());
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection current) {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (SQLException e) {
+            // Closing only to unblock the listener thread
+        }
+    }
+
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+
+    public interface Handler {
+        /**
+         * Payloads of a batch of notifications, in arrival order.
+         */
+        void onNotifications(List<String> payloads);
+
+        /**
+         * Called after every successful LISTEN. Notifications sent before it may have been
+         * missed, so anything derived from them must be rebuilt or dropped.
+         */
+        void onResync();
+    }
+}
@@ -0,0 +1,95 @@
+package com.rizki.edcmanagement.util;
+
+/**
+ * One bit per minute of a UTC day: bit n is set when the terminal echoed during minute n,
+ * 00:00 being bit 0. Stored in PostgreSQL as BIT(1440) using {@link #toBitString()}.
+ * Not thread safe.
+ */
+public class PresenceBitmap {
+    public static final int MINUTES_PER_DAY = 1440;
+
+    private final long[] words = new long[(MINUTES_PER_DAY + 63) / 64];
+
+    public static PresenceBitmap fromBitString(String bits) {
+        if (bits.length() != MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Expected " + MINUTES_PER_DAY + " bits but got " + bits.length());
+        }
+
+        PresenceBitmap bitmap = new PresenceBitmap();
+        for (int minute = bits.indexOf('1'); minute >= 0; minute = bits.indexOf('1', minute + 1)) {
+            bitmap.set(minute);
+        }
+        return bitmap;
+    }
+
+    public void set(int minute) {
+        words[minute >>> 6] |= 1L << minute;
+    }
+
+    public boolean get(int minute) {
+        return (words[minute >>> 6] & (1L << minute)) != 0;
+    }
+
+    public void or(PresenceBitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Whether any minute in [fromMinute, toMinute) is set.
+     */
+    public boolean anyInRange(int fromMinute, int toMinute) {
+        int next = nextSetBit(fromMinute);
+        return next >= 0 && next < toMinute;
+    }
+
+    /**
+     * The first set minute at or after {@code fromMinute}, or -1.
+     */
+    public int nextSetBit(int fromMinute) {
+        if (fromMinute >= MINUTES_PER_DAY) {
+            return -1;
+        }
+
+        int index = fromMinute >>> 6;
+        long word = words[index] & (-1L << fromMinute);
+        while (true) {
+            if (word != 0) {
+                int minute = index * 64 + Long.numberOfTrailingZeros(word);
+                return minute < MINUTES_PER_DAY ? minute : -1;
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    /**
+     * The first clear minute at or after {@code fromMinute}, or MINUTES_PER_DAY.
+     */
+    public int nextClearBit(int fromMinute) {
+        int minute = fromMinute;
+        while (minute < MINUTES_PER_DAY && get(minute)) {
+            minute++;
+        }
+        return minute;
+    }
+
+    public String toBitString() {
+        char[] bits = new char[MINUTES_PER_DAY];
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            bits[minute] = get(minute) ? '1' : '0';
+        }
+        return new String(bits);
+    }
+}
@@ -0,0 +1,181 @@
+package com.rizki.edcmanagement.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Size-bounded read-through cache with least recently used eviction. A miss loads the value
+ * outside the lock, so a slow load never blocks hits on other keys.
+ *
+ * <p>
+ * Fills are guarded by a generation counter that every invalidation bumps. A load that
+ * started before an invalidation may have read the old value, so its result is returned to
+ * its caller but not cached. Invalidating after the writer has committed therefore
+ * guarantees that no later read is served a value older than that commit.
+ */
+public class ReadThroughCache<K, V> {
+    private final LruCache<K, V> entries;
+    private final int maxEntries;
+
+    // All guarded by this
+    private long generation;
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long discardedFills;
+
+    public ReadThroughCache(int maxEntries) {
+        this.entries = new LruCache<>(maxEntries);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The cached value of {@code key}, or the loader's result. Null results and exceptions
+     * are passed through and not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long fillGeneration;
+        synchronized (this) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            fillGeneration = generation;
+        }
+
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            if (generation == fillGeneration) {
+                entries.put(key, loaded);
+            } else {
+                discardedFills++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * The values of several keys, looking up all of them under one lock and loading the
+     * misses with a single loader call. Keys the loader leaves out or maps to null are
+     * missing from the result and not cached. Counts one hit or miss per distinct key.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> values = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long fillGeneration;
+        synchronized (this) {
+            for (K key : keys) {
+                if (values.containsKey(key) || missing.contains(key)) {
+                    continue;
+                }
+                V cached = entries.get(key);
+                if (cached != null) {
+                    hits++;
+                    values.put(key, cached);
+                } else {
+                    misses++;
+                    missing.add(key);
+                }
+            }
+            fillGeneration = generation;
+        }
+        if (missing.isEmpty()) {
+            return values;
+        }
+
+        Map<K, V> loaded = loader.apply(missing);
+
+        synchronized (this) {
+            boolean current = generation == fillGeneration;
+            for (K key : missing) {
+                V value = loaded.get(key);
+                if (value == null) {
+                    continue;
+                }
+                if (current) {
+                    entries.put(key, value);
+                } else {
+                    discardedFills++;
+                }
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), maxEntries, hits, misses, invalidations, discardedFills);
+    }
+
+    public static final class Stats {
+        private final int size;
+        private final int maxEntries;
+        private final long hits;
+        private final long misses;
+        private final long invalidations;
+        private final long discardedFills;
+
+        Stats(int size, int maxEntries, long hits, long misses, long invalidations, long discardedFills) {
+            this.size = size;
+            this.maxEntries = maxEntries;
+            this.hits = hits;
+            this.misses = misses;
+            this.invalidations = invalidations;
+            this.discardedFills = discardedFills;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public long getDiscardedFills() {
+            return discardedFills;
+        }
+
+        /**
+         * Hits over lookups, or 0 before the first lookup.
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+}
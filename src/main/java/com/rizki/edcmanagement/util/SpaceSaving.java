@@ -0,0 +1,134 @@
+package com.rizki.edcmanagement.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitter summary with a fixed number of counters. Any key seen more than
+ * {@code total / capacity} times is guaranteed to hold a counter. A counter's count never
+ * underestimates the key's true count and overestimates it by at most its error.
+ *
+ * Counters sit in a min-heap by count, so an offer is O(log capacity). Not thread safe.
+ */
+public class SpaceSaving<K> {
+    private final Map<K, Counter<K>> counters;
+    private final Counter<K>[] heap;
+    private int size;
+    private long total;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = (Counter<K>[]) new Counter[capacity];
+    }
+
+    public void offer(K key) {
+        total++;
+
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.index);
+        } else if (size < heap.length) {
+            counter = new Counter<>(key, 1, 0, size);
+            heap[size] = counter;
+            counters.put(key, counter);
+            siftUp(size++);
+        } else {
+            // Take over the smallest counter; its count bounds what the new key may have had
+            Counter<K> min = heap[0];
+            counters.remove(min.key);
+            min.key = key;
+            min.error = min.count;
+            min.count++;
+            counters.put(key, min);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Upper bound on the count of any key without a counter: 0 until every counter is in use.
+     */
+    public long minCount() {
+        return size < heap.length ? 0 : heap[0].count;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        counters.clear();
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        size = 0;
+        total = 0;
+    }
+
+    public void forEach(CounterVisitor<K> visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(heap[i].key, heap[i].count, heap[i].error);
+        }
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K> counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<K> counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    public interface CounterVisitor<K> {
+        void visit(K key, long count, long error);
+    }
+
+    private static final class Counter<K> {
+        K key;
+        long count;
+        long error;
+        int index;
+
+        Counter(K key, long count, long error, int index) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.index = index;
+        }
+    }
+}
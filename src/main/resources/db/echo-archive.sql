@@ -0,0 +1,21 @@
+-- Lease on the echo archive run, so only one instance writes segments and deletes archived
+-- echo_log rows. Executed after Hibernate's ddl-auto, so every statement must be idempotent.
+CREATE TABLE IF NOT EXISTS echo_archive_state (
+    name VARCHAR(50) PRIMARY KEY,
+    owner VARCHAR(50),
+    heartbeat_at TIMESTAMP
+);
+
+INSERT INTO echo_archive_state (name, owner, heartbeat_at) VALUES ('echo_archive', NULL, NULL)
+    ON CONFLICT (name) DO NOTHING;
+
+-- Terminals purged after some of their echoes were archived. Segments are never rewritten, so
+-- readers skip the archived rows of terminal_id with an ID up to purged_through_id. generation
+-- grows with every purge, so instances can tell that results read from the archive are stale.
+CREATE SEQUENCE IF NOT EXISTS echo_archive_purge_generation_seq;
+
+CREATE TABLE IF NOT EXISTS echo_archive_purge (
+    terminal_id VARCHAR(15) PRIMARY KEY,
+    purged_through_id BIGINT NOT NULL,
+    generation BIGINT NOT NULL
+);
@@ -0,0 +1,36 @@
+-- Echo log lookup indexes that cannot be expressed with JPA @Index.
+-- Executed after Hibernate's ddl-auto (spring.jpa.defer-datasource-initialization), so every
+-- statement must be idempotent.
+
+-- Exact and prefix terminal ID filters: varchar_pattern_ops lets LIKE 'EDC-JKT%' use the
+-- btree regardless of the database collation, and the trailing timestamp column serves the
+-- default ORDER BY timestamp and date range filters from the same index. Newest-first order
+-- and the included id let the latest echoes of a terminal be read by an index-only scan.
+CREATE INDEX IF NOT EXISTS idx_echo_terminal_id_timestamp_desc
+    ON echo_log (terminal_id varchar_pattern_ops, timestamp DESC) INCLUDE (id);
+
+-- Superseded by idx_echo_terminal_id_timestamp_desc
+DROP INDEX IF EXISTS idx_echo_terminal_id;
+DROP INDEX IF EXISTS idx_echo_terminal_id_timestamp;
+
+-- Location and status filters on the attribute copies each echo row carries, so they need
+-- no join to terminal_edc. Both return a filtered page newest first without a sort. Locations
+-- are matched case insensitively through lower(); PostgreSQL does not answer expression
+-- indexes index-only, so only the status index includes the page columns.
+CREATE INDEX IF NOT EXISTS idx_echo_location_timestamp_desc
+    ON echo_log (lower(terminal_location), timestamp DESC);
+
+CREATE INDEX IF NOT EXISTS idx_echo_status_timestamp_desc
+    ON echo_log (terminal_status, timestamp DESC) INCLUDE (terminal_id, id);
+
+-- Rows written before the attribute copies existed, for the batched startup backfill.
+-- Empty once the backfill has finished.
+CREATE INDEX IF NOT EXISTS idx_echo_missing_terminal_attributes
+    ON echo_log (id) WHERE terminal_status IS NULL;
+
+-- Contains terminal ID filter: matching terminals are resolved on the small terminal_edc
+-- table through a trigram index and then probed on echo_log by terminal ID.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_terminal_id_trgm
+    ON terminal_edc USING gin (terminal_id gin_trgm_ops);
@@ -0,0 +1,24 @@
+-- Minute presence per terminal per UTC day. Bit n of minutes is set when the terminal
+-- echoed during minute n of the day (00:00 is the leftmost bit). Rows are upserted in
+-- batches with minutes = minutes | new_minutes, so every statement stays idempotent.
+CREATE TABLE IF NOT EXISTS echo_presence (
+    terminal_id VARCHAR(15) NOT NULL,
+    day DATE NOT NULL,
+    minutes BIT(1440) NOT NULL,
+    PRIMARY KEY (terminal_id, day)
+);
+
+-- Fleet presence and heatmap queries read every terminal of a day range
+CREATE INDEX IF NOT EXISTS idx_echo_presence_day
+    ON echo_presence (day);
+
+-- Progress of the fill from echo history. Days up to backfilled_through are complete, so a
+-- fill interrupted by a restart resumes with the next day.
+CREATE TABLE IF NOT EXISTS echo_presence_state (
+    name VARCHAR(50) PRIMARY KEY,
+    backfilled_through DATE,
+    completed BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+INSERT INTO echo_presence_state (name, backfilled_through, completed) VALUES ('echo_presence_backfill', NULL, FALSE)
+    ON CONFLICT (name) DO NOTHING;
@@ -0,0 +1,17 @@
+-- Hourly echo counts per terminal, the rollup behind the echo time series. Hours before
+-- echo_rollup_state.rolled_up_until are complete; each run deletes and re-inserts the
+-- hours it covers, so a repeated run yields the same rows.
+CREATE TABLE IF NOT EXISTS echo_rollup_hourly (
+    bucket TIMESTAMP NOT NULL,
+    terminal_id VARCHAR(15) NOT NULL,
+    echo_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket, terminal_id)
+);
+
+CREATE TABLE IF NOT EXISTS echo_rollup_state (
+    name VARCHAR(50) PRIMARY KEY,
+    rolled_up_until TIMESTAMP
+);
+
+INSERT INTO echo_rollup_state (name, rolled_up_until) VALUES ('echo_rollup_hourly', NULL)
+    ON CONFLICT (name) DO NOTHING;
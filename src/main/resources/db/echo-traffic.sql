@@ -0,0 +1,14 @@
+-- Echo traffic sketches published by each instance, one row per instance per UTC minute
+-- (minute = epoch millis / 60000). Rows are overwritten with the instance's full slot, so
+-- republishing is idempotent. top_terminals holds terminalId:count:error entries separated
+-- by commas; distinct_registers holds the HyperLogLog registers.
+CREATE TABLE IF NOT EXISTS echo_traffic_slot (
+    minute BIGINT NOT NULL,
+    node_id VARCHAR(16) NOT NULL,
+    total_echoes BIGINT NOT NULL,
+    min_count BIGINT NOT NULL,
+    top_terminals TEXT NOT NULL,
+    distinct_registers BYTEA NOT NULL,
+    published_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (minute, node_id)
+);
@@ -0,0 +1,63 @@
+-- Change log of terminal_edc for the incremental change feed. Executed after Hibernate's
+-- ddl-auto, so every statement must be idempotent.
+
+-- Filled by the trigger below, inside the transaction that changes the terminal. Rows become
+-- visible in commit order, which sequence values taken at write time do not follow.
+CREATE TABLE IF NOT EXISTS terminal_change_pending (
+    id BIGSERIAL PRIMARY KEY,
+    terminal_id VARCHAR(15) NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+-- Committed changes, numbered by the sequencer in TerminalChangeServiceImpl. It moves pending
+-- rows here while holding the terminal_change_state row lock, so a version is only handed out
+-- once every smaller version is visible, and a client that read up to a version never misses
+-- a smaller one.
+CREATE TABLE IF NOT EXISTS terminal_change_log (
+    version BIGINT PRIMARY KEY,
+    terminal_id VARCHAR(15) NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS terminal_change_version_seq;
+
+-- Retention finds the newest version older than the cutoff
+CREATE INDEX IF NOT EXISTS idx_terminal_change_log_changed_at
+    ON terminal_change_log (changed_at);
+
+-- Versions up to pruned_through were removed by retention; clients behind it must resync
+CREATE TABLE IF NOT EXISTS terminal_change_state (
+    name VARCHAR(50) PRIMARY KEY,
+    pruned_through BIGINT NOT NULL
+);
+
+INSERT INTO terminal_change_state (name, pruned_through) VALUES ('terminal_change_log', 0)
+    ON CONFLICT (name) DO NOTHING;
+
+-- Records every write, whichever path made it: JPA saves, the statements of
+-- TerminalBatchRepository and the bulk JPQL updates. Setting deleted_at is the delete; the
+-- purge's removal of the row afterwards is not recorded again. The body is a quoted string
+-- because the script runner splits statements on semicolons outside quotes.
+CREATE OR REPLACE FUNCTION record_terminal_change() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        INSERT INTO terminal_change_pending (terminal_id, operation) VALUES (NEW.terminal_id, ''CREATE'');
+    ELSIF TG_OP = ''UPDATE'' THEN
+        IF OLD.deleted_at IS NULL AND NEW.deleted_at IS NOT NULL THEN
+            INSERT INTO terminal_change_pending (terminal_id, operation) VALUES (NEW.terminal_id, ''DELETE'');
+        ELSIF NEW.deleted_at IS NULL THEN
+            INSERT INTO terminal_change_pending (terminal_id, operation) VALUES (NEW.terminal_id, ''UPDATE'');
+        END IF;
+    ELSIF OLD.deleted_at IS NULL THEN
+        INSERT INTO terminal_change_pending (terminal_id, operation) VALUES (OLD.terminal_id, ''DELETE'');
+    END IF;
+    RETURN NULL;
+END';
+
+DROP TRIGGER IF EXISTS trg_terminal_edc_change ON terminal_edc;
+
+CREATE TRIGGER trg_terminal_edc_change
+    AFTER INSERT OR UPDATE OR DELETE ON terminal_edc
+    FOR EACH ROW EXECUTE FUNCTION record_terminal_change();
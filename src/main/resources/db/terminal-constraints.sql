@@ -0,0 +1,16 @@
+-- Terminal constraints that cannot be expressed with JPA @Index without Hibernate dropping and
+-- recreating them on every start. Executed after Hibernate's ddl-auto, so every statement
+-- must be idempotent.
+
+-- Blank IP addresses were accepted by create and mean no address
+UPDATE terminal_edc SET ip_address = NULL WHERE ip_address = '';
+
+-- One terminal per IP address. Creates and upserts rely on it instead of checking first, so
+-- concurrent requests cannot both take the same address. Fails on existing duplicates, which
+-- must be resolved by hand:
+--   SELECT ip_address, array_agg(terminal_id) FROM terminal_edc
+--   WHERE ip_address IS NOT NULL GROUP BY ip_address HAVING count(*) > 1;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_terminal_edc_ip_address ON terminal_edc (ip_address);
+
+-- Superseded by uq_terminal_edc_ip_address
+DROP INDEX IF EXISTS idx_terminal_ip;
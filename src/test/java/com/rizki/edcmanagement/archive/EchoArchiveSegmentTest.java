@@ -0,0 +1,187 @@
+package com.rizki.edcmanagement.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EchoArchiveSegmentTest {
+    private static final Instant START = Instant.parse("2026-01-05T00:00:00Z");
+    private static final Instant END = Instant.parse("2026-01-06T00:00:00Z");
+    private static final long START_MICROS = EchoArchiveSegment.toMicros(START);
+    private static final long END_MICROS = EchoArchiveSegment.toMicros(END);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsBlocksIncludingRangeEdgesAndEqualTimestamps() throws Exception {
+        // Rows on both edges of the segment, equal timestamps, ids going down (negative
+        // deltas) and deltas on both sides of the one-byte varint limit
+        long[] firstTimestamps = { START_MICROS, START_MICROS, START_MICROS + 127, START_MICROS + 255,
+                START_MICROS + 3_600_000_001L, END_MICROS - 1 };
+        long[] firstIds = { 10, 11, 9, 1L << 40, 12, 12 };
+        long[] secondTimestamps = { START_MICROS + 1, START_MICROS + 1 };
+        long[] secondIds = { 5, 6 };
+
+        Path file = directory.resolve("segment.edca");
+        try (EchoArchiveSegmentWriter writer = new EchoArchiveSegmentWriter(file, START, END)) {
+            append(writer, "EDC-JKT-001", firstTimestamps, firstIds);
+            append(writer, "ATM-BDG-002", secondTimestamps, secondIds);
+            writer.finish();
+        }
+
+        EchoArchiveSegment segment = EchoArchiveSegment.open(file);
+        assertEquals(START_MICROS, segment.getStartMicros());
+        assertEquals(END_MICROS, segment.getEndMicros());
+        assertEquals(8, segment.getRowCount());
+        assertEquals(2, segment.getBlocks().size());
+
+        EchoArchiveSegment.Block first = segment.getBlocks().get(0);
+        assertEquals("EDC-JKT-001", first.getTerminalId());
+        assertEquals(START_MICROS, first.getMinMicros());
+        assertEquals(END_MICROS - 1, first.getMaxMicros());
+        assertDecodes(segment, first, firstTimestamps, firstIds);
+
+        EchoArchiveSegment.Block second = segment.getBlocks().get(1);
+        assertEquals("ATM-BDG-002", second.getTerminalId());
+        assertEquals(first.getOffset() + first.getLength(), second.getOffset());
+        assertDecodes(segment, second, secondTimestamps, secondIds);
+    }
+
+    @Test
+    void roundTripsEmptySegment() throws Exception {
+        Path file = directory.resolve("empty.edca");
+        try (EchoArchiveSegmentWriter writer = new EchoArchiveSegmentWriter(file, START, END)) {
+            writer.finish();
+        }
+
+        EchoArchiveSegment segment = EchoArchiveSegment.open(file);
+        assertEquals(0, segment.getRowCount());
+        assertEquals(0, segment.getBlocks().size());
+    }
+
+    @Test
+    void writerRejectsRowsOutsideRangeOrOrder() throws Exception {
+        try (EchoArchiveSegmentWriter writer = new EchoArchiveSegmentWriter(directory.resolve("a.edca"), START,
+                END)) {
+            assertThrows(IllegalArgumentException.class, () -> writer.append(1, "EDC-JKT-001", END));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(1, "EDC-JKT-001", START.minusNanos(1_000)));
+
+            writer.append(1, "EDC-JKT-001", START.plusSeconds(10));
+            assertThrows(IllegalStateException.class, () -> writer.append(2, "EDC-JKT-001", START.plusSeconds(5)));
+
+            writer.append(3, "ATM-BDG-002", START);
+            assertThrows(IllegalStateException.class, () -> writer.append(4, "EDC-JKT-001", START.plusSeconds(20)));
+        }
+    }
+
+    @Test
+    void unfinishedSegmentIsDeleted() throws Exception {
+        Path file = directory.resolve("unfinished.edca");
+        try (EchoArchiveSegmentWriter writer = new EchoArchiveSegmentWriter(file, START, END)) {
+            writer.append(1, "EDC-JKT-001", START);
+        }
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void rejectsEveryTruncation() throws Exception {
+        byte[] bytes = Files.readAllBytes(writeSample());
+
+        for (int length = 0; length < bytes.length; length++) {
+            Path truncated = directory.resolve("truncated-" + length + ".edca");
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> EchoArchiveSegment.open(truncated), "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsCorruptHeaderTrailerAndFooter() throws Exception {
+        byte[] bytes = Files.readAllBytes(writeSample());
+        int footerOffset = (int) ByteBuffer.wrap(bytes).getLong(bytes.length - EchoArchiveSegment.TRAILER_LENGTH);
+        int blockIndex = footerOffset + 28;
+
+        assertRejected(bytes, "magic", buffer -> buffer.putInt(0, 0));
+        assertRejected(bytes, "version", buffer -> buffer.putInt(4, EchoArchiveSegment.VERSION + 1));
+        assertRejected(bytes, "trailer magic", buffer -> buffer.putInt(bytes.length - 4, 0));
+        assertRejected(bytes, "footer offset",
+                buffer -> buffer.putLong(bytes.length - EchoArchiveSegment.TRAILER_LENGTH, bytes.length));
+        assertRejected(bytes, "row count", buffer -> buffer.putLong(footerOffset + 16, 4));
+        assertRejected(bytes, "block count", buffer -> buffer.putInt(footerOffset + 24, 3));
+        // First block: short length and "EDC-JKT-001", then row count, offset and length
+        assertRejected(bytes, "block offset", buffer -> buffer.putLong(blockIndex + 13 + 4, 9));
+        assertRejected(bytes, "block length", buffer -> buffer.putInt(blockIndex + 13 + 12, 1));
+        assertRejected(bytes, "block range", buffer -> buffer.putLong(blockIndex + 13 + 24, END_MICROS));
+    }
+
+    @Test
+    void decodingStopsAtTheBlockEnd() throws Exception {
+        Path file = writeSample();
+        EchoArchiveSegment segment = EchoArchiveSegment.open(file);
+        EchoArchiveSegment.Block block = segment.getBlocks().get(0);
+
+        // Continuation bits on every byte: the varints run past the block
+        byte[] bytes = Files.readAllBytes(file);
+        for (int i = 0; i < block.getLength(); i++) {
+            bytes[(int) block.getOffset() + i] |= (byte) 0x80;
+        }
+        Path corrupt = directory.resolve("corrupt-data.edca");
+        Files.write(corrupt, bytes);
+
+        EchoArchiveSegment opened = EchoArchiveSegment.open(corrupt);
+        EchoArchiveSegment.Block corruptBlock = opened.getBlocks().get(0);
+        assertThrows(RuntimeException.class, () -> opened.decodeBlock(corruptBlock,
+                new long[corruptBlock.getRowCount()], new long[corruptBlock.getRowCount()]));
+    }
+
+    private Path writeSample() throws IOException {
+        Path file = directory.resolve("sample.edca");
+        try (EchoArchiveSegmentWriter writer = new EchoArchiveSegmentWriter(file, START, END)) {
+            writer.append(7, "EDC-JKT-001", START.plusSeconds(1));
+            writer.append(8, "EDC-JKT-001", START.plusSeconds(2));
+            writer.append(3, "ATM-BDG-002", START.plusSeconds(3));
+            writer.finish();
+        }
+        return file;
+    }
+
+    private void assertRejected(byte[] original, String description, Consumer<ByteBuffer> change)
+            throws IOException {
+        byte[] bytes = original.clone();
+        change.accept(ByteBuffer.wrap(bytes));
+        Path file = directory.resolve("corrupt-" + description.replace(' ', '-') + ".edca");
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> EchoArchiveSegment.open(file), description);
+    }
+
+    private static void append(EchoArchiveSegmentWriter writer, String terminalId, long[] timestamps, long[] ids)
+            throws IOException {
+        for (int i = 0; i < timestamps.length; i++) {
+            writer.append(ids[i], terminalId, EchoArchiveSegment.fromMicros(timestamps[i]));
+        }
+    }
+
+    private static void assertDecodes(EchoArchiveSegment segment, EchoArchiveSegment.Block block,
+            long[] timestamps, long[] ids) {
+        assertEquals(timestamps.length, block.getRowCount());
+        long[] decodedTimestamps = new long[block.getRowCount()];
+        long[] decodedIds = new long[block.getRowCount()];
+        segment.decodeBlock(block, decodedTimestamps, decodedIds);
+        assertArrayEquals(timestamps, decodedTimestamps);
+        assertArrayEquals(ids, decodedIds);
+    }
+}
@@ -0,0 +1,174 @@
+package com.rizki.edcmanagement.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.dto.echo.response.EchoResponseDTO;
+
+class EchoArchiveTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 5);
+    private static final LocalDate SECOND_DAY = FIRST_DAY.plusDays(1);
+
+    @TempDir
+    Path directory;
+
+    private EchoArchive archive;
+    private List<Row> rows;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        rows = new ArrayList<>();
+        archive = EchoArchive.empty()
+                .withSegment(SECOND_DAY, writeDay(SECOND_DAY, 1000))
+                .withSegment(FIRST_DAY, writeDay(FIRST_DAY, 0));
+    }
+
+    @Test
+    void mergesBlocksAndSegmentsByTimestampThenId() {
+        List<String> expected = rows.stream()
+                .sorted(Comparator.comparingLong((Row row) -> row.micros).thenComparingLong(row -> row.id))
+                .map(Row::toString)
+                .collect(Collectors.toList());
+
+        assertEquals(expected, collect(archive.iterator(all(), true)));
+
+        Collections.reverse(expected);
+        assertEquals(expected, collect(archive.iterator(all(), false)));
+    }
+
+    @Test
+    void pagesAcrossSegmentBoundaries() {
+        List<String> ascending = collect(archive.iterator(all(), true));
+        List<String> descending = collect(archive.iterator(all(), false));
+
+        for (int offset = 0; offset <= ascending.size(); offset++) {
+            assertEquals(ascending.subList(offset, Math.min(offset + 7, ascending.size())),
+                    toStrings(archive.findPage(all(), true, offset, 7)), "offset " + offset);
+            assertEquals(descending.subList(offset, Math.min(offset + 7, descending.size())),
+                    toStrings(archive.findPage(all(), false, offset, 7)), "offset " + offset);
+        }
+    }
+
+    @Test
+    void appliesTerminalAndDayFilters() {
+        EchoArchiveFilter filter = EchoArchiveFilter.from(GetEchoLogRequestDTO.builder()
+                .terminalId("jkt").terminalIdMatch("contains")
+                .timestampFrom(SECOND_DAY.toString()).timestampTo(SECOND_DAY.toString())
+                .build());
+
+        List<String> expected = rows.stream()
+                .filter(row -> row.terminalId.contains("JKT") && row.day.equals(SECOND_DAY))
+                .sorted(Comparator.comparingLong((Row row) -> row.micros).thenComparingLong(row -> row.id))
+                .map(Row::toString)
+                .collect(Collectors.toList());
+
+        assertEquals(expected, collect(archive.iterator(filter, true)));
+        assertEquals(expected.size(), archive.count(filter));
+    }
+
+    @Test
+    void skipsRowsOfPurgedTerminals() {
+        // Purged after the first day; the terminal created again under the ID echoed on the second
+        EchoArchive purged = archive.withPurges(
+                new EchoArchivePurges(Collections.singletonMap("EDC-JKT-001", 999L), 1));
+
+        List<String> expected = rows.stream()
+                .filter(row -> !row.terminalId.equals("EDC-JKT-001") || row.id > 999)
+                .sorted(Comparator.comparingLong((Row row) -> row.micros).thenComparingLong(row -> row.id))
+                .map(Row::toString)
+                .collect(Collectors.toList());
+        assertEquals(rows.size() - 4, expected.size());
+
+        assertEquals(expected, collect(purged.iterator(all(), true)));
+        assertEquals(expected.size(), purged.count(all()));
+        for (int offset = 0; offset <= expected.size(); offset++) {
+            assertEquals(expected.subList(offset, Math.min(offset + 5, expected.size())),
+                    toStrings(purged.findPage(all(), true, offset, 5)), "offset " + offset);
+        }
+
+        List<String> visited = new ArrayList<>();
+        purged.forEachRow(terminalId -> terminalId.equals("EDC-JKT-001"),
+                (terminalId, id, micros) -> visited.add(terminalId + "#" + id + "@" + micros));
+        assertEquals(expected.stream().filter(row -> row.startsWith("EDC-JKT-001")).collect(Collectors.toList()),
+                visited);
+    }
+
+    /**
+     * Three terminals whose rows interleave in time, with timestamps shared within and
+     * across terminals.
+     */
+    private EchoArchiveSegment writeDay(LocalDate day, long firstId) throws IOException {
+        Instant start = day.atStartOfDay().toInstant(ZoneOffset.UTC);
+        String[] terminalIds = { "EDC-JKT-001", "ATM-JKT-002", "POS-BDG-003" };
+        long[][] secondsOffsets = { { 0, 5, 5, 9 }, { 5, 6, 60 }, { 0, 5, 86_399 } };
+
+        Path file = directory.resolve("segment-" + day + ".edca");
+        try (EchoArchiveSegmentWriter writer = new EchoArchiveSegmentWriter(file, start, start.plusSeconds(86_400))) {
+            long id = firstId;
+            for (int t = 0; t < terminalIds.length; t++) {
+                for (long seconds : secondsOffsets[t]) {
+                    // Ids are not in timestamp order across terminals, so ties are decided by id
+                    long rowId = id + (t == 0 ? 100 : 0);
+                    writer.append(rowId, terminalIds[t], start.plusSeconds(seconds));
+                    rows.add(new Row(terminalIds[t], rowId, EchoArchiveSegment.toMicros(start.plusSeconds(seconds)),
+                            day));
+                    id++;
+                }
+            }
+            writer.finish();
+        }
+        return EchoArchiveSegment.open(file);
+    }
+
+    private static EchoArchiveFilter all() {
+        return EchoArchiveFilter.from(new GetEchoLogRequestDTO());
+    }
+
+    private static List<String> collect(Iterator<EchoResponseDTO> iterator) {
+        List<EchoResponseDTO> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return toStrings(result);
+    }
+
+    private static List<String> toStrings(List<EchoResponseDTO> echoes) {
+        return echoes.stream()
+                .map(echo -> echo.getTerminalId() + "#" + echo.getId() + "@"
+                        + EchoArchiveSegment.toMicros(echo.getTimestamp().toInstant(ZoneOffset.UTC)))
+                .collect(Collectors.toList());
+    }
+
+    private static class Row {
+        private final String terminalId;
+        private final long id;
+        private final long micros;
+        private final LocalDate day;
+
+        Row(String terminalId, long id, long micros, LocalDate day) {
+            this.terminalId = terminalId;
+            this.id = id;
+            this.micros = micros;
+            this.day = day;
+        }
+
+        @Override
+        public String toString() {
+            return terminalId + "#" + id + "@" + micros;
+        }
+    }
+}
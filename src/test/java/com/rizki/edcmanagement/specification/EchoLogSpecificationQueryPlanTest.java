@@ -0,0 +1,262 @@
+package com.rizki.edcmanagement.specification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.criteria.LiteralHandlingMode;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.rizki.edcmanagement.dto.echo.request.GetEchoLogRequestDTO;
+import com.rizki.edcmanagement.model.EchoLog;
+import com.rizki.edcmanagement.model.TerminalEDC;
+import com.rizki.edcmanagement.repository.EchoLogRepositoryImpl;
+import com.rizki.edcmanagement.support.LocalPostgres;
+
+/**
+ * Verifies that the SQL Hibernate generates from {@link EchoLogSpecification} for each
+ * terminal ID match mode and terminal attribute filter, and the latest echoes LATERAL query,
+ * are served by the indexes in db/echo-log-indexes.sql. The tables are created by Hibernate
+ * from the entities, and the specification queries run through EchoLogRepositoryImpl, whose
+ * statements are captured and explained. Literals are inlined so the captured SQL can be
+ * explained as is.
+ * Sequential scans are disabled so the assertions check index applicability rather
+ * than the planner's cost choice on a small data set.
+ */
+class EchoLogSpecificationQueryPlanTest {
+    private static Connection connection;
+    private static String schema;
+    private static SessionFactory sessionFactory;
+    private static final CapturingInspector inspector = new CapturingInspector();
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        connection = LocalPostgres.connectOrSkip();
+        schema = LocalPostgres.createScratchSchema(connection, "echo_plan_test");
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, LocalPostgres.url())
+                .applySetting(AvailableSettings.USER, LocalPostgres.username())
+                .applySetting(AvailableSettings.PASS, LocalPostgres.password())
+                .applySetting(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting(AvailableSettings.DEFAULT_SCHEMA, schema)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY,
+                        CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .applySetting(AvailableSettings.CRITERIA_LITERAL_HANDLING_MODE, LiteralHandlingMode.INLINE)
+                .applySetting(AvailableSettings.STATEMENT_INSPECTOR, inspector)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(TerminalEDC.class)
+                .addAnnotatedClass(EchoLog.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        try (Statement statement = connection.createStatement()) {
+            // Reading newest first through the time index and filtering wins on this small,
+            // uniform data set; the assertions are about whether the filter indexes apply
+            statement.execute("DROP INDEX idx_echo_timestamp");
+            // Indexes of earlier versions, which the script replaces
+            statement.execute("CREATE INDEX idx_echo_terminal_id ON echo_log (terminal_id)");
+            statement.execute("CREATE INDEX idx_echo_terminal_id_timestamp "
+                    + "ON echo_log (terminal_id varchar_pattern_ops, timestamp)");
+        }
+
+        LocalPostgres.runScript(connection, "db/echo-log-indexes.sql");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO terminal_edc (terminal_id, location) "
+                    + "SELECT t || '-' || l || '-' || lpad(s::text, 3, '0'), l "
+                    + "FROM unnest(ARRAY['EDC', 'ATM', 'POS', 'KIOSK']) t, "
+                    + "unnest(ARRAY['JKT', 'BDG', 'SBY', 'DPS', 'MKS']) l, generate_series(1, 999) s");
+            statement.execute("INSERT INTO echo_log (terminal_id, timestamp, terminal_location, terminal_status) "
+                    + "SELECT terminal_id, now() - (n || ' minutes')::interval, location, "
+                    + "CASE WHEN n = 1 THEN 'MAINTENANCE' ELSE 'ACTIVE' END "
+                    + "FROM terminal_edc, generate_series(1, 5) n");
+            statement.execute("ANALYZE terminal_edc");
+            // Fresh visibility map, so index-only scans need no heap fetches
+            statement.execute("VACUUM ANALYZE echo_log");
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        if (connection != null) {
+            LocalPostgres.dropSchema(connection, schema);
+            connection.close();
+        }
+    }
+
+    @Test
+    void exactMatchUsesCompositeIndexWithoutJoin() throws Exception {
+        String sql = generatedSql(GetEchoLogRequestDTO.builder()
+                .terminalId("edc-jkt-001").terminalIdMatch("exact").build());
+        String plan = explain(sql);
+
+        assertFalse(sql.contains("terminal_edc"), sql);
+        assertTrue(plan.contains("idx_echo_terminal_id_timestamp_desc"), plan);
+    }
+
+    @Test
+    void prefixMatchUsesCompositeIndexWithoutJoin() throws Exception {
+        String sql = generatedSql(GetEchoLogRequestDTO.builder()
+                .terminalId("EDC-JKT").terminalIdMatch("prefix").build());
+        String plan = explain(sql);
+
+        assertFalse(sql.contains("terminal_edc"), sql);
+        assertTrue(plan.contains("idx_echo_terminal_id_timestamp_desc"), plan);
+        assertTrue(plan.contains("~>=~ 'EDC-JKT'"), plan);
+    }
+
+    @Test
+    void prefixMatchEscapesWildcards() throws Exception {
+        // Unescaped, the underscore would be a wildcard and cut the index range to 'EDC'
+        String plan = explain(generatedSql(GetEchoLogRequestDTO.builder()
+                .terminalId("EDC_JKT").terminalIdMatch("prefix").build()));
+
+        assertTrue(plan.contains("~>=~ 'EDC_JKT'"), plan);
+    }
+
+    @Test
+    void containsMatchResolvesTerminalsThroughTrigramIndex() throws Exception {
+        String plan = explain(generatedSql(GetEchoLogRequestDTO.builder()
+                .terminalId("jkt-00").terminalIdMatch("contains").build()));
+
+        assertTrue(plan.contains("idx_terminal_id_trgm"), plan);
+        assertTrue(plan.contains("idx_echo_terminal_id_timestamp_desc"), plan);
+    }
+
+    @Test
+    void locationFilterUsesAttributeIndexWithoutJoin() throws Exception {
+        String sql = generatedSql(GetEchoLogRequestDTO.builder().location("BDG").build());
+        String plan = explain(sql);
+
+        assertFalse(sql.contains("terminal_edc"), sql);
+        assertTrue(plan.contains("idx_echo_location_timestamp_desc"), plan);
+        assertFalse(plan.contains("Sort Key"), plan);
+    }
+
+    @Test
+    void statusAndTypeFiltersUseAttributeIndexWithoutJoin() throws Exception {
+        String sql = generatedSql(GetEchoLogRequestDTO.builder()
+                .status("maintenance").terminalType("atm").build(), "MAINTENANCE");
+        String plan = explain(sql);
+
+        assertFalse(sql.contains("terminal_edc"), sql);
+        assertTrue(plan.contains("idx_echo_status_timestamp_desc")
+                || plan.contains("idx_echo_terminal_id_timestamp_desc"), plan);
+    }
+
+    @Test
+    void attributeBackfillPicksRowsThroughPartialIndex() throws Exception {
+        String plan = explain("SELECT id FROM echo_log WHERE terminal_status IS NULL ORDER BY id LIMIT 1000");
+
+        assertTrue(plan.contains("idx_echo_missing_terminal_attributes"), plan);
+    }
+
+    @Test
+    void latestEchoesPerTerminalUseIndexOnlyLateralScan() throws Exception {
+        String plan = explain("SELECT e.id, t.terminal_id, e.timestamp "
+                + "FROM terminal_edc t CROSS JOIN LATERAL ("
+                + "SELECT l.id, l.timestamp FROM echo_log l "
+                + "WHERE l.terminal_id = t.terminal_id AND l.timestamp >= '1970-01-01' "
+                + "ORDER BY l.timestamp DESC LIMIT 3) e "
+                + "WHERE t.terminal_id IN ('EDC-JKT-001', 'ATM-BDG-002') "
+                + "ORDER BY t.terminal_id, e.timestamp DESC");
+
+        assertTrue(plan.contains("Index Only Scan using idx_echo_terminal_id_timestamp_desc"), plan);
+        assertFalse(plan.contains("Sort Key: l.timestamp"), plan);
+    }
+
+    @Test
+    void supersededSingleColumnIndexIsDropped() throws Exception {
+        assertIndexDropped("idx_echo_terminal_id");
+    }
+
+    @Test
+    void supersededAscendingCompositeIndexIsDropped() throws Exception {
+        assertIndexDropped("idx_echo_terminal_id_timestamp");
+    }
+
+    private void assertIndexDropped(String indexName) throws Exception {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM pg_indexes "
+                        + "WHERE schemaname = '" + schema + "' AND indexname = '" + indexName + "'")) {
+            resultSet.next();
+            assertEquals(0L, resultSet.getLong(1), indexName + " should be dropped");
+        }
+    }
+
+    /**
+     * SQL of the first page the echo log endpoint reads for these filters, with the
+     * default sort of newest first. Enum values stay bound parameters; pass them in order.
+     */
+    private String generatedSql(GetEchoLogRequestDTO filters, String... boundValues) {
+        EchoLogRepositoryImpl repository = new EchoLogRepositoryImpl();
+        try (Session session = sessionFactory.openSession()) {
+            ReflectionTestUtils.setField(repository, "entityManager", session);
+            inspector.clear();
+            repository.findRangeAsResponse(EchoLogSpecification.buildSpecification(filters),
+                    Sort.by(Sort.Direction.DESC, "timestamp"), 0, 10);
+        }
+        String sql = inspector.getSql();
+        assertTrue(sql.endsWith("limit ?"), sql);
+        sql = sql.substring(0, sql.length() - 1) + "10";
+
+        assertEquals(boundValues.length, sql.chars().filter(c -> c == '?').count(), sql);
+        for (String value : boundValues) {
+            sql = sql.replaceFirst("\\?", "'" + value + "'");
+        }
+        return sql;
+    }
+
+    private String explain(String sql) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static class CapturingInspector implements StatementInspector {
+        private volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            this.sql = sql;
+            return sql;
+        }
+
+        void clear() {
+            sql = null;
+        }
+
+        String getSql() {
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.rizki.edcmanagement.support;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Connection helper for tests that need a real PostgreSQL instance.
+ * Defaults match application.properties and can be overridden with the
+ * EDC_TEST_DB_URL, EDC_TEST_DB_USERNAME and EDC_TEST_DB_PASSWORD environment variables.
+ * Tests using it are skipped when no database is reachable.
+ */
+public class LocalPostgres {
+    public static String url() {
+        return env("EDC_TEST_DB_URL", "jdbc:postgresql://localhost:5432/edc_db");
+    }
+
+    public static String username() {
+        return env("EDC_TEST_DB_USERNAME", "postgres");
+    }
+
+    public static String password() {
+        return env("EDC_TEST_DB_PASSWORD", "postgres");
+    }
+
+    public static Connection connectOrSkip() {
+        try {
+            return DriverManager.getConnection(url(), username(), password());
+        } catch (SQLException e) {
+            assumeTrue(false, "PostgreSQL is not reachable at " + url() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Create an isolated schema and put it first on the search path, keeping public
+     * reachable for extensions that are already installed there.
+     */
+    public static String createScratchSchema(Connection connection, String prefix) throws SQLException {
+        String schema = prefix + "_" + Long.toHexString(System.nanoTime());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema + ", public");
+        }
+        return schema;
+    }
+
+    public static void dropSchema(Connection connection, String schema) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    /**
+     * Execute a classpath SQL script the same way spring.sql.init does: statements
+     * separated by semicolons, comment lines ignored.
+     */
+    public static void runScript(Connection connection, String resource) throws SQLException, IOException {
+        for (String sql : readStatements(resource)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static List<String> readStatements(String resource) throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        try (InputStream in = LocalPostgres.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Script not found on classpath: " + resource);
+            }
+            Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name());
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if (line.trim().startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (line.trim().endsWith(";")) {
+                    statements.add(current.toString().trim());
+                    current.setLength(0);
+                }
+            }
+        }
+
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
@@ -0,0 +1,116 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectivityTimelineTest {
+    private static final long GAP_MILLIS = 50;
+    private static final int HORIZON_MILLIS = 5_000;
+
+    @Test
+    void inOrderEchoesMatchBruteForce() {
+        Random random = new Random(1);
+        for (int round = 0; round < 50; round++) {
+            List<Long> echoes = randomEchoes(random);
+            Collections.sort(echoes);
+
+            ConnectivityTimeline timeline = new ConnectivityTimeline(GAP_MILLIS);
+            for (long echo : echoes) {
+                timeline.addEcho(echo);
+            }
+
+            assertMatchesBruteForce(timeline, echoes, random);
+        }
+    }
+
+    @Test
+    void outOfOrderAndDuplicateEchoesMatchBruteForce() {
+        Random random = new Random(2);
+        for (int round = 0; round < 50; round++) {
+            List<Long> echoes = randomEchoes(random);
+            echoes.addAll(echoes.subList(0, echoes.size() / 3));
+            Collections.shuffle(echoes, random);
+
+            ConnectivityTimeline timeline = new ConnectivityTimeline(GAP_MILLIS);
+            for (long echo : echoes) {
+                timeline.addEcho(echo);
+            }
+
+            assertMatchesBruteForce(timeline, echoes, random);
+        }
+    }
+
+    @Test
+    void mergedHistoryAndLiveEchoesMatchBruteForce() {
+        Random random = new Random(3);
+        for (int round = 0; round < 50; round++) {
+            List<Long> echoes = randomEchoes(random);
+            Collections.sort(echoes);
+            int split = random.nextInt(echoes.size() + 1);
+
+            // Live echoes recorded while the history was loading, overlapping its tail
+            ConnectivityTimeline live = new ConnectivityTimeline(GAP_MILLIS);
+            for (long echo : echoes.subList(Math.max(0, split - 5), echoes.size())) {
+                live.addEcho(echo);
+            }
+            ConnectivityTimeline history = new ConnectivityTimeline(GAP_MILLIS);
+            for (long echo : echoes.subList(0, split)) {
+                history.addEcho(echo);
+            }
+            live.mergeFrom(history);
+
+            assertTrue(live.isLoaded());
+            assertMatchesBruteForce(live, echoes, random);
+        }
+    }
+
+    @Test
+    void regularEchoesCollapseIntoOneInterval() {
+        ConnectivityTimeline timeline = new ConnectivityTimeline(GAP_MILLIS);
+        for (long echo = 0; echo < HORIZON_MILLIS; echo += GAP_MILLIS) {
+            timeline.addEcho(echo);
+        }
+
+        assertEquals(1, timeline.intervalCount());
+        assertEquals(HORIZON_MILLIS, timeline.uptimeMillis(0, HORIZON_MILLIS));
+    }
+
+    private static List<Long> randomEchoes(Random random) {
+        List<Long> echoes = new ArrayList<>();
+        int count = random.nextInt(200);
+        for (int i = 0; i < count; i++) {
+            echoes.add((long) random.nextInt(HORIZON_MILLIS));
+        }
+        return echoes;
+    }
+
+    private static void assertMatchesBruteForce(ConnectivityTimeline timeline, List<Long> echoes, Random random) {
+        boolean[] connected = new boolean[HORIZON_MILLIS + (int) GAP_MILLIS + 100];
+        for (long echo : echoes) {
+            for (long millis = echo; millis < echo + GAP_MILLIS; millis++) {
+                connected[(int) millis] = true;
+            }
+        }
+
+        for (int window = 0; window < 200; window++) {
+            int from = random.nextInt(connected.length) - 50;
+            int to = from + random.nextInt(connected.length - Math.max(0, from) + 50);
+
+            long expected = 0;
+            for (int millis = Math.max(0, from); millis < Math.min(to, connected.length); millis++) {
+                if (connected[millis]) {
+                    expected++;
+                }
+            }
+
+            assertEquals(expected, timeline.uptimeMillis(from, to), "window [" + from + ", " + to + ")");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+    @Test
+    void readsQuotedFieldsAndLineEndings() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader(
+                "a,b,c\r\n\"x, y\",\"say \"\"hi\"\"\",\"two\nlines\"\n,,\nlast"), 100);
+
+        assertEquals(Arrays.asList("a", "b", "c"), reader.readRecord());
+        assertEquals(Arrays.asList("x, y", "say \"hi\"", "two\nlines"), reader.readRecord());
+        assertEquals(Arrays.asList("", "", ""), reader.readRecord());
+        assertEquals(Arrays.asList("last"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void trailingNewlineEndsInput() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("a\n\nb\n"), 100);
+
+        assertEquals(Arrays.asList("a"), reader.readRecord());
+        assertEquals(Arrays.asList(""), reader.readRecord());
+        assertEquals(Arrays.asList("b"), reader.readRecord());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void rejectsUnclosedQuoteAndOversizedField() {
+        assertThrows(CsvReader.MalformedCsvException.class,
+                () -> new CsvReader(new StringReader("a,\"open\nrest"), 100).readRecord());
+        assertThrows(CsvReader.MalformedCsvException.class,
+                () -> new CsvReader(new StringReader("abcdef"), 5).readRecord());
+    }
+}
@@ -0,0 +1,179 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class EchoRingBufferTest {
+    private static final int CAPACITY = 8;
+
+    @Test
+    void keepsNewestEntriesOnceFull() {
+        EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+        for (long i = 1; i <= 20; i++) {
+            ring.add(i, i * 10);
+        }
+
+        assertEquals(CAPACITY, ring.size());
+        assertFalse(ring.isComplete());
+        assertNewest(ring, 20, 19, 18, 17, 16, 15, 14, 13);
+    }
+
+    @Test
+    void copyNewestHonoursLimit() {
+        EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+        for (long i = 1; i <= 3; i++) {
+            ring.add(i, i * 10);
+        }
+
+        long[] ids = new long[CAPACITY];
+        long[] timestamps = new long[CAPACITY];
+        assertEquals(2, ring.copyNewest(2, ids, timestamps));
+        assertEquals(3, ids[0]);
+        assertEquals(2, ids[1]);
+        assertEquals(3, ring.copyNewest(CAPACITY, ids, timestamps));
+        assertEquals(30, timestamps[0]);
+        assertEquals(10, timestamps[2]);
+    }
+
+    @Test
+    void outOfOrderAddsAreSorted() {
+        EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+        ring.add(5, 50);
+        ring.add(3, 30);
+        ring.add(4, 50);
+        ring.add(6, 40);
+
+        // (timestamp, id) order: ties on timestamp are broken by id
+        assertNewest(ring, 5, 4, 6, 3);
+    }
+
+    @Test
+    void outOfOrderAddOlderThanFullRingIsDropped() {
+        EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+        for (long i = 11; i <= 18; i++) {
+            ring.add(i, i * 10);
+        }
+        ring.add(1, 10);
+
+        assertNewest(ring, 18, 17, 16, 15, 14, 13, 12, 11);
+    }
+
+    @Test
+    void seedMarksCompleteAndDoesNotDuplicate() {
+        EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+        // Live echoes recorded while the seed rows were loading, overlapping them
+        ring.add(6, 60);
+        ring.add(7, 70);
+
+        ring.seed(new long[] { 6, 5, 4 }, new long[] { 60, 50, 40 }, 3);
+
+        assertTrue(ring.isComplete());
+        assertEquals(4, ring.size());
+        assertNewest(ring, 7, 6, 5, 4);
+    }
+
+    @Test
+    void seedIgnoresEntriesBeyondCount() {
+        EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+        ring.seed(new long[] { 2, 1, 99 }, new long[] { 20, 10, 990 }, 2);
+
+        assertNewest(ring, 2, 1);
+    }
+
+    @Test
+    void staysCompleteAfterWrapping() {
+        EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+        ring.seed(new long[] { 1 }, new long[] { 10 }, 1);
+        for (long i = 2; i <= 30; i++) {
+            ring.add(i, i * 10);
+        }
+
+        assertTrue(ring.isComplete());
+        assertNewest(ring, 30, 29, 28, 27, 26, 25, 24, 23);
+    }
+
+    @Test
+    void randomAddsAndSeedsMatchBruteForce() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            EchoRingBuffer ring = new EchoRingBuffer(CAPACITY);
+            Set<long[]> expected = new LinkedHashSet<>();
+            Set<Long> seen = new LinkedHashSet<>();
+            long nextId = 1;
+
+            for (int step = 0; step < 40; step++) {
+                if (random.nextInt(5) == 0) {
+                    // Seed with some already seen rows and some new ones, in any order
+                    List<long[]> rows = new ArrayList<>();
+                    for (long[] entry : expected) {
+                        if (random.nextBoolean()) {
+                            rows.add(entry);
+                        }
+                    }
+                    for (int i = random.nextInt(4); i > 0; i--) {
+                        rows.add(new long[] { nextId++, random.nextInt(100) });
+                    }
+                    Collections.shuffle(rows, random);
+
+                    long[] ids = new long[rows.size()];
+                    long[] timestamps = new long[rows.size()];
+                    for (int i = 0; i < rows.size(); i++) {
+                        ids[i] = rows.get(i)[0];
+                        timestamps[i] = rows.get(i)[1];
+                        if (seen.add(ids[i])) {
+                            expected.add(rows.get(i));
+                        }
+                    }
+                    ring.seed(ids, timestamps, rows.size());
+                } else {
+                    long[] entry = { nextId++, random.nextInt(100) };
+                    seen.add(entry[0]);
+                    expected.add(entry);
+                    ring.add(entry[0], entry[1]);
+                }
+            }
+
+            List<long[]> sorted = new ArrayList<>(expected);
+            sorted.sort(Comparator.<long[]>comparingLong(entry -> entry[1]).thenComparingLong(entry -> entry[0])
+                    .reversed());
+            int count = Math.min(CAPACITY, sorted.size());
+            long[] expectedIds = new long[count];
+            for (int i = 0; i < count; i++) {
+                expectedIds[i] = sorted.get(i)[0];
+            }
+
+            long[] ids = new long[CAPACITY];
+            long[] timestamps = new long[CAPACITY];
+            assertEquals(count, ring.copyNewest(CAPACITY, ids, timestamps));
+            assertArrayEquals(expectedIds, Arrays.copyOf(ids, count), "round " + round);
+        }
+    }
+
+    private static void assertNewest(EchoRingBuffer ring, long... expectedIds) {
+        long[] ids = new long[ring.capacity()];
+        long[] timestamps = new long[ring.capacity()];
+        int count = ring.copyNewest(ring.capacity(), ids, timestamps);
+
+        assertEquals(expectedIds.length, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(expectedIds[i], ids[i], "entry " + i);
+            if (i > 0) {
+                assertTrue(timestamps[i - 1] > timestamps[i]
+                        || (timestamps[i - 1] == timestamps[i] && ids[i - 1] > ids[i]), "order at " + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.junit.jupiter.api.Test;
+
+class EntityTagsTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 9, 21, 5, 20, 0, 123_000_000);
+    private static final String CREATED_MILLIS = "1758432000123";
+
+    @Test
+    void formatsAndParsesTagLists() {
+        assertEquals("\"" + CREATED_MILLIS + "-7\"", EntityTags.of(CREATED, 7));
+        assertEquals(new LinkedHashSet<>(Arrays.asList(EntityTags.tag(CREATED, 7), EntityTags.tag(CREATED, 12))),
+                EntityTags.parseIfMatch("\"" + CREATED_MILLIS + "-7\" ,\"" + CREATED_MILLIS + "-12\""));
+    }
+
+    @Test
+    void recreatedResourceGetsNewTags() {
+        // Same ID and version 0 again, created later
+        assertNotEquals(EntityTags.of(CREATED, 0), EntityTags.of(CREATED.plusSeconds(5), 0));
+        assertFalse(EntityTags.matches(EntityTags.of(CREATED, 0), CREATED.plusNanos(1_000_000), 0));
+    }
+
+    @Test
+    void tagSurvivesMicrosecondRoundingOfTheStoredTime() {
+        // PostgreSQL rounds to microseconds; the tag of the unsaved value must stay the same
+        LocalDateTime unsaved = LocalDateTime.of(2025, 9, 21, 5, 20, 0, 123_999_600);
+        LocalDateTime stored = LocalDateTime.of(2025, 9, 21, 5, 20, 0, 124_000_000);
+        assertEquals(EntityTags.of(stored, 1), EntityTags.of(unsaved, 1));
+        assertEquals(stored, EntityTags.tag(unsaved, 1).getCreatedAt());
+    }
+
+    @Test
+    void ifMatchSkipsWeakTags() {
+        assertEquals(new LinkedHashSet<>(Arrays.asList(EntityTags.tag(CREATED, 9))),
+                EntityTags.parseIfMatch("W/\"" + CREATED_MILLIS + "-7\", \"" + CREATED_MILLIS + "-9\""));
+        assertTrue(EntityTags.parseIfMatch("W/\"" + CREATED_MILLIS + "-7\"").isEmpty());
+    }
+
+    @Test
+    void wildcardAndAbsentHeaderMatchAnyTag() {
+        assertNull(EntityTags.parseIfMatch(null));
+        assertNull(EntityTags.parseIfMatch(" "));
+        assertNull(EntityTags.parseIfMatch("*"));
+    }
+
+    @Test
+    void ifNoneMatchNeedsTheCurrentTagOrWildcard() {
+        assertTrue(EntityTags.matches("\"" + CREATED_MILLIS + "-3\", \"" + CREATED_MILLIS + "-4\"", CREATED, 4));
+        assertTrue(EntityTags.matches("W/\"" + CREATED_MILLIS + "-4\"", CREATED, 4));
+        assertTrue(EntityTags.matches("*", CREATED, 4));
+        assertFalse(EntityTags.matches("\"" + CREATED_MILLIS + "-3\"", CREATED, 4));
+        assertFalse(EntityTags.matches(null, CREATED, 4));
+    }
+
+    @Test
+    void foreignTagsMatchNothing() {
+        // Bare versions are the tags issued before the creation time was added
+        assertTrue(EntityTags.parseIfMatch("\"abc\", 7, \"\", \"7\", \"1-x\"").isEmpty());
+    }
+}
@@ -0,0 +1,166 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class HashedTimingWheelTest {
+    private static final long TICK_MILLIS = 10;
+    private static final long TIMEOUT_MILLIS = 100;
+
+    // Eight ticks span less than the timeout, so deadlines wrap around the wheel
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8, TICK_MILLIS, TIMEOUT_MILLIS, 0);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void rejectsWheelSizeThatIsNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel<String>(6, 10, 100, 0));
+    }
+
+    @Test
+    void untouchedKeyExpiresOnceAfterTimeout() {
+        wheel.touch("a", 0);
+
+        advance(99);
+        assertTrue(expired.isEmpty());
+
+        advance(109);
+        assertEquals(list("a@0"), expired);
+
+        advance(1_000);
+        assertEquals(list("a@0"), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void touchMovesDeadline() {
+        wheel.touch("a", 0);
+        for (long now = 10; now <= 300; now += 10) {
+            wheel.touch("a", now);
+            advance(now);
+        }
+        assertTrue(expired.isEmpty());
+
+        advance(399);
+        assertTrue(expired.isEmpty());
+        advance(409);
+        assertEquals(list("a@300"), expired);
+    }
+
+    @Test
+    void staleTouchDoesNotMoveDeadlineBack() {
+        wheel.touch("a", 50);
+        wheel.touch("a", 0);
+
+        advance(149);
+        assertTrue(expired.isEmpty());
+        advance(159);
+        assertEquals(list("a@50"), expired);
+    }
+
+    @Test
+    void expiredKeyIsArmedAgainByTouch() {
+        wheel.touch("a", 0);
+        advance(200);
+        assertEquals(list("a@0"), expired);
+
+        wheel.touch("a", 200);
+        advance(299);
+        assertEquals(list("a@0"), expired);
+        advance(309);
+        assertEquals(list("a@0", "a@200"), expired);
+    }
+
+    @Test
+    void removedKeyNeverExpires() {
+        wheel.touch("linked", 0);
+        advance(50);
+        wheel.remove("linked");
+        // Removed while still waiting to be linked
+        wheel.touch("pending", 50);
+        wheel.remove("pending");
+
+        advance(1_000);
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void removedExpiredKeyStartsOverWhenTouched() {
+        wheel.touch("a", 0);
+        advance(200);
+        wheel.remove("a");
+        wheel.touch("a", 500);
+
+        advance(609);
+        assertEquals(list("a@0", "a@500"), expired);
+    }
+
+    @Test
+    void touchWhileExpiryIsClaimedIsNotReported() {
+        wheel.touch("a", 0);
+        advance(99);
+
+        // The ingest thread re-arms the node right after the ticker claimed its expiry
+        wheel.onExpiryClaimed = () -> wheel.touch("a", 105);
+        advance(109);
+        wheel.onExpiryClaimed = () -> {
+        };
+        assertTrue(expired.isEmpty());
+
+        advance(209);
+        assertTrue(expired.isEmpty());
+        advance(219);
+        assertEquals(list("a@105"), expired);
+    }
+
+    @Test
+    void removeWhileExpiryIsClaimedIsNotReported() {
+        wheel.touch("a", 0);
+
+        wheel.onExpiryClaimed = () -> wheel.remove("a");
+        advance(109);
+        wheel.onExpiryClaimed = () -> {
+        };
+
+        advance(1_000);
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void manyKeysExpireAtTheirOwnDeadlines() {
+        for (int i = 0; i < 100; i++) {
+            wheel.touch("k" + i, i * 7L);
+        }
+
+        for (long now = 0; now <= 2_000; now += 10) {
+            advance(now);
+            for (int i = 0; i < 100; i++) {
+                long deadline = i * 7L + TIMEOUT_MILLIS;
+                // Reported in the tick that reaches the deadline, never before it
+                boolean reported = expired.contains("k" + i + "@" + i * 7L);
+                assertEquals(now >= (deadline + TICK_MILLIS - 1) / TICK_MILLIS * TICK_MILLIS, reported,
+                        "k" + i + " at " + now);
+            }
+        }
+        assertEquals(100, expired.size());
+    }
+
+    private void advance(long nowMillis) {
+        wheel.advance(nowMillis, (key, lastSeen) -> expired.add(key + "@" + lastSeen));
+    }
+
+    private static List<String> list(String... values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+}
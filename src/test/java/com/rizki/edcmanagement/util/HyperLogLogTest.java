@@ -0,0 +1,107 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+    private static final int PRECISION = 12;
+
+    @Test
+    void rejectsPrecisionOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(6));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(19));
+    }
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog(PRECISION).estimate());
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        // Linear counting range: collisions between registers are rare
+        for (int n : new int[] { 1, 10, 100 }) {
+            HyperLogLog sketch = new HyperLogLog(PRECISION);
+            for (int i = 0; i < n; i++) {
+                sketch.add(terminalId(i));
+            }
+            assertTrue(Math.abs(sketch.estimate() - n) <= Math.max(1, n / 50), n + " -> " + sketch.estimate());
+        }
+    }
+
+    @Test
+    void estimatesStayWithinThreeStandardErrors() {
+        HyperLogLog probe = new HyperLogLog(PRECISION);
+        double bound = 3 * probe.relativeStandardError();
+        Random random = new Random(7);
+
+        for (int n : new int[] { 1_000, 10_000, 100_000, 1_000_000 }) {
+            for (int trial = 0; trial < 3; trial++) {
+                HyperLogLog sketch = new HyperLogLog(PRECISION);
+                long base = random.nextLong();
+                for (int i = 0; i < n; i++) {
+                    sketch.add(Long.toString(base + i));
+                }
+                double error = Math.abs(sketch.estimate() - n) / (double) n;
+                assertTrue(error <= bound, n + " distinct, relative error " + error);
+            }
+        }
+    }
+
+    @Test
+    void duplicatesDoNotChangeTheEstimate() {
+        HyperLogLog once = new HyperLogLog(PRECISION);
+        HyperLogLog repeated = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 5_000; i++) {
+            once.add(terminalId(i));
+            for (int copy = 0; copy < 3; copy++) {
+                repeated.add(terminalId(i));
+            }
+        }
+        assertArrayEquals(once.toBytes(), repeated.toBytes());
+    }
+
+    @Test
+    void mergeEqualsSketchOfTheUnion() {
+        HyperLogLog left = new HyperLogLog(PRECISION);
+        HyperLogLog right = new HyperLogLog(PRECISION);
+        HyperLogLog union = new HyperLogLog(PRECISION);
+        // Overlapping halves, as two instances may both see the same terminal
+        for (int i = 0; i < 30_000; i++) {
+            if (i < 20_000) {
+                left.add(terminalId(i));
+            }
+            if (i >= 10_000) {
+                right.add(terminalId(i));
+            }
+            union.add(terminalId(i));
+        }
+
+        left.merge(right);
+        assertArrayEquals(union.toBytes(), left.toBytes());
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new HyperLogLog(PRECISION + 1)));
+    }
+
+    @Test
+    void bytesRoundTripKeepsPrecisionAndRegisters() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 2_000; i++) {
+            sketch.add(terminalId(i));
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertEquals(sketch.relativeStandardError(), restored.relativeStandardError());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[1000]));
+    }
+
+    private static String terminalId(int i) {
+        return String.format("EDC-%03d-%03d", i / 1000, i % 1000);
+    }
+}
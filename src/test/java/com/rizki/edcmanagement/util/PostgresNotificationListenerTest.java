@@ -0,0 +1,150 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rizki.edcmanagement.support.LocalPostgres;
+
+/**
+ * Runs {@link PostgresNotificationListener} against the local PostgreSQL instance, on a
+ * channel private to each test.
+ */
+class PostgresNotificationListenerTest {
+    private static final long BATCH_WINDOW_MILLIS = 200;
+
+    private final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+    private final AtomicInteger resyncs = new AtomicInteger();
+
+    private Connection sender;
+    private String channel;
+    private String applicationName;
+    private PostgresNotificationListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sender = LocalPostgres.connectOrSkip();
+        channel = "listener_test_" + Long.toHexString(System.nanoTime());
+        applicationName = channel;
+
+        Properties properties = new Properties();
+        properties.setProperty("user", LocalPostgres.username());
+        properties.setProperty("password", LocalPostgres.password());
+        properties.setProperty("ApplicationName", applicationName);
+
+        listener = new PostgresNotificationListener(
+                () -> DriverManager.getConnection(LocalPostgres.url(), properties), channel,
+                BATCH_WINDOW_MILLIS, 100, 1_000, 1_000, new PostgresNotificationListener.Handler() {
+                    @Override
+                    public void onNotifications(List<String> payloads) {
+                        batches.add(payloads);
+                    }
+
+                    @Override
+                    public void onResync() {
+                        resyncs.incrementAndGet();
+                    }
+                });
+        listener.start("listener-test");
+        awaitListening();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (listener != null) {
+            listener.stop();
+        }
+        if (sender != null) {
+            sender.close();
+        }
+    }
+
+    @Test
+    void resyncsOnceListeningAndDeliversBurstAsOneBatch() throws Exception {
+        assertEquals(1, resyncs.get());
+
+        for (int i = 0; i < 20; i++) {
+            notify("T" + i);
+        }
+
+        List<String> batch = batches.poll(5, TimeUnit.SECONDS);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add("T" + i);
+        }
+        assertEquals(expected, batch);
+        assertNull(batches.poll(BATCH_WINDOW_MILLIS * 2, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void deliversOnCommitOnly() throws Exception {
+        sender.setAutoCommit(false);
+        try {
+            notify("rolled-back");
+            sender.rollback();
+            notify("committed");
+            assertNull(batches.poll(BATCH_WINDOW_MILLIS * 2, TimeUnit.MILLISECONDS));
+            sender.commit();
+        } finally {
+            sender.setAutoCommit(true);
+        }
+
+        List<String> batch = batches.poll(5, TimeUnit.SECONDS);
+        List<String> expected = new ArrayList<>();
+        expected.add("committed");
+        assertEquals(expected, batch);
+    }
+
+    @Test
+    void reconnectsAndResyncsAfterConnectionLoss() throws Exception {
+        try (PreparedStatement statement = sender.prepareStatement(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?")) {
+            statement.setString(1, applicationName);
+            statement.executeQuery().close();
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (resyncs.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, resyncs.get());
+        awaitListening();
+
+        notify("after-reconnect");
+        List<String> batch = batches.poll(5, TimeUnit.SECONDS);
+        List<String> expected = new ArrayList<>();
+        expected.add("after-reconnect");
+        assertEquals(expected, batch);
+    }
+
+    private void notify(String payload) throws Exception {
+        try (PreparedStatement statement = sender.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.executeQuery().close();
+        }
+    }
+
+    private void awaitListening() throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!listener.isListening() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(listener.isListening());
+    }
+}
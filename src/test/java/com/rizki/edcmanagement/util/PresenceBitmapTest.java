@@ -0,0 +1,123 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PresenceBitmapTest {
+    private static final int DAY = PresenceBitmap.MINUTES_PER_DAY;
+
+    @Test
+    void setAndGetAtWordEdges() {
+        PresenceBitmap bitmap = new PresenceBitmap();
+        int[] minutes = { 0, 63, 64, 127, 128, 1407, 1408, DAY - 1 };
+        for (int minute : minutes) {
+            bitmap.set(minute);
+        }
+
+        for (int minute = 0; minute < DAY; minute++) {
+            boolean expected = false;
+            for (int set : minutes) {
+                expected |= set == minute;
+            }
+            assertEquals(expected, bitmap.get(minute), "minute " + minute);
+        }
+        assertEquals(minutes.length, bitmap.cardinality());
+    }
+
+    @Test
+    void emptyAndFullDay() {
+        PresenceBitmap empty = new PresenceBitmap();
+        assertEquals(0, empty.cardinality());
+        assertEquals(-1, empty.nextSetBit(0));
+        assertEquals(0, empty.nextClearBit(0));
+        assertFalse(empty.anyInRange(0, DAY));
+
+        PresenceBitmap full = new PresenceBitmap();
+        for (int minute = 0; minute < DAY; minute++) {
+            full.set(minute);
+        }
+        assertEquals(DAY, full.cardinality());
+        assertEquals(DAY, full.nextClearBit(0));
+        // The unused bits of the last word never count as minutes
+        assertEquals(-1, full.nextSetBit(DAY));
+        assertEquals(DAY - 1, full.nextSetBit(DAY - 1));
+    }
+
+    @Test
+    void scansMatchBitSet() {
+        Random random = new Random(1);
+        for (int round = 0; round < 100; round++) {
+            PresenceBitmap bitmap = new PresenceBitmap();
+            BitSet expected = new BitSet(DAY);
+            // Runs of minutes, the way a terminal is online for a while
+            for (int run = random.nextInt(20); run > 0; run--) {
+                int start = random.nextInt(DAY);
+                int end = Math.min(DAY, start + 1 + random.nextInt(120));
+                for (int minute = start; minute < end; minute++) {
+                    bitmap.set(minute);
+                    expected.set(minute);
+                }
+            }
+
+            assertEquals(expected.cardinality(), bitmap.cardinality());
+            for (int minute = 0; minute < DAY; minute++) {
+                assertEquals(expected.nextSetBit(minute), bitmap.nextSetBit(minute), "nextSetBit " + minute);
+                assertEquals(Math.min(DAY, expected.nextClearBit(minute)), bitmap.nextClearBit(minute),
+                        "nextClearBit " + minute);
+            }
+
+            int from = random.nextInt(DAY);
+            int to = from + random.nextInt(DAY - from + 1);
+            int next = expected.nextSetBit(from);
+            assertEquals(next >= 0 && next < to, bitmap.anyInRange(from, to), from + "-" + to);
+        }
+    }
+
+    @Test
+    void orMergesMinutes() {
+        PresenceBitmap left = new PresenceBitmap();
+        left.set(5);
+        left.set(700);
+        PresenceBitmap right = new PresenceBitmap();
+        right.set(700);
+        right.set(DAY - 1);
+
+        left.or(right);
+        assertEquals(3, left.cardinality());
+        assertTrue(left.get(5) && left.get(700) && left.get(DAY - 1));
+        assertEquals(2, right.cardinality());
+    }
+
+    @Test
+    void bitStringRoundTripPutsMidnightFirst() {
+        PresenceBitmap bitmap = new PresenceBitmap();
+        bitmap.set(0);
+        bitmap.set(64);
+        bitmap.set(DAY - 1);
+
+        String bits = bitmap.toBitString();
+        assertEquals(DAY, bits.length());
+        assertEquals('1', bits.charAt(0));
+        assertEquals('0', bits.charAt(1));
+        assertEquals('1', bits.charAt(64));
+        assertEquals('1', bits.charAt(DAY - 1));
+
+        PresenceBitmap parsed = PresenceBitmap.fromBitString(bits);
+        assertEquals(bits, parsed.toBitString());
+        assertEquals(3, parsed.cardinality());
+    }
+
+    @Test
+    void rejectsBitStringOfWrongLength() {
+        assertThrows(IllegalArgumentException.class, () -> PresenceBitmap.fromBitString("101"));
+        assertThrows(IllegalArgumentException.class,
+                () -> PresenceBitmap.fromBitString(new PresenceBitmap().toBitString() + "0"));
+    }
+}
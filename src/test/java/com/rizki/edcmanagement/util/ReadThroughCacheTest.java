@@ -0,0 +1,173 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.jupiter.api.Test;
+
+class ReadThroughCacheTest {
+    private static final int KEYS = 8;
+
+    @Test
+    void hitsAfterFirstLoadAndEvictsLeastRecentlyUsed() {
+        AtomicLong loads = new AtomicLong();
+        ReadThroughCache<Integer, String> cache = new ReadThroughCache<>(2);
+
+        cache.get(1, key -> "v" + loads.incrementAndGet());
+        cache.get(2, key -> "v" + loads.incrementAndGet());
+        cache.get(1, key -> "v" + loads.incrementAndGet());
+        cache.get(3, key -> "v" + loads.incrementAndGet());
+        cache.get(1, key -> "v" + loads.incrementAndGet());
+        cache.get(2, key -> "v" + loads.incrementAndGet());
+
+        assertEquals(4, loads.get());
+        ReadThroughCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(1.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void getAllLoadsOnlyMissesInOneCall() {
+        ReadThroughCache<Integer, String> cache = new ReadThroughCache<>(16);
+        cache.get(1, key -> "v1");
+        List<Set<Integer>> loads = new ArrayList<>();
+
+        Map<Integer, String> values = cache.getAll(Arrays.asList(3, 1, 2, 3, 4), keys -> {
+            loads.add(keys);
+            Map<Integer, String> found = new HashMap<>();
+            found.put(2, "v2");
+            found.put(3, "v3");
+            return found;
+        });
+
+        assertEquals(Collections.singletonList(new LinkedHashSet<>(Arrays.asList(3, 2, 4))), loads);
+        assertEquals(3, values.size());
+        assertEquals("v1", values.get(1));
+        assertEquals("v3", values.get(3));
+        assertFalse(values.containsKey(4));
+        assertEquals("v2", cache.get(2, key -> "reloaded"));
+        assertEquals("reloaded", cache.get(4, key -> "reloaded"));
+    }
+
+    @Test
+    void fillThatRacesAnInvalidationIsNotCached() throws Exception {
+        ReadThroughCache<Integer, Long> cache = new ReadThroughCache<>(16);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> slowRead = executor.submit(() -> cache.get(1, key -> {
+                loading.countDown();
+                await(invalidated);
+                return 1L;
+            }));
+
+            loading.await();
+            cache.invalidate(1);
+            invalidated.countDown();
+
+            assertEquals(1L, slowRead.get().longValue());
+            assertEquals(2L, cache.get(1, key -> 2L).longValue());
+            assertEquals(1, cache.getStats().getDiscardedFills());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writers commit a new version of a key and then invalidate it, like updateTerminal does
+     * after commit. A read that starts once the invalidation has returned must see at least
+     * that version, however the reads and slow loads interleave.
+     */
+    @Test
+    void noReadAfterInvalidationSeesAnOlderVersion() throws Exception {
+        AtomicLongArray committed = new AtomicLongArray(KEYS);
+        AtomicLongArray invalidatedVersion = new AtomicLongArray(KEYS);
+        ReadThroughCache<Integer, Long> cache = new ReadThroughCache<>(KEYS / 2);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong staleReads = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int writer = 0; writer < 2; writer++) {
+                int first = writer;
+                tasks.add(executor.submit(() -> {
+                    for (int round = 0; round < 5_000; round++) {
+                        int key = (first + round * 2) % KEYS;
+                        long version = committed.incrementAndGet(key);
+                        cache.invalidate(key);
+                        invalidatedVersion.accumulateAndGet(key, version, Math::max);
+                    }
+                }));
+            }
+            for (int reader = 0; reader < 4; reader++) {
+                int seed = reader;
+                tasks.add(executor.submit(() -> {
+                    int key = seed;
+                    while (running.get()) {
+                        key = (key + 3) % KEYS;
+                        long floor = invalidatedVersion.get(key);
+                        long seen = cache.get(key, k -> {
+                            long version = committed.get(k);
+                            // Widen the window between reading the row and filling the cache
+                            Thread.yield();
+                            return version;
+                        });
+                        reads.incrementAndGet();
+                        if (seen < floor) {
+                            staleReads.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+
+            tasks.get(0).get(30, TimeUnit.SECONDS);
+            tasks.get(1).get(30, TimeUnit.SECONDS);
+            running.set(false);
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        assertTrue(reads.get() > 0);
+        assertEquals(0, staleReads.get());
+        for (int key = 0; key < KEYS; key++) {
+            int k = key;
+            assertEquals(committed.get(key), cache.get(key, x -> committed.get(k)).longValue());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.rizki.edcmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingTest {
+    private static final int CAPACITY = 32;
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<String>(0));
+    }
+
+    @Test
+    void countsExactlyWhileCountersAreFree() {
+        SpaceSaving<String> summary = new SpaceSaving<>(CAPACITY);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            String key = "k" + (i % (CAPACITY - 1));
+            summary.offer(key);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        assertEquals(0, summary.minCount());
+        assertEquals(CAPACITY - 1, summary.size());
+        summary.forEach((key, count, error) -> {
+            assertEquals(exact.get(key).longValue(), count, key);
+            assertEquals(0, error, key);
+        });
+    }
+
+    @Test
+    void boundsHoldOnSkewedStreams() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            SpaceSaving<String> summary = new SpaceSaving<>(CAPACITY);
+            Map<String, Long> exact = new HashMap<>();
+            int keys = 50 + random.nextInt(2_000);
+            int length = 1_000 + random.nextInt(50_000);
+            for (int i = 0; i < length; i++) {
+                String key = "k" + zipf(random, keys);
+                summary.offer(key);
+                exact.merge(key, 1L, Long::sum);
+            }
+
+            assertEquals(length, summary.total());
+            Map<String, Long> tracked = new HashMap<>();
+            summary.forEach((key, count, error) -> {
+                long trueCount = exact.get(key);
+                // Never under the true count, and over it by at most the error
+                assertTrue(count >= trueCount, key + " count " + count + " < " + trueCount);
+                assertTrue(count - error <= trueCount, key + " count - error " + (count - error) + " > " + trueCount);
+                tracked.put(key, count);
+            });
+
+            long minCount = summary.minCount();
+            assertTrue(minCount <= length / CAPACITY, "minCount " + minCount);
+            for (Map.Entry<String, Long> entry : exact.entrySet()) {
+                if (entry.getValue() > length / CAPACITY) {
+                    // Heavy hitters always hold a counter
+                    assertTrue(tracked.containsKey(entry.getKey()), entry.getKey() + " x" + entry.getValue());
+                }
+                if (!tracked.containsKey(entry.getKey())) {
+                    assertTrue(entry.getValue() <= minCount, entry.getKey() + " x" + entry.getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void countersSumToTotal() {
+        SpaceSaving<String> summary = new SpaceSaving<>(CAPACITY);
+        Random random = new Random(5);
+        for (int i = 0; i < 10_000; i++) {
+            summary.offer("k" + random.nextInt(500));
+        }
+
+        long[] sum = new long[1];
+        summary.forEach((key, count, error) -> sum[0] += count);
+        // A taken-over counter keeps the count of the key it replaced
+        assertEquals(summary.total(), sum[0]);
+    }
+
+    @Test
+    void clearStartsOver() {
+        SpaceSaving<String> summary = new SpaceSaving<>(2);
+        summary.offer("a");
+        summary.offer("b");
+        summary.offer("c");
+        summary.clear();
+
+        assertEquals(0, summary.total());
+        assertEquals(0, summary.size());
+        assertEquals(0, summary.minCount());
+        summary.offer("c");
+        summary.forEach((key, count, error) -> {
+            assertEquals("c", key);
+            assertEquals(1, count);
+            assertEquals(0, error);
+        });
+    }
+
+    // Rank in [0, keys) with probability proportional to 1 / (rank + 1)
+    private static int zipf(Random random, int keys) {
+        double harmonic = Math.log(keys) + 0.5772;
+        double target = random.nextDouble() * harmonic;
+        double sum = 0;
+        for (int rank = 0; rank < keys; rank++) {
+            sum += 1.0 / (rank + 1);
+            if (sum >= target) {
+                return rank;
+            }
+        }
+        return keys - 1;
+    }
+}